@@ -11,8 +11,8 @@ package xc.mst.bo.provider;
 
 import java.sql.Date;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import xc.mst.utils.MSTConfiguration;
 
@@ -107,11 +107,11 @@ public class Provider {
 
     protected String granularity = null;
 
-    /** A list of sets the provider supports */
-    private List<Set> sets = new ArrayList<Set>();
+    /** A list of sets the provider supports, copy-on-write like the other lists since providers are cached */
+    private List<Set> sets = new CopyOnWriteArrayList<Set>();
 
     /** A list of formats the provider supports */
-    private List<Format> formats = new ArrayList<Format>();
+    private List<Format> formats = new CopyOnWriteArrayList<Format>();
 
     /** A counter tracking the number of warnings from harvesting the provider */
     private int warnings = 0;
@@ -144,7 +144,59 @@ public class Provider {
      * List of sets the records harvested from this repository belong to.
      * After harvest the records belong to different sets than the ones supported by the repository.
      */
-    private List<Set> harvestedRecordSets = new ArrayList<Set>();
+    private List<Set> harvestedRecordSets = new CopyOnWriteArrayList<Set>();
+
+    public Provider() {
+    }
+
+    /**
+     * Copies a provider, with lists of its own, so the copy can be changed without changing the
+     * original (which may be the DAO's cached provider)
+     * 
+     * @param other
+     *            The provider to copy
+     */
+    public Provider(Provider other) {
+        id = other.id;
+        createdAt = other.createdAt;
+        updatedAt = other.updatedAt;
+        name = other.name;
+        url = other.url;
+        title = other.title;
+        creator = other.creator;
+        subject = other.subject;
+        description = other.description;
+        publisher = other.publisher;
+        contributors = other.contributors;
+        date = other.date;
+        type = other.type;
+        format = other.format;
+        identifier = other.identifier;
+        language = other.language;
+        relation = other.relation;
+        coverage = other.coverage;
+        rights = other.rights;
+        service = other.service;
+        nextListSetsListFormats = other.nextListSetsListFormats;
+        protocolVersion = other.protocolVersion;
+        lastValidationDate = other.lastValidationDate;
+        identify = other.identify;
+        listformats = other.listformats;
+        listsets = other.listsets;
+        granularity = other.granularity;
+        sets = new CopyOnWriteArrayList<Set>(other.sets);
+        formats = new CopyOnWriteArrayList<Format>(other.formats);
+        warnings = other.warnings;
+        errors = other.errors;
+        recordsAdded = other.recordsAdded;
+        recordsReplaced = other.recordsReplaced;
+        lastOaiRequest = other.lastOaiRequest;
+        lastHarvestEndTime = other.lastHarvestEndTime;
+        lastLogReset = other.lastLogReset;
+        logFileName = other.logFileName;
+        numberOfRecordsToHarvest = other.numberOfRecordsToHarvest;
+        harvestedRecordSets = new CopyOnWriteArrayList<Set>(other.harvestedRecordSets);
+    } // end constructor Provider(Provider)
 
     /**
      * Gets provider's ID
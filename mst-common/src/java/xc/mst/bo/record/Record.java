@@ -25,6 +25,7 @@ import xc.mst.bo.provider.Provider;
 import xc.mst.bo.provider.Set;
 import xc.mst.bo.service.Service;
 import xc.mst.manager.record.RecordService;
+import xc.mst.utils.CompressionUtil;
 import xc.mst.utils.MSTConfiguration;
 import xc.mst.utils.TimingLogger;
 import xc.mst.utils.XmlHelper;
@@ -129,6 +130,12 @@ public class Record implements InputRecord, OutputRecord, Comparable<Record> {
      */
     protected String oaiXml = null;
 
+    /**
+     * The record's xml as it was read from the db, if it was stored compressed. It isn't inflated
+     * into oaiXml until someone asks for the xml, and it's dropped as soon as the xml is changed.
+     */
+    protected byte[] compressedOaiXml = null;
+
     /**
      * The harvest schedule name
      */
@@ -203,6 +210,7 @@ public class Record implements InputRecord, OutputRecord, Comparable<Record> {
         dupe.oaiIdentifier = this.oaiIdentifier;
         dupe.oaiXml = this.oaiXml;
         dupe.oaiXmlEl = this.oaiXmlEl;
+        dupe.compressedOaiXml = this.compressedOaiXml;
         dupe.predecessors = this.predecessors;
         dupe.messages = this.messages;
         dupe.type = this.type;
@@ -222,6 +230,9 @@ public class Record implements InputRecord, OutputRecord, Comparable<Record> {
                     this.oaiXml = null;
                 }
             } else if (mode.equals(JDOM_MODE)) {
+                // the element can be changed in place, so the compressed copy can't be trusted after this
+                inflateOaiXml();
+                this.compressedOaiXml = null;
                 if (this.oaiXml != null) {
                     try {
                         TimingLogger.start("getJDomDocument()");
@@ -273,6 +284,7 @@ public class Record implements InputRecord, OutputRecord, Comparable<Record> {
         }
         this.mode = JDOM_MODE;
         this.oaiXmlEl = oaiXmlEl;
+        this.compressedOaiXml = null;
     }
 
     public String getType() {
@@ -493,6 +505,7 @@ public class Record implements InputRecord, OutputRecord, Comparable<Record> {
                             "call Record.setMode(STRING_MODE) before calling this method.");
         }
         this.mode = STRING_MODE;
+        inflateOaiXml();
         return oaiXml;
     }
 
@@ -510,6 +523,34 @@ public class Record implements InputRecord, OutputRecord, Comparable<Record> {
         }
         this.mode = STRING_MODE;
         this.oaiXml = oaiXml;
+        this.compressedOaiXml = null;
+    }
+
+    /**
+     * @return the record's xml exactly as it was read from a compressed records_xml row, or null
+     *         if it wasn't stored compressed or has been changed since
+     */
+    public byte[] getCompressedOaiXml() {
+        return compressedOaiXml;
+    }
+
+    /**
+     * Sets the record's xml from a compressed records_xml row. This puts the record in
+     * STRING_MODE; the xml is inflated the first time getOaiXml (or JDOM_MODE) needs it.
+     */
+    public void setCompressedOaiXml(byte[] compressedOaiXml) {
+        this.mode = STRING_MODE;
+        this.oaiXml = null;
+        this.oaiXmlEl = null;
+        this.compressedOaiXml = compressedOaiXml;
+    }
+
+    protected void inflateOaiXml() {
+        if (this.oaiXml == null && this.compressedOaiXml != null) {
+            TimingLogger.start("inflateOaiXml");
+            this.oaiXml = CompressionUtil.decompress(this.compressedOaiXml);
+            TimingLogger.stop("inflateOaiXml");
+        }
     }
 
     /**
@@ -12,18 +12,21 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
 import xc.mst.utils.Util;
+import xc.mst.utils.metrics.Metric;
 
 /**
  * Requirements this tries to adhere to can be found here:
@@ -110,12 +113,86 @@ public class RecordCounts {
 
     }
 
-    protected Map<String, Map<String, AtomicInteger>> counts = null;
+    // the columns counted for each type, in the order of their sums: INCOMING_STATUS_COLUMN_NAMES,
+    // UNEXPECTED_ERROR, then UPD_PREV_COLUMN_NAMES (new status by previous status)
+    protected static final String[] COLUMNS;
+    // column name (or the status pair keys of UPD_PREV_COLUMN_NAMES) -> its place in COLUMNS
+    protected static final Map<String, Integer> COLUMN_INDEXES = new HashMap<String, Integer>();
+    protected static final int NEW_COLUMNS = 0;
+    protected static final int UPDATE_COLUMNS = 3;
+    protected static final int UPD_PREV_COLUMNS = 7;
+
+    static {
+        List<String> columns = new ArrayList<String>(INCOMING_STATUS_COLUMN_NAMES);
+        columns.add(UNEXPECTED_ERROR);
+        columns.addAll(UPD_PREV_COLUMN_NAMES.values());
+        COLUMNS = columns.toArray(new String[columns.size()]);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            COLUMN_INDEXES.put(COLUMNS[i], i);
+        }
+        for (Map.Entry<String, String> me : UPD_PREV_COLUMN_NAMES.entrySet()) {
+            COLUMN_INDEXES.put(me.getKey(), COLUMN_INDEXES.get(me.getValue()));
+        }
+    }
+
+    /**
+     * The counts of one type. Each thread adds to its own sums (see Metric), so the threads of a
+     * harvest or service count records without locking or contending with each other.
+     */
+    protected static class TypeCounts extends Metric {
+        // the columns which have been counted (or loaded, even as 0). Only set when it isn't
+        // already, so after the first few records it's only ever read.
+        protected final AtomicIntegerArray seen = new AtomicIntegerArray(COLUMNS.length);
+
+        protected TypeCounts(String type) {
+            super(type, COLUMNS.length);
+        }
+
+        protected void add(int column, long n) {
+            addTo(column, n);
+            if (seen.get(column) == 0) {
+                seen.set(column, 1);
+            }
+        }
+
+        /**
+         * @return column name -> count, for the columns which have been counted
+         */
+        protected Map<String, AtomicInteger> getCounts() {
+            long[] sums = snapshot();
+            Map<String, AtomicInteger> counts4type = new LinkedHashMap<String, AtomicInteger>();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (sums[i] != 0 || seen.get(i) != 0) {
+                    counts4type.put(COLUMNS[i], new AtomicInteger((int) sums[i]));
+                }
+            }
+            return counts4type;
+        }
+
+        protected long getCount(int column) {
+            return snapshot()[column];
+        }
+
+        /**
+         * @return the records counted: new and updated, of every status
+         */
+        public long getCount() {
+            long[] sums = snapshot();
+            long count = 0;
+            for (int i = NEW_COLUMNS; i < UPDATE_COLUMNS + 3; i++) {
+                count += sums[i];
+            }
+            return count;
+        }
+    }
+
+    // type -> its counts
+    protected volatile ConcurrentMap<String, TypeCounts> counts = null;
     protected Date harvestStartDate = null;
     protected String incomingOutgoing = null;
 
     public RecordCounts(Date harvestStartDate, String incomingOutgoing) {
-        this.counts = new HashMap<String, Map<String, AtomicInteger>>();
+        this.counts = new ConcurrentHashMap<String, TypeCounts>();
         this.harvestStartDate = harvestStartDate;
         this.incomingOutgoing = incomingOutgoing;
         getCountsByType(RecordCounts.TOTALS);
@@ -129,28 +206,37 @@ public class RecordCounts {
         this.incomingOutgoing = incomingOutgoing;
     }
 
-    protected Map<String, AtomicInteger> getCountsByType(String type) {
+    protected TypeCounts getCountsByType(String type) {
         if (type == null) {
             type = TOTALS;
         }
-        Map<String, AtomicInteger> counts4type = counts.get(type);
+        TypeCounts counts4type = counts.get(type);
         if (counts4type == null) {
-            counts4type = new HashMap<String, AtomicInteger>();
-            counts.put(type, counts4type);
+            counts4type = new TypeCounts(type);
+            TypeCounts existing = counts.putIfAbsent(type, counts4type);
+            if (existing != null) {
+                counts4type = existing;
+            }
         }
         return counts4type;
     }
 
-    protected AtomicInteger getCount(Map<String, AtomicInteger> counts4type, String col_1) {
-        if (UPD_PREV_COLUMN_NAMES.containsKey(col_1)) {
-            col_1 = UPD_PREV_COLUMN_NAMES.get(col_1);
+    /**
+     * Adds n to a column of a type.
+     *
+     * @param type
+     * @param col_1
+     *            one of COLUMNS, or a pair of statuses (new, then previous)
+     */
+    public void add(String type, String col_1, long n) {
+        if (col_1 == null) {
+            throw new RuntimeException("bogus");
         }
-        AtomicInteger ai = counts4type.get(col_1);
-        if (ai == null) {
-            ai = new AtomicInteger(0);
-            counts4type.put(col_1, ai);
+        Integer column = COLUMN_INDEXES.get(col_1);
+        if (column == null) {
+            throw new RuntimeException("bogus column: " + col_1);
         }
-        return ai;
+        getCountsByType(type).add(column, n);
     }
 
     /**
@@ -160,13 +246,23 @@ public class RecordCounts {
      * @param col_1
      */
     public void incr(String type, String col_1) {
-        if (type == null) {
-            type = TOTALS;
-        }
-        if (col_1 == null) {
-            throw new RuntimeException("bogus");
+        add(type, col_1, 1);
+    }
+
+    /**
+     * @return the place of a status among ACTIVE, HELD and DELETED, or -1
+     */
+    protected static int statusIndex(char status) {
+        switch (status) {
+            case Record.ACTIVE:
+                return 0;
+            case Record.HELD:
+                return 1;
+            case Record.DELETED:
+                return 2;
+            default:
+                return -1;
         }
-        getCount(getCountsByType(type), col_1).addAndGet(1);
     }
 
     /**
@@ -214,63 +310,53 @@ public class RecordCounts {
      */
     public void incr(String type, char newStatus, char prevStatus) {
         // LOG.debug("incr - type:"+type+" newStatus:"+newStatus+" prevStatus:"+prevStatus);
-        if (type == null) {
-            type = TOTALS;
-        }
-        String col_1 = null;
-        if (prevStatus == 0 || prevStatus == Record.NULL) {
-            if (newStatus == Record.ACTIVE) {
-                col_1 = RecordCounts.NEW_ACTIVE;
-            } else if (newStatus == Record.HELD) {
-                col_1 = RecordCounts.NEW_HELD;
-            } else if (newStatus == Record.DELETED) {
-                col_1 = RecordCounts.NEW_DELETE;
-            }
-        } else {
-            if (newStatus == Record.ACTIVE) {
-                col_1 = RecordCounts.UPDATE_ACTIVE;
-            } else if (newStatus == Record.HELD) {
-                col_1 = RecordCounts.UPDATE_HELD;
-            } else if (newStatus == Record.DELETED) {
-                col_1 = RecordCounts.UPDATE_DELETE;
-            }
-        }
-        try {
-            incr(type, col_1);
-        } catch (RuntimeException re) {
+        int status = statusIndex(newStatus);
+        if (status == -1) {
             LOG.error("type: " + type);
             LOG.error("newStatus: " + newStatus);
             LOG.error("prevStatus: " + prevStatus);
-            throw re;
+            throw new RuntimeException("bogus");
         }
-        // the other incr:?
-        if (prevStatus != 0 && prevStatus != Record.NULL) {
-            getCount(getCountsByType(type), newStatus + "" + prevStatus).addAndGet(1);
+        TypeCounts counts4type = getCountsByType(type);
+        if (prevStatus == 0 || prevStatus == Record.NULL) {
+            counts4type.add(NEW_COLUMNS + status, 1);
+        } else {
+            counts4type.add(UPDATE_COLUMNS + status, 1);
+            // the other incr
+            int prev = statusIndex(prevStatus);
+            if (prev != -1) {
+                counts4type.add(UPD_PREV_COLUMNS + status * 3 + prev, 1);
+            }
         }
     }
 
+    /**
+     * @return type -> column name -> count, as of now. It's a copy, so changing it doesn't
+     *         change the counts; use add() for that.
+     */
     public Map<String, Map<String, AtomicInteger>> getCounts() {
-        return counts;
+        Map<String, Map<String, AtomicInteger>> copy = new HashMap<String, Map<String, AtomicInteger>>();
+        for (Map.Entry<String, TypeCounts> me : counts.entrySet()) {
+            copy.put(me.getKey(), me.getValue().getCounts());
+        }
+        return copy;
     }
 
     public int getCount(String type, String col) {
-        Map<String, AtomicInteger> counts4type = counts.get(type);
-        if (counts4type != null) {
-            AtomicInteger ai = counts4type.get(col);
-            if (ai != null) {
-                return ai.get();
-            }
+        TypeCounts counts4type = counts.get(type);
+        Integer column = COLUMN_INDEXES.get(col);
+        if (counts4type != null && column != null) {
+            return (int) counts4type.getCount(column);
         }
         return 0;
     }
 
     public int getCount(String type, char status, char prevStatus) {
-        Map<String, AtomicInteger> counts4type = counts.get(type);
-        if (counts4type != null) {
-            AtomicInteger ai = counts4type.get(UPD_PREV_COLUMN_NAMES.get(status + "" + prevStatus));
-            if (ai != null) {
-                return ai.get();
-            }
+        TypeCounts counts4type = counts.get(type);
+        int s = statusIndex(status);
+        int prev = statusIndex(prevStatus);
+        if (counts4type != null && s != -1 && prev != -1) {
+            return (int) counts4type.getCount(UPD_PREV_COLUMNS + s * 3 + prev);
         }
         return 0;
     }
@@ -280,11 +366,12 @@ public class RecordCounts {
     }
 
     public void clear() {
-        this.counts = new HashMap<String, Map<String, AtomicInteger>>();
+        this.counts = new ConcurrentHashMap<String, TypeCounts>();
     }
 
     public String toString(String repoName) {
         StringBuilder sb = new StringBuilder();
+        Map<String, Map<String, AtomicInteger>> counts = getCounts();
 
         // This is for the purpose of making the totals appear last
         List<String> keys = new ArrayList<String>();
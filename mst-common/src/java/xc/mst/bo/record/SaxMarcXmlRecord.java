@@ -1,9 +1,18 @@
 package xc.mst.bo.record;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
+import gnu.trove.TIntObjectHashMap;
+import gnu.trove.TIntObjectProcedure;
+
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.xml.sax.Attributes;
@@ -25,21 +34,27 @@ public class SaxMarcXmlRecord implements ContentHandler {
     private static final Logger LOG = Logger.getLogger(SaxMarcXmlRecord.class);
     private static final List<Field> EMPTY_ARRAY_LIST = new ArrayList<Field>();
 
-    protected static XMLReader xmlReader = null;
+    /**
+     * An XMLReader can only parse one document at a time, so each thread gets its own. They're
+     * expensive enough to create that they're kept for the life of the thread.
+     */
+    protected static ThreadLocal<XMLReader> xmlReader = new ThreadLocal<XMLReader>() {
+        @Override
+        protected XMLReader initialValue() {
+            try {
+                return XMLReaderFactory.createXMLReader();
+            } catch (Throwable t) {
+                Util.getUtil().throwIt(t);
+            }
+            return null;
+        }
+    };
 
     private static final String LEADER = "leader";
     private static final String CONTROL_FIELD = "controlfield";
     private static final String DATA_FIELD = "datafield";
     private static final String SUB_FIELD = "subfield";
 
-    static {
-        try {
-            xmlReader = XMLReaderFactory.createXMLReader();
-        } catch (Throwable t) {
-            Util.getUtil().throwIt(t);
-        }
-    }
-
     public long recordId = -1l;
     protected boolean inTextValueField = false;
     protected Field currentField = null;
@@ -65,21 +80,54 @@ public class SaxMarcXmlRecord implements ContentHandler {
     }
 
     public SaxMarcXmlRecord(String marcXml, String sourceOfRecords) {
-    	this.sourceOfRecords = sourceOfRecords;
+        this(new InputSource(new StringReader(marcXml)), sourceOfRecords);
+    }
+
+    public SaxMarcXmlRecord(String marcXml) {
+    	this(marcXml, null);
+    }
+
+    /**
+     * Parses straight from the stream, so a record read from the db or the network doesn't have
+     * to be turned into a String first. The encoding is taken from the xml declaration.
+     */
+    public SaxMarcXmlRecord(InputStream marcXml, String sourceOfRecords) {
+        this(new InputSource(marcXml), sourceOfRecords);
+    }
+
+    public SaxMarcXmlRecord(InputStream marcXml) {
+        this(marcXml, null);
+    }
+
+    public SaxMarcXmlRecord(byte[] marcXml, String sourceOfRecords) {
+        this(new ByteArrayInputStream(marcXml), sourceOfRecords);
+    }
+
+    public SaxMarcXmlRecord(byte[] marcXml) {
+        this(marcXml, null);
+    }
+
+    /**
+     * For unpack(), which fills in the fields itself.
+     */
+    protected SaxMarcXmlRecord() {
+    }
+
+    protected SaxMarcXmlRecord(InputSource marcXml, String sourceOfRecords) {
+        this.sourceOfRecords = sourceOfRecords;
+        XMLReader reader = xmlReader.get();
         try {
             TimingLogger.start("sax");
-            xmlReader.setContentHandler(this);
-            xmlReader.parse(new InputSource(new StringReader(marcXml)));
+            reader.setContentHandler(this);
+            reader.parse(marcXml);
         } catch (Throwable t) {
             Util.getUtil().throwIt(t);
         } finally {
+            // don't hold on to this record until the thread's next parse
+            reader.setContentHandler(null);
             TimingLogger.stop("sax");
         }
     }
-
-    public SaxMarcXmlRecord(String marcXml) {
-    	this(marcXml, null);
-    }
     
     public void characters(char[] ch, int start, int length)
             throws SAXException {
@@ -413,4 +461,157 @@ public class SaxMarcXmlRecord implements ContentHandler {
     public String getOrgCode() {
         return marcRecord.getOrgCode();
     }
+
+    /**
+     * @return the parsed record packed into a byte array, a small fraction of the size of the
+     *         object graph, from which unpack() gives back an equivalent record far faster than
+     *         parsing the xml again. For holding on to many records at once.
+     */
+    public byte[] pack() {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+            final DataOutputStream dos = new DataOutputStream(baos);
+            writeVarLong(dos, recordId + 1);
+            writeString(dos, sourceOfRecords);
+            writeString(dos, marcRecord.getLeader());
+            writeString(dos, marcRecord.getOrgCode());
+            writeFields(dos, marcRecord.getControlFields(), null);
+            // control fields are also put in the data fields map, as the same lists
+            writeFields(dos, marcRecord.getDataFields(), marcRecord.getControlFields());
+            dos.flush();
+            return baos.toByteArray();
+        } catch (IOException ioe) {
+            Util.getUtil().throwIt(ioe);
+            return null;
+        }
+    }
+
+    public static SaxMarcXmlRecord unpack(byte[] packed) {
+        try {
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(packed));
+            SaxMarcXmlRecord smr = new SaxMarcXmlRecord();
+            smr.recordId = readVarLong(dis) - 1;
+            smr.sourceOfRecords = readString(dis);
+            smr.marcRecord.setLeader(readString(dis));
+            smr.marcRecord.setOrgCode(readString(dis));
+            readFields(dis, smr.marcRecord.getControlFields(), null);
+            readFields(dis, smr.marcRecord.getDataFields(), smr.marcRecord.getControlFields());
+            return smr;
+        } catch (IOException ioe) {
+            Util.getUtil().throwIt(ioe);
+            return null;
+        }
+    }
+
+    /**
+     * writes the map's lists of fields. A list which shared also has under the same tag is
+     * written as just a reference to it.
+     */
+    protected static void writeFields(final DataOutputStream dos, TIntObjectHashMap<List<Field>> fields,
+            final TIntObjectHashMap<List<Field>> shared) throws IOException {
+        writeVarLong(dos, fields.size());
+        final IOException[] error = new IOException[1];
+        fields.forEachEntry(new TIntObjectProcedure<List<Field>>() {
+            public boolean execute(int tag, List<Field> list) {
+                try {
+                    writeVarLong(dos, tag);
+                    if (shared != null && shared.get(tag) == list) {
+                        dos.writeBoolean(true);
+                        return true;
+                    }
+                    dos.writeBoolean(false);
+                    writeVarLong(dos, list.size());
+                    for (Field f : list) {
+                        writeVarLong(dos, f.getTag());
+                        dos.writeChar(f.getInd1());
+                        dos.writeChar(f.getInd2());
+                        writeString(dos, f.getContents());
+                        writeVarLong(dos, f.getSubfields().size());
+                        for (Subfield sf : f.getSubfields()) {
+                            dos.writeChar(sf.getCode());
+                            writeString(dos, sf.getContents());
+                        }
+                    }
+                    return true;
+                } catch (IOException ioe) {
+                    error[0] = ioe;
+                    return false;
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    protected static void readFields(DataInputStream dis, TIntObjectHashMap<List<Field>> fields,
+            TIntObjectHashMap<List<Field>> shared) throws IOException {
+        int numLists = (int) readVarLong(dis);
+        for (int i = 0; i < numLists; i++) {
+            int tag = (int) readVarLong(dis);
+            if (dis.readBoolean()) {
+                fields.put(tag, shared.get(tag));
+                continue;
+            }
+            int numFields = (int) readVarLong(dis);
+            List<Field> list = new ArrayList<Field>(numFields);
+            for (int j = 0; j < numFields; j++) {
+                Field f = new Field();
+                f.setTag((int) readVarLong(dis));
+                f.setInd1(dis.readChar());
+                f.setInd2(dis.readChar());
+                f.setContents(readString(dis));
+                int numSubfields = (int) readVarLong(dis);
+                for (int k = 0; k < numSubfields; k++) {
+                    Subfield sf = new Subfield();
+                    sf.setCode(dis.readChar());
+                    sf.setContents(readString(dis));
+                    f.getSubfields().add(sf);
+                }
+                list.add(f);
+            }
+            fields.put(tag, list);
+        }
+    }
+
+    // non-negative numbers, 7 bits a byte
+    protected static void writeVarLong(DataOutputStream dos, long l) throws IOException {
+        while ((l & ~0x7FL) != 0) {
+            dos.writeByte((int) ((l & 0x7F) | 0x80));
+            l >>>= 7;
+        }
+        dos.writeByte((int) l);
+    }
+
+    protected static long readVarLong(DataInputStream dis) throws IOException {
+        long l = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = dis.readUnsignedByte();
+            l |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return l;
+            }
+        }
+    }
+
+    // utf-8, preceded by its length + 1 (0 for null)
+    protected static void writeString(DataOutputStream dos, String s) throws IOException {
+        if (s == null) {
+            writeVarLong(dos, 0);
+            return;
+        }
+        byte[] bytes = s.getBytes("UTF-8");
+        writeVarLong(dos, bytes.length + 1);
+        dos.write(bytes);
+    }
+
+    protected static String readString(DataInputStream dis) throws IOException {
+        int len = (int) readVarLong(dis) - 1;
+        if (len < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        dis.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
 }
\ No newline at end of file
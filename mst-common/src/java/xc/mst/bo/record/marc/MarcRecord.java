@@ -15,8 +15,8 @@ public class MarcRecord {
      * tag
      * 1 ->
      */
-    protected TIntObjectHashMap controlFields = new TIntObjectHashMap();
-    protected TIntObjectHashMap dataFields = new TIntObjectHashMap();
+    protected TIntObjectHashMap<List<Field>> controlFields = new TIntObjectHashMap<List<Field>>();
+    protected TIntObjectHashMap<List<Field>> dataFields = new TIntObjectHashMap<List<Field>>();
 
     public String getLeader() {
         return leader;
@@ -34,19 +34,19 @@ public class MarcRecord {
         this.orgCode = orgCode;
     }
 
-    public TIntObjectHashMap getControlFields() {
+    public TIntObjectHashMap<List<Field>> getControlFields() {
         return controlFields;
     }
 
-    public void setControlFields(TIntObjectHashMap controlFields) {
+    public void setControlFields(TIntObjectHashMap<List<Field>> controlFields) {
         this.controlFields = controlFields;
     }
 
-    public TIntObjectHashMap getDataFields() {
+    public TIntObjectHashMap<List<Field>> getDataFields() {
         return dataFields;
     }
 
-    public void setDataFields(TIntObjectHashMap dataFields) {
+    public void setDataFields(TIntObjectHashMap<List<Field>> dataFields) {
         this.dataFields = dataFields;
     }
 
@@ -57,10 +57,8 @@ public class MarcRecord {
         sb.append(" leader:<" + leader + ">");
         sb.append("\n");
         sb.append(" controlFields: [");
-        getControlFields().forEachEntry(new TIntObjectProcedure() {
-            @SuppressWarnings("unchecked")
-            public boolean execute(int key, Object value) {
-                List<Field> l = (List<Field>) value;
+        getControlFields().forEachEntry(new TIntObjectProcedure<List<Field>>() {
+            public boolean execute(int key, List<Field> l) {
                 for (Field f : l) {
                     sb.append("\n");
                     sb.append(" tag:" + f.getTag());
@@ -73,10 +71,8 @@ public class MarcRecord {
         sb.append(" ]");
         sb.append("\n");
         sb.append(" dataFields: [");
-        getDataFields().forEachEntry(new TIntObjectProcedure() {
-            @SuppressWarnings("unchecked")
-            public boolean execute(int key, Object value) {
-                List<Field> l = (List<Field>) value;
+        getDataFields().forEachEntry(new TIntObjectProcedure<List<Field>>() {
+            public boolean execute(int key, List<Field> l) {
                 for (Field f : l) {
                     sb.append("\n");
                     sb.append(" tag:" + f.getTag());
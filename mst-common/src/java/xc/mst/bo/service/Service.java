@@ -11,8 +11,8 @@ package xc.mst.bo.service;
 
 import java.sql.Date;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import xc.mst.bo.provider.Format;
 import xc.mst.bo.provider.Set;
@@ -44,19 +44,20 @@ public class Service {
     private String className = null;
 
     /**
-     * A list of formats which the service accepts as input
+     * A list of formats which the service accepts as input. This and the other lists are
+     * copy-on-write because the DAO's cached services are shared between threads.
      */
-    private List<Format> inputFormats = new ArrayList<Format>();
+    private List<Format> inputFormats = new CopyOnWriteArrayList<Format>();
 
     /**
      * A list of sets which the service outputs
      */
-    private List<Set> outputSets = new ArrayList<Set>();
+    private List<Set> outputSets = new CopyOnWriteArrayList<Set>();
 
     /**
      * A list of formats which the service outputs
      */
-    private List<Format> outputFormats = new ArrayList<Format>();
+    private List<Format> outputFormats = new CopyOnWriteArrayList<Format>();
 
     /**
      * The number of warnings the service has generated
@@ -135,6 +136,42 @@ public class Service {
      */
     private boolean deleted = false;
 
+    public Service() {
+    }
+
+    /**
+     * Copies a service, with lists of its own, so the copy can be changed without changing the
+     * original (which may be the DAO's cached service)
+     * 
+     * @param other
+     *            The service to copy
+     */
+    public Service(Service other) {
+        metadataService = other.metadataService;
+        id = other.id;
+        serviceName = other.serviceName;
+        className = other.className;
+        inputFormats = new CopyOnWriteArrayList<Format>(other.inputFormats);
+        outputSets = new CopyOnWriteArrayList<Set>(other.outputSets);
+        outputFormats = new CopyOnWriteArrayList<Format>(other.outputFormats);
+        warnings = other.warnings;
+        errors = other.errors;
+        inputRecordCount = other.inputRecordCount;
+        outputRecordCount = other.outputRecordCount;
+        lastLogReset = other.lastLogReset;
+        logFileName = other.logFileName;
+        serviceLastModified = other.serviceLastModified;
+        harvestOutWarnings = other.harvestOutWarnings;
+        harvestOutErrors = other.harvestOutErrors;
+        harvestOutRecordsAvailable = other.harvestOutRecordsAvailable;
+        numberOfHarvests = other.numberOfHarvests;
+        harvestOutLastLogReset = other.harvestOutLastLogReset;
+        harvestOutLogFileName = other.harvestOutLogFileName;
+        status = other.status;
+        version = other.version;
+        deleted = other.deleted;
+    } // end constructor Service(Service)
+
     public MetadataService getMetadataService() {
         return metadataService;
     }
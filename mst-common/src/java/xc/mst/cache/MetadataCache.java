@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import xc.mst.utils.metrics.Counter;
+import xc.mst.utils.metrics.Metrics;
+
+/**
+ * A read-mostly cache of reference data (formats, sets, providers, services) looked up by ID and
+ * by a name such as a setSpec. The DAO which owns the table fills it as rows are read, warms it with
+ * getAll() and invalidates a row whenever it writes to it, so per-record code paths can look these
+ * up as often as they like without going to the database.
+ *
+ * Lookups and invalidation are lock free. Hits and misses are counted as the metrics
+ * cache.&lt;name&gt;.hits and cache.&lt;name&gt;.misses (see Metrics).
+ *
+ * The cached objects are shared unless the cache overrides copy(), so callers must not change one
+ * without writing it back through its DAO. Caches of objects which callers edit in place (providers,
+ * services) override copy() to keep a private copy and hand out copies of it.
+ */
+public abstract class MetadataCache<V> {
+
+    protected String name = null;
+
+    protected ConcurrentMap<Integer, V> byId = new ConcurrentHashMap<Integer, V>();
+    protected ConcurrentMap<String, V> byKey = new ConcurrentHashMap<String, V>();
+
+    protected Counter hits = null;
+    protected Counter misses = null;
+
+    public MetadataCache(String name) {
+        this.name = name;
+        this.hits = Metrics.counter("cache." + name + ".hits");
+        this.misses = Metrics.counter("cache." + name + ".misses");
+    }
+
+    /**
+     * @return the ID the value is cached under
+     */
+    protected abstract int getId(V value);
+
+    /**
+     * @return the name the value is cached under, or null if it can't be looked up by name
+     */
+    protected abstract String getKey(V value);
+
+    /**
+     * @return the value to cache for a value being put, and to return for a cached value being
+     *         looked up. By default the value itself, so it's shared.
+     */
+    protected V copy(V value) {
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the cached value with this ID, or null if it has to be read from the database
+     */
+    public V get(int id) {
+        return count(byId.get(id));
+    }
+
+    /**
+     * @return the cached value with this name, or null if it has to be read from the database
+     */
+    public V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        V value = byKey.get(key);
+        // renamed since it was cached
+        if (value != null && !key.equals(getKey(value))) {
+            byKey.remove(key, value);
+            value = null;
+        }
+        return count(value);
+    }
+
+    protected V count(V value) {
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(value);
+    }
+
+    public void put(V value) {
+        if (value == null) {
+            return;
+        }
+        value = copy(value);
+        byId.put(getId(value), value);
+        String key = getKey(value);
+        if (key != null && key.length() > 0) {
+            byKey.put(key, value);
+        }
+    }
+
+    public void putAll(Collection<? extends V> values) {
+        for (V value : values) {
+            put(value);
+        }
+    }
+
+    /**
+     * Drops the value with this ID. Call it after writing the row, so a reader can't cache the
+     * old row again in between.
+     */
+    public void remove(int id) {
+        V value = byId.remove(id);
+        if (value != null) {
+            String key = getKey(value);
+            if (key != null) {
+                byKey.remove(key, value);
+            }
+        }
+    }
+
+    /**
+     * Drops the value, under its ID as well as its current and cached names.
+     */
+    public void remove(V value) {
+        if (value == null) {
+            return;
+        }
+        remove(getId(value));
+        String key = getKey(value);
+        if (key != null) {
+            byKey.remove(key);
+        }
+    }
+
+    public void clear() {
+        byId.clear();
+        byKey.clear();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public long getHits() {
+        return hits.getCount();
+    }
+
+    public long getMisses() {
+        return misses.getCount();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache since the metrics were last reset
+     */
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public String toString() {
+        return "cache." + name + ": " + size() + " cached, " + getHits() + " hits, " + getMisses() + " misses";
+    }
+}
@@ -9,6 +9,10 @@
 
 package xc.mst.dao;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,8 +22,13 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.hibernate.SessionFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.orm.hibernate3.HibernateTemplate;
 
 import xc.mst.dao.harvest.HarvestDAO;
@@ -80,6 +89,9 @@ public class BaseDAO {
 
     protected Util util = null;
 
+    // the most ids put into one "record_id in (...)"
+    protected final static int IN_CLAUSE_SIZE = 1000;
+
     public void init() {
     }
 
@@ -149,6 +161,39 @@ public class BaseDAO {
         return tableExists(allTables, tableName);
     }
 
+    /**
+     * Runs an insert on a pooled connection and returns the auto-increment id it generated.
+     * 
+     * @return the generated id, or -1 if no row was inserted
+     */
+    protected long insertForKey(final String sql, final Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int rows = this.jdbcTemplate.update(new PreparedStatementCreator() {
+            public PreparedStatement createPreparedStatement(Connection conn) throws SQLException {
+                PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                for (int i = 0; i < args.length; i++) {
+                    StatementCreatorUtils.setParameterValue(ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, args[i]);
+                }
+                return ps;
+            }
+        }, keyHolder);
+        if (rows == 0 || keyHolder.getKey() == null) {
+            return -1;
+        }
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * @return n comma-separated ?s, for an "in (...)" of n values
+     */
+    protected String getPlaceholders(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
     public List<String> getTablesWithPrefix(String prefix) {
         List<String> tablesWithPrefix = new ArrayList<String>();
         try {
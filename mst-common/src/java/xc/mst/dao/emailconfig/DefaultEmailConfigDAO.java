@@ -9,12 +9,14 @@
 
 package xc.mst.dao.emailconfig;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
 
 import xc.mst.bo.emailconfig.EmailConfig;
-import xc.mst.dao.DBConnectionResetException;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 
@@ -25,188 +27,113 @@ import xc.mst.dao.DatabaseConfigException;
  */
 public class DefaultEmailConfigDAO extends EmailConfigDAO {
     /**
-     * A PreparedStatement to get an email server from the database by its ID
+     * SQL to get the email server configuration
      */
-    private static PreparedStatement psGetConfiguration = null;
+    private static final String GET_CONFIGURATION_SQL =
+            "SELECT " + COL_EMAIL_CONFIG_ID + ", " +
+                        COL_EMAIL_SERVER_ADDRESS + ", " +
+                        COL_PORT_NUMBER + ", " +
+                        COL_FROM_ADDRESS + ", " +
+                        COL_PASSWORD + ", " +
+                        COL_ENCRYPTED_CONNECTION + ", " +
+                        COL_TIMEOUT + ", " +
+                        COL_FORGOTTEN_PASSWORD_LINK + " " +
+            "FROM " + TABLE_NAME;
 
     /**
-     * A PreparedStatement to update an email server in the database
+     * SQL to update the email server configuration
      */
-    private static PreparedStatement psSetConfiguration = null;
+    private static final String SET_CONFIGURATION_SQL =
+            "UPDATE " + TABLE_NAME + " SET " + COL_EMAIL_SERVER_ADDRESS + "=?, " +
+                                               COL_PORT_NUMBER + "=?, " +
+                                               COL_FROM_ADDRESS + "=?, " +
+                                               COL_PASSWORD + "=?, " +
+                                               COL_ENCRYPTED_CONNECTION + "=?, " +
+                                               COL_TIMEOUT + "=?, " +
+                                               COL_FORGOTTEN_PASSWORD_LINK + "=?";
 
     /**
-     * Lock to synchronize access to the get by ID PreparedStatement
+     * SQL to insert the email server configuration when there isn't one yet
      */
-    private static Object psGetConfigurationLock = new Object();
-
-    /**
-     * Lock to synchronize access to the update PreparedStatement
-     */
-    private static Object psSetConfigurationLock = new Object();
+    private static final String INSERT_SQL =
+            "INSERT INTO " + TABLE_NAME + " (" + COL_EMAIL_SERVER_ADDRESS + ", " +
+                                                 COL_PORT_NUMBER + ", " +
+                                                 COL_FROM_ADDRESS + ", " +
+                                                 COL_PASSWORD + ", " +
+                                                 COL_ENCRYPTED_CONNECTION + ", " +
+                                                 COL_TIMEOUT + ", " +
+                                                 COL_FORGOTTEN_PASSWORD_LINK + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
     @Override
     public EmailConfig getConfiguration() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the email server configuration");
 
-        synchronized (psGetConfigurationLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the email server configuration");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get the email configuration was not defined, create it
-                if (psGetConfiguration == null || dbConnectionManager.isClosed(psGetConfiguration)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_EMAIL_CONFIG_ID + ", " +
-                                                   COL_EMAIL_SERVER_ADDRESS + ", " +
-                                                   COL_PORT_NUMBER + ", " +
-                                                   COL_FROM_ADDRESS + ", " +
-                                                   COL_PASSWORD + ", " +
-                                                   COL_ENCRYPTED_CONNECTION + ", " +
-                                                   COL_TIMEOUT + ", " +
-                                                   COL_FORGOTTEN_PASSWORD_LINK + " " +
-                                       "FROM " + TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get email configuration\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetConfiguration = dbConnectionManager.prepareStatement(selectSql, psGetConfiguration);
-                } // end if(get configuration PreparedStatement not defined)
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetConfiguration);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the email configuration
-                    EmailConfig emailconfig = new EmailConfig();
-
-                    // Set the fields on the email configuration
-                    emailconfig.setEmailConfigId(results.getInt(1));
-                    emailconfig.setEmailServerAddress(results.getString(2));
-                    emailconfig.setPortNumber(results.getInt(3));
-                    emailconfig.setFromAddress(results.getString(4));
-                    emailconfig.setPassword(results.getString(5));
-                    emailconfig.setEncryptedConnection(results.getString(6));
-                    emailconfig.setTimeout(results.getLong(7));
-                    emailconfig.setForgottenPasswordLink(results.getBoolean(8));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the email configuration in the database.");
-
-                    // Return the email configuration
-                    return emailconfig;
-                } // end if(result found)
+        try {
+            List<EmailConfig> emailconfigs = jdbcTemplate.query(GET_CONFIGURATION_SQL, new EmailConfigMapper());
 
+            if (emailconfigs.isEmpty()) {
                 if (log.isDebugEnabled())
                     log.debug("The email configuration was not found in the database.");
 
                 return null;
-            } // end try(get the row)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the email server configuration", e);
+            }
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
+            if (log.isDebugEnabled())
+                log.debug("Found the email configuration in the database.");
+
+            return emailconfigs.get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the email server configuration", e);
 
-                log.info("Re executing the query that failed ");
-                return getConfiguration();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    } // end method getById(int)
+            return null;
+        }
+    } // end method getConfiguration()
 
     @Override
     public boolean setConfiguration(EmailConfig emailconfig) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Validate the fields on the passed EmailConfig Object
         validateFields(emailconfig, false, true);
 
-        synchronized (psSetConfigurationLock) {
-            if (log.isDebugEnabled())
-                log.debug("Setting the email server configuration.");
-
-            try {
-                // If the PreparedStatement to update the email configuration was not defined, create it
-                if (psSetConfiguration == null || dbConnectionManager.isClosed(psSetConfiguration)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + TABLE_NAME + " SET " + COL_EMAIL_SERVER_ADDRESS + "=?, " +
-                                                                          COL_PORT_NUMBER + "=?, " +
-                                                                          COL_FROM_ADDRESS + "=?, " +
-                                                                          COL_PASSWORD + "=?, " +
-                                                                          COL_ENCRYPTED_CONNECTION + "=?, " +
-                                                                          COL_TIMEOUT + "=?, " +
-                                                                          COL_FORGOTTEN_PASSWORD_LINK + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"update email server config\" PreparedStatement from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psSetConfiguration = dbConnectionManager.prepareStatement(updateSql, psSetConfiguration);
-                } // / end if(update PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psSetConfiguration.setString(1, emailconfig.getEmailServerAddress());
-                psSetConfiguration.setInt(2, emailconfig.getPortNumber());
-                psSetConfiguration.setString(3, emailconfig.getFromAddress());
-                psSetConfiguration.setString(4, emailconfig.getPassword());
-                psSetConfiguration.setString(5, emailconfig.getEncryptedConnection());
-                psSetConfiguration.setLong(6, emailconfig.getTimeout());
-                psSetConfiguration.setBoolean(7, emailconfig.getForgottenPasswordLink());
-
-                // Execute the update statement. If nothing was updated we need to insert instead of update
-                if (dbConnectionManager.executeUpdate(psSetConfiguration) == 0) {
-                    String insertSql = "INSERT INTO " + TABLE_NAME + " (" + COL_EMAIL_SERVER_ADDRESS + ", " +
-                                                                            COL_PORT_NUMBER + ", " +
-                                                                            COL_FROM_ADDRESS + ", " +
-                                                                            COL_PASSWORD + ", " +
-                                                                            COL_ENCRYPTED_CONNECTION + ", " +
-                                                                            COL_TIMEOUT + ", " +
-                                                                            COL_FORGOTTEN_PASSWORD_LINK + ") " +
-                                       "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-                    PreparedStatement psInsert = dbConnectionManager.prepareStatement(insertSql, null);
-
-                    // Set the parameters on the insert statement
-                    psInsert.setString(1, emailconfig.getEmailServerAddress());
-                    psInsert.setInt(2, emailconfig.getPortNumber());
-                    psInsert.setString(3, emailconfig.getFromAddress());
-                    psInsert.setString(4, emailconfig.getPassword());
-                    psInsert.setString(5, emailconfig.getEncryptedConnection());
-                    psInsert.setLong(6, emailconfig.getTimeout());
-                    psInsert.setBoolean(7, emailconfig.getForgottenPasswordLink());
-
-                    boolean result = psInsert.executeUpdate() > 0;
-                    psInsert.close();
-                    return result;
-                }
-
-                return false;
-            } // end try(set the email configuration)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the email server configuration.", e);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-
-                log.info("Re executing the query that failed ");
-                return setConfiguration(emailconfig);
-            }
-        } // end synchronized
+        if (log.isDebugEnabled())
+            log.debug("Setting the email server configuration.");
+
+        Object[] args = new Object[] { emailconfig.getEmailServerAddress(),
+                                       emailconfig.getPortNumber(),
+                                       emailconfig.getFromAddress(),
+                                       emailconfig.getPassword(),
+                                       emailconfig.getEncryptedConnection(),
+                                       emailconfig.getTimeout(),
+                                       emailconfig.getForgottenPasswordLink() };
+
+        try {
+            // If nothing was updated we need to insert instead of update
+            if (jdbcTemplate.update(SET_CONFIGURATION_SQL, args) == 0)
+                return jdbcTemplate.update(INSERT_SQL, args) > 0;
+
+            return true;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the email server configuration.", e);
+
+            return false;
+        }
     } // end method setConfiguration(EmailConfig)
+
+    private static final class EmailConfigMapper implements RowMapper<EmailConfig> {
+        public EmailConfig mapRow(ResultSet results, int rowNum) throws SQLException {
+            EmailConfig emailconfig = new EmailConfig();
+
+            emailconfig.setEmailConfigId(results.getInt(1));
+            emailconfig.setEmailServerAddress(results.getString(2));
+            emailconfig.setPortNumber(results.getInt(3));
+            emailconfig.setFromAddress(results.getString(4));
+            emailconfig.setPassword(results.getString(5));
+            emailconfig.setEncryptedConnection(results.getString(6));
+            emailconfig.setTimeout(results.getLong(7));
+            emailconfig.setForgottenPasswordLink(results.getBoolean(8));
+
+            return emailconfig;
+        }
+    }
 } // end DefaultEmailConfigDAO class
@@ -16,7 +16,6 @@ import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Data Access Object for the email config table
@@ -29,11 +28,6 @@ public abstract class EmailConfigDAO extends BaseDAO {
      */
     protected static Logger log = Logger.getLogger(Constants.LOGGER_GENERAL);
 
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the database table we're interacting with
      */
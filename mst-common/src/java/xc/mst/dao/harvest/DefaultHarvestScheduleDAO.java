@@ -10,21 +10,21 @@
 package xc.mst.dao.harvest;
 
 import java.sql.Date;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
 
 import xc.mst.bo.harvest.HarvestSchedule;
 import xc.mst.bo.harvest.HarvestScheduleStep;
 import xc.mst.bo.provider.Format;
+import xc.mst.bo.provider.Provider;
 import xc.mst.bo.provider.Set;
 import xc.mst.constants.Status;
-import xc.mst.dao.DBConnectionResetException;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 
@@ -34,1293 +34,481 @@ import xc.mst.dao.DatabaseConfigException;
  * @author Eric Osisek
  */
 public class DefaultHarvestScheduleDAO extends HarvestScheduleDAO {
-
     /**
-     * A PreparedStatement to get all harvest schedules in the database
+     * The columns of a harvest schedule, as read by HARVEST_SCHEDULE_MAPPER
      */
-    private static PreparedStatement psGetAll = null;
+    private static final String COLUMNS_SQL =
+            "SELECT " + HARVEST_SCHEDULES_TABLE_NAME + "." + COL_HARVEST_SCHEDULE_ID + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_SCHEDULE_NAME + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_RECURRENCE + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_PROVIDER_ID + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_START_DATE + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_END_DATE + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_MINUTE + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_DAY_OF_WEEK + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_HOUR + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_NOTIFY_EMAIL + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_STATUS + ", " +
+                        HARVEST_SCHEDULES_TABLE_NAME + "." + COL_REQUEST + " ";
 
     /**
-     * A PreparedStatement to get a harvest schedule from the database by its ID
+     * SQL to get all harvest schedules in the database
      */
-    private static PreparedStatement psGetById = null;
+    private static final String SELECT_SQL = COLUMNS_SQL + "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " ";
 
     /**
-     * A PreparedStatement to get a harvest schedule from the database by its name
+     * SQL to get all harvest schedules in the database along with the names of their providers, for sorting on
      */
-    private static PreparedStatement psGetByName = null;
+    private static final String SELECT_WITH_PROVIDER_SQL =
+            COLUMNS_SQL +
+            "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
+            "JOIN " + PROVIDERS_TABLE_NAME + " ON " + PROVIDERS_TABLE_NAME + "." + COL_PROVIDER_ID + "=" + HARVEST_SCHEDULES_TABLE_NAME + "." + COL_PROVIDER_ID + " ";
 
     /**
-     * A PreparedStatement to get a harvest schedule from the database by its Provider ID
+     * SQL to get a harvest schedule from the database by its ID
      */
-    private static PreparedStatement psGetByProviderId = null;
+    private static final String GET_BY_ID_SQL = SELECT_SQL + "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
 
     /**
-     * A PreparedStatement to get harvest schedules from the database by their hour, day of week, and minute
+     * SQL to get a harvest schedule from the database by its name
      */
-    private static PreparedStatement psGetByTime = null;
+    private static final String GET_BY_NAME_SQL = SELECT_SQL + "WHERE " + COL_SCHEDULE_NAME + "=?";
 
     /**
-     * A PreparedStatement to insert a harvest Schedule into the database
+     * SQL to get a harvest schedule from the database by its Provider ID
      */
-    private static PreparedStatement psInsert = null;
+    private static final String GET_BY_PROVIDER_ID_SQL = SELECT_SQL + "WHERE " + COL_PROVIDER_ID + "=?";
 
     /**
-     * A PreparedStatement to update a harvest schedule in the database
+     * SQL to get harvest schedules from the database by their hour, day of week, and minute
      */
-    private static PreparedStatement psUpdate = null;
+    private static final String GET_BY_TIME_SQL =
+            SELECT_SQL +
+            "WHERE (" + COL_START_DATE + " IS NULL OR " + COL_START_DATE + "<=?) " +
+            "AND (" + COL_END_DATE + " IS NULL OR " + COL_END_DATE + ">=?) " +
+            "AND ((" + COL_MINUTE + "=? AND " + COL_HOUR + "=? AND " + COL_DAY_OF_WEEK + "=?)" +
+                      "OR (" + COL_MINUTE + "=? AND " + COL_HOUR + "=? AND " + COL_DAY_OF_WEEK + "=0)" +
+                      "OR (" + COL_MINUTE + "=? AND " + COL_HOUR + "=-1 AND " + COL_DAY_OF_WEEK + "=0))";
 
     /**
-     * A PreparedStatement to delete a harvest schedule from the database
+     * SQL to insert a harvest Schedule into the database
      */
-    private static PreparedStatement psDelete = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + HARVEST_SCHEDULES_TABLE_NAME + " (" + COL_SCHEDULE_NAME + ", " +
+                                                                 COL_RECURRENCE + ", " +
+                                                                 COL_PROVIDER_ID + ", " +
+                                                                 COL_START_DATE + ", " +
+                                                                 COL_END_DATE + ", " +
+                                                                 COL_MINUTE + ", " +
+                                                                 COL_DAY_OF_WEEK + ", " +
+                                                                 COL_HOUR + ", " +
+                                                                 COL_NOTIFY_EMAIL + ", " +
+                                                                 COL_STATUS + ", " +
+                                                                 COL_REQUEST + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     /**
-     * Lock to synchronize access to the get all PreparedStatement
+     * SQL to update a harvest schedule in the database
      */
-    private static Object psGetAllLock = new Object();
+    private static final String UPDATE_SQL =
+            "UPDATE " + HARVEST_SCHEDULES_TABLE_NAME + " SET " + COL_SCHEDULE_NAME + "=?, " +
+                                                               COL_RECURRENCE + "=?, " +
+                                                               COL_PROVIDER_ID + "=?, " +
+                                                               COL_START_DATE + "=?, " +
+                                                               COL_END_DATE + "=?, " +
+                                                               COL_MINUTE + "=?, " +
+                                                               COL_DAY_OF_WEEK + "=?, " +
+                                                               COL_HOUR + "=?, " +
+                                                               COL_NOTIFY_EMAIL + "=?, " +
+                                                               COL_STATUS + "=?, " +
+                                                               COL_REQUEST + "=? " +
+            "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
 
     /**
-     * Lock to synchronize access to the get by ID PreparedStatement
+     * SQL to delete a harvest schedule from the database
      */
-    private static Object psGetByIdLock = new Object();
+    private static final String DELETE_SQL =
+            "DELETE FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
+            "WHERE " + COL_HARVEST_SCHEDULE_ID + " = ? ";
 
     /**
-     * Lock to synchronize access to the get by name PreparedStatement
+     * The pseudo-column the harvest schedules page sorts on to order schedules by their provider's name
      */
-    private static Object psGetByNameLock = new Object();
+    private static final String PROVIDER_NAME_SORT = "ProviderName";
 
     /**
-     * Lock to synchronize access to the get by provider ID PreparedStatement
+     * Builds a HarvestSchedule from the columns in COLUMNS_SQL. The provider only has its ID set
+     * (or is null for an ID of 0); loadReferences() fills in the rest once the connection has been given back.
      */
-    private static Object psGetByProviderIdLock = new Object();
+    private static final RowMapper<HarvestSchedule> HARVEST_SCHEDULE_MAPPER = new RowMapper<HarvestSchedule>() {
+        public HarvestSchedule mapRow(ResultSet results, int rowNum) throws SQLException {
+            HarvestSchedule harvestSchedule = new HarvestSchedule();
+
+            harvestSchedule.setId(results.getInt(1));
+            harvestSchedule.setScheduleName(results.getString(2));
+            harvestSchedule.setRecurrence(results.getString(3));
+
+            int providerId = results.getInt(4);
+            if (providerId != 0) {
+                Provider provider = new Provider();
+                provider.setId(providerId);
+                harvestSchedule.setProvider(provider);
+            }
 
-    /**
-     * Lock to synchronize access to the get by time PreparedStatement
-     */
-    private static Object psGetByTimeLock = new Object();
+            harvestSchedule.setStartDate(results.getDate(5));
+            harvestSchedule.setEndDate(results.getDate(6));
+            harvestSchedule.setMinute(results.getInt(7));
+            harvestSchedule.setDayOfWeek(results.getInt(8));
+            harvestSchedule.setHour(results.getInt(9));
+            harvestSchedule.setNotifyEmail(results.getString(10));
+            String statusStr = results.getString(11);
+            if (StringUtils.isEmpty(statusStr)) {
+                harvestSchedule.setStatus(null);
+            } else {
+                harvestSchedule.setStatus(Status.valueOf(statusStr));
+            }
+            harvestSchedule.setRequest(results.getString(12));
 
-    /**
-     * Lock to synchronize access to the insert PreparedStatement
-     */
-    private static Object psInsertLock = new Object();
+            return harvestSchedule;
+        }
+    };
 
     /**
-     * Lock to synchronize access to the update PreparedStatement
+     * Replaces the ID-only providers set by HARVEST_SCHEDULE_MAPPER and optionally loads the steps
+     * 
+     * @param fullProvider
+     *            true to load the full providers, false to load only their basic fields
+     * @param steps
+     *            true to load each schedule's steps along with their sets and formats
      */
-    private static Object psUpdateLock = new Object();
+    private List<HarvestSchedule> loadReferences(List<HarvestSchedule> harvestSchedules, boolean fullProvider, boolean steps) throws DatabaseConfigException {
+        for (HarvestSchedule harvestSchedule : harvestSchedules) {
+            if (harvestSchedule.getProvider() != null) {
+                int providerId = harvestSchedule.getProvider().getId();
+                harvestSchedule.setProvider(fullProvider ? getProviderDAO().getById(providerId) : getProviderDAO().loadBasicProvider(providerId));
+            }
+
+            if (steps) {
+                harvestSchedule.setSteps(getHarvestScheduleStepDAO().getStepsForSchedule(harvestSchedule.getId()));
+
+                for (HarvestScheduleStep step : harvestSchedule.getSteps()) {
+                    harvestSchedule.addSet(step.getSet());
+                    harvestSchedule.addFormat(step.getFormat());
+                } // end loop over steps
+            }
+        }
+
+        return harvestSchedules;
+    }
 
     /**
-     * Lock to synchronize access to the delete PreparedStatement
+     * Gets a single harvest schedule, or null if there was none
      */
-    private static Object psDeleteLock = new Object();
+    private HarvestSchedule getOne(String sql, Object arg, String description, boolean fullProvider, boolean steps) throws DatabaseConfigException {
+        try {
+            List<HarvestSchedule> harvestSchedules = jdbcTemplate.query(sql, HARVEST_SCHEDULE_MAPPER, arg);
+
+            if (harvestSchedules.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The harvest schedule with " + description + " was not found in the database.");
+
+                return null;
+            }
+
+            if (log.isDebugEnabled())
+                log.debug("Found the harvest schedule with " + description + " in the database.");
+
+            return loadReferences(harvestSchedules.subList(0, 1), fullProvider, steps).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedule with " + description, e);
+
+            return null;
+        }
+    }
 
     @Override
     public List<HarvestSchedule> getAll() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting all harvest schedules");
+
+        try {
+            List<HarvestSchedule> harvestSchedules = loadReferences(jdbcTemplate.query(SELECT_SQL, HARVEST_SCHEDULE_MAPPER), false, false);
 
-        synchronized (psGetAllLock) {
             if (log.isDebugEnabled())
-                log.debug("Getting all harvest schedules");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // A list to hold the results of the query
-            List<HarvestSchedule> harvestSchedules = new ArrayList<HarvestSchedule>();
-
-            try {
-                // If the PreparedStatement to get all harvest schedules was not defined, create it
-                if (psGetAll == null || dbConnectionManager.isClosed(psGetAll)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get all harvest schedules\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetAll = dbConnectionManager.prepareStatement(selectSql, psGetAll);
-                } // end if(get all PreparedStatement wasn't defined)
-
-                // Get the results of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAll);
-
-                // If any results were returned
-                while (results.next()) {
-                    // The Object which will contain data on the user
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the user
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().loadBasicProvider(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
+                log.debug("Found " + harvestSchedules.size() + " harvest schedules in the database.");
 
-                    // Return the harvest schedule
-                    harvestSchedules.add(harvestSchedule);
-                } // end loop over results
+            return harvestSchedules;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedules", e);
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + harvestSchedules.size() + " harvest schedules in the database.");
-
-                return harvestSchedules;
-            } // end try(get the harvest schedules)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedules", e);
-
-                return harvestSchedules;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAll();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return new ArrayList<HarvestSchedule>();
+        }
     } // end method getAll()
 
     @Override
     public List<HarvestSchedule> getSorted(boolean asc, String columnSorted) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         if (log.isDebugEnabled())
             log.debug("Getting all harvest schedules sorted in " + (asc ? "ascending" : "descending") + " order on the column " + columnSorted);
 
-        // Validate the column we're trying to sort on
-        if (!sortableColumns.contains(columnSorted)) {
+        String selectSql = null;
+        if (PROVIDER_NAME_SORT.equalsIgnoreCase(columnSorted))
+            selectSql = SELECT_WITH_PROVIDER_SQL + "ORDER BY " + PROVIDERS_TABLE_NAME + "." + COL_PROVIDER_NAME + (asc ? " ASC" : " DESC");
+        else if (sortableColumns.contains(columnSorted))
+            selectSql = SELECT_SQL + "ORDER BY " + columnSorted + (asc ? " ASC" : " DESC");
+        else {
             log.error("An attempt was made to sort on the invalid column " + columnSorted);
             return getAll();
         } // end if(sort column invalid)
 
-        // The ResultSet from the SQL query
-        ResultSet results = null;
-
-        // The Statement for getting the rows
-        Statement getSorted = null;
-
-        // A list to hold the results of the query
-        List<HarvestSchedule> harvestSchedules = new ArrayList<HarvestSchedule>();
-        if (!columnSorted.equalsIgnoreCase("ProviderName")) {
-            try {
-                // SQL to get the rows
-                String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                               COL_SCHEDULE_NAME + ", " +
-                                               COL_RECURRENCE + ", " +
-                                               COL_PROVIDER_ID + ", " +
-                                               COL_START_DATE + ", " +
-                                               COL_END_DATE + ", " +
-                                               COL_MINUTE + ", " +
-                                               COL_DAY_OF_WEEK + ", " +
-                                               COL_HOUR + ", " +
-                                               COL_NOTIFY_EMAIL + ", " +
-                                               COL_STATUS + ", " +
-                                               COL_REQUEST + " " +
-                                   "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                   "ORDER BY " + columnSorted + (asc ? " ASC" : " DESC");
-
-                if (log.isDebugEnabled())
-                    log.debug("Creating the \"get all harvest schedules\" Statement from the SQL " + selectSql);
-
-                // A prepared statement to run the select SQL
-                // This should sanitize the SQL and prevent SQL injection
-                getSorted = dbConnectionManager.createStatement();
-
-                // Get the results of the SELECT statement
-
-                // Execute the query
-                results = getSorted.executeQuery(selectSql);
-
-                // If any results were returned
-                while (results.next()) {
-                    // The Object which will contain data on the user
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the user
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().loadBasicProvider(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
-
-                    // Return the harvest schedule
-                    harvestSchedules.add(harvestSchedule);
-                } // end loop over results
-
-                if (log.isDebugEnabled())
-                    log.debug("Found " + harvestSchedules.size() + " harvest schedules in the database.");
-
-                return harvestSchedules;
-            } // end try(get the harvest schedules)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedules", e);
-
-                return harvestSchedules;
-            } // end catch(SQLException)
-            finally {
-                dbConnectionManager.closeResultSet(results);
-
-                try {
-                    if (getSorted != null)
-                        getSorted.close();
-                } // end try(close the Statement)
-                catch (SQLException e) {
-                    log.error("An error occurred while trying to close the \"get harvest schedules sorted ASC\" Statement");
-                } // end catch(SQLException)
-            } // end finally(close ResultSet)
-        } else {
-            try {
-                // SQL to get the rows
-                String selectSql = "SELECT " + HARVEST_SCHEDULES_TABLE_NAME + "." + COL_HARVEST_SCHEDULE_ID + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_SCHEDULE_NAME + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_RECURRENCE + ", " +
-                                               PROVIDERS_TABLE_NAME + "." + COL_PROVIDER_NAME + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_START_DATE + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_END_DATE + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_MINUTE + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_DAY_OF_WEEK + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_HOUR + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_NOTIFY_EMAIL + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_STATUS + ", " +
-                                               HARVEST_SCHEDULES_TABLE_NAME + "." + COL_REQUEST + " " +
-                                   "FROM " + HARVEST_SCHEDULES_TABLE_NAME + "," + PROVIDERS_TABLE_NAME + " ON" + " " + PROVIDERS_TABLE_NAME + "." + COL_PROVIDER_ID +
-                                   "ORDER BY " + columnSorted + (asc ? " ASC" : " DESC");
+        try {
+            List<HarvestSchedule> harvestSchedules = loadReferences(jdbcTemplate.query(selectSql, HARVEST_SCHEDULE_MAPPER), false, false);
 
-                if (log.isDebugEnabled())
-                    log.debug("Creating the \"get all harvest schedules\" Statement from the SQL " + selectSql);
-
-                // A prepared statement to run the select SQL
-                // This should sanitize the SQL and prevent SQL injection
-                getSorted = dbConnectionManager.createStatement();
-
-                // Get the results of the SELECT statement
-
-                // Execute the query
-                results = getSorted.executeQuery(selectSql);
-
-                // If any results were returned
-                while (results.next()) {
-                    // The Object which will contain data on the user
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the user
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().getByName(results.getString(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
+            if (log.isDebugEnabled())
+                log.debug("Found " + harvestSchedules.size() + " harvest schedules in the database.");
 
-                    // Return the harvest schedule
-                    harvestSchedules.add(harvestSchedule);
-                } // end loop over results
+            return harvestSchedules;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedules", e);
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + harvestSchedules.size() + " harvest schedules in the database.");
-
-                return harvestSchedules;
-            } // end try(get the harvest schedules)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedules", e);
-
-                return harvestSchedules;
-            } // end catch(SQLException)
-            finally {
-                dbConnectionManager.closeResultSet(results);
-
-                try {
-                    if (getSorted != null)
-                        getSorted.close();
-                } // end try(close the Statement)
-                catch (SQLException e) {
-                    log.error("An error occurred while trying to close the \"get harvest schedules sorted ASC\" Statement");
-                } // end catch(SQLException)
-            } // end finally(close ResultSet)
+            return new ArrayList<HarvestSchedule>();
         }
-    } // end method getSortedByName(boolean)
+    } // end method getSorted(boolean, String)
 
     @Override
     public HarvestSchedule getById(int harvestScheduleId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the harvest schedule with ID " + harvestScheduleId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a harvest schedule by ID was not defined, create it
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule by ID\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get by ID PreparedStatement wasn't defined)
-
-                // Set the parameters on the SELECT statement
-                psGetById.setInt(1, harvestScheduleId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the harvest schedule
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the harvest schedule
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().getById(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
-                    harvestSchedule.setSteps(getHarvestScheduleStepDAO().getStepsForSchedule(harvestSchedule.getId()));
-
-                    // Get the sets and formats for the schedule based on its steps
-                    for (HarvestScheduleStep step : harvestSchedule.getSteps()) {
-                        harvestSchedule.addSet(step.getSet());
-                        harvestSchedule.addFormat(step.getFormat());
-                    } // end loop over steps
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the harvest schedule with ID " + harvestScheduleId + " in the database.");
-
-                    // Return the harvest schedule
-                    return harvestSchedule;
-                } // end if(we found a harvest schedule)
-                else // There were no rows in the database, the harvest schedule could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The harvest schedule with ID " + harvestScheduleId + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try(get the harvest schedule)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedule with ID " + harvestScheduleId, e);
+        if (log.isDebugEnabled())
+            log.debug("Getting the harvest schedule with ID " + harvestScheduleId);
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getById(harvestScheduleId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(closeResultSet)
-        } // end synchronized
+        return getOne(GET_BY_ID_SQL, harvestScheduleId, "ID " + harvestScheduleId, true, true);
     } // end method getById(int)
 
     @Override
     public HarvestSchedule loadWithoutSteps(int harvestScheduleId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the harvest schedule with ID " + harvestScheduleId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a harvest schedule by ID was not defined, create it
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule by ID\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get by ID PreparedStatement wasn't defined)
-
-                // Set the parameters on the SELECT statement
-                psGetById.setInt(1, harvestScheduleId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the harvest schedule
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the harvest schedule
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().getById(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
-
-                    // Get the sets and formats for the schedule based on its steps
-                    for (HarvestScheduleStep step : harvestSchedule.getSteps()) {
-                        harvestSchedule.addSet(step.getSet());
-                        harvestSchedule.addFormat(step.getFormat());
-                    } // end loop over steps
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the harvest schedule with ID " + harvestScheduleId + " in the database.");
-
-                    // Return the harvest schedule
-                    return harvestSchedule;
-                } // end if(we found a harvest schedule)
-                else // There were no rows in the database, the harvest schedule could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The harvest schedule with ID " + harvestScheduleId + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try(get the harvest schedule)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedule with ID " + harvestScheduleId, e);
+        if (log.isDebugEnabled())
+            log.debug("Getting the harvest schedule with ID " + harvestScheduleId);
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return loadWithoutSteps(harvestScheduleId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(closeResultSet)
-        } // end synchronized
+        return getOne(GET_BY_ID_SQL, harvestScheduleId, "ID " + harvestScheduleId, true, false);
     } // end method loadWithoutSteps(int)
 
     @Override
     public HarvestSchedule getByName(String name) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByNameLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the harvest schedule with name " + name);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a harvest schedule by ID was not defined, create it
-                if (psGetByName == null || dbConnectionManager.isClosed(psGetByName)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE " + COL_SCHEDULE_NAME + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule by name\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByName = dbConnectionManager.prepareStatement(selectSql, psGetByName);
-                } // end if(get by ID PreparedStatement wasn't defined)
-
-                // Set the parameters on the SELECT statement
-                psGetByName.setString(1, name);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByName);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the harvest schedule
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the harvest schedule
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().getById(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
-                    harvestSchedule.setSteps(getHarvestScheduleStepDAO().getStepsForSchedule(harvestSchedule.getId()));
-
-                    // Get the sets and formats for the schedule based on its steps
-                    for (HarvestScheduleStep step : harvestSchedule.getSteps()) {
-                        harvestSchedule.addSet(step.getSet());
-                        harvestSchedule.addFormat(step.getFormat());
-                    } // end loop over steps
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the harvest schedule with name " + name + " in the database.");
-
-                    // Return the harvest schedule
-                    return harvestSchedule;
-                } // end if(we found a harvest schedule)
-                else // There were no rows in the database, the harvest schedule could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The harvest schedule with name " + name + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try(get the harvest schedule)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedule with name " + name, e);
+        if (log.isDebugEnabled())
+            log.debug("Getting the harvest schedule with name " + name);
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getByName(name);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(closeResultSet)
-        } // end synchronized
+        return getOne(GET_BY_NAME_SQL, name, "name " + name, true, true);
     } // end method getByName(String)
 
     @Override
     public HarvestSchedule loadBasicHarvestSchedule(int harvestScheduleId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the basic harvest schedule with ID " + harvestScheduleId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a harvest schedule by ID was not defined, create it
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule by ID\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get by ID PreparedStatement wasn't defined)
-
-                // Set the parameters on the SELECT statement
-                psGetById.setInt(1, harvestScheduleId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the harvest schedule
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the harvest schedule
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().loadBasicProvider(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the harvest schedule with ID " + harvestScheduleId + " in the database.");
-
-                    // Return the harvest schedule
-                    return harvestSchedule;
-                } // end if(we found a harvest schedule)
-                else // There were no rows in the database, the harvest schedule could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The harvest schedule with ID " + harvestScheduleId + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try(get the harvest schedule)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the basic harvest schedule with ID " + harvestScheduleId, e);
+        if (log.isDebugEnabled())
+            log.debug("Getting the basic harvest schedule with ID " + harvestScheduleId);
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return loadBasicHarvestSchedule(harvestScheduleId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(closeResultSet)
-        } // end synchronized
+        return getOne(GET_BY_ID_SQL, harvestScheduleId, "ID " + harvestScheduleId, false, false);
     } // end method loadBasicHarvestSchedule(int)
 
     @Override
     public HarvestSchedule getHarvestScheduleForProvider(int providerId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the harvest schedules with provider ID " + providerId);
 
-        synchronized (psGetByProviderIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the harvest schedules with provider ID " + providerId);
-
-            HarvestSchedule harvestSchedule = null;
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a harvest schedule by ID was not defined, create it
-                if (psGetByProviderId == null || dbConnectionManager.isClosed(psGetByProviderId)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE " + COL_PROVIDER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule by  provider ID\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByProviderId = dbConnectionManager.prepareStatement(selectSql, psGetByProviderId);
-                } // end if(get by provider ID PreparedStatement not defined)
-
-                // Set the parameters on the SELECT statement
-                psGetByProviderId.setInt(1, providerId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByProviderId);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the harvest schedule
-                    harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the harvest schedule
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
+        try {
+            List<HarvestSchedule> harvestSchedules = jdbcTemplate.query(GET_BY_PROVIDER_ID_SQL, HARVEST_SCHEDULE_MAPPER, providerId);
 
-                    if (log.isDebugEnabled()) {
-                        log.debug("Found harvest schedule with provider ID " + providerId + ".");
-                    }
+            if (harvestSchedules.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("Harvest schedule with provider ID " + providerId + " was not found.");
+
+                return null;
+            }
 
-                } else {
-                    if (log.isDebugEnabled())
-                        log.debug("Harvest schedule with provider ID " + providerId + " was not found.");
+            if (log.isDebugEnabled())
+                log.debug("Found harvest schedule with provider ID " + providerId + ".");
 
-                } // end loop over results}
+            // The caller already has the provider
+            HarvestSchedule harvestSchedule = harvestSchedules.get(0);
+            harvestSchedule.setProvider(null);
 
-                return harvestSchedule;
-            } // end try(get the schedules)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedules with provider ID " + providerId, e);
+            return harvestSchedule;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedules with provider ID " + providerId, e);
 
-                return harvestSchedule;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getHarvestScheduleForProvider(providerId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    } // end method getHarvestSchedulesForProvider(int)
+            return null;
+        }
+    } // end method getHarvestScheduleForProvider(int)
 
     @Override
     public List<HarvestSchedule> getSchedulesToRun(int hour, int dayOfWeek, int minute) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByTimeLock) {
-            // The list of results to return
-            List<HarvestSchedule> harvestSchedules = new ArrayList<HarvestSchedule>();
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get harvest schedules by their time was not defined, create it
-                if (psGetByTime == null || dbConnectionManager.isClosed(psGetByTime)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_SCHEDULE_NAME + ", " +
-                                                   COL_RECURRENCE + ", " +
-                                                   COL_PROVIDER_ID + ", " +
-                                                   COL_START_DATE + ", " +
-                                                   COL_END_DATE + ", " +
-                                                   COL_MINUTE + ", " +
-                                                   COL_DAY_OF_WEEK + ", " +
-                                                   COL_HOUR + ", " +
-                                                   COL_NOTIFY_EMAIL + ", " +
-                                                   COL_STATUS + ", " +
-                                                   COL_REQUEST + " " +
-                                       "FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE (" + COL_START_DATE + " IS NULL OR " + COL_START_DATE + "<=?) " +
-                                       "AND (" + COL_END_DATE + " IS NULL OR " + COL_END_DATE + ">=?) " +
-                                       "AND ((" + COL_MINUTE + "=? AND " + COL_HOUR + "=? AND " + COL_DAY_OF_WEEK + "=?)" +
-                                                 "OR (" + COL_MINUTE + "=? AND " + COL_HOUR + "=? AND " + COL_DAY_OF_WEEK + "=0)" +
-                                                 "OR (" + COL_MINUTE + "=? AND " + COL_HOUR + "=-1 AND " + COL_DAY_OF_WEEK + "=0))";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the PreparedStatement to get a harvest schedule by its time the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByTime = dbConnectionManager.prepareStatement(selectSql, psGetByTime);
-                } // end if(get by time PreparedStatement wasn't defined)
-
-                // Set the parameters on the update statement
-                Date now = new Date((new java.util.Date()).getTime());
-                psGetByTime.setDate(1, now);
-                psGetByTime.setDate(2, now);
-                psGetByTime.setInt(3, minute);
-                psGetByTime.setInt(4, hour);
-                psGetByTime.setInt(5, dayOfWeek);
-                psGetByTime.setInt(6, minute);
-                psGetByTime.setInt(7, hour);
-                psGetByTime.setInt(8, minute);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByTime);
-
-                // Add each returned result to the list of harvest schedules which match the requested parameters
-                while (results.next()) {
-                    // The Object which will contain data on the harvest schedule
-                    HarvestSchedule harvestSchedule = new HarvestSchedule();
-
-                    // Set the fields on the harvest schedule
-                    harvestSchedule.setId(results.getInt(1));
-                    harvestSchedule.setScheduleName(results.getString(2));
-                    harvestSchedule.setRecurrence(results.getString(3));
-                    harvestSchedule.setProvider(getProviderDAO().getById(results.getInt(4)));
-                    harvestSchedule.setStartDate(results.getDate(5));
-                    harvestSchedule.setEndDate(results.getDate(6));
-                    harvestSchedule.setMinute(results.getInt(7));
-                    harvestSchedule.setDayOfWeek(results.getInt(8));
-                    harvestSchedule.setHour(results.getInt(9));
-                    harvestSchedule.setNotifyEmail(results.getString(10));
-                    String statusStr = results.getString(11);
-                    if (StringUtils.isEmpty(statusStr)) {
-                        harvestSchedule.setStatus(null);
-                    } else {
-                        harvestSchedule.setStatus(Status.valueOf(statusStr));
-                    }
-                    harvestSchedule.setRequest(results.getString(12));
-                    harvestSchedule.setSteps(getHarvestScheduleStepDAO().getStepsForSchedule(harvestSchedule.getId()));
-
-                    // Get the sets and formats for the schedule based on its steps
-                    for (HarvestScheduleStep step : harvestSchedule.getSteps()) {
-                        harvestSchedule.addSet(step.getSet());
-                        harvestSchedule.addFormat(step.getFormat());
-                    } // end loop over steps
-
-                    // Add the harvest schedule to the list
-                    harvestSchedules.add(harvestSchedule);
-                } // end loop over results
-
-                if (log.isDebugEnabled() && harvestSchedules.size() > 0)
-                    log.debug("Found " + harvestSchedules.size() + " harvest schedules with hour " + hour + " or day of the week " + dayOfWeek + " or minute " + minute);
-
-                return harvestSchedules;
-            } // end try(get the schedules)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedules with hour " + hour + " or day of the week " + dayOfWeek + " or minute " + minute, e);
-
-                return harvestSchedules;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-
-                log.info("Re executing the query that failed ");
-                return getSchedulesToRun(hour, dayOfWeek, minute);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
+        try {
+            Date now = new Date((new java.util.Date()).getTime());
+
+            List<HarvestSchedule> harvestSchedules = loadReferences(jdbcTemplate.query(GET_BY_TIME_SQL, HARVEST_SCHEDULE_MAPPER,
+                    now, now, minute, hour, dayOfWeek, minute, hour, minute), true, true);
+
+            if (log.isDebugEnabled() && harvestSchedules.size() > 0)
+                log.debug("Found " + harvestSchedules.size() + " harvest schedules with hour " + hour + " or day of the week " + dayOfWeek + " or minute " + minute);
+
+            return harvestSchedules;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedules with hour " + hour + " or day of the week " + dayOfWeek + " or minute " + minute, e);
+
+            return new ArrayList<HarvestSchedule>();
+        }
     } // end method getSchedulesToRun(int, int, int)
 
     @Override
     public boolean insert(HarvestSchedule harvestSchedule) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the non-ID fields on the harvest schedule are valid
         validateFields(harvestSchedule, false, true);
 
-        // Insert the provider if it hasn't already been inserted
+        // Insert the provider if it hasn't been inserted yet
         if (harvestSchedule.getProvider().getId() <= 0)
             if (!getProviderDAO().insert(harvestSchedule.getProvider()))
                 return false;
 
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Inserting a new harvest schedule with name " + harvestSchedule.getScheduleName());
-
-            // The ResultSet returned by the query
-            ResultSet rs = null;
-
-            try {
-                // If the PreparedStatement to insert a harvest schedule was not defined, create it
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + HARVEST_SCHEDULES_TABLE_NAME + " (" + COL_SCHEDULE_NAME + ", " +
-                                                                            COL_RECURRENCE + ", " +
-                                                                            COL_PROVIDER_ID + ", " +
-                                                                            COL_START_DATE + ", " +
-                                                                            COL_END_DATE + ", " +
-                                                                            COL_MINUTE + ", " +
-                                                                            COL_DAY_OF_WEEK + ", " +
-                                                                            COL_HOUR + ", " +
-                                                                            COL_NOTIFY_EMAIL + ", " +
-                                                                            COL_STATUS + ", " +
-                                                                            COL_REQUEST + ") " +
-                                       "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"insert harvest schedule\" PreparedStatement from the SQL " + insertSql);
-
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                } // end if(insert PreparedStatement wasn't defined)
-
-                // Set the parameters on the insert statement
-
-                psInsert.setString(1, harvestSchedule.getScheduleName());
-                psInsert.setString(2, harvestSchedule.getRecurrence());
-                psInsert.setInt(3, harvestSchedule.getProvider().getId());
-                psInsert.setDate(4, harvestSchedule.getStartDate());
-                psInsert.setDate(5, harvestSchedule.getEndDate());
-                psInsert.setInt(6, harvestSchedule.getMinute());
-                psInsert.setInt(7, harvestSchedule.getDayOfWeek());
-                psInsert.setInt(8, harvestSchedule.getHour());
-                psInsert.setString(9, harvestSchedule.getNotifyEmail());
-                psInsert.setString(10, Status.NOT_RUNNING.name());
-                psInsert.setString(11, harvestSchedule.getRequest());
-
-                // Execute the insert statement and return the result
-                if (dbConnectionManager.executeUpdate(psInsert) > 0) {
-                    // Get the auto-generated user ID and set it correctly on this Harvest Schedule Object
-                    rs = dbConnectionManager.createStatement().executeQuery("SELECT LAST_INSERT_ID()");
-
-                    if (rs.next())
-                        harvestSchedule.setId(rs.getInt(1));
-
-                    boolean success = true;
-
-                    // A step in the schedule we just inserted
-                    HarvestScheduleStep step = new HarvestScheduleStep();
-
-                    // If there are no sets, insert a step for each format to be harvested
-                    if (harvestSchedule.getSets().size() <= 0) {
-                        for (Format format : harvestSchedule.getFormats()) {
-                            step.setFormat(format);
-                            success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
-                        } // end loop over formats
-                    } // end if(the schedule had no sets)
-
-                    // Otherwise insert a step for each format/set pair
-                    else {
-                        for (Format format : harvestSchedule.getFormats()) {
-                            step.setFormat(format);
-
-                            for (Set set : harvestSchedule.getSets()) {
-                                step.setSet(set);
-                                success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
-                            }
-                        } // end loop over formats
-                    } // end else (the schedule had steps)
+        if (log.isDebugEnabled())
+            log.debug("Inserting a new harvest schedule with name " + harvestSchedule.getScheduleName());
+
+        try {
+            long id = insertForKey(INSERT_SQL, harvestSchedule.getScheduleName(),
+                                               harvestSchedule.getRecurrence(),
+                                               harvestSchedule.getProvider().getId(),
+                                               harvestSchedule.getStartDate(),
+                                               harvestSchedule.getEndDate(),
+                                               harvestSchedule.getMinute(),
+                                               harvestSchedule.getDayOfWeek(),
+                                               harvestSchedule.getHour(),
+                                               harvestSchedule.getNotifyEmail(),
+                                               Status.NOT_RUNNING.name(),
+                                               harvestSchedule.getRequest());
+            if (id < 0)
+                return false;
 
-                    return success;
-                } // end if(insert succeeded)
-                else
-                    return false;
-            } // end try(insert the schedule)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while inserting a new harvest schedule with the name " + harvestSchedule.getScheduleName(), e);
+            harvestSchedule.setId((int) id);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while inserting a new harvest schedule with the name " + harvestSchedule.getScheduleName(), e);
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(harvestSchedule);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return false;
+        }
+
+        // Insert the steps for the schedule
+        boolean success = true;
+        HarvestScheduleStep step = new HarvestScheduleStep();
+        if (harvestSchedule.getSets().size() <= 0) {
+            for (Format format : harvestSchedule.getFormats()) {
+                step.setFormat(format);
+                success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
+            } // end loop over formats
+        } // end if(the schedule had no sets)
+        else {
+            for (Format format : harvestSchedule.getFormats()) {
+                step.setFormat(format);
+                for (Set set : harvestSchedule.getSets()) {
+                    step.setSet(set);
+                    success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
+                }
+            } // end loop over formats
+        } // end else (the schedule had steps)
+
+        return success;
     } // end method insert(HarvestSchedule)
 
     @Override
     public boolean update(HarvestSchedule harvestSchedule, boolean updateSteps) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the fields on the harvest schedule are valid
         validateFields(harvestSchedule, true, true);
 
-        // Insert the provider if it hasn't already been inserted
+        // Insert the provider if it hasn't been inserted yet
         if (harvestSchedule.getProvider().getId() <= 0)
             if (!getProviderDAO().insert(harvestSchedule.getProvider()))
                 return false;
 
-        synchronized (psUpdateLock) {
-            if (log.isDebugEnabled())
-                log.debug("Updating the harvest schedule with id " + harvestSchedule.getId());
-
-            try {
-                // If the PreparedStatement to update a harvest schedule was not defined, create it
-                if (psUpdate == null || dbConnectionManager.isClosed(psUpdate)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + HARVEST_SCHEDULES_TABLE_NAME + " SET " + COL_SCHEDULE_NAME + "=?, " +
-                                                                          COL_RECURRENCE + "=?, " +
-                                                                          COL_PROVIDER_ID + "=?, " +
-                                                                          COL_START_DATE + "=?, " +
-                                                                          COL_END_DATE + "=?, " +
-                                                                          COL_MINUTE + "=?, " +
-                                                                          COL_DAY_OF_WEEK + "=?, " +
-                                                                          COL_HOUR + "=?, " +
-                                                                          COL_NOTIFY_EMAIL + "=?, " +
-                                                                          COL_STATUS + "=?, " +
-                                                                          COL_REQUEST + "=? " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"update harvest schedule\" PreparedStatement from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psUpdate = dbConnectionManager.prepareStatement(updateSql, psUpdate);
-                } // end if(update PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psUpdate.setString(1, harvestSchedule.getScheduleName());
-                psUpdate.setString(2, harvestSchedule.getRecurrence());
-                psUpdate.setInt(3, harvestSchedule.getProvider().getId());
-                psUpdate.setDate(4, harvestSchedule.getStartDate());
-                psUpdate.setDate(5, harvestSchedule.getEndDate());
-                psUpdate.setInt(6, harvestSchedule.getMinute());
-                psUpdate.setInt(7, harvestSchedule.getDayOfWeek());
-                psUpdate.setInt(8, harvestSchedule.getHour());
-                psUpdate.setString(9, harvestSchedule.getNotifyEmail());
-                if (harvestSchedule.getStatus() == null) {
-                    psUpdate.setString(10, null);
-                } else {
-                    psUpdate.setString(10, harvestSchedule.getStatus().name());
-                }
-                psUpdate.setString(11, harvestSchedule.getRequest());
-                psUpdate.setInt(12, harvestSchedule.getId());
-
-                // Execute the update statement and return the result
-                boolean success = dbConnectionManager.executeUpdate(psUpdate) > 0;
-
-                if (updateSteps) {
-                    HarvestSchedule oldHarvestSchedule = getById(harvestSchedule.getId());
-
-                    // Delete all steps from before we updated the schedule
-                    getHarvestScheduleStepDAO().deleteStepsForSchedule(harvestSchedule.getId());
-
-                    // A step in the schedule we just inserted
-                    HarvestScheduleStep step = new HarvestScheduleStep();
-                    step.setSchedule(harvestSchedule);
-
-                    // If there are no sets, insert a step for each format to be harvested
-                    if (harvestSchedule.getSets().size() <= 0) {
-                        for (Format format : harvestSchedule.getFormats()) {
-                            step.setFormat(format);
-                            step.setLastRan(null);
-
-                            // If the step already exist then copy the last ran parameter
-                            for (HarvestScheduleStep oldStep : oldHarvestSchedule.getSteps()) {
-                                if (oldStep.equals(step)) {
-                                    step.setLastRan(oldStep.getLastRan());
-                                    break;
-                                }
-                            }
-                            success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
-                        } // end loop over formats
-                    } // end if(the schedule had no sets)
-
-                    // Otherwise insert a step for each format/set pair
-                    else {
-                        for (Format format : harvestSchedule.getFormats()) {
-                            step.setFormat(format);
-                            step.setSet(null);
-                            step.setLastRan(null);
-
-                            // Check if there was a step with this format and all sets existed previously
-                            // If so set last ran value because this set would have been already harvested and so
-                            // it is enough if we harvest from the last ran date
-                            for (HarvestScheduleStep oldStep : oldHarvestSchedule.getSteps()) {
-                                if (oldStep.equals(step)) {
-                                    step.setLastRan(oldStep.getLastRan());
-                                    break;
-                                }
-                            }
+        if (log.isDebugEnabled())
+            log.debug("Updating the harvest schedule with id " + harvestSchedule.getId());
+
+        boolean success = false;
+        try {
+            success = jdbcTemplate.update(UPDATE_SQL, harvestSchedule.getScheduleName(),
+                                                      harvestSchedule.getRecurrence(),
+                                                      harvestSchedule.getProvider().getId(),
+                                                      harvestSchedule.getStartDate(),
+                                                      harvestSchedule.getEndDate(),
+                                                      harvestSchedule.getMinute(),
+                                                      harvestSchedule.getDayOfWeek(),
+                                                      harvestSchedule.getHour(),
+                                                      harvestSchedule.getNotifyEmail(),
+                                                      harvestSchedule.getStatus() == null ? null : harvestSchedule.getStatus().name(),
+                                                      harvestSchedule.getRequest(),
+                                                      harvestSchedule.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the harvest schedule with ID " + harvestSchedule.getId(), e);
+
+            return false;
+        }
 
-                            for (Set set : harvestSchedule.getSets()) {
-                                step.setSet(set);
+        if (updateSteps) {
+            // Keep the last ran times of the steps which are still part of the schedule
+            HarvestSchedule oldHarvestSchedule = getById(harvestSchedule.getId());
 
-                                // If the step already exist then copy the last ran parameter
-                                for (HarvestScheduleStep oldStep : oldHarvestSchedule.getSteps()) {
-                                    if (oldStep.equals(step)) {
-                                        step.setLastRan(oldStep.getLastRan());
-                                        break;
-                                    }
-                                }
+            getHarvestScheduleStepDAO().deleteStepsForSchedule(harvestSchedule.getId());
 
-                                success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
-                            }
-                        } // end loop over formats
-                    } // end else (the schedule had steps)
-                } // end if(we should update the steps)
+            HarvestScheduleStep step = new HarvestScheduleStep();
+            step.setSchedule(harvestSchedule);
 
-                return success;
-            } // end try(update schedule)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the harvest schedule with ID " + harvestSchedule.getId(), e);
+            if (harvestSchedule.getSets().size() <= 0) {
+                for (Format format : harvestSchedule.getFormats()) {
+                    step.setFormat(format);
+                    step.setLastRan(null);
+                    for (HarvestScheduleStep oldStep : oldHarvestSchedule.getSteps()) {
+                        if (oldStep.equals(step)) {
+                            step.setLastRan(oldStep.getLastRan());
+                            break;
+                        }
+                    }
+                    success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
+                } // end loop over formats
+            } // end if(the schedule had no sets)
+            else {
+                for (Format format : harvestSchedule.getFormats()) {
+                    step.setFormat(format);
+                    step.setSet(null);
+                    step.setLastRan(null);
+                    for (HarvestScheduleStep oldStep : oldHarvestSchedule.getSteps()) {
+                        if (oldStep.equals(step)) {
+                            step.setLastRan(oldStep.getLastRan());
+                            break;
+                        }
+                    }
+                    for (Set set : harvestSchedule.getSets()) {
+                        step.setSet(set);
+                        for (HarvestScheduleStep oldStep : oldHarvestSchedule.getSteps()) {
+                            if (oldStep.equals(step)) {
+                                step.setLastRan(oldStep.getLastRan());
+                                break;
+                            }
+                        }
+                        success = getHarvestScheduleStepDAO().insert(step, harvestSchedule.getId()) && success;
+                    }
+                } // end loop over formats
+            } // end else (the schedule had steps)
+        } // end if(we should update the steps)
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return update(harvestSchedule, updateSteps);
-            }
-        } // end synchronized
+        return success;
     } // end method update(HarvestSchedule)
 
     @Override
     public boolean delete(HarvestSchedule harvestSchedule) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the ID field on the harvest schedule are valid
         validateFields(harvestSchedule, true, false);
 
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the harvest schedule with ID " + harvestSchedule.getId());
-
-            try {
-                // If the PreparedStatement to delete a harvest schedule was not defined, create it
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + HARVEST_SCHEDULES_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + " = ? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"delete harvest schedule\" PreparedStatement from the SQL " + deleteSql);
-
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if(delete PreparedStatement not defined)
-
-                // Set the parameters on the delete statement
-                psDelete.setInt(1, harvestSchedule.getId());
+        if (log.isDebugEnabled())
+            log.debug("Deleting the harvest schedule with ID " + harvestSchedule.getId());
 
-                // Execute the delete statement and return the result
-                return dbConnectionManager.execute(psDelete);
-            } // end try(delete the schedule
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the harvest schedule with ID " + harvestSchedule.getId(), e);
+        try {
+            return jdbcTemplate.update(DELETE_SQL, harvestSchedule.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the harvest schedule with ID " + harvestSchedule.getId(), e);
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(harvestSchedule);
-            }
-        } // end synchronized
+            return false;
+        }
     } // end method delete(HarvestSchedule)
 } // end class DefaultHarvestScheduleDAO
@@ -9,548 +9,282 @@
 
 package xc.mst.dao.harvest;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
+import xc.mst.bo.harvest.HarvestSchedule;
 import xc.mst.bo.harvest.HarvestScheduleStep;
-import xc.mst.dao.DBConnectionResetException;
+import xc.mst.bo.provider.Format;
+import xc.mst.bo.provider.Set;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 
 public class DefaultHarvestScheduleStepDAO extends HarvestScheduleStepDAO {
     /**
-     * A PreparedStatement to get all harvest schedule steps in the database
+     * The columns of a harvest schedule step, as read by STEP_MAPPER
      */
-    private static PreparedStatement psGetAll = null;
+    private static final String SELECT_SQL =
+            "SELECT " + COL_HARVEST_SCHEDULE_STEP_ID + ", " +
+                        COL_HARVEST_SCHEDULE_ID + ", " +
+                        COL_FORMAT_ID + ", " +
+                        COL_SET_ID + ", " +
+                        COL_LAST_RAN + " " +
+            "FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " ";
 
     /**
-     * A PreparedStatement to get a harvest schedule step from the database by its ID
+     * SQL to get a harvest schedule step from the database by its ID
      */
-    private static PreparedStatement psGetById = null;
+    private static final String GET_BY_ID_SQL = SELECT_SQL + "WHERE " + COL_HARVEST_SCHEDULE_STEP_ID + "=?";
 
     /**
-     * A PreparedStatement to get a harvest schedule step from the database by its harvest schedule ID
+     * SQL to get the harvest schedule steps from the database by their harvest schedule ID
      */
-    private static PreparedStatement psGetByHarvestScheduleId = null;
+    private static final String GET_BY_HARVEST_SCHEDULE_ID_SQL = SELECT_SQL + "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
 
     /**
-     * A PreparedStatement to insert a harvest schedule step into the database
+     * SQL to insert a harvest schedule step into the database
      */
-    private static PreparedStatement psInsert = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " (" + COL_HARVEST_SCHEDULE_ID + ", " +
+                                                                       COL_FORMAT_ID + ", " +
+                                                                       COL_SET_ID + ", " +
+                                                                       COL_LAST_RAN + ") " +
+            "VALUES (?, ?, ?, ?)";
 
     /**
-     * A PreparedStatement to update a harvest schedule step in the database
+     * SQL to update a harvest schedule step in the database
      */
-    private static PreparedStatement psUpdate = null;
+    private static final String UPDATE_SQL =
+            "UPDATE " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " SET " + COL_HARVEST_SCHEDULE_ID + "=?, " +
+                                                                     COL_FORMAT_ID + "=?, " +
+                                                                     COL_SET_ID + "=?, " +
+                                                                     COL_LAST_RAN + "=? " +
+            "WHERE " + COL_HARVEST_SCHEDULE_STEP_ID + "=?";
 
     /**
-     * A PreparedStatement to delete a harvest schedule step from the database
+     * SQL to delete a harvest schedule step from the database
      */
-    private static PreparedStatement psDelete = null;
+    private static final String DELETE_SQL =
+            "DELETE FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " " +
+            "WHERE " + COL_HARVEST_SCHEDULE_STEP_ID + " = ? ";
 
     /**
-     * A PreparedStatement to delete all harvest schedule steps for a given schedule from the database
+     * SQL to delete all harvest schedule steps for a given schedule from the database
      */
-    private static PreparedStatement psDeleteStepsForSchedule = null;
+    private static final String DELETE_STEPS_FOR_SCHEDULE_SQL =
+            "DELETE FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " " +
+            "WHERE " + COL_HARVEST_SCHEDULE_ID + " = ? ";
 
     /**
-     * Lock to synchronize access to the get all PreparedStatement
+     * Builds a HarvestScheduleStep from the columns in SELECT_SQL. The schedule, format and set
+     * only have their IDs set; loadReferences() fills in the rest once the connection has been
+     * given back.
      */
-    private static Object psGetAllLock = new Object();
+    private static final RowMapper<HarvestScheduleStep> STEP_MAPPER = new RowMapper<HarvestScheduleStep>() {
+        public HarvestScheduleStep mapRow(ResultSet results, int rowNum) throws SQLException {
+            HarvestScheduleStep harvestScheduleStep = new HarvestScheduleStep();
 
-    /**
-     * Lock to synchronize access to the get by ID PreparedStatement
-     */
-    private static Object psGetByIdLock = new Object();
+            harvestScheduleStep.setId(results.getInt(1));
 
-    /**
-     * Lock to synchronize access to the get by harvest schedule ID PreparedStatement
-     */
-    private static Object psGetByHarvestScheduleIdLock = new Object();
+            HarvestSchedule schedule = new HarvestSchedule();
+            schedule.setId(results.getInt(2));
+            harvestScheduleStep.setSchedule(schedule);
 
-    /**
-     * Lock to synchronize access to the insert PreparedStatement
-     */
-    private static Object psInsertLock = new Object();
+            Format format = new Format();
+            format.setId(results.getInt(3));
+            harvestScheduleStep.setFormat(format);
 
-    /**
-     * Lock to synchronize access to the update PreparedStatement
-     */
-    private static Object psUpdateLock = new Object();
+            if (results.getInt(4) != 0) {
+                Set set = new Set();
+                set.setId(results.getInt(4));
+                harvestScheduleStep.setSet(set);
+            }
 
-    /**
-     * Lock to synchronize access to the delete PreparedStatement
-     */
-    private static Object psDeleteLock = new Object();
+            harvestScheduleStep.setLastRan(results.getTimestamp(5));
+
+            return harvestScheduleStep;
+        }
+    };
 
     /**
-     * Lock to synchronize access to the delete steps for schedule PreparedStatement
+     * Replaces the ID-only schedules, formats and sets set by STEP_MAPPER with the full objects
      */
-    private static Object psDeleteStepsForScheduleLock = new Object();
+    private List<HarvestScheduleStep> loadReferences(List<HarvestScheduleStep> harvestScheduleSteps) throws DatabaseConfigException {
+        for (HarvestScheduleStep harvestScheduleStep : harvestScheduleSteps) {
+            harvestScheduleStep.setSchedule(getHarvestScheduleDAO().loadWithoutSteps(harvestScheduleStep.getSchedule().getId()));
+            harvestScheduleStep.setFormat(getFormatDAO().getById(harvestScheduleStep.getFormat().getId()));
+            if (harvestScheduleStep.getSet() != null)
+                harvestScheduleStep.setSet(getSetDAO().loadBasicSet(harvestScheduleStep.getSet().getId()));
+        }
+
+        return harvestScheduleSteps;
+    }
 
     @Override
     public List<HarvestScheduleStep> getAll() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting all harvest schedule steps");
+
+        try {
+            List<HarvestScheduleStep> harvestScheduleSteps = loadReferences(jdbcTemplate.query(SELECT_SQL, STEP_MAPPER));
 
-        synchronized (psGetAllLock) {
             if (log.isDebugEnabled())
-                log.debug("Getting all harvest schedule steps");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // The list of all harvest schedule steps
-            List<HarvestScheduleStep> harvestScheduleSteps = new ArrayList<HarvestScheduleStep>();
-
-            try {
-                // If the PreparedStatement to get all harvest schedule steps was not already defined, create it
-                if (psGetAll == null || dbConnectionManager.isClosed(psGetAll)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_STEP_ID + ", " +
-                                                   COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_FORMAT_ID + ", " +
-                                                   COL_SET_ID + ", " +
-                                                   COL_LAST_RAN + " " +
-                                       "FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get all harvest schedule steps\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetAll = dbConnectionManager.prepareStatement(selectSql, psGetAll);
-                } // end if(get all PreparedStatement not defined)
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAll);
-
-                // For each result returned, add a HarvestScheduleStep object to the list with the returned data
-                while (results.next()) {
-                    // The Object which will contain data on the harvest schedule step
-                    HarvestScheduleStep harvestScheduleStep = new HarvestScheduleStep();
-
-                    // Set the fields on the harvest schedule step
-                    harvestScheduleStep.setId(results.getInt(1));
-                    harvestScheduleStep.setSchedule(getHarvestScheduleDAO().loadWithoutSteps(results.getInt(2)));
-                    harvestScheduleStep.setFormat(getFormatDAO().getById(results.getInt(3)));
-                    harvestScheduleStep.setSet(results.getInt(4) == 0 ? null : getSetDAO().loadBasicSet(results.getInt(4)));
-                    harvestScheduleStep.setLastRan(results.getTimestamp(5));
-
-                    // Add the harvest schedule step to the list
-                    harvestScheduleSteps.add(harvestScheduleStep);
-                } // end loop over results
+                log.debug("Found " + harvestScheduleSteps.size() + " harvest schedule steps in the database.");
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + harvestScheduleSteps.size() + " harvest schedule steps in the database.");
-
-                return harvestScheduleSteps;
-            } // end try(get harvest schedule steps)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedule steps.", e);
-
-                return harvestScheduleSteps;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAll();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return harvestScheduleSteps;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedule steps.", e);
+
+            return new ArrayList<HarvestScheduleStep>();
+        }
     } // end method getAll()
 
     @Override
     public HarvestScheduleStep getById(int harvestScheduleStepId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the harvest schedule step with ID " + harvestScheduleStepId);
 
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the harvest schedule step with ID " + harvestScheduleStepId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // Create the PreparedStatement to get a harvest schedule step by ID if it was not already created
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_STEP_ID + ", " +
-                                                   COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_FORMAT_ID + ", " +
-                                                   COL_SET_ID + ", " +
-                                                   COL_LAST_RAN + " " +
-                                       "FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_STEP_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule step by ID\" PreparedStatement the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get by ID PreparedStatement not defined)
-
-                // Set the parameters on the SELECT statement
-                psGetById.setInt(1, harvestScheduleStepId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the harvest schedule step
-                    HarvestScheduleStep harvestScheduleStep = new HarvestScheduleStep();
-
-                    // Set the fields on the harvest schedule step
-                    harvestScheduleStep.setId(results.getInt(1));
-                    harvestScheduleStep.setSchedule(getHarvestScheduleDAO().loadWithoutSteps(results.getInt(2)));
-                    harvestScheduleStep.setFormat(getFormatDAO().getById(results.getInt(3)));
-                    harvestScheduleStep.setSet(results.getInt(4) == 0 ? null : getSetDAO().loadBasicSet(results.getInt(4)));
-                    harvestScheduleStep.setLastRan(results.getTimestamp(5));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the harvest schedule step with ID " + harvestScheduleStepId + " in the database.");
-
-                    // Return the harvest schedule
-                    return harvestScheduleStep;
-                } // end if(harvest schedule step was found
+        try {
+            List<HarvestScheduleStep> harvestScheduleSteps = jdbcTemplate.query(GET_BY_ID_SQL, STEP_MAPPER, harvestScheduleStepId);
 
+            if (harvestScheduleSteps.isEmpty()) {
                 if (log.isDebugEnabled())
                     log.debug("The harvest schedule step with ID " + harvestScheduleStepId + " was not found in the database.");
 
                 return null;
-            } // end try(get the harvest schedule step)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedule Step with ID " + harvestScheduleStepId, e);
+            }
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getById(harvestScheduleStepId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return loadReferences(harvestScheduleSteps).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedule Step with ID " + harvestScheduleStepId, e);
+
+            return null;
+        }
     } // end method getById(int)
 
     @Override
     public List<HarvestScheduleStep> getStepsForSchedule(int harvestSchedlueId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting all harvest schedule steps with harvest schedule ID " + harvestSchedlueId);
+
+        try {
+            List<HarvestScheduleStep> harvestScheduleSteps = loadReferences(jdbcTemplate.query(GET_BY_HARVEST_SCHEDULE_ID_SQL, STEP_MAPPER, harvestSchedlueId));
 
-        synchronized (psGetByHarvestScheduleIdLock) {
             if (log.isDebugEnabled())
-                log.debug("Getting all harvest schedule steps with harvest schedule ID " + harvestSchedlueId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // The list of all harvest schedule steps
-            List<HarvestScheduleStep> harvestScheduleSteps = new ArrayList<HarvestScheduleStep>();
-
-            try {
-                // If the PreparedStatement to get all harvest schedule steps was not already defined, create it
-                if (psGetByHarvestScheduleId == null || dbConnectionManager.isClosed(psGetByHarvestScheduleId)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_HARVEST_SCHEDULE_STEP_ID + ", " +
-                                                   COL_HARVEST_SCHEDULE_ID + ", " +
-                                                   COL_FORMAT_ID + ", " +
-                                                   COL_SET_ID + ", " +
-                                                   COL_LAST_RAN + " " +
-                                       "FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get harvest schedule steps by harvest schedule ID\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByHarvestScheduleId = dbConnectionManager.prepareStatement(selectSql, psGetByHarvestScheduleId);
-                } // end if(get by harvest schedule ID PreparedStatement not defined)
-
-                // Set the parameters on the PreparedStatement
-                psGetByHarvestScheduleId.setInt(1, harvestSchedlueId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByHarvestScheduleId);
-
-                // For each result returned, add a HarvestScheduleStep object to the list with the returned data
-                while (results.next()) {
-                    // The Object which will contain data on the harvest schedule step
-                    HarvestScheduleStep harvestScheduleStep = new HarvestScheduleStep();
-
-                    // Set the fields on the harvest schedule step
-                    harvestScheduleStep.setId(results.getInt(1));
-                    harvestScheduleStep.setSchedule(getHarvestScheduleDAO().loadWithoutSteps(results.getInt(2)));
-                    harvestScheduleStep.setFormat(getFormatDAO().getById(results.getInt(3)));
-                    harvestScheduleStep.setSet(results.getInt(4) == 0 ? null : getSetDAO().loadBasicSet(results.getInt(4)));
-                    harvestScheduleStep.setLastRan(results.getTimestamp(5));
-
-                    // Add the harvest schedule step to the list
-                    harvestScheduleSteps.add(harvestScheduleStep);
-                } // end loop over results
+                log.debug("Found " + harvestScheduleSteps.size() + " harvest schedule steps in the database.");
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + harvestScheduleSteps.size() + " harvest schedule steps in the database.");
-
-                return harvestScheduleSteps;
-            } // end try(get harvest schedule steps)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the harvest schedule steps.", e);
-
-                return harvestScheduleSteps;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getStepsForSchedule(harvestSchedlueId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return harvestScheduleSteps;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the harvest schedule steps.", e);
+
+            return new ArrayList<HarvestScheduleStep>();
+        }
     } // end method getStepsForSchedule(int)
 
     @Override
     public boolean insert(HarvestScheduleStep harvestScheduleStep, int harvestScheduleId) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Check that the non-ID fields on the user are valid
+        // Check that the non-ID fields on the harvest schedule step are valid
         validateFields(harvestScheduleStep, false, true);
 
-        // Insert the format if it hasn't already been inserted
+        // Insert the format and set if they weren't already in the database
         if (harvestScheduleStep.getFormat().getId() <= 0)
             if (!getFormatDAO().insert(harvestScheduleStep.getFormat()))
                 return false;
 
-        // Insert the set if it hasn't already been inserted
         if (harvestScheduleStep.getSet() != null && harvestScheduleStep.getSet().getId() <= 0)
             if (!getSetDAO().insert(harvestScheduleStep.getSet()))
                 return false;
 
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Inserting a new harvest schedule step with harvest schedule ID " + harvestScheduleId);
-
-            // The ResultSet returned by the query
-            ResultSet rs = null;
-
-            try {
-                // If the PreparedStatement to insert a harvest schedule step was not defined, create it
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " (" + COL_HARVEST_SCHEDULE_ID + ", " +
-                                                                            COL_FORMAT_ID + ", " +
-                                                                            COL_SET_ID + ", " +
-                                                                            COL_LAST_RAN + ") " +
-                                       "VALUES (?, ?, ?, ?)";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the PreparedStatement to insert a harvest schedule step from the SQL " + insertSql);
-
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                } // end if(insert PreparedStatement not defined)
-
-                // Set the parameters on the insert statement
-                psInsert.setInt(1, harvestScheduleId);
-                psInsert.setInt(2, harvestScheduleStep.getFormat().getId());
-                psInsert.setInt(3, (harvestScheduleStep.getSet() == null ? 0 : harvestScheduleStep.getSet().getId()));
-                if (harvestScheduleStep.getLastRan() != null) {
-                    psInsert.setDate(4, new java.sql.Date(harvestScheduleStep.getLastRan().getTime()));
-                } else {
-                    psInsert.setDate(4, null);
-                }
-
-                // Execute the insert statement and return the result
-                if (dbConnectionManager.executeUpdate(psInsert) > 0) {
-                    // Get the auto-generated resource identifier ID and set it correctly on this HarvestSchedule Object
-                    rs = dbConnectionManager.createStatement().executeQuery("SELECT LAST_INSERT_ID()");
-
-                    if (rs.next())
-                        harvestScheduleStep.setId(rs.getInt(1));
-
-                    return true;
-                } // end if(insert succeeded)
+        if (log.isDebugEnabled())
+            log.debug("Inserting a new harvest schedule step with harvest schedule ID " + harvestScheduleId);
 
+        try {
+            long id = insertForKey(INSERT_SQL, harvestScheduleId,
+                                               harvestScheduleStep.getFormat().getId(),
+                                               (harvestScheduleStep.getSet() == null ? 0 : harvestScheduleStep.getSet().getId()),
+                                               getLastRan(harvestScheduleStep));
+            if (id < 0)
                 return false;
-            } // end try(insert the row)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while inserting a new harvest schedule step with harvest schedule ID " + harvestScheduleId, e);
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(harvestScheduleStep, harvestScheduleId);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            harvestScheduleStep.setId((int) id);
+            return true;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while inserting a new harvest schedule step with harvest schedule ID " + harvestScheduleId, e);
+
+            return false;
+        }
     } // end method insert(HarvestScheduleStep)
 
     @Override
     public boolean update(HarvestScheduleStep harvestScheduleStep, int harvestScheduleId) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Check that the fields on the user are valid
+        // Check that the fields on the harvest schedule step are valid
         validateFields(harvestScheduleStep, true, true);
 
-        // Insert the format if it hasn't already been inserted
+        // Insert the format and set if they weren't already in the database
         if (harvestScheduleStep.getFormat().getId() <= 0)
             if (!getFormatDAO().insert(harvestScheduleStep.getFormat()))
                 return false;
 
-        // Insert the set if it hasn't already been inserted
         if (harvestScheduleStep.getSet() != null && harvestScheduleStep.getSet().getId() <= 0)
             if (!getSetDAO().insert(harvestScheduleStep.getSet()))
                 return false;
 
-        synchronized (psUpdateLock) {
-            if (log.isDebugEnabled())
-                log.debug("Updating the harvest schedule step with ID " + harvestScheduleStep.getId());
-
-            try {
-                if (psUpdate == null || dbConnectionManager.isClosed(psUpdate)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " SET " + COL_HARVEST_SCHEDULE_ID + "=?, " +
-                                                                          COL_FORMAT_ID + "=?, " +
-                                                                          COL_SET_ID + "=?, " +
-                                                                          COL_LAST_RAN + "=? " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_STEP_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"update harvest schedule step\" PreparedStatement from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psUpdate = dbConnectionManager.prepareStatement(updateSql, psUpdate);
-                } // end if(update PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psUpdate.setInt(1, harvestScheduleId);
-                psUpdate.setInt(2, harvestScheduleStep.getFormat().getId());
-                psUpdate.setInt(3, (harvestScheduleStep.getSet() == null ? 0 : harvestScheduleStep.getSet().getId()));
-                if (harvestScheduleStep.getLastRan() != null) {
-                    psInsert.setDate(4, new java.sql.Date(harvestScheduleStep.getLastRan().getTime()));
-                } else {
-                    psInsert.setDate(4, null);
-                }
-                psUpdate.setInt(5, harvestScheduleStep.getId());
-
-                // Execute the update statement and return the result
-                return dbConnectionManager.executeUpdate(psUpdate) > 0;
-            } // end try(update the row)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the harvest schedule step with ID " + harvestScheduleStep.getId(), e);
+        if (log.isDebugEnabled())
+            log.debug("Updating the harvest schedule step with ID " + harvestScheduleStep.getId());
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return update(harvestScheduleStep, harvestScheduleId);
-            }
-        } // end synchronized
+        try {
+            return jdbcTemplate.update(UPDATE_SQL, harvestScheduleId,
+                                                   harvestScheduleStep.getFormat().getId(),
+                                                   (harvestScheduleStep.getSet() == null ? 0 : harvestScheduleStep.getSet().getId()),
+                                                   getLastRan(harvestScheduleStep),
+                                                   harvestScheduleStep.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the harvest schedule step with ID " + harvestScheduleStep.getId(), e);
+
+            return false;
+        }
     } // end method update(HarvestScheduleStep)
 
     @Override
     public boolean delete(HarvestScheduleStep harvestScheduleStep) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Check that the ID field on the user are valid
+        // Check that the ID field on the harvest schedule step are valid
         validateFields(harvestScheduleStep, true, false);
 
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the harvest schedule step with ID " + harvestScheduleStep.getId());
-
-            try {
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_STEP_ID + " = ? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"delete harvest step schedule\" PrepareStatement from the SQL " + deleteSql);
-
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if(delete PreparedStatement not defined)
-
-                // Set the parameters on the delete statement
-                psDelete.setInt(1, harvestScheduleStep.getId());
+        if (log.isDebugEnabled())
+            log.debug("Deleting the harvest schedule step with ID " + harvestScheduleStep.getId());
 
-                // Execute the delete statement and return the result
-                return dbConnectionManager.execute(psDelete);
-            } // end try(delete the row)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the harvest schedule step with ID " + harvestScheduleStep.getId(), e);
+        try {
+            return jdbcTemplate.update(DELETE_SQL, harvestScheduleStep.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the harvest schedule step with ID " + harvestScheduleStep.getId(), e);
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(harvestScheduleStep);
-            }
-        } // end synchronized
+            return false;
+        }
     } // end method delete(HarvestScheduleStep)
 
     @Override
     public boolean deleteStepsForSchedule(int harvestScheduleId) {
-        synchronized (psDeleteStepsForScheduleLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the harvest schedule steps for the harvest schedule with ID " + harvestScheduleId);
-
-            try {
-                if (psDeleteStepsForSchedule == null || dbConnectionManager.isClosed(psDeleteStepsForSchedule)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + HARVEST_SCHEDULE_STEP_TABLE_NAME + " " +
-                                       "WHERE " + COL_HARVEST_SCHEDULE_ID + " = ? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"delete harvest schedule steps for harvest schedule\" PrepareStatement from the SQL " + deleteSql);
-
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDeleteStepsForSchedule = dbConnectionManager.prepareStatement(deleteSql, psDeleteStepsForSchedule);
-                } // end if(delete PreparedStatement not defined)
+        if (log.isDebugEnabled())
+            log.debug("Deleting the harvest schedule steps for the harvest schedule with ID " + harvestScheduleId);
 
-                // Set the parameters on the delete statement
-                psDeleteStepsForSchedule.setInt(1, harvestScheduleId);
+        try {
+            return jdbcTemplate.update(DELETE_STEPS_FOR_SCHEDULE_SQL, harvestScheduleId) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the harvest schedule step for the harvest schedule with ID " + harvestScheduleId, e);
 
-                // Execute the delete statement and return the result
-                return dbConnectionManager.execute(psDeleteStepsForSchedule);
-            } // end try(delete the rows)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the harvest schedule step for the harvest schedule with ID " + harvestScheduleId, e);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return deleteStepsForSchedule(harvestScheduleId);
-            }
-        } // end synchronized
+            return false;
+        }
     } // end method deleteStepsForSchedule(int)
+
+    /**
+     * The step's last run as written to the database, which only keeps its date
+     */
+    private static java.sql.Date getLastRan(HarvestScheduleStep harvestScheduleStep) {
+        return (harvestScheduleStep.getLastRan() == null ? null : new java.sql.Date(harvestScheduleStep.getLastRan().getTime()));
+    }
 } // end class DefaultHarvestScheduleStepDAO
@@ -19,7 +19,6 @@ import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Data Access Object for the harvests table
@@ -32,11 +31,6 @@ public abstract class HarvestDAO extends BaseDAO {
      */
     protected static Logger log = Logger.getLogger(Constants.LOGGER_GENERAL);
 
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the database table we're interacting with
      */
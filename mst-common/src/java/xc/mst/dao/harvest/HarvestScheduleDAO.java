@@ -20,7 +20,6 @@ import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Data Access Object for the harvest schedules table
@@ -33,11 +32,6 @@ public abstract class HarvestScheduleDAO extends BaseDAO {
      */
     protected static Logger log = Logger.getLogger(Constants.LOGGER_GENERAL);
 
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the database table we're interacting with
      */
@@ -9,13 +9,10 @@
 
 package xc.mst.dao.processing;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
-import xc.mst.dao.DBConnectionResetException;
+import org.springframework.dao.DataAccessException;
 
 /**
  * MySQL implementation of the utility class for manipulating the sets that trigger a processing directive
@@ -24,239 +21,90 @@ import xc.mst.dao.DBConnectionResetException;
  */
 public class DefaultProcessingDirectiveInputSetUtilDAO extends ProcessingDirectiveInputSetUtilDAO {
     /**
-     * A PreparedStatement to add an input set to a processing directive into the database
+     * SQL to add an input set to a processing directive into the database
      */
-    private static PreparedStatement psInsert = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME +
+            " (" + COL_PROCESSING_DIRECTIVE_ID + ", " +
+            COL_SET_ID + ") " +
+            "VALUES (?, ?)";
 
     /**
-     * A PreparedStatement to remove an input set to a processing directive into the database
+     * SQL to remove an input set to a processing directive into the database
      */
-    private static PreparedStatement psDelete = null;
+    private static final String DELETE_SQL =
+            "DELETE FROM " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME + " " +
+            "WHERE " + COL_PROCESSING_DIRECTIVE_ID + "=? " +
+            "AND " + COL_SET_ID + "=? ";
 
     /**
-     * A PreparedStatement to get the input sets for a processing directive
+     * SQL to get the input sets for a processing directive
      */
-    private static PreparedStatement psGetInputSetsForProcessingDirective = null;
+    private static final String GET_INPUT_SETS_FOR_PROCESSING_DIRECTIVE_SQL =
+            "SELECT " + COL_SET_ID + " " +
+            "FROM " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME + " " +
+            "WHERE " + COL_PROCESSING_DIRECTIVE_ID + "=?";
 
     /**
-     * A PreparedStatement to remove all input sets from a processing directive
+     * SQL to remove all input sets from a processing directive
      */
-    private static PreparedStatement psDeleteInputSetsForProcessingDirective = null;
-
-    /**
-     * Lock to prevent concurrent access of the prepared statement to add an
-     * input set to a processing directive into the database
-     */
-    private static Object psInsertLock = new Object();
-
-    /**
-     * Lock to prevent concurrent access of the prepared statement to remove an
-     * input set to a processing directive into the database
-     */
-    private static Object psDeleteLock = new Object();
-
-    /**
-     * Lock to prevent concurrent access of the prepared statement to get
-     * the input sets for a processing directive
-     */
-    private static Object psGetInputSetsForProcessingDirectiveLock = new Object();
-
-    /**
-     * Lock to prevent concurrent access of the prepared statement to
-     * remove all input sets from a processing directive
-     */
-    private static Object psDeleteInputSetsForProcessingDirectiveLock = new Object();
+    private static final String DELETE_INPUT_SETS_FOR_PROCESSING_DIRECTIVE_SQL =
+            "DELETE FROM " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME + " " +
+            "WHERE " + COL_PROCESSING_DIRECTIVE_ID + "=? ";
 
     @Override
     public boolean insert(int processingDirectiveId, int inputSetId) {
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Adding the set with ID " + inputSetId + " as input for the processing directive with ID " + processingDirectiveId + ".");
-
-            // The ResultSet returned by the query
-            ResultSet rs = null;
-
-            try {
-                // If the PreparedStatement to add an input set to a processing directive is not defined, create it
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME +
-                                                        " (" + COL_PROCESSING_DIRECTIVE_ID + ", " +
-                                                               COL_SET_ID + ") " +
-                                       "VALUES (?, ?)";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"add input set to processing directive\" PreparedStatement from the SQL " + insertSql);
+        if (log.isDebugEnabled())
+            log.debug("Adding the set with ID " + inputSetId + " as input for the processing directive with ID " + processingDirectiveId + ".");
 
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                } // end if (insert prepared statement is null)
+        try {
+            return jdbcTemplate.update(INSERT_SQL, processingDirectiveId, inputSetId) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while adding the set with ID " + inputSetId + " as input for the processing directive with ID " + processingDirectiveId + ".", e);
 
-                // Set the parameters on the insert statement
-                psInsert.setInt(1, processingDirectiveId);
-                psInsert.setInt(2, inputSetId);
-
-                // Execute the insert statement and return the result
-                return dbConnectionManager.executeUpdate(psInsert) > 0;
-            } // end try (insert the group)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while adding the set with ID " + inputSetId + " as input for the processing directive with ID " + processingDirectiveId + ".", e);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(processingDirectiveId, inputSetId);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally
-        } // end synchronized
+            return false;
+        }
     } // end method insert(int, int)
 
     @Override
     public boolean delete(int processingDirectiveId, int setId) {
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Removing the set with ID " + setId + " as input for the processing directive with ID " + processingDirectiveId + ".");
-
-            // The ResultSet returned by the query
-            ResultSet rs = null;
-
-            try {
-                // If the PreparedStatement to delete an input set for a processing directive is not defined, create it
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to insert the new row
-                    String deleteSql = "DELETE FROM " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME + " " +
-                                       "WHERE " + COL_PROCESSING_DIRECTIVE_ID + "=? " +
-                                       "AND " + COL_SET_ID + "=? ";
+        if (log.isDebugEnabled())
+            log.debug("Removing the set with ID " + setId + " as input for the processing directive with ID " + processingDirectiveId + ".");
 
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"remove input set from processing directive\" PreparedStatement from the SQL " + deleteSql);
+        try {
+            return jdbcTemplate.update(DELETE_SQL, processingDirectiveId, setId) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while removing the input set with ID " + setId + " from the processing directive with ID " + processingDirectiveId + ".", e);
 
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if (insert prepared statement is null)
-
-                // Set the parameters on the insert statement
-                psDelete.setInt(1, processingDirectiveId);
-                psDelete.setInt(2, setId);
-
-                // Execute the delete statement and return the result
-                return dbConnectionManager.executeUpdate(psDelete) > 0;
-            } // end try (delete the group)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while removing the input set with ID " + setId + " from the processing directive with ID " + processingDirectiveId + ".", e);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(processingDirectiveId, setId);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally
-        } // end synchronized
+            return false;
+        }
     } // end method delete(int, int)
 
     @Override
     public List<Integer> getInputSetsForProcessingDirective(int processingDirectiveId) {
-        synchronized (psGetInputSetsForProcessingDirectiveLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the input sets for the processing directive with ID " + processingDirectiveId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // The list of groups for the user with the passed ID
-            List<Integer> setIds = new ArrayList<Integer>();
-
-            try {
-                // If the PreparedStatement to get input sets by processing directive ID wasn't defined, create it
-                if (psGetInputSetsForProcessingDirective == null || dbConnectionManager.isClosed(psGetInputSetsForProcessingDirective)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_SET_ID + " " +
-                                       "FROM " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME + " " +
-                                       "WHERE " + COL_PROCESSING_DIRECTIVE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get groups for user\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetInputSetsForProcessingDirective = dbConnectionManager.prepareStatement(selectSql, psGetInputSetsForProcessingDirective);
-                }
-
-                // Set the parameters on the select statement
-                psGetInputSetsForProcessingDirective.setInt(1, processingDirectiveId);
+        if (log.isDebugEnabled())
+            log.debug("Getting the input sets for the processing directive with ID " + processingDirectiveId);
 
-                // Get the result of the SELECT statement
+        try {
+            return jdbcTemplate.queryForList(GET_INPUT_SETS_FOR_PROCESSING_DIRECTIVE_SQL, Integer.class, processingDirectiveId);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the sets that are input for the processing directive with ID " + processingDirectiveId, e);
 
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetInputSetsForProcessingDirective);
-
-                // For each result returned, add a set ID to the list with the returned data
-                while (results.next())
-                    setIds.add(new Integer(results.getInt(1)));
-
-                if (log.isDebugEnabled())
-                    log.debug("Found " + setIds.size() + " sets that are input to the processing directive with ID " + processingDirectiveId + ".");
-
-                return setIds;
-            } // end try (get and return results)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the sets that are input for the processing directive with ID " + processingDirectiveId, e);
-
-                return setIds;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getInputSetsForProcessingDirective(processingDirectiveId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally
-        } // end synchronized
+            return new ArrayList<Integer>();
+        }
     } // end method getInputSetsForProcessingDirective(int)
 
     @Override
     public boolean deleteInputSetsForProcessingDirective(int processingDirectiveId) {
-        synchronized (psDeleteInputSetsForProcessingDirectiveLock) {
-            if (log.isDebugEnabled())
-                log.debug("Removing the input sets from the processing directive with ID " + processingDirectiveId);
-
-            try {
-                // If the PreparedStatement to delete input sets by processing directive ID wasn't defined, create it
-                if (psDeleteInputSetsForProcessingDirective == null || dbConnectionManager.isClosed(psDeleteInputSetsForProcessingDirective)) {
-                    // SQL to get the rows
-                    String selectSql = "DELETE FROM " + PROCESSING_DIRECTIVES_TO_INPUT_SETS_TABLE_NAME + " " +
-                                       "WHERE " + COL_PROCESSING_DIRECTIVE_ID + "=? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"remove input sets from processing directive\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDeleteInputSetsForProcessingDirective = dbConnectionManager.prepareStatement(selectSql, psDeleteInputSetsForProcessingDirective);
-                }
-
-                // Set the parameters on the select statement
-                psDeleteInputSetsForProcessingDirective.setInt(1, processingDirectiveId);
-
-                // Get the result of the SELECT statement
+        if (log.isDebugEnabled())
+            log.debug("Removing the input sets from the processing directive with ID " + processingDirectiveId);
 
-                // Execute the insert statement and return the result
-                return dbConnectionManager.executeUpdate(psDeleteInputSetsForProcessingDirective) > 0;
-            } // end try (remove all sets that are input for the processing directive)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the sets that are input for the processing directive with ID ID " + processingDirectiveId, e);
+        try {
+            return jdbcTemplate.update(DELETE_INPUT_SETS_FOR_PROCESSING_DIRECTIVE_SQL, processingDirectiveId) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the sets that are input for the processing directive with ID ID " + processingDirectiveId, e);
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return deleteInputSetsForProcessingDirective(processingDirectiveId);
-            }
-        } // end synchronized
+            return false;
+        }
     } // end method deleteInputSetsForProcessingDirective(int)
 } // end class DefaultProcessingDirectiveInputSetUtilDAO
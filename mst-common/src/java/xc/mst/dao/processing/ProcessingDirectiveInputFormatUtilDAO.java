@@ -15,7 +15,6 @@ import org.apache.log4j.Logger;
 
 import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Utility class for manipulating the formats that trigger a processing directive
@@ -28,11 +27,6 @@ public abstract class ProcessingDirectiveInputFormatUtilDAO extends BaseDAO {
      */
     protected static Logger log = Logger.getLogger(Constants.LOGGER_GENERAL);
 
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the processing directives to input formats database table
      */
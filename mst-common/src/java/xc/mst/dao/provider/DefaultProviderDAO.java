@@ -9,23 +9,25 @@
 
 package xc.mst.dao.provider;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
 import xc.mst.bo.log.Log;
 import xc.mst.bo.provider.Format;
 import xc.mst.bo.provider.Provider;
 import xc.mst.bo.provider.Set;
 import xc.mst.bo.record.Record;
 import xc.mst.bo.record.RecordIfc;
+import xc.mst.cache.MetadataCache;
 import xc.mst.constants.Constants;
-import xc.mst.dao.DBConnectionResetException;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 import xc.mst.manager.IndexException;
@@ -45,237 +47,311 @@ public class DefaultProviderDAO extends ProviderDAO {
     private static Log logObj = null;
 
     /**
-     * A PreparedStatement to get all providers in the database
+     * The columns of a provider, as read by PROVIDER_MAPPER
      */
-    private static PreparedStatement psGetAll = null;
+    private static final String SELECT_SQL =
+            "SELECT " + COL_PROVIDER_ID + ", " +
+                        COL_CREATED_AT + ", " +
+                        COL_UPDATED_AT + ", " +
+                        COL_NAME + ", " +
+                        COL_OAI_PROVIDER_URL + ", " +
+                        COL_TITLE + ", " +
+                        COL_CREATOR + ", " +
+                        COL_SUBJECT + ", " +
+                        COL_DESCRIPTION + ", " +
+                        COL_PUBLISHER + ", " +
+                        COL_CONTRIBUTORS + ", " +
+                        COL_DATE + ", " +
+                        COL_TYPE + ", " +
+                        COL_FORMAT + ", " +
+                        COL_IDENTIFIER + ", " +
+                        COL_LANGUAGE + ", " +
+                        COL_RELATION + ", " +
+                        COL_COVERAGE + ", " +
+                        COL_RIGHTS + ", " +
+                        COL_SERVICE + ", " +
+                        COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
+                        COL_PROTOCOL_VERSION + ", " +
+                        COL_LAST_VALIDATION_DATE + ", " +
+                        COL_IDENTIFY + ", " +
+                        COL_GRANULARITY + ", " +
+                        COL_LISTFORMATS + ", " +
+                        COL_LISTSETS + ", " +
+                        COL_WARNINGS + ", " +
+                        COL_ERRORS + ", " +
+                        COL_RECORDS_ADDED + ", " +
+                        COL_RECORDS_REPLACED + ", " +
+                        COL_LAST_OAI_REQUEST + ", " +
+                        COL_LAST_HARVEST_END_TIME + ", " +
+                        COL_LAST_LOG_RESET + ", " +
+                        COL_LOG_FILE_NAME + ", " +
+                        COL_RECORDS_TO_HARVEST + " " +
+            "FROM " + PROVIDERS_TABLE_NAME + " ";
 
     /**
-     * A PreparedStatement to get a provider from the database by its ID
+     * SQL to get a provider from the database by its ID
      */
-    private static PreparedStatement psGetById = null;
+    private static final String GET_BY_ID_SQL = SELECT_SQL + "WHERE " + COL_PROVIDER_ID + "=?";
 
     /**
-     * A PreparedStatement to get a provider from the database by its URL
+     * SQL to get a provider from the database by its URL
      */
-    private static PreparedStatement psGetByUrl = null;
+    private static final String GET_BY_URL_SQL = SELECT_SQL + "WHERE " + COL_OAI_PROVIDER_URL + "=?";
 
     /**
-     * A PreparedStatement to get a provider from the database by its name
+     * SQL to get a provider from the database by its name
      */
-    private static PreparedStatement psGetByName = null;
+    private static final String GET_BY_NAME_SQL = SELECT_SQL + "WHERE " + COL_NAME + "=?";
 
     /**
-     * A PreparedStatement to insert a provider into the database
+     * SQL to insert a provider into the database
      */
-    private static PreparedStatement psInsert = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + PROVIDERS_TABLE_NAME + " (" + COL_CREATED_AT + ", " +
+                                                           COL_UPDATED_AT + ", " +
+                                                           COL_NAME + ", " +
+                                                           COL_OAI_PROVIDER_URL + ", " +
+                                                           COL_TITLE + ", " +
+                                                           COL_CREATOR + ", " +
+                                                           COL_SUBJECT + ", " +
+                                                           COL_DESCRIPTION + ", " +
+                                                           COL_PUBLISHER + ", " +
+                                                           COL_CONTRIBUTORS + ", " +
+                                                           COL_DATE + ", " +
+                                                           COL_TYPE + ", " +
+                                                           COL_FORMAT + ", " +
+                                                           COL_IDENTIFIER + ", " +
+                                                           COL_LANGUAGE + ", " +
+                                                           COL_RELATION + ", " +
+                                                           COL_COVERAGE + ", " +
+                                                           COL_RIGHTS + ", " +
+                                                           COL_SERVICE + ", " +
+                                                           COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
+                                                           COL_PROTOCOL_VERSION + ", " +
+                                                           COL_LAST_VALIDATION_DATE + ", " +
+                                                           COL_IDENTIFY + ", " +
+                                                           COL_GRANULARITY + ", " +
+                                                           COL_LISTFORMATS + ", " +
+                                                           COL_LISTSETS + ", " +
+                                                           COL_WARNINGS + ", " +
+                                                           COL_ERRORS + ", " +
+                                                           COL_RECORDS_ADDED + ", " +
+                                                           COL_RECORDS_REPLACED + ", " +
+                                                           COL_LAST_OAI_REQUEST + ", " +
+                                                           COL_LAST_HARVEST_END_TIME + ", " +
+                                                           COL_LAST_LOG_RESET + ", " +
+                                                           COL_LOG_FILE_NAME + ", " +
+                                                           COL_RECORDS_TO_HARVEST + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?," +
+                   " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?," +
+                   " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?," +
+                   " ?, ?, ?, ?, ?, ?)";
 
     /**
-     * A PreparedStatement to update a provider in the database
+     * SQL to update a provider in the database
      */
-    private static PreparedStatement psUpdate = null;
+    private static final String UPDATE_SQL =
+            "UPDATE " + PROVIDERS_TABLE_NAME + " SET " + COL_CREATED_AT + "=?, " +
+                                                         COL_NAME + "=?, " +
+                                                         COL_OAI_PROVIDER_URL + "=?, " +
+                                                         COL_TITLE + "=?, " +
+                                                         COL_CREATOR + "=?, " +
+                                                         COL_SUBJECT + "=?, " +
+                                                         COL_DESCRIPTION + "=?, " +
+                                                         COL_PUBLISHER + "=?, " +
+                                                         COL_CONTRIBUTORS + "=?, " +
+                                                         COL_DATE + "=?, " +
+                                                         COL_TYPE + "=?, " +
+                                                         COL_FORMAT + "=?, " +
+                                                         COL_IDENTIFIER + "=?, " +
+                                                         COL_LANGUAGE + "=?, " +
+                                                         COL_RELATION + "=?, " +
+                                                         COL_COVERAGE + "=?, " +
+                                                         COL_RIGHTS + "=?, " +
+                                                         COL_SERVICE + "=?, " +
+                                                         COL_NEXT_LIST_SETS_LIST_FORMATS + "=?, " +
+                                                         COL_PROTOCOL_VERSION + "=?, " +
+                                                         COL_LAST_VALIDATION_DATE + "=?, " +
+                                                         COL_IDENTIFY + "=?, " +
+                                                         COL_GRANULARITY + "=?, " +
+                                                         COL_LISTFORMATS + "=?, " +
+                                                         COL_LISTSETS + "=?, " +
+                                                         COL_WARNINGS + "=?, " +
+                                                         COL_ERRORS + "=?, " +
+                                                         COL_RECORDS_ADDED + "=?, " +
+                                                         COL_RECORDS_REPLACED + "=?, " +
+                                                         COL_LAST_OAI_REQUEST + "=?, " +
+                                                         COL_LAST_HARVEST_END_TIME + "=?, " +
+                                                         COL_LAST_LOG_RESET + "=?, " +
+                                                         COL_LOG_FILE_NAME + "=?, " +
+                                                         COL_RECORDS_TO_HARVEST + "=? " +
+            "WHERE " + COL_PROVIDER_ID + "=?";
 
     /**
-     * A PreparedStatement to delete a provider from the database
+     * SQL to delete a provider from the database
      */
-    private static PreparedStatement psDelete = null;
+    private static final String DELETE_SQL =
+            "DELETE FROM " + PROVIDERS_TABLE_NAME + " " +
+            "WHERE " + COL_PROVIDER_ID + " = ? ";
 
     /**
-     * Lock to synchronize access to the get all PreparedStatement
+     * Builds a Provider from the columns in SELECT_SQL, without its sets and formats
      */
-    private static Object psGetAllLock = new Object();
+    private static final RowMapper<Provider> PROVIDER_MAPPER = new RowMapper<Provider>() {
+        public Provider mapRow(ResultSet results, int rowNum) throws SQLException {
+            Provider provider = new Provider();
+
+            int i = 1;
+            provider.setId(results.getInt(i++));
+            provider.setCreatedAt(results.getDate(i++));
+            provider.setUpdatedAt(results.getTimestamp(i++));
+            provider.setName(results.getString(i++));
+            provider.setOaiProviderUrl(results.getString(i++));
+            provider.setTitle(results.getString(i++));
+            provider.setCreator(results.getString(i++));
+            provider.setSubject(results.getString(i++));
+            provider.setDescription(results.getString(i++));
+            provider.setPublisher(results.getString(i++));
+            provider.setContributors(results.getString(i++));
+            provider.setDate(results.getDate(i++));
+            provider.setType(results.getString(i++));
+            provider.setFormat(results.getString(i++));
+            provider.setIdentifier(results.getInt(i++));
+            provider.setLanguage(results.getString(i++));
+            provider.setRelation(results.getString(i++));
+            provider.setCoverage(results.getString(i++));
+            provider.setRights(results.getString(i++));
+            provider.setService(results.getBoolean(i++));
+            provider.setNextListSetsListFormats(results.getDate(i++));
+            provider.setProtocolVersion(results.getString(i++));
+            provider.setLastValidationDate(results.getDate(i++));
+            provider.setIdentify(results.getBoolean(i++));
+            provider.setGranularity(results.getString(i++));
+            provider.setListFormats(results.getBoolean(i++));
+            provider.setListSets(results.getBoolean(i++));
+            provider.setWarnings(results.getInt(i++));
+            provider.setErrors(results.getInt(i++));
+            provider.setRecordsAdded(results.getInt(i++));
+            provider.setRecordsReplaced(results.getInt(i++));
+            provider.setLastOaiRequest(results.getString(i++));
+            Timestamp ts = results.getTimestamp(i++);
+            if (ts != null) {
+                provider.setLastHarvestEndTime(new java.util.Date(ts.getTime()));
+            }
+            provider.setLastLogReset(results.getDate(i++));
+            provider.setLogFileName(results.getString(i++));
+            provider.setNumberOfRecordsToHarvest(results.getLong(i++));
 
-    /**
-     * Lock to synchronize access to the get by ID PreparedStatement
-     */
-    private static Object psGetByIdLock = new Object();
+            return provider;
+        }
+    };
 
     /**
-     * Lock to synchronize access to the get by URL PreparedStatement
+     * Providers with their sets and formats, as returned by getById() and getByName()
      */
-    private static Object psGetByUrlLock = new Object();
+    protected MetadataCache<Provider> cache = new MetadataCache<Provider>("providers") {
+        protected int getId(Provider provider) {
+            return provider.getId();
+        }
+
+        protected String getKey(Provider provider) {
+            return provider.getName();
+        }
+
+        // callers change the providers they get back, e.g. while validating an edit
+        protected Provider copy(Provider provider) {
+            return new Provider(provider);
+        }
+    };
+
+    public void init() {
+        super.init();
+        try {
+            logObj = getLogDAO().getById(Constants.LOG_ID_REPOSITORY_MANAGEMENT);
+        } catch (DatabaseConfigException e) {
+            log.error("Could not get the log file location for the repository management log.", e);
+        }
+    }
 
     /**
-     * Lock to synchronize access to the get by name PreparedStatement
+     * Adds the sets, formats and harvested record sets to providers read by PROVIDER_MAPPER,
+     * once the connection has been given back
      */
-    private static Object psGetByNameLock = new Object();
+    private List<Provider> loadSetsAndFormats(List<Provider> providers) throws DatabaseConfigException {
+        for (Provider provider : providers) {
+            provider.setFormats(getFormatDAO().getFormatsForProvider(provider.getId()));
+            provider.setSets(getSetDAO().getSetsForProvider(provider.getId()));
+            provider.setHarvestedRecordSets(getSetDAO().getRecordSetsForProvider(provider.getId()));
+        }
+
+        return providers;
+    }
 
     /**
-     * Lock to synchronize access to the insert PreparedStatement
+     * Gets a single provider, or null if there was none
      */
-    private static Object psInsertLock = new Object();
+    private Provider getOne(String sql, Object arg, String description) {
+        try {
+            List<Provider> providers = jdbcTemplate.query(sql, PROVIDER_MAPPER, arg);
+
+            if (providers.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The provider with " + description + " was not found in the database.");
+
+                return null;
+            }
+
+            if (log.isDebugEnabled())
+                log.debug("Found the provider with " + description + " in the database.");
+
+            return providers.get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the provider with " + description, e);
+
+            return null;
+        }
+    }
 
     /**
-     * Lock to synchronize access to the update PreparedStatement
+     * Writes an error to the repository management log and counts it
      */
-    private static Object psUpdateLock = new Object();
+    private void logError(String message) throws DataException {
+        LogWriter.addError(logObj.getLogFileLocation(), message);
+        logObj.setErrors(logObj.getErrors() + 1);
+        getLogDAO().update(logObj);
+    }
 
     /**
-     * Lock to synchronize access to the delete PreparedStatement
+     * Writes a warning to the repository management log and counts it
      */
-    private static Object psDeleteLock = new Object();
-
-    public void init() {
-        super.init();
-
-        try {
-            logObj = getLogDAO().getById(Constants.LOG_ID_REPOSITORY_MANAGEMENT);
-        } catch (DatabaseConfigException e) {
-            log.error("Could not get the log file location for the repository management log.", e);
-        }
+    private void logWarning(String message) throws DataException {
+        LogWriter.addWarning(logObj.getLogFileLocation(), message);
+        logObj.setWarnings(logObj.getWarnings() + 1);
+        getLogDAO().update(logObj);
     }
 
     @Override
     public List<Provider> getAll() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting all providers");
+
+        try {
+            List<Provider> providers = loadSetsAndFormats(jdbcTemplate.query(SELECT_SQL, PROVIDER_MAPPER));
+            cache.putAll(providers);
 
-        synchronized (psGetAllLock) {
             if (log.isDebugEnabled())
-                log.debug("Getting all providers");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // The list of all providers
-            List<Provider> providers = new ArrayList<Provider>();
-
-            try {
-                // If the PreparedStatement to get all providers was not defined, create it
-                if (psGetAll == null || dbConnectionManager.isClosed(psGetAll)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_PROVIDER_ID + ", " +
-                                                   COL_CREATED_AT + ", " +
-                                                   COL_UPDATED_AT + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_OAI_PROVIDER_URL + ", " +
-                                                   COL_TITLE + ", " +
-                                                   COL_CREATOR + ", " +
-                                                   COL_SUBJECT + ", " +
-                                                   COL_DESCRIPTION + ", " +
-                                                   COL_PUBLISHER + ", " +
-                                                   COL_CONTRIBUTORS + ", " +
-                                                   COL_DATE + ", " +
-                                                   COL_TYPE + ", " +
-                                                   COL_FORMAT + ", " +
-                                                   COL_IDENTIFIER + ", " +
-                                                   COL_LANGUAGE + ", " +
-                                                   COL_RELATION + ", " +
-                                                   COL_COVERAGE + ", " +
-                                                   COL_RIGHTS + ", " +
-                                                   COL_SERVICE + ", " +
-                                                   COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
-                                                   COL_PROTOCOL_VERSION + ", " +
-                                                   COL_LAST_VALIDATION_DATE + ", " +
-                                                   COL_IDENTIFY + ", " +
-                                                   COL_GRANULARITY + ", " +
-                                                   COL_LISTFORMATS + ", " +
-                                                   COL_LISTSETS + ", " +
-                                                   COL_WARNINGS + ", " +
-                                                   COL_ERRORS + ", " +
-                                                   COL_RECORDS_ADDED + ", " +
-                                                   COL_RECORDS_REPLACED + ", " +
-                                                   COL_LAST_OAI_REQUEST + ", " +
-                                                   COL_LAST_HARVEST_END_TIME + ", " +
-                                                   COL_LAST_LOG_RESET + ", " +
-                                                   COL_LOG_FILE_NAME + ", " +
-                                                   COL_RECORDS_TO_HARVEST + " " +
-                                       "FROM " + PROVIDERS_TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get all providers\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetAll = dbConnectionManager.prepareStatement(selectSql, psGetAll);
-                } // end if(get all PreparedStatement not defined)
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAll);
-
-                // For each result returned, add a Provider object to the list with the returned data
-                while (results.next()) {
-                    // The Object which will contain data on the provider
-                    Provider provider = new Provider();
-
-                    int i = 1;
-                    // Set the fields on the provider
-                    provider.setId(results.getInt(i++));
-                    provider.setCreatedAt(results.getDate(i++));
-                    provider.setUpdatedAt(results.getTimestamp(i++));
-                    provider.setName(results.getString(i++));
-                    provider.setOaiProviderUrl(results.getString(i++));
-                    provider.setTitle(results.getString(i++));
-                    provider.setCreator(results.getString(i++));
-                    provider.setSubject(results.getString(i++));
-                    provider.setDescription(results.getString(i++));
-                    provider.setPublisher(results.getString(i++));
-                    provider.setContributors(results.getString(i++));
-                    provider.setDate(results.getDate(i++));
-                    provider.setType(results.getString(i++));
-                    provider.setFormat(results.getString(i++));
-                    provider.setIdentifier(results.getInt(i++));
-                    provider.setLanguage(results.getString(i++));
-                    provider.setRelation(results.getString(i++));
-                    provider.setCoverage(results.getString(i++));
-                    provider.setRights(results.getString(i++));
-                    provider.setService(results.getBoolean(i++));
-                    provider.setNextListSetsListFormats(results.getDate(i++));
-                    provider.setProtocolVersion(results.getString(i++));
-                    provider.setLastValidationDate(results.getDate(i++));
-                    provider.setIdentify(results.getBoolean(i++));
-                    provider.setGranularity(results.getString(i++));
-                    provider.setListFormats(results.getBoolean(i++));
-                    provider.setListSets(results.getBoolean(i++));
-                    provider.setWarnings(results.getInt(i++));
-                    provider.setErrors(results.getInt(i++));
-                    provider.setRecordsAdded(results.getInt(i++));
-                    provider.setRecordsReplaced(results.getInt(i++));
-                    provider.setLastOaiRequest(results.getString(i++));
-                    Timestamp ts = results.getTimestamp(i++);
-                    if (ts != null) {
-                        provider.setLastHarvestEndTime(new java.util.Date(ts.getTime()));
-                    }
-                    provider.setLastLogReset(results.getDate(i++));
-                    provider.setLogFileName(results.getString(i++));
-                    provider.setNumberOfRecordsToHarvest(results.getLong(i++));
-
-                    provider.setSets(getSetDAO().getSetsForProvider(provider.getId()));
-
-                    provider.setFormats(getFormatDAO().getFormatsForProvider(provider.getId()));
-                    provider.setHarvestedRecordSets(getSetDAO().getRecordSetsForProvider(provider.getId()));
-
-                    // Add the provider to the list
-                    providers.add(provider);
-                } // end loop over results
+                log.debug("Found " + providers.size() + " providers in the database.");
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + providers.size() + " providers in the database.");
-
-                return providers;
-            } // end try(get the providers)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the providers.", e);
-
-                return providers;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAll();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return providers;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the providers.", e);
+
+            return new ArrayList<Provider>();
+        }
     } // end method getAll()
 
     @Override
     public List<Provider> getSorted(boolean asc, String columnName) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         if (log.isDebugEnabled())
             log.debug("Getting all providers sorted in " + (asc ? "ascending" : "descending") + " order on the column " + columnName);
 
@@ -285,771 +361,154 @@ public class DefaultProviderDAO extends ProviderDAO {
             return getAll();
         } // end if(sort column invalid)
 
-        // The ResultSet from the SQL query
-        ResultSet results = null;
-
-        // The Statement for getting the rows
-        Statement getSorted = null;
-
-        // The list of all providers
-        List<Provider> providers = new ArrayList<Provider>();
-
         try {
-            // If the PreparedStatement to get all providers was not defined, create it
-
-            // SQL to get the rows
-            String selectSql = "SELECT " + COL_PROVIDER_ID + ", " +
-                                           COL_CREATED_AT + ", " +
-                                           COL_UPDATED_AT + ", " +
-                                           COL_NAME + ", " +
-                                           COL_OAI_PROVIDER_URL + ", " +
-                                           COL_TITLE + ", " +
-                                           COL_CREATOR + ", " +
-                                           COL_SUBJECT + ", " +
-                                           COL_DESCRIPTION + ", " +
-                                           COL_PUBLISHER + ", " +
-                                           COL_CONTRIBUTORS + ", " +
-                                           COL_DATE + ", " +
-                                           COL_TYPE + ", " +
-                                           COL_FORMAT + ", " +
-                                           COL_IDENTIFIER + ", " +
-                                           COL_LANGUAGE + ", " +
-                                           COL_RELATION + ", " +
-                                           COL_COVERAGE + ", " +
-                                           COL_RIGHTS + ", " +
-                                           COL_SERVICE + ", " +
-                                           COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
-                                           COL_PROTOCOL_VERSION + ", " +
-                                           COL_LAST_VALIDATION_DATE + ", " +
-                                           COL_IDENTIFY + ", " +
-                                           COL_GRANULARITY + ", " +
-                                           COL_LISTFORMATS + ", " +
-                                           COL_LISTSETS + ", " +
-                                           COL_WARNINGS + ", " +
-                                           COL_ERRORS + ", " +
-                                           COL_RECORDS_ADDED + ", " +
-                                           COL_RECORDS_REPLACED + ", " +
-                                           COL_LAST_OAI_REQUEST + ", " +
-                                           COL_LAST_HARVEST_END_TIME + ", " +
-                                           COL_LAST_LOG_RESET + ", " +
-                                           COL_LOG_FILE_NAME + ", " +
-                                           COL_RECORDS_TO_HARVEST + " " +
-                               "FROM " + PROVIDERS_TABLE_NAME + " " +
-                               "ORDER BY " + columnName + (asc ? " ASC" : " DESC");
-
-            if (log.isDebugEnabled())
-                log.debug("Creating the \"get all providers sorted\" PreparedStatement from the SQL " + selectSql);
-
-            // A statement to run the select SQL
-            getSorted = dbConnectionManager.createStatement();
-
-            // Get the results of the SELECT statement
-
-            // Execute the query
-            results = getSorted.executeQuery(selectSql);
-
-            // For each result returned, add a Provider object to the list with the returned data
-            while (results.next()) {
-                // The Object which will contain data on the provider
-                Provider provider = new Provider();
-
-                int i = 1;
-                // Set the fields on the provider
-                provider.setId(results.getInt(i++));
-                provider.setCreatedAt(results.getDate(i++));
-                provider.setUpdatedAt(results.getTimestamp(i++));
-                provider.setName(results.getString(i++));
-                provider.setOaiProviderUrl(results.getString(i++));
-                provider.setTitle(results.getString(i++));
-                provider.setCreator(results.getString(i++));
-                provider.setSubject(results.getString(i++));
-                provider.setDescription(results.getString(i++));
-                provider.setPublisher(results.getString(i++));
-                provider.setContributors(results.getString(i++));
-                provider.setDate(results.getDate(i++));
-                provider.setType(results.getString(i++));
-                provider.setFormat(results.getString(i++));
-                provider.setIdentifier(results.getInt(i++));
-                provider.setLanguage(results.getString(i++));
-                provider.setRelation(results.getString(i++));
-                provider.setCoverage(results.getString(i++));
-                provider.setRights(results.getString(i++));
-                provider.setService(results.getBoolean(i++));
-                provider.setNextListSetsListFormats(results.getDate(i++));
-                provider.setProtocolVersion(results.getString(i++));
-                provider.setLastValidationDate(results.getDate(i++));
-                provider.setIdentify(results.getBoolean(i++));
-                provider.setGranularity(results.getString(i++));
-                provider.setListFormats(results.getBoolean(i++));
-                provider.setListSets(results.getBoolean(i++));
-                provider.setWarnings(results.getInt(i++));
-                provider.setErrors(results.getInt(i++));
-                provider.setRecordsAdded(results.getInt(i++));
-                provider.setRecordsReplaced(results.getInt(i++));
-                provider.setLastOaiRequest(results.getString(i++));
-                Timestamp ts = results.getTimestamp(i++);
-                if (ts != null) {
-                    provider.setLastHarvestEndTime(new java.util.Date(ts.getTime()));
-                }
-                provider.setLastLogReset(results.getDate(i++));
-                provider.setLogFileName(results.getString(i++));
-                provider.setNumberOfRecordsToHarvest(results.getLong(i++));
-
-                provider.setSets(getSetDAO().getSetsForProvider(provider.getId()));
-
-                provider.setFormats(getFormatDAO().getFormatsForProvider(provider.getId()));
-                provider.setHarvestedRecordSets(getSetDAO().getRecordSetsForProvider(provider.getId()));
-
-                // Add the provider to the list
-                providers.add(provider);
-            } // end loop over results
+            String selectSql = SELECT_SQL + "ORDER BY " + columnName + (asc ? " ASC" : " DESC");
+            List<Provider> providers = loadSetsAndFormats(jdbcTemplate.query(selectSql, PROVIDER_MAPPER));
 
             if (log.isDebugEnabled())
                 log.debug("Found " + providers.size() + " providers in the database.");
 
             return providers;
-        } // end try(get the providers)
-        catch (SQLException e) {
-            log.error("A SQLException occurred while getting the providers sorted by their name in ascending order.", e);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the providers sorted by " + columnName, e);
 
-            return providers;
-        } // end catch(SQLException)
-        finally {
-            dbConnectionManager.closeResultSet(results);
-
-            try {
-                if (getSorted != null)
-                    getSorted.close();
-            } // end try(close the Statement)
-            catch (SQLException e) {
-                log.error("An error occurred while trying to close the \"get processing directives sorted\" Statement");
-            } // end catch(SQLException)
-        } // end finally(close ResultSet)
+            return new ArrayList<Provider>();
+        }
     } // end method getSorted(boolean, String)
 
     @Override
     public Provider getById(int providerId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        Provider provider = cache.get(providerId);
+        if (provider != null)
+            return provider;
 
-        Provider provider = loadBasicProvider(providerId);
+        provider = loadBasicProvider(providerId);
 
-        // If we found the provider, set up its sets and formats
         if (provider != null) {
-            provider.setFormats(getFormatDAO().getFormatsForProvider(provider.getId()));
-            provider.setSets(getSetDAO().getSetsForProvider(provider.getId()));
-            provider.setHarvestedRecordSets(getSetDAO().getRecordSetsForProvider(provider.getId()));
-        } // end if(provider found)
+            loadSetsAndFormats(Collections.singletonList(provider));
+            cache.put(provider);
+        }
 
         return provider;
     } // end method getById(int)
 
     @Override
     public Provider getByURL(String providerURL) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByUrlLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the provider with URL " + providerURL);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a provider by URL was not defined, create it
-                if (psGetByUrl == null || dbConnectionManager.isClosed(psGetByUrl)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_PROVIDER_ID + ", " +
-                                                   COL_CREATED_AT + ", " +
-                                                   COL_UPDATED_AT + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_OAI_PROVIDER_URL + ", " +
-                                                   COL_TITLE + ", " +
-                                                   COL_CREATOR + ", " +
-                                                   COL_SUBJECT + ", " +
-                                                   COL_DESCRIPTION + ", " +
-                                                   COL_PUBLISHER + ", " +
-                                                   COL_CONTRIBUTORS + ", " +
-                                                   COL_DATE + ", " +
-                                                   COL_TYPE + ", " +
-                                                   COL_FORMAT + ", " +
-                                                   COL_IDENTIFIER + ", " +
-                                                   COL_LANGUAGE + ", " +
-                                                   COL_RELATION + ", " +
-                                                   COL_COVERAGE + ", " +
-                                                   COL_RIGHTS + ", " +
-                                                   COL_SERVICE + ", " +
-                                                   COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
-                                                   COL_PROTOCOL_VERSION + ", " +
-                                                   COL_LAST_VALIDATION_DATE + ", " +
-                                                   COL_IDENTIFY + ", " +
-                                                   COL_GRANULARITY + ", " +
-                                                   COL_LISTFORMATS + ", " +
-                                                   COL_LISTSETS + ", " +
-                                                   COL_WARNINGS + ", " +
-                                                   COL_ERRORS + ", " +
-                                                   COL_RECORDS_ADDED + ", " +
-                                                   COL_RECORDS_REPLACED + ", " +
-                                                   COL_LAST_OAI_REQUEST + ", " +
-                                                   COL_LAST_HARVEST_END_TIME + ", " +
-                                                   COL_LAST_LOG_RESET + ", " +
-                                                   COL_LOG_FILE_NAME + ", " +
-                                                   COL_RECORDS_TO_HARVEST + " " +
-
-                                                   "FROM " + PROVIDERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_OAI_PROVIDER_URL + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get provider by URL\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByUrl = dbConnectionManager.prepareStatement(selectSql, psGetByUrl);
-                } // end if(get by URL PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetByUrl.setString(1, providerURL);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByUrl);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the provider
-                    Provider provider = new Provider();
-
-                    int i = 1;
-                    // Set the fields on the provider
-                    provider.setId(results.getInt(i++));
-                    provider.setCreatedAt(results.getDate(i++));
-                    provider.setUpdatedAt(results.getTimestamp(i++));
-                    provider.setName(results.getString(i++));
-                    provider.setOaiProviderUrl(results.getString(i++));
-                    provider.setTitle(results.getString(i++));
-                    provider.setCreator(results.getString(i++));
-                    provider.setSubject(results.getString(i++));
-                    provider.setDescription(results.getString(i++));
-                    provider.setPublisher(results.getString(i++));
-                    provider.setContributors(results.getString(i++));
-                    provider.setDate(results.getDate(i++));
-                    provider.setType(results.getString(i++));
-                    provider.setFormat(results.getString(i++));
-                    provider.setIdentifier(results.getInt(i++));
-                    provider.setLanguage(results.getString(i++));
-                    provider.setRelation(results.getString(i++));
-                    provider.setCoverage(results.getString(i++));
-                    provider.setRights(results.getString(i++));
-                    provider.setService(results.getBoolean(i++));
-                    provider.setNextListSetsListFormats(results.getDate(i++));
-                    provider.setProtocolVersion(results.getString(i++));
-                    provider.setLastValidationDate(results.getDate(i++));
-                    provider.setIdentify(results.getBoolean(i++));
-                    provider.setGranularity(results.getString(i++));
-                    provider.setListFormats(results.getBoolean(i++));
-                    provider.setListSets(results.getBoolean(i++));
-                    provider.setWarnings(results.getInt(i++));
-                    provider.setErrors(results.getInt(i++));
-                    provider.setRecordsAdded(results.getInt(i++));
-                    provider.setRecordsReplaced(results.getInt(i++));
-                    provider.setLastOaiRequest(results.getString(i++));
-                    Timestamp ts = results.getTimestamp(i++);
-                    if (ts != null) {
-                        provider.setLastHarvestEndTime(new java.util.Date(ts.getTime()));
-                    }
-                    provider.setLastLogReset(results.getDate(i++));
-                    provider.setLogFileName(results.getString(i++));
-                    provider.setNumberOfRecordsToHarvest(results.getLong(i++));
-
-                    provider.setFormats(getFormatDAO().getFormatsForProvider(provider.getId()));
-                    provider.setSets(getSetDAO().getSetsForProvider(provider.getId()));
-                    provider.setHarvestedRecordSets(getSetDAO().getRecordSetsForProvider(provider.getId()));
-                    if (log.isDebugEnabled())
-                        log.debug("Found the provider with URL " + providerURL + " in the database.");
-
-                    // Return the provider
-                    return provider;
-                } // end if(provider found)
+        if (log.isDebugEnabled())
+            log.debug("Getting the provider with URL " + providerURL);
 
-                if (log.isDebugEnabled())
-                    log.debug("The provider with URL " + providerURL + " was not found in the database.");
+        Provider provider = getOne(GET_BY_URL_SQL, providerURL, "URL " + providerURL);
 
-                return null;
-            } // end synchronized
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the provider with URL " + providerURL, e);
+        if (provider != null)
+            loadSetsAndFormats(Collections.singletonList(provider));
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getByURL(providerURL);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally
-        } // end synchronized
+        return provider;
     } // end method getByURL(String)
 
     @Override
     public Provider getByName(String name) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        Provider provider = cache.get(name);
+        if (provider != null)
+            return provider;
 
-        synchronized (psGetByNameLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the provider with the name " + name);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a provider by ID was not defined, create it
-                if (psGetByName == null || dbConnectionManager.isClosed(psGetByName)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_PROVIDER_ID + ", " +
-                                                   COL_CREATED_AT + ", " +
-                                                   COL_UPDATED_AT + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_OAI_PROVIDER_URL + ", " +
-                                                   COL_TITLE + ", " +
-                                                   COL_CREATOR + ", " +
-                                                   COL_SUBJECT + ", " +
-                                                   COL_DESCRIPTION + ", " +
-                                                   COL_PUBLISHER + ", " +
-                                                   COL_CONTRIBUTORS + ", " +
-                                                   COL_DATE + ", " +
-                                                   COL_TYPE + ", " +
-                                                   COL_FORMAT + ", " +
-                                                   COL_IDENTIFIER + ", " +
-                                                   COL_LANGUAGE + ", " +
-                                                   COL_RELATION + ", " +
-                                                   COL_COVERAGE + ", " +
-                                                   COL_RIGHTS + ", " +
-                                                   COL_SERVICE + ", " +
-                                                   COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
-                                                   COL_PROTOCOL_VERSION + ", " +
-                                                   COL_LAST_VALIDATION_DATE + ", " +
-                                                   COL_IDENTIFY + ", " +
-                                                   COL_GRANULARITY + ", " +
-                                                   COL_LISTFORMATS + ", " +
-                                                   COL_LISTSETS + ", " +
-                                                   COL_WARNINGS + ", " +
-                                                   COL_ERRORS + ", " +
-                                                   COL_RECORDS_ADDED + ", " +
-                                                   COL_RECORDS_REPLACED + ", " +
-                                                   COL_LAST_OAI_REQUEST + ", " +
-                                                   COL_LAST_HARVEST_END_TIME + ", " +
-                                                   COL_LAST_LOG_RESET + ", " +
-                                                   COL_LOG_FILE_NAME + ", " +
-                                                   COL_RECORDS_TO_HARVEST + " " +
-                                       "FROM " + PROVIDERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_NAME + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get provider by name\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByName = dbConnectionManager.prepareStatement(selectSql, psGetByName);
-                } // end if(get by name PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetByName.setString(1, name);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByName);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the provider
-                    Provider provider = new Provider();
-
-                    int i = 1;
-                    // Set the fields on the provider
-                    provider.setId(results.getInt(i++));
-                    provider.setCreatedAt(results.getDate(i++));
-                    provider.setUpdatedAt(results.getTimestamp(i++));
-                    provider.setName(results.getString(i++));
-                    provider.setOaiProviderUrl(results.getString(i++));
-                    provider.setTitle(results.getString(i++));
-                    provider.setCreator(results.getString(i++));
-                    provider.setSubject(results.getString(i++));
-                    provider.setDescription(results.getString(i++));
-                    provider.setPublisher(results.getString(i++));
-                    provider.setContributors(results.getString(i++));
-                    provider.setDate(results.getDate(i++));
-                    provider.setType(results.getString(i++));
-                    provider.setFormat(results.getString(i++));
-                    provider.setIdentifier(results.getInt(i++));
-                    provider.setLanguage(results.getString(i++));
-                    provider.setRelation(results.getString(i++));
-                    provider.setCoverage(results.getString(i++));
-                    provider.setRights(results.getString(i++));
-                    provider.setService(results.getBoolean(i++));
-                    provider.setNextListSetsListFormats(results.getDate(i++));
-                    provider.setProtocolVersion(results.getString(i++));
-                    provider.setLastValidationDate(results.getDate(i++));
-                    provider.setIdentify(results.getBoolean(i++));
-                    provider.setGranularity(results.getString(i++));
-                    provider.setListFormats(results.getBoolean(i++));
-                    provider.setListSets(results.getBoolean(i++));
-                    provider.setWarnings(results.getInt(i++));
-                    provider.setErrors(results.getInt(i++));
-                    provider.setRecordsAdded(results.getInt(i++));
-                    provider.setRecordsReplaced(results.getInt(i++));
-                    provider.setLastOaiRequest(results.getString(i++));
-                    Timestamp ts = results.getTimestamp(i++);
-                    if (ts != null) {
-                        provider.setLastHarvestEndTime(new java.util.Date(ts.getTime()));
-                    }
-                    provider.setLastLogReset(results.getDate(i++));
-                    provider.setLogFileName(results.getString(i++));
-                    provider.setNumberOfRecordsToHarvest(results.getLong(i++));
-
-                    provider.setFormats(getFormatDAO().getFormatsForProvider(provider.getId()));
-                    provider.setSets(getSetDAO().getSetsForProvider(provider.getId()));
-                    provider.setHarvestedRecordSets(getSetDAO().getRecordSetsForProvider(provider.getId()));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the provider with the name " + name + " in the database.");
-
-                    // Return the provider
-                    return provider;
-                } // end if(provider found)
+        if (log.isDebugEnabled())
+            log.debug("Getting the provider with the name " + name);
 
-                if (log.isDebugEnabled())
-                    log.debug("The provider with the name " + name + " was not found in the database.");
+        provider = getOne(GET_BY_NAME_SQL, name, "the name " + name);
 
-                return null;
-            } // end try(get provider)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the provider with the name " + name, e);
+        if (provider != null) {
+            loadSetsAndFormats(Collections.singletonList(provider));
+            cache.put(provider);
+        }
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getByName(name);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+        return provider;
     } // end method getByName(String)
 
     @Override
     public Provider loadBasicProvider(int providerId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the provider with ID " + providerId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a provider by ID was not defined, create it
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_PROVIDER_ID + ", " +
-                                                   COL_CREATED_AT + ", " +
-                                                   COL_UPDATED_AT + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_OAI_PROVIDER_URL + ", " +
-                                                   COL_TITLE + ", " +
-                                                   COL_CREATOR + ", " +
-                                                   COL_SUBJECT + ", " +
-                                                   COL_DESCRIPTION + ", " +
-                                                   COL_PUBLISHER + ", " +
-                                                   COL_CONTRIBUTORS + ", " +
-                                                   COL_DATE + ", " +
-                                                   COL_TYPE + ", " +
-                                                   COL_FORMAT + ", " +
-                                                   COL_IDENTIFIER + ", " +
-                                                   COL_LANGUAGE + ", " +
-                                                   COL_RELATION + ", " +
-                                                   COL_COVERAGE + ", " +
-                                                   COL_RIGHTS + ", " +
-                                                   COL_SERVICE + ", " +
-                                                   COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
-                                                   COL_PROTOCOL_VERSION + ", " +
-                                                   COL_LAST_VALIDATION_DATE + ", " +
-                                                   COL_IDENTIFY + ", " +
-                                                   COL_GRANULARITY + "," +
-                                                   COL_LISTFORMATS + ", " +
-                                                   COL_LISTSETS + ", " +
-                                                   COL_WARNINGS + ", " +
-                                                   COL_ERRORS + ", " +
-                                                   COL_RECORDS_ADDED + ", " +
-                                                   COL_RECORDS_REPLACED + ", " +
-                                                   COL_LAST_OAI_REQUEST + ", " +
-                                                   COL_LAST_HARVEST_END_TIME + ", " +
-                                                   COL_LAST_LOG_RESET + ", " +
-                                                   COL_LOG_FILE_NAME + ", " +
-                                                   COL_RECORDS_TO_HARVEST + " " +
-                                       "FROM " + PROVIDERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_PROVIDER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get provider by ID\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get by ID PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psGetById.setInt(1, providerId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the provider
-                    Provider provider = new Provider();
-
-                    int i = 1;
-                    // Set the fields on the provider
-                    provider.setId(results.getInt(i++));
-                    provider.setCreatedAt(results.getDate(i++));
-                    provider.setUpdatedAt(results.getTimestamp(i++));
-                    provider.setName(results.getString(i++));
-                    provider.setOaiProviderUrl(results.getString(i++));
-                    provider.setTitle(results.getString(i++));
-                    provider.setCreator(results.getString(i++));
-                    provider.setSubject(results.getString(i++));
-                    provider.setDescription(results.getString(i++));
-                    provider.setPublisher(results.getString(i++));
-                    provider.setContributors(results.getString(i++));
-                    provider.setDate(results.getDate(i++));
-                    provider.setType(results.getString(i++));
-                    provider.setFormat(results.getString(i++));
-                    provider.setIdentifier(results.getInt(i++));
-                    provider.setLanguage(results.getString(i++));
-                    provider.setRelation(results.getString(i++));
-                    provider.setCoverage(results.getString(i++));
-                    provider.setRights(results.getString(i++));
-                    provider.setService(results.getBoolean(i++));
-                    provider.setNextListSetsListFormats(results.getDate(i++));
-                    provider.setProtocolVersion(results.getString(i++));
-                    provider.setLastValidationDate(results.getDate(i++));
-                    provider.setIdentify(results.getBoolean(i++));
-                    provider.setGranularity(results.getString(i++));
-                    provider.setListFormats(results.getBoolean(i++));
-                    provider.setListSets(results.getBoolean(i++));
-                    provider.setWarnings(results.getInt(i++));
-                    provider.setErrors(results.getInt(i++));
-                    provider.setRecordsAdded(results.getInt(i++));
-                    provider.setRecordsReplaced(results.getInt(i++));
-                    provider.setLastOaiRequest(results.getString(i++));
-                    Timestamp ts = results.getTimestamp(i++);
-                    if (ts != null) {
-                        provider.setLastHarvestEndTime(new java.util.Date(ts.getTime()));
-                    }
-                    provider.setLastLogReset(results.getDate(i++));
-                    provider.setLogFileName(results.getString(i++));
-                    provider.setNumberOfRecordsToHarvest(results.getLong(i++));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the provider with ID " + providerId + " in the database.");
-
-                    // Return the provider
-                    return provider;
-                } // end if(provider found)
-
-                if (log.isDebugEnabled())
-                    log.debug("The provider with ID " + providerId + " was not found in the database.");
-
-                return null;
-            } // end try(get the provider)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the provider with ID " + providerId, e);
+        if (log.isDebugEnabled())
+            log.debug("Getting the provider with ID " + providerId);
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return loadBasicProvider(providerId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+        return getOne(GET_BY_ID_SQL, providerId, "ID " + providerId);
     } // end method loadBasicProvider(int)
 
     @Override
     public boolean insert(Provider provider) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the non-ID fields on the provider are valid
         validateFields(provider, false, true);
 
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Inserting a new provider");
-
-            // The ResultSet returned by the query
-            ResultSet rs = null;
-
-            try {
-                // If the PreparedStatement to insert a provider was not defined, create it
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + PROVIDERS_TABLE_NAME + " (" + COL_CREATED_AT + ", " +
-                                                                            COL_UPDATED_AT + ", " +
-                                                                            COL_NAME + ", " +
-                                                                            COL_OAI_PROVIDER_URL + ", " +
-                                                                            COL_TITLE + ", " +
-                                                                            COL_CREATOR + ", " +
-                                                                            COL_SUBJECT + ", " +
-                                                                            COL_DESCRIPTION + ", " +
-                                                                            COL_PUBLISHER + ", " +
-                                                                            COL_CONTRIBUTORS + ", " +
-                                                                            COL_DATE + ", " +
-                                                                            COL_TYPE + ", " +
-                                                                            COL_FORMAT + ", " +
-                                                                            COL_IDENTIFIER + ", " +
-                                                                            COL_LANGUAGE + ", " +
-                                                                            COL_RELATION + ", " +
-                                                                            COL_COVERAGE + ", " +
-                                                                            COL_RIGHTS + ", " +
-                                                                            COL_SERVICE + ", " +
-                                                                            COL_NEXT_LIST_SETS_LIST_FORMATS + ", " +
-                                                                            COL_PROTOCOL_VERSION + ", " +
-                                                                            COL_LAST_VALIDATION_DATE + ", " +
-                                                                            COL_IDENTIFY + ", " +
-                                                                            COL_GRANULARITY + ", " +
-                                                                            COL_LISTFORMATS + ", " +
-                                                                            COL_LISTSETS + ", " +
-                                                                            COL_WARNINGS + ", " +
-                                                                            COL_ERRORS + ", " +
-                                                                            COL_RECORDS_ADDED + ", " +
-                                                                            COL_RECORDS_REPLACED + ", " +
-                                                                            COL_LAST_OAI_REQUEST + ", " +
-                                                                            COL_LAST_HARVEST_END_TIME + ", " +
-                                                                            COL_LAST_LOG_RESET + ", " +
-                                                                            COL_LOG_FILE_NAME + ", " +
-                                                                            COL_RECORDS_TO_HARVEST + ") " +
-                                       "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?," +
-                                              " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?," +
-                                              " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?," +
-                                              " ?, ?, ?, ?, ?, ?)";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"insert provider\" PreparedStatement from the SQL " + insertSql);
-
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                } // end if(insert PreparedStatement not defined)
-
-                int i = 1;
-                // Set the parameters on the insert statement
-                psInsert.setDate(i++, provider.getCreatedAt());
-                psInsert.setTimestamp(i++, provider.getUpdatedAt());
-                psInsert.setString(i++, provider.getName());
-                psInsert.setString(i++, provider.getOaiProviderUrl());
-                psInsert.setString(i++, provider.getTitle());
-                psInsert.setString(i++, provider.getCreator());
-                psInsert.setString(i++, provider.getSubject());
-                psInsert.setString(i++, provider.getDescription());
-                psInsert.setString(i++, provider.getPublisher());
-                psInsert.setString(i++, provider.getContributors());
-                psInsert.setDate(i++, provider.getDate());
-                psInsert.setString(i++, provider.getType());
-                psInsert.setString(i++, provider.getFormat());
-                psInsert.setInt(i++, provider.getIdentifier());
-                psInsert.setString(i++, provider.getLanguage());
-                psInsert.setString(i++, provider.getRelation());
-                psInsert.setString(i++, provider.getCoverage());
-                psInsert.setString(i++, provider.getRights());
-                psInsert.setBoolean(i++, provider.getService());
-                psInsert.setDate(i++, provider.getNextListSetsListFormats());
-                psInsert.setString(i++, provider.getProtocolVersion());
-                psInsert.setDate(i++, provider.getLastValidationDate());
-                psInsert.setBoolean(i++, provider.getIdentify());
-                psInsert.setString(i++, provider.getGranularity());
-                psInsert.setBoolean(i++, provider.getListFormats());
-                psInsert.setBoolean(i++, provider.getListSets());
-                psInsert.setInt(i++, provider.getWarnings());
-                psInsert.setInt(i++, provider.getErrors());
-                psInsert.setInt(i++, provider.getRecordsAdded());
-                psInsert.setInt(i++, provider.getRecordsReplaced());
-                psInsert.setString(i++, provider.getLastOaiRequest());
-                psInsert.setTimestamp(i++, provider.getLastHarvestEndTime() == null ? null :
-                        new Timestamp(provider.getLastHarvestEndTime().getTime()));
-                psInsert.setDate(i++, provider.getLastLogReset());
-                psInsert.setString(i++, provider.getLogFileName());
-                psInsert.setLong(i++, provider.getNumberOfRecordsToHarvest());
-
-                // Execute the insert statement and return the result
-                if (dbConnectionManager.executeUpdate(psInsert) > 0) {
-                    // Get the auto-generated resource identifier ID and set it correctly on this Provider Object
-                    rs = dbConnectionManager.createStatement().executeQuery("SELECT LAST_INSERT_ID()");
-
-                    if (rs.next())
-                        provider.setId(rs.getInt(1));
-
-                    boolean success = true;
-
-                    // Add the correct formats for the provider
-                    for (Format format : provider.getFormats())
-                        success = getProviderFormatUtilDAO().insert(provider.getId(), format.getId()) && success;
-
-                    // Add the correct sets for the provider
-                    for (Set set : provider.getSets())
-                        success = (set.getId() <= 0 ? getSetDAO().insertForProvider(set, provider.getId()) : getSetDAO().addToProvider(set, provider.getId())) && success;
-
-                    if (success)
-                        LogWriter.addInfo(logObj.getLogFileLocation(), "Added a new repository with the URL " + provider.getOaiProviderUrl());
-                    else {
-                        LogWriter.addWarning(logObj.getLogFileLocation(), "Added a new repository with the URL " + provider.getOaiProviderUrl() + ", but failed to mark which sets and formats it outputs");
-
-                        logObj.setWarnings(logObj.getWarnings() + 1);
-                        getLogDAO().update(logObj);
-                    }
-
-                    return success;
-                } // end if(insert succeeded)
-                else {
-                    LogWriter.addError(logObj.getLogFileLocation(), "Failed to add a new repository with the URL " + provider.getOaiProviderUrl());
-
-                    logObj.setErrors(logObj.getErrors() + 1);
-                    getLogDAO().update(logObj);
-
-                    return false;
-                }
-            } // end try(insert the provider)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while inserting a new provider", e);
-
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurred while trying to add a new repository with the URL " + provider.getOaiProviderUrl());
-
-                logObj.setErrors(logObj.getErrors() + 1);
-                getLogDAO().update(logObj);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(provider);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally(close ResultSet)
-        } // end synchronized
+        if (log.isDebugEnabled())
+            log.debug("Inserting a new provider");
+
+        long id = -1;
+        try {
+            id = insertForKey(INSERT_SQL, provider.getCreatedAt(),
+                                          provider.getUpdatedAt(),
+                                          provider.getName(),
+                                          provider.getOaiProviderUrl(),
+                                          provider.getTitle(),
+                                          provider.getCreator(),
+                                          provider.getSubject(),
+                                          provider.getDescription(),
+                                          provider.getPublisher(),
+                                          provider.getContributors(),
+                                          provider.getDate(),
+                                          provider.getType(),
+                                          provider.getFormat(),
+                                          provider.getIdentifier(),
+                                          provider.getLanguage(),
+                                          provider.getRelation(),
+                                          provider.getCoverage(),
+                                          provider.getRights(),
+                                          provider.getService(),
+                                          provider.getNextListSetsListFormats(),
+                                          provider.getProtocolVersion(),
+                                          provider.getLastValidationDate(),
+                                          provider.getIdentify(),
+                                          provider.getGranularity(),
+                                          provider.getListFormats(),
+                                          provider.getListSets(),
+                                          provider.getWarnings(),
+                                          provider.getErrors(),
+                                          provider.getRecordsAdded(),
+                                          provider.getRecordsReplaced(),
+                                          provider.getLastOaiRequest(),
+                                          getLastHarvestEndTime(provider),
+                                          provider.getLastLogReset(),
+                                          provider.getLogFileName(),
+                                          provider.getNumberOfRecordsToHarvest());
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while inserting a new provider", e);
+
+            logError("An error occurred while trying to add a new repository with the URL " + provider.getOaiProviderUrl());
+
+            return false;
+        }
+
+        if (id < 0) {
+            logError("Failed to add a new repository with the URL " + provider.getOaiProviderUrl());
+
+            return false;
+        }
+
+        provider.setId((int) id);
+
+        boolean success = true;
+
+        // Add the correct formats for the provider
+        for (Format format : provider.getFormats())
+            success = getProviderFormatUtilDAO().insert(provider.getId(), format.getId()) && success;
+
+        // Add the correct sets for the provider
+        for (Set set : provider.getSets())
+            success = (set.getId() <= 0 ? getSetDAO().insertForProvider(set, provider.getId()) : getSetDAO().addToProvider(set, provider.getId())) && success;
+
+        if (success)
+            LogWriter.addInfo(logObj.getLogFileLocation(), "Added a new repository with the URL " + provider.getOaiProviderUrl());
+        else
+            logWarning("Added a new repository with the URL " + provider.getOaiProviderUrl() + ", but failed to mark which sets and formats it outputs");
+
+        return success;
     } // end insert(Provider)
 
     public boolean update(Provider provider) throws DataException {
@@ -1057,257 +516,163 @@ public class DefaultProviderDAO extends ProviderDAO {
     }
 
     public boolean update(Provider provider, boolean revalidate) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        try {
+            return updateProvider(provider, revalidate);
+        } finally {
+            cache.remove(provider);
+        }
+    }
 
+    /**
+     * Writes the provider and, if revalidate is true, its sets and formats
+     */
+    private boolean updateProvider(Provider provider, boolean revalidate) throws DataException {
         // Check that the fields on the provider are valid
         validateFields(provider, true, true);
 
-        synchronized (psUpdateLock) {
-            if (log.isDebugEnabled())
-                log.debug("Updating the provider with ID " + provider.getId());
-
-            try {
-                // If the PreparedStatement to update a provider is not defined, create it
-                if (psUpdate == null || dbConnectionManager.isClosed(psUpdate)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + PROVIDERS_TABLE_NAME + " SET " + COL_CREATED_AT + "=?, " +
-                                                                          COL_NAME + "=?, " +
-                                                                          COL_OAI_PROVIDER_URL + "=?, " +
-                                                                          COL_TITLE + "=?, " +
-                                                                          COL_CREATOR + "=?, " +
-                                                                          COL_SUBJECT + "=?, " +
-                                                                          COL_DESCRIPTION + "=?, " +
-                                                                          COL_PUBLISHER + "=?, " +
-                                                                          COL_CONTRIBUTORS + "=?, " +
-                                                                          COL_DATE + "=?, " +
-                                                                          COL_TYPE + "=?, " +
-                                                                          COL_FORMAT + "=?, " +
-                                                                          COL_IDENTIFIER + "=?, " +
-                                                                          COL_LANGUAGE + "=?, " +
-                                                                          COL_RELATION + "=?, " +
-                                                                          COL_COVERAGE + "=?, " +
-                                                                          COL_RIGHTS + "=?, " +
-                                                                          COL_SERVICE + "=?, " +
-                                                                          COL_NEXT_LIST_SETS_LIST_FORMATS + "=?, " +
-                                                                          COL_PROTOCOL_VERSION + "=?, " +
-                                                                          COL_LAST_VALIDATION_DATE + "=?, " +
-                                                                          COL_IDENTIFY + "=?, " +
-                                                                          COL_GRANULARITY + "=?, " +
-                                                                          COL_LISTFORMATS + "=?, " +
-                                                                          COL_LISTSETS + "=?, " +
-                                                                          COL_WARNINGS + "=?, " +
-                                                                          COL_ERRORS + "=?, " +
-                                                                          COL_RECORDS_ADDED + "=?, " +
-                                                                          COL_RECORDS_REPLACED + "=?, " +
-                                                                          COL_LAST_OAI_REQUEST + "=?, " +
-                                                                          COL_LAST_HARVEST_END_TIME + "=?, " +
-                                                                          COL_LAST_LOG_RESET + "=?, " +
-                                                                          COL_LOG_FILE_NAME + "=?, " +
-                                                                          COL_RECORDS_TO_HARVEST + "=? " +
-                                       "WHERE " + COL_PROVIDER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the PreparedStatement to update a provider from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psUpdate = dbConnectionManager.prepareStatement(updateSql, psUpdate);
-                } // end if(update PreparedStatement not defined)
-
-                int i = 1;
-                // Set the parameters on the update statement
-                psUpdate.setDate(i++, provider.getCreatedAt());
-                psUpdate.setString(i++, provider.getName());
-                psUpdate.setString(i++, provider.getOaiProviderUrl());
-                psUpdate.setString(i++, provider.getTitle());
-                psUpdate.setString(i++, provider.getCreator());
-                psUpdate.setString(i++, provider.getSubject());
-                psUpdate.setString(i++, provider.getDescription());
-                psUpdate.setString(i++, provider.getPublisher());
-                psUpdate.setString(i++, provider.getContributors());
-                psUpdate.setDate(i++, provider.getDate());
-                psUpdate.setString(i++, provider.getType());
-                psUpdate.setString(i++, provider.getFormat());
-                psUpdate.setInt(i++, provider.getIdentifier());
-                psUpdate.setString(i++, provider.getLanguage());
-                psUpdate.setString(i++, provider.getRelation());
-                psUpdate.setString(i++, provider.getCoverage());
-                psUpdate.setString(i++, provider.getRights());
-                psUpdate.setBoolean(i++, provider.getService());
-                psUpdate.setDate(i++, provider.getNextListSetsListFormats());
-                psUpdate.setString(i++, provider.getProtocolVersion());
-                psUpdate.setDate(i++, provider.getLastValidationDate());
-                psUpdate.setBoolean(i++, provider.getIdentify());
-                psUpdate.setString(i++, provider.getGranularity());
-                psUpdate.setBoolean(i++, provider.getListFormats());
-                psUpdate.setBoolean(i++, provider.getListSets());
-                psUpdate.setInt(i++, provider.getWarnings());
-                psUpdate.setInt(i++, provider.getErrors());
-                psUpdate.setInt(i++, provider.getRecordsAdded());
-                psUpdate.setInt(i++, provider.getRecordsReplaced());
-                psUpdate.setString(i++, provider.getLastOaiRequest());
-
-                // I've seen this elsewhere, but for some reason java.sql.Date doesn't put the time into
-                // the db. This goes against the documentation.
-                // http://download.oracle.com/javase/6/docs/api/java/sql/Date.html
-                // http://dev.mysql.com/doc/refman/5.1/en/connector-j-reference-type-conversions.html
-                psUpdate.setTimestamp(i++, provider.getLastHarvestEndTime() == null ? null :
-                        new Timestamp(provider.getLastHarvestEndTime().getTime()));
-
-                psUpdate.setDate(i++, provider.getLastLogReset());
-                psUpdate.setString(i++, provider.getLogFileName());
-                psUpdate.setLong(i++, provider.getNumberOfRecordsToHarvest());
-                psUpdate.setInt(i++, provider.getId());
-
-                // Execute the update statement and return the result
-                // Execute the update statement and return the result
-                if (dbConnectionManager.executeUpdate(psUpdate) > 0) {
-                    if (revalidate) {
-                        // Remove the old permissions for the group
-                        boolean success = getProviderFormatUtilDAO().deleteFormatsForProvider(provider.getId());
-
-                        // Remove all sets from this provider that used to belong to it but no longer do
-                        for (Set set : getSetDAO().getSetsForProvider(provider.getId()))
-                            if (!provider.getSets().contains(set))
-                                success = getSetDAO().removeFromProvider(set, provider.getId()) && success;
-
-                        // Add the correct sets for the provider
-                        for (Set set : provider.getSets())
-                            success = (set.getId() <= 0 ? getSetDAO().insertForProvider(set, provider.getId()) : getSetDAO().addToProvider(set, provider.getId())) && success;
-
-                        // Add the permissions to the group
-                        for (Format format : provider.getFormats())
-                            success = getProviderFormatUtilDAO().insert(provider.getId(), format.getId()) && success;
-
-                        if (success)
-                            LogWriter.addInfo(logObj.getLogFileLocation(), "Updated the repository with the URL " + provider.getOaiProviderUrl());
-                        else {
-                            LogWriter.addWarning(logObj.getLogFileLocation(), "Updated the repository with the URL " + provider.getOaiProviderUrl() + ", but failed to update the sets and formats it outputs");
-
-                            logObj.setWarnings(logObj.getWarnings() + 1);
-                            getLogDAO().update(logObj);
-                        }
-
-                        return success;
-                    } else {
-                        return true;
-                    }
-                } // end if(update successful)
-                else {
-                    LogWriter.addError(logObj.getLogFileLocation(), "Failed to update the repository with the URL " + provider.getOaiProviderUrl());
-
-                    logObj.setErrors(logObj.getErrors() + 1);
-                    getLogDAO().update(logObj);
-
-                    return false;
-                }
-            } // end try(update the provider)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the provider with ID " + provider.getId(), e);
-
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurred while trying to update the repository with the URL " + provider.getOaiProviderUrl());
-
-                logObj.setErrors(logObj.getErrors() + 1);
-                getLogDAO().update(logObj);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return update(provider);
-            }
-        } // end synchronized
-    } // end update(Provider)
+        if (log.isDebugEnabled())
+            log.debug("Updating the provider with ID " + provider.getId());
+
+        boolean updated = false;
+        try {
+            updated = jdbcTemplate.update(UPDATE_SQL, provider.getCreatedAt(),
+                                                      provider.getName(),
+                                                      provider.getOaiProviderUrl(),
+                                                      provider.getTitle(),
+                                                      provider.getCreator(),
+                                                      provider.getSubject(),
+                                                      provider.getDescription(),
+                                                      provider.getPublisher(),
+                                                      provider.getContributors(),
+                                                      provider.getDate(),
+                                                      provider.getType(),
+                                                      provider.getFormat(),
+                                                      provider.getIdentifier(),
+                                                      provider.getLanguage(),
+                                                      provider.getRelation(),
+                                                      provider.getCoverage(),
+                                                      provider.getRights(),
+                                                      provider.getService(),
+                                                      provider.getNextListSetsListFormats(),
+                                                      provider.getProtocolVersion(),
+                                                      provider.getLastValidationDate(),
+                                                      provider.getIdentify(),
+                                                      provider.getGranularity(),
+                                                      provider.getListFormats(),
+                                                      provider.getListSets(),
+                                                      provider.getWarnings(),
+                                                      provider.getErrors(),
+                                                      provider.getRecordsAdded(),
+                                                      provider.getRecordsReplaced(),
+                                                      provider.getLastOaiRequest(),
+                                                      getLastHarvestEndTime(provider),
+                                                      provider.getLastLogReset(),
+                                                      provider.getLogFileName(),
+                                                      provider.getNumberOfRecordsToHarvest(),
+                                                      provider.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the provider with ID " + provider.getId(), e);
+
+            logError("An error occurred while trying to update the repository with the URL " + provider.getOaiProviderUrl());
+
+            return false;
+        }
+
+        if (!updated) {
+            logError("Failed to update the repository with the URL " + provider.getOaiProviderUrl());
+
+            return false;
+        }
+
+        if (!revalidate)
+            return true;
+
+        // Remove the old formats for the provider
+        boolean success = getProviderFormatUtilDAO().deleteFormatsForProvider(provider.getId());
+
+        // Remove all sets from this provider that used to belong to it but no longer do
+        for (Set set : getSetDAO().getSetsForProvider(provider.getId()))
+            if (!provider.getSets().contains(set))
+                success = getSetDAO().removeFromProvider(set, provider.getId()) && success;
+
+        // Add the correct sets for the provider
+        for (Set set : provider.getSets())
+            success = (set.getId() <= 0 ? getSetDAO().insertForProvider(set, provider.getId()) : getSetDAO().addToProvider(set, provider.getId())) && success;
+
+        // Add the correct formats for the provider
+        for (Format format : provider.getFormats())
+            success = getProviderFormatUtilDAO().insert(provider.getId(), format.getId()) && success;
+
+        if (success)
+            LogWriter.addInfo(logObj.getLogFileLocation(), "Updated the repository with the URL " + provider.getOaiProviderUrl());
+        else
+            logWarning("Updated the repository with the URL " + provider.getOaiProviderUrl() + ", but failed to update the sets and formats it outputs");
+
+        return success;
+    } // end updateProvider(Provider, boolean)
 
     @Override
     public boolean delete(Provider provider) throws DataException, IndexException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the ID field on the provider are valid
         validateFields(provider, true, false);
 
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the provider with ID " + provider.getId());
-
-            try {
-                // If the PreparedStatement to delete a provider was not defined, create it
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + PROVIDERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_PROVIDER_ID + " = ? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the PreparedStatement to delete a provider the SQL " + deleteSql);
-
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if(delete PreparedStatement not defined)
-
-                // Set the parameters on the delete statement
-                psDelete.setInt(1, provider.getId());
-
-                // Execute the delete statement and return the result
-                dbConnectionManager.execute(psDelete);
-
-                boolean success = true;
-
-                // If the delete was successful, remove all sets from the provider
-                // without deleting them. Also mark all records from the provider
-                // as deleted, as well as all records processed from them.
-                if (success) {
-                    // Remove the reference from provider to the set
-                    for (Set set : getSetDAO().getSetsForProvider(provider.getId()))
-                        success = getSetDAO().removeFromProvider(set, provider.getId()) && success;
-
-                    // Remove the reference from provider to the harvested record set
-                    for (Set set : getSetDAO().getRecordSetsForProvider(provider.getId()))
-                        success = getSetDAO().removeFromProvider(set, provider.getId()) && success;
-
-                    for (Record record : getRecordService().getByProviderId(provider.getId()))
-                        success = markAsDeleted(record) && success;
-
-                    // TODO performance issue
-                    for (Set set : getSetDAO().getAll())
-                        if (getRecordService().getBySetSpec(set.getSetSpec()).size() == 0)
-                            getSetDAO().delete(set);
-
-                    ((SolrIndexManager) config.getBean("SolrIndexManager")).commitIndex();
-                } // end if(delete succeeded)
-
-                if (success)
-                    LogWriter.addInfo(logObj.getLogFileLocation(), "Deleted the repository with the URL " + provider.getOaiProviderUrl());
-                else {
-                    LogWriter.addWarning(logObj.getLogFileLocation(), "Deleted the repository with the URL " + provider.getOaiProviderUrl() + ", but failed to mark its sets and records as deleted");
-
-                    logObj.setWarnings(logObj.getWarnings() + 1);
-                    getLogDAO().update(logObj);
-                }
-
-                return success;
-            } // end try(delete the provider)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the provider with ID " + provider.getId(), e);
-
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurred while trying to delete the repository with the URL " + provider.getOaiProviderUrl());
-
-                logObj.setErrors(logObj.getErrors() + 1);
-                getLogDAO().update(logObj);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(provider);
-            }
-        } // end synchronized
+        if (log.isDebugEnabled())
+            log.debug("Deleting the provider with ID " + provider.getId());
+
+        try {
+            jdbcTemplate.update(DELETE_SQL, provider.getId());
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the provider with ID " + provider.getId(), e);
+
+            logError("An error occurred while trying to delete the repository with the URL " + provider.getOaiProviderUrl());
+
+            return false;
+        } finally {
+            cache.remove(provider);
+        }
+
+        // Remove all sets from the provider without deleting them. Also mark all records
+        // from the provider as deleted, as well as all records processed from them.
+        boolean success = true;
+
+        // Remove the reference from provider to the set
+        for (Set set : getSetDAO().getSetsForProvider(provider.getId()))
+            success = getSetDAO().removeFromProvider(set, provider.getId()) && success;
+
+        // Remove the reference from provider to the harvested record set
+        for (Set set : getSetDAO().getRecordSetsForProvider(provider.getId()))
+            success = getSetDAO().removeFromProvider(set, provider.getId()) && success;
+
+        for (Record record : getRecordService().getByProviderId(provider.getId()))
+            success = markAsDeleted(record) && success;
+
+        // TODO performance issue
+        for (Set set : getSetDAO().getAll())
+            if (getRecordService().getBySetSpec(set.getSetSpec()).size() == 0)
+                getSetDAO().delete(set);
+
+        ((SolrIndexManager) config.getBean("SolrIndexManager")).commitIndex();
+
+        if (success)
+            LogWriter.addInfo(logObj.getLogFileLocation(), "Deleted the repository with the URL " + provider.getOaiProviderUrl());
+        else
+            logWarning("Deleted the repository with the URL " + provider.getOaiProviderUrl() + ", but failed to mark its sets and records as deleted");
+
+        return success;
     } // end method delete(Provider)
 
+    @Override
+    public void removeFromCache(int providerId) {
+        cache.remove(providerId);
+    } // end method removeFromCache(int)
+
+    /**
+     * java.sql.Date drops the time, so the last harvest end time has to be written as a Timestamp
+     */
+    private static Timestamp getLastHarvestEndTime(Provider provider) {
+        return provider.getLastHarvestEndTime() == null ? null : new Timestamp(provider.getLastHarvestEndTime().getTime());
+    }
+
     /**
      * Marks a record as deleted. Also marks any records processed from it as deleted
      * 
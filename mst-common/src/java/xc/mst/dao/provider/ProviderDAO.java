@@ -20,7 +20,6 @@ import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
-import xc.mst.dao.MySqlConnectionManager;
 import xc.mst.manager.IndexException;
 
 /**
@@ -34,11 +33,6 @@ public abstract class ProviderDAO extends BaseDAO {
      */
     protected static Logger log = Logger.getLogger(Constants.LOGGER_GENERAL);
 
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the database table we're interacting with
      */
@@ -371,6 +365,15 @@ public abstract class ProviderDAO extends BaseDAO {
      */
     public abstract boolean delete(Provider provider) throws DataException, IndexException;
 
+    /**
+     * Drops a provider from the cache, so it's read from the database the next time it's asked for.
+     * Used when something other than this DAO changes the provider's sets or formats.
+     * 
+     * @param providerId
+     *            The ID of the provider
+     */
+    public abstract void removeFromCache(int providerId);
+
     /**
      * Validates the fields on the passed Provider Object
      * 
@@ -12,8 +12,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -98,17 +101,16 @@ public class MessageDAO extends BaseDAO {
     @SuppressWarnings("unused")
     public void persistMessages(final List<RecordMessage> messages) {
         OutputStream os = null;
+        File dbLoadFile = null;
         try {
-            String dbLoadFileStr = (MSTConfiguration.getUrlPath() + "/db_load.in").replace('\\', '/');
+            // of its own, so that jobs persisting messages at the same time can't write over it
+            dbLoadFile = File.createTempFile("db_load_messages_", ".in", new File(MSTConfiguration.getUrlPath()));
+            String dbLoadFileStr = dbLoadFile.getAbsolutePath().replace('\\', '/');
             LOG.debug("dbLoadFileStr: " + dbLoadFileStr);
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
             byte[] tabBytes = "\t".getBytes();
             byte[] newLineBytes = "\n".getBytes();
 
-            File dbLoadFile = new File(dbLoadFileStr);
-            if (dbLoadFile.exists()) {
-                dbLoadFile.delete();
-            }
             os = new BufferedOutputStream(new FileOutputStream(dbLoadFileStr));
             int i = 0;
             TimingLogger.start("MESSAGES_TABLE.insert");
@@ -149,10 +151,6 @@ public class MessageDAO extends BaseDAO {
             TimingLogger.stop("MESSAGES_TABLE.insert.load_infile");
             TimingLogger.stop("MESSAGES_TABLE.insert");
 
-            dbLoadFile = new File(dbLoadFileStr);
-            if (dbLoadFile.exists()) {
-                dbLoadFile.delete();
-            }
             os = new BufferedOutputStream(new FileOutputStream(dbLoadFileStr));
             i = 0;
             TimingLogger.start("MESSAGES_DETAIL_TABLE.insert");
@@ -187,6 +185,10 @@ public class MessageDAO extends BaseDAO {
                 }
             }
             getUtil().throwIt(t);
+        } finally {
+            if (dbLoadFile != null) {
+                dbLoadFile.delete();
+            }
         }
     }
 
@@ -212,6 +214,32 @@ public class MessageDAO extends BaseDAO {
         }
     }
 
+    /**
+     * Does injectMessages(Record) for each of the records, in one query per IN_CLAUSE_SIZE
+     * records.
+     */
+    public void injectMessages(List<Record> records) {
+        Map<Long, Record> byId = new HashMap<Long, Record>();
+        for (Record r : records) {
+            // don't inject messages 2x.
+            if (r.getMessages().size() == 0) {
+                byId.put(r.getId(), r);
+            }
+        }
+        List<Long> ids = new ArrayList<Long>(byId.keySet());
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_SIZE, ids.size()));
+            String sql =
+                    " select m.record_id, m.rec_in_out, m.msg_code, m.msg_level, m.service_id, d.detail " +
+                            " from " + MESSAGES_TABLE + " as m " +
+                            " left outer join " + MESSAGE_DETAILS_TABLE + " as d on (m.record_message_id = d.record_message_id) " +
+                            " where m.record_id in (" + getPlaceholders(chunk.size()) + ") ";
+            for (RecordMessage rm : this.jdbcTemplate.query(sql, chunk.toArray(), new MessageMapper())) {
+                byId.get(rm.getRecord().getId()).addMessage(rm);
+            }
+        }
+    }
+
     private static final class MessageMapper implements RowMapper<RecordMessage> {
         public RecordMessage mapRow(ResultSet rs, int rowNum) throws SQLException {
             RecordMessage rm = new RecordMessage();
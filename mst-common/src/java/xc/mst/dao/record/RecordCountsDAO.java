@@ -10,7 +10,6 @@ package xc.mst.dao.record;
 
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,20 +31,12 @@ public class RecordCountsDAO extends RepositoryDAO {
             if (rc == null) {
                 rc = new RecordCounts((Date) row.get("harvest_start_date"), INCOMING_RECORD_COUNTS);
             }
-            Map<String, AtomicInteger> counts = new LinkedHashMap<String, AtomicInteger>();
-            rc.getCounts().put((String) row.get("type_name"), counts);
-
+            String type = (String) row.get("type_name");
             for (Map.Entry<String, Object> me : row.entrySet()) {
-                if (RecordCounts.INCOMING_STATUS_COLUMN_NAMES.contains(me.getKey())) {
-                    counts.put(me.getKey(), new AtomicInteger((Integer) me.getValue()));
-                } else if (RecordCounts.UNEXPECTED_ERROR.equals(me.getKey())) {
-                    counts.put(me.getKey(), new AtomicInteger((Integer) me.getValue()));
-                } else if (RecordCounts.UPD_PREV_COLUMN_NAMES.containsValue(me.getKey())) {
-                    for (String value : RecordCounts.UPD_PREV_COLUMN_NAMES.values()) {
-                        if (me.getKey().equals(value)) {
-                            counts.put(me.getKey(), new AtomicInteger((Integer) me.getValue()));
-                        }
-                    }
+                if (RecordCounts.INCOMING_STATUS_COLUMN_NAMES.contains(me.getKey()) ||
+                        RecordCounts.UNEXPECTED_ERROR.equals(me.getKey()) ||
+                        RecordCounts.UPD_PREV_COLUMN_NAMES.containsValue(me.getKey())) {
+                    rc.add(type, me.getKey(), (Integer) me.getValue());
                 }
             }
         }
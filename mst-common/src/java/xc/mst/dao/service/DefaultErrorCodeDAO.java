@@ -9,543 +9,225 @@
 
 package xc.mst.dao.service;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
 import xc.mst.bo.service.ErrorCode;
 import xc.mst.bo.service.Service;
-import xc.mst.dao.DBConnectionResetException;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 
 public class DefaultErrorCodeDAO extends ErrorCodeDAO {
-
     /**
-     * A PreparedStatement to get all error codes in the database
+     * The columns of an error code, as read by ERROR_CODE_MAPPER
      */
-    private static PreparedStatement psGetAll = null;
+    private static final String SELECT_SQL =
+            "SELECT " + COL_ERROR_CODE_ID + ", " +
+                        COL_ERROR_CODE + ", " +
+                        COL_ERROR_DESCRIPTION_FILE + ", " +
+                        COL_SERVICE_ID + " " +
+            "FROM " + ERROR_CODES_TABLE_NAME + " ";
 
     /**
-     * A PreparedStatement to get an error code from the database by its ID
+     * SQL to get an error code from the database by its ID
      */
-    private static PreparedStatement psGetById = null;
+    private static final String GET_BY_ID_SQL = SELECT_SQL + "WHERE " + COL_ERROR_CODE_ID + "=?";
 
     /**
-     * A PreparedStatement to get an error code from the database by its error code and service
+     * SQL to get an error code from the database by its error code and service
      */
-    private static PreparedStatement psGetByNameAndService = null;
+    private static final String GET_BY_NAME_AND_SERVICE_SQL =
+            SELECT_SQL + "WHERE " + COL_ERROR_CODE + "=? " +
+                         "AND " + COL_SERVICE_ID + "=?";
 
     /**
-     * A PreparedStatement to insert an error code into the database
+     * SQL to insert an error code into the database
      */
-    private static PreparedStatement psInsert = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + ERROR_CODES_TABLE_NAME + " (" + COL_ERROR_CODE + ", " +
+                                                             COL_ERROR_DESCRIPTION_FILE + ", " +
+                                                             COL_SERVICE_ID + ") " +
+            "VALUES (?, ?, ?)";
 
     /**
-     * A PreparedStatement to update an error code in the database
+     * SQL to update an error code in the database
      */
-    private static PreparedStatement psUpdate = null;
+    private static final String UPDATE_SQL =
+            "UPDATE " + ERROR_CODES_TABLE_NAME + " SET " + COL_ERROR_CODE + "=?, " +
+                                                           COL_ERROR_DESCRIPTION_FILE + "=?, " +
+                                                           COL_SERVICE_ID + "=? " +
+            "WHERE " + COL_ERROR_CODE_ID + "=?";
 
     /**
-     * A PreparedStatement to delete an error code from the database
+     * SQL to delete an error code from the database
      */
-    private static PreparedStatement psDelete = null;
+    private static final String DELETE_SQL =
+            "DELETE FROM " + ERROR_CODES_TABLE_NAME + " " +
+            "WHERE " + COL_ERROR_CODE_ID + " = ? ";
 
     /**
-     * Lock to synchronize access to the get all PreparedStatement
+     * Builds an ErrorCode from the columns in SELECT_SQL. The service only has its ID set;
+     * loadServices() fills in the rest once the connection has been given back.
      */
-    private static Object psGetAllLock = new Object();
+    private static final RowMapper<ErrorCode> ERROR_CODE_MAPPER = new RowMapper<ErrorCode>() {
+        public ErrorCode mapRow(ResultSet results, int rowNum) throws SQLException {
+            ErrorCode errorCode = new ErrorCode();
 
-    /**
-     * Lock to synchronize access to the get by ID PreparedStatement
-     */
-    private static Object psGetByIdLock = new Object();
+            errorCode.setId(results.getInt(1));
+            errorCode.setErrorCode(results.getString(2));
+            errorCode.setErrorDescriptionFile(results.getString(3));
 
-    /**
-     * Lock to synchronize access to the get by name and service PreparedStatement
-     */
-    private static Object psGetByNameAndServiceLock = new Object();
+            Service service = new Service();
+            service.setId(results.getInt(4));
+            errorCode.setService(service);
 
-    /**
-     * Lock to synchronize access to the insert PreparedStatement
-     */
-    private static Object psInsertLock = new Object();
+            return errorCode;
+        }
+    };
 
     /**
-     * Lock to synchronize access to the update PreparedStatement
+     * Replaces the ID-only services set by ERROR_CODE_MAPPER with the full services
      */
-    private static Object psUpdateLock = new Object();
+    private List<ErrorCode> loadServices(List<ErrorCode> errorCodes) throws DatabaseConfigException {
+        for (ErrorCode errorCode : errorCodes)
+            errorCode.setService(getServiceDAO().getById(errorCode.getService().getId()));
 
-    /**
-     * Lock to synchronize access to the delete PreparedStatement
-     */
-    private static Object psDeleteLock = new Object();
+        return errorCodes;
+    }
 
     @Override
     public List<ErrorCode> getAll() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting all error codes");
 
-        synchronized (psGetAllLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting all error codes");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // The list of all services
-            List<ErrorCode> errorCodes = new ArrayList<ErrorCode>();
-
-            try {
-                // Create the PreparedStatment to get all error codes if it hasn't already been created
-                if (psGetAll == null || dbConnectionManager.isClosed(psGetAll)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_ERROR_CODE_ID + ", " +
-                                                   COL_ERROR_CODE + ", " +
-                                                   COL_ERROR_DESCRIPTION_FILE + ", " +
-                                                   COL_SERVICE_ID + " " +
-                                       "FROM " + ERROR_CODES_TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get all error codes\" PreparedStatement from the SQL " + selectSql);
+        try {
+            List<ErrorCode> errorCodes = loadServices(jdbcTemplate.query(SELECT_SQL, ERROR_CODE_MAPPER));
 
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetAll = dbConnectionManager.prepareStatement(selectSql, psGetAll);
-                } // end if(get all PreparedStatement not defined)
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAll);
-
-                // For each result returned, add a Service object to the list with the returned data
-                while (results.next()) {
-                    // The Object which will contain data on the error code
-                    ErrorCode errorCode = new ErrorCode();
-
-                    // Set the fields on the error code
-                    errorCode.setId(results.getInt(1));
-                    errorCode.setErrorCode(results.getString(2));
-                    errorCode.setErrorDescriptionFile(results.getString(3));
-                    errorCode.setService(getServiceDAO().getById(results.getInt(4)));
+            if (log.isDebugEnabled())
+                log.debug("Found " + errorCodes.size() + " error codes in the database.");
 
-                    // Add the service to the list
-                    errorCodes.add(errorCode);
-                } // end loop over results
+            return errorCodes;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the error codes.", e);
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + errorCodes.size() + " error codes in the database.");
-
-                return errorCodes;
-            } // end try(get error codes)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the error codes.", e);
-
-                return errorCodes;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAll();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    }
+            return new ArrayList<ErrorCode>();
+        }
+    } // end method getAll()
 
     @Override
     public ErrorCode getById(int id) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting an error codes by ID");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // Create the PreparedStatment to get all error codes if it hasn't already been created
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_ERROR_CODE_ID + ", " +
-                                                   COL_ERROR_CODE + ", " +
-                                                   COL_ERROR_DESCRIPTION_FILE + ", " +
-                                                   COL_SERVICE_ID + " " +
-                                       "FROM " + ERROR_CODES_TABLE_NAME + " " +
-                                       "WHERE " + COL_ERROR_CODE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get error code by ID\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get all PreparedStatement not defined)
-
-                // Set the parameters on the SELECT statement
-                psGetById.setInt(1, id);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
+        ErrorCode errorCode = loadBasicErrorCode(id);
 
-                // For each result returned, add a Service object to the list with the returned data
-                if (results.next()) {
-                    // The Object which will contain data on the error code
-                    ErrorCode errorCode = new ErrorCode();
+        if (errorCode != null)
+            errorCode.setService(getServiceDAO().getById(errorCode.getService().getId()));
 
-                    // Set the fields on the error code
-                    errorCode.setId(results.getInt(1));
-                    errorCode.setErrorCode(results.getString(2));
-                    errorCode.setErrorDescriptionFile(results.getString(3));
-                    errorCode.setService(getServiceDAO().getById(results.getInt(4)));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the error code with ID " + id + " in the database.");
-
-                    // Add the service to the list
-                    return errorCode;
-                } // end loop over results
-
-                if (log.isDebugEnabled())
-                    log.debug("Could not find the error code with ID " + id + " in the database.");
-
-                return null;
-            } // end try(get error codes)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the error code with ID " + id + ".", e);
-
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getById(id);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    }
+        return errorCode;
+    } // end method getById(int)
 
     @Override
     public ErrorCode loadBasicErrorCode(int id) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting an error code by ID");
 
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting an error codes by ID");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // Create the PreparedStatment to get all error codes if it hasn't already been created
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_ERROR_CODE_ID + ", " +
-                                                   COL_ERROR_CODE + ", " +
-                                                   COL_ERROR_DESCRIPTION_FILE + ", " +
-                                                   COL_SERVICE_ID + " " +
-                                       "FROM " + ERROR_CODES_TABLE_NAME + " " +
-                                       "WHERE " + COL_ERROR_CODE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get error code by ID\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get all PreparedStatement not defined)
-
-                // Set the parameters on the SELECT statement
-                psGetById.setInt(1, id);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // For each result returned, add a Service object to the list with the returned data
-                if (results.next()) {
-                    // The Object which will contain data on the error code
-                    ErrorCode errorCode = new ErrorCode();
-
-                    // Set the fields on the error code
-                    errorCode.setId(results.getInt(1));
-                    errorCode.setErrorCode(results.getString(2));
-                    errorCode.setErrorDescriptionFile(results.getString(3));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the error code with ID " + id + " in the database.");
-
-                    // Add the service to the list
-                    return errorCode;
-                } // end loop over results
+        try {
+            List<ErrorCode> errorCodes = jdbcTemplate.query(GET_BY_ID_SQL, ERROR_CODE_MAPPER, id);
 
+            if (errorCodes.isEmpty()) {
                 if (log.isDebugEnabled())
                     log.debug("Could not find the error code with ID " + id + " in the database.");
 
                 return null;
-            } // end try(get error codes)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the error code with ID " + id + ".", e);
+            }
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return loadBasicErrorCode(id);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    }
+            return errorCodes.get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the error code with ID " + id + ".", e);
+
+            return null;
+        }
+    } // end method loadBasicErrorCode(int)
 
     @Override
     public ErrorCode getByErrorCodeAndService(String errorCode, Service service) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the error code " + errorCode + " for the service with ID " + service.getId());
 
-        synchronized (psGetByNameAndServiceLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting an error codes by ID");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // Create the PreparedStatment to get all error codes if it hasn't already been created
-                if (psGetByNameAndService == null || dbConnectionManager.isClosed(psGetByNameAndService)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_ERROR_CODE_ID + ", " +
-                                                   COL_ERROR_CODE + ", " +
-                                                   COL_ERROR_DESCRIPTION_FILE + ", " +
-                                                   COL_SERVICE_ID + " " +
-                                       "FROM " + ERROR_CODES_TABLE_NAME + " " +
-                                       "WHERE " + COL_ERROR_CODE + "=? " +
-                                       "AND " + COL_SERVICE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get error code by ID\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByNameAndService = dbConnectionManager.prepareStatement(selectSql, psGetByNameAndService);
-                } // end if(get all PreparedStatement not defined)
-
-                // Set the parameters on the SELECT statement
-                psGetByNameAndService.setString(1, errorCode);
-                psGetByNameAndService.setInt(2, service.getId());
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByNameAndService);
-
-                // For each result returned, add a Service object to the list with the returned data
-                if (results.next()) {
-                    // The Object which will contain data on the error code
-                    ErrorCode errorCodeObj = new ErrorCode();
-
-                    // Set the fields on the error code
-                    errorCodeObj.setId(results.getInt(1));
-                    errorCodeObj.setErrorCode(results.getString(2));
-                    errorCodeObj.setErrorDescriptionFile(results.getString(3));
-                    errorCodeObj.setService(getServiceDAO().getById(results.getInt(4)));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the error code with error code " + errorCode + " and service ID" + service.getId() + " in the database.");
-
-                    // Add the service to the list
-                    return errorCodeObj;
-                } // end loop over results
+        try {
+            List<ErrorCode> errorCodes = jdbcTemplate.query(GET_BY_NAME_AND_SERVICE_SQL, ERROR_CODE_MAPPER, errorCode, service.getId());
 
+            if (errorCodes.isEmpty()) {
                 if (log.isDebugEnabled())
                     log.debug("Could not find the error code with error code " + errorCode + " and service ID" + service.getId() + " in the database.");
 
                 return null;
-            } // end try(get error codes)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the error code with error code " + errorCode + " and service ID" + service.getId() + " in the database.");
+            }
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getByErrorCodeAndService(errorCode, service);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    }
+            return loadServices(errorCodes).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the error code with error code " + errorCode + " and service ID" + service.getId() + " in the database.", e);
+
+            return null;
+        }
+    } // end method getByErrorCodeAndService(String, Service)
 
     @Override
     public boolean insert(ErrorCode errorCode) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Check that the non-ID fields on the service are valid
+        // Check that the non-ID fields on the error code are valid
         validateFields(errorCode, false, true);
 
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Inserting a new error code with the error code " + errorCode.getErrorCode());
-
-            // The result set returned by the query
-            ResultSet rs = null;
-
-            try {
-                // Build the PreparedStatement to insert a service if it wasn't already created
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + ERROR_CODES_TABLE_NAME + " (" + COL_ERROR_CODE + ", " +
-                                                                                          COL_ERROR_DESCRIPTION_FILE + ", " +
-                                                                                          COL_SERVICE_ID + ") " +
-                                       "VALUES (?, ?, ?)";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"insert error code\" PreparedStatemnt from the SQL " + insertSql);
-
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                } // end if(insert PreparedStatement not defined)
-
-                // Set the parameters on the insert statement
-                psInsert.setString(1, errorCode.getErrorCode());
-                psInsert.setString(2, errorCode.getErrorDescriptionFile());
-                psInsert.setInt(3, errorCode.getService().getId());
-
-                // Execute the insert statement and return the result
-                if (dbConnectionManager.executeUpdate(psInsert) > 0) {
-                    // Get the auto-generated resource identifier ID and set it correctly on this Service Object
-                    rs = dbConnectionManager.createStatement().executeQuery("SELECT LAST_INSERT_ID()");
-
-                    if (rs.next())
-                        errorCode.setId(rs.getInt(1));
-
-                    return true;
-                } // end if(insert succeeded)
-                else
-                    return false;
-            } catch (SQLException e) {
-                log.error("A SQLException occurred while inserting a new error code with the error code " + errorCode.getErrorCode(), e);
+        if (log.isDebugEnabled())
+            log.debug("Inserting a new error code with the error code " + errorCode.getErrorCode());
 
+        try {
+            long id = insertForKey(INSERT_SQL, errorCode.getErrorCode(), errorCode.getErrorDescriptionFile(), errorCode.getService().getId());
+            if (id < 0)
                 return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(errorCode);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally(close ResultSet)
-        } // end synchronized
-    }
+
+            errorCode.setId((int) id);
+            return true;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while inserting a new error code with the error code " + errorCode.getErrorCode(), e);
+
+            return false;
+        }
+    } // end method insert(ErrorCode)
 
     @Override
     public boolean update(ErrorCode errorCode) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the fields on the error code are valid
         validateFields(errorCode, true, true);
 
-        synchronized (psUpdateLock) {
-            if (log.isDebugEnabled())
-                log.debug("Updating the service with ID " + errorCode.getId());
-
-            try {
-                // Create a PreparedStatement to update a service if it wasn't already created
-                if (psUpdate == null || dbConnectionManager.isClosed(psUpdate)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + ERROR_CODES_TABLE_NAME + " SET " + COL_ERROR_CODE + "=?, " +
-                                                                          COL_ERROR_DESCRIPTION_FILE + "=?, " +
-                                                                          COL_SERVICE_ID + "=? " +
-                                       "WHERE " + COL_ERROR_CODE_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"update error code\" PreparedStatement from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psUpdate = dbConnectionManager.prepareStatement(updateSql, psUpdate);
-                } // end if(update PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psUpdate.setString(1, errorCode.getErrorCode());
-                psUpdate.setString(2, errorCode.getErrorDescriptionFile());
-                psUpdate.setInt(3, errorCode.getService().getId());
-                psUpdate.setInt(4, errorCode.getId());
-
-                // Execute the update statement and return the result
-                return dbConnectionManager.executeUpdate(psUpdate) > 0;
-            } // end try(update error code)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the error code with ID " + errorCode.getId(), e);
+        if (log.isDebugEnabled())
+            log.debug("Updating the error code with ID " + errorCode.getId());
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return update(errorCode);
-            }
-        } // end synchronized
-    }
+        try {
+            return jdbcTemplate.update(UPDATE_SQL, errorCode.getErrorCode(), errorCode.getErrorDescriptionFile(), errorCode.getService().getId(), errorCode.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the error code with ID " + errorCode.getId(), e);
+
+            return false;
+        }
+    } // end method update(ErrorCode)
 
     @Override
     public boolean delete(ErrorCode errorCode) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Check that the ID field on the service are valid
+        // Check that the ID field on the error code are valid
         validateFields(errorCode, true, false);
 
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the service with ID " + errorCode.getId());
-
-            try {
-                // Create the PreparedStatement to delete a error code if it wasn't already defined
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + ERROR_CODES_TABLE_NAME + " " +
-                                       "WHERE " + COL_ERROR_CODE_ID + " = ? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"delete error code\" PreparedStatement the SQL " + deleteSql);
+        if (log.isDebugEnabled())
+            log.debug("Deleting the error code with ID " + errorCode.getId());
 
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if(delete PreparedStatement not defined)
+        try {
+            return jdbcTemplate.update(DELETE_SQL, errorCode.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the error code with ID " + errorCode.getId(), e);
 
-                // Set the parameters on the delete statement
-                psDelete.setInt(1, errorCode.getId());
-
-                // Execute the delete statement and return the result
-                return dbConnectionManager.execute(psDelete);
-            } // end try(delete the error code)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the error code with ID " + errorCode.getId(), e);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(errorCode);
-            }
-        } // end synchronized
-    }
-}
+            return false;
+        }
+    } // end method delete(ErrorCode)
+} // end class DefaultErrorCodeDAO
@@ -9,13 +9,13 @@
 
 package xc.mst.dao.service;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.Logger;
 
 import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Class to get, cache, and update the next unique OAI identifiers for records output
@@ -31,11 +31,6 @@ public abstract class OaiIdentifierForServiceDAO extends BaseDAO {
      */
     protected static Logger log = Logger.getLogger(Constants.LOGGER_GENERAL);
 
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * A static map from the service ID to the next OAI Identifier for that service
      * The implementing class should use this to cache values read from the database.
@@ -43,7 +38,7 @@ public abstract class OaiIdentifierForServiceDAO extends BaseDAO {
      * may be millions) without having to query the database more than twice (once to
      * get the last value, once to write the new value when the service finishes.)
      */
-    protected static HashMap<Integer, Long> nextOaiIdForService = new HashMap<Integer, Long>();
+    protected static ConcurrentHashMap<Integer, AtomicLong> nextOaiIdForService = new ConcurrentHashMap<Integer, AtomicLong>();
 
     /**
      * The name of the database table we're interacting with.
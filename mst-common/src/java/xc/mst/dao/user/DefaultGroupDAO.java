@@ -9,474 +9,213 @@
 
 package xc.mst.dao.user;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
 import xc.mst.bo.user.Group;
 import xc.mst.bo.user.Permission;
-import xc.mst.dao.DBConnectionResetException;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 
 public class DefaultGroupDAO extends GroupDAO {
     /**
-     * A PreparedStatement to get all groups in the database
-     */
-    private static PreparedStatement psGetAll = null;
-
-    /**
-     * A PreparedStatement to get all groups sorted in the database
-     */
-    private static PreparedStatement psGetAllSorted = null;
-
-    /**
-     * A PreparedStatement to get a group from the database by its ID
-     */
-    private static PreparedStatement psGetById = null;
-
-    /**
-     * A PreparedStatement to get a group from the database by its name
+     * The columns of a group, as read by GROUP_MAPPER
      */
-    private static PreparedStatement psGetByName = null;
+    private static final String SELECT_SQL =
+            "SELECT " + COL_GROUP_ID + ", " +
+                        COL_NAME + ", " +
+                        COL_DESCRIPTION + " " +
+            "FROM " + GROUPS_TABLE_NAME + " ";
 
     /**
-     * A PreparedStatement to insert a group into the database
+     * SQL to get a group from the database by its ID
      */
-    private static PreparedStatement psInsert = null;
+    private static final String GET_BY_ID_SQL = SELECT_SQL + "WHERE " + COL_GROUP_ID + "=?";
 
     /**
-     * A PreparedStatement to update a group in the database
+     * SQL to get a group from the database by its name
      */
-    private static PreparedStatement psUpdate = null;
+    private static final String GET_BY_NAME_SQL = SELECT_SQL + "WHERE " + COL_NAME + "=?";
 
     /**
-     * A PreparedStatement to delete a group from the database
+     * SQL to insert a group into the database
      */
-    private static PreparedStatement psDelete = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + GROUPS_TABLE_NAME + " (" + COL_NAME + ", " +
+                                                        COL_DESCRIPTION + ") " +
+            "VALUES (?, ?)";
 
     /**
-     * Lock to synchronize access to the get all PreparedStatement
+     * SQL to update a group in the database
      */
-    private static Object psGetAllLock = new Object();
+    private static final String UPDATE_SQL =
+            "UPDATE " + GROUPS_TABLE_NAME + " SET " + COL_NAME + "=?, " +
+                                                      COL_DESCRIPTION + "=? " +
+            "WHERE " + COL_GROUP_ID + "=?";
 
     /**
-     * Lock to synchronize access to the get all sorted PreparedStatement
+     * SQL to delete a group from the database
      */
-    private static Object psGetAllSortedLock = new Object();
+    private static final String DELETE_SQL =
+            "DELETE FROM " + GROUPS_TABLE_NAME + " " +
+            "WHERE " + COL_GROUP_ID + " = ? ";
 
     /**
-     * Lock to synchronize access to the get by ID PreparedStatement
+     * Builds a Group from the columns in SELECT_SQL, without its permissions
      */
-    private static Object psGetByIdLock = new Object();
+    private static final RowMapper<Group> GROUP_MAPPER = new RowMapper<Group>() {
+        public Group mapRow(ResultSet results, int rowNum) throws SQLException {
+            Group group = new Group();
 
-    /**
-     * Lock to synchronize access to the get by name PreparedStatement
-     */
-    private static Object psGetByNameLock = new Object();
+            group.setId(results.getInt(1));
+            group.setName(results.getString(2));
+            group.setDescription(results.getString(3));
 
-    /**
-     * Lock to synchronize access to the insert PreparedStatement
-     */
-    private static Object psInsertLock = new Object();
+            return group;
+        }
+    };
 
     /**
-     * Lock to synchronize access to the update PreparedStatement
+     * Sets the permissions on groups read by GROUP_MAPPER, once the connection has been given back
      */
-    private static Object psUpdateLock = new Object();
+    private List<Group> loadPermissions(List<Group> groups) throws DatabaseConfigException {
+        for (Group group : groups)
+            group.setPermissions(getPermissionDAO().getPermissionsForGroup(group.getId()));
 
-    /**
-     * Lock to synchronize access to the delete PreparedStatement
-     */
-    private static Object psDeleteLock = new Object();
+        return groups;
+    }
 
     @Override
     public List<Group> getAll() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetAllLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting all groups");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
+        if (log.isDebugEnabled())
+            log.debug("Getting all groups");
 
-            // A list to hold the results of the query
-            List<Group> groups = new ArrayList<Group>();
+        try {
+            List<Group> groups = loadPermissions(jdbcTemplate.query(SELECT_SQL, GROUP_MAPPER));
 
-            try {
-                // If the PreparedStatement to get all groups was not defined, create it
-                if (psGetAll == null || dbConnectionManager.isClosed(psGetAll)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_GROUP_ID + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_DESCRIPTION + " " +
-                                       "FROM " + GROUPS_TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get all groups\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetAll = dbConnectionManager.prepareStatement(selectSql, psGetAll);
-                }
-
-                // Get the results of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAll);
-
-                // If any results were returned
-                while (results.next()) {
-                    // The Object which will contain data on the group
-                    Group group = new Group();
-
-                    // Set the fields on the group
-                    group.setId(results.getInt(1));
-                    group.setName(results.getString(2));
-                    group.setDescription(results.getString(3));
-
-                    // Set the correct permissions on the group
-                    group.setPermissions(getPermissionDAO().getPermissionsForGroup(group.getId()));
+            if (log.isDebugEnabled())
+                log.debug("Found " + groups.size() + " groups in the database.");
 
-                    // Return the group
-                    groups.add(group);
-                } // end loop over results
+            return groups;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the groups", e);
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + groups.size() + " groups in the database.");
-
-                return groups;
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the groups", e);
-
-                return groups;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAll();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
+            return new ArrayList<Group>();
+        }
     } // end method getAll()
 
     @Override
     public List<Group> getAllSorted(boolean isAscendingOrder, String columnSorted) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psGetAllSortedLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting all groups");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // A list to hold the results of the query
-            List<Group> groups = new ArrayList<Group>();
-
-            try {
-
-                // SQL to get the rows
-                String selectSql = "SELECT " + COL_GROUP_ID + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_DESCRIPTION + " " +
-                                       "FROM " + GROUPS_TABLE_NAME + " " + " ORDER BY " + columnSorted + (isAscendingOrder ? " ASC" : " DESC");
-
-                if (log.isDebugEnabled())
-                    log.debug("Creating the \"get all groups\" PreparedStatement from the SQL " + selectSql);
-
-                // A prepared statement to run the select SQL
-                // This should sanitize the SQL and prevent SQL injection
-                psGetAllSorted = dbConnectionManager.prepareStatement(selectSql, null);
-
-                // Get the results of the SELECT statement
+        if (log.isDebugEnabled())
+            log.debug("Getting all groups");
 
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAllSorted);
+        try {
+            String selectSql = SELECT_SQL + "ORDER BY " + columnSorted + (isAscendingOrder ? " ASC" : " DESC");
+            List<Group> groups = loadPermissions(jdbcTemplate.query(selectSql, GROUP_MAPPER));
 
-                // If any results were returned
-                while (results.next()) {
-                    // The Object which will contain data on the group
-                    Group group = new Group();
-
-                    // Set the fields on the group
-                    group.setId(results.getInt(1));
-                    group.setName(results.getString(2));
-                    group.setDescription(results.getString(3));
+            if (log.isDebugEnabled())
+                log.debug("Found " + groups.size() + " groups in the database.");
 
-                    // Set the correct permissions on the group
-                    group.setPermissions(getPermissionDAO().getPermissionsForGroup(group.getId()));
+            return groups;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the groups", e);
 
-                    // Return the group
-                    groups.add(group);
-                } // end loop over results
-
-                if (log.isDebugEnabled())
-                    log.debug("Found " + groups.size() + " groups in the database.");
-
-                return groups;
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the groups", e);
-
-                return groups;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAllSorted(isAscendingOrder, columnSorted);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
-    } // end method getAllSorted()
+            return new ArrayList<Group>();
+        }
+    } // end method getAllSorted(boolean, String)
 
     @Override
     public Group getById(int groupId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Get the group with the passed ID
         Group group = loadBasicGroup(groupId);
 
-        // If we found the group, set up its permissions
         if (group != null)
             group.setPermissions(getPermissionDAO().getPermissionsForGroup(group.getId()));
 
-        // return the result
         return group;
     } // end method getById(int)
 
     @Override
     public Group getByName(String groupName) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the group with name " + groupName);
 
-        synchronized (psGetByNameLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the group with name " + groupName);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a group by name was not defined, create it
-                if (psGetByName == null || dbConnectionManager.isClosed(psGetByName)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_GROUP_ID + ", " +
-                                        COL_NAME + ", " +
-                                        COL_DESCRIPTION + " " +
-                                        "FROM " + GROUPS_TABLE_NAME + " " +
-                                        "WHERE " + COL_NAME + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get group by name\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByName = dbConnectionManager.prepareStatement(selectSql, psGetByName);
-                } // end if(get by name PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetByName.setString(1, groupName);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByName);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the group
-                    Group group = new Group();
-
-                    // Set the fields on the group
-                    group.setId(results.getInt(1));
-                    group.setName(results.getString(2));
-                    group.setDescription(results.getString(3));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the group with name " + groupName + " in the database.");
-
-                    // set up its permissions
-                    group.setPermissions(getPermissionDAO().getPermissionsForGroup(group.getId()));
-
-                    // Return the page
-                    return group;
-                } // end if(the group was found)
-                else // There were no rows in the database, the group could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The group with name " + groupName + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the group with name " + groupName, e);
+        try {
+            List<Group> groups = jdbcTemplate.query(GET_BY_NAME_SQL, GROUP_MAPPER, groupName);
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getByName(groupName);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
-    } // end method getGroupByName(int)
+            if (groups.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The group with name " + groupName + " was not found in the database.");
 
-    @Override
-    public Group loadBasicGroup(int groupId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+                return null;
+            }
 
-        synchronized (psGetByIdLock) {
             if (log.isDebugEnabled())
-                log.debug("Getting the group with ID " + groupId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a group by ID was not defined, create it
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_GROUP_ID + ", " +
-                                                   COL_NAME + ", " +
-                                                   COL_DESCRIPTION + " " +
-                                       "FROM " + GROUPS_TABLE_NAME + " " +
-                                       "WHERE " + COL_GROUP_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get group by ID\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(the get by ID PreparedStatement wasn't defined)
-
-                // Set the parameters on the update statement
-                psGetById.setInt(1, groupId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the group
-                    Group group = new Group();
-
-                    // Set the fields on the group
-                    group.setId(results.getInt(1));
-                    group.setName(results.getString(2));
-                    group.setDescription(results.getString(3));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the group with ID " + groupId + " in the database.");
-
-                    // Return the page
-                    return group;
-                } // end if(the group was found)
-                else // There were no rows in the database, the group could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The group with ID " + groupId + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try (get and return the group)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the group with ID " + groupId, e);
+                log.debug("Found the group with name " + groupName + " in the database.");
 
-                return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return loadBasicGroup(groupId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
-    } // end method loadGroupBasic(int)
+            return loadPermissions(groups).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the group with name " + groupName, e);
+
+            return null;
+        }
+    } // end method getByName(String)
 
     @Override
-    public boolean insert(Group group) throws DataException {
-        // Check that the non-ID fields on the group are valid
-        validateFields(group, false, true);
+    public Group loadBasicGroup(int groupId) throws DatabaseConfigException {
+        if (log.isDebugEnabled())
+            log.debug("Getting the group with ID " + groupId);
 
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Inserting a new group with name " + group.getName());
+        try {
+            List<Group> groups = jdbcTemplate.query(GET_BY_ID_SQL, GROUP_MAPPER, groupId);
 
-            // The ResultSet returned by the query
-            ResultSet rs = null;
+            if (groups.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The group with ID " + groupId + " was not found in the database.");
 
-            try {
-                // If the PreparedStatement to insert a group was not defined, create it
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + GROUPS_TABLE_NAME + " (" + COL_NAME + ", " +
-                                                                                   COL_DESCRIPTION + ") " +
-                                       "VALUES (?, ?)";
+                return null;
+            }
 
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"insert group\" PreparedStatement from the SQL " + insertSql);
+            if (log.isDebugEnabled())
+                log.debug("Found the group with ID " + groupId + " in the database.");
 
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                } // end if(insert PreparedStatement not defined)
+            return groups.get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the group with ID " + groupId, e);
 
-                // Set the parameters on the insert statement
-                psInsert.setString(1, group.getName());
-                psInsert.setString(2, group.getDescription());
+            return null;
+        }
+    } // end method loadBasicGroup(int)
 
-                // Execute the insert statement and return the result
-                if (dbConnectionManager.executeUpdate(psInsert) > 0) {
-                    // Get the auto-generated user ID and set it correctly on this Group Object
-                    rs = dbConnectionManager.createStatement().executeQuery("SELECT LAST_INSERT_ID()");
+    @Override
+    public boolean insert(Group group) throws DataException {
+        // Check that the non-ID fields on the group are valid
+        validateFields(group, false, true);
 
-                    if (rs.next())
-                        group.setId(rs.getInt(1));
+        if (log.isDebugEnabled())
+            log.debug("Inserting a new group with name " + group.getName());
 
-                    boolean success = true;
+        try {
+            long id = insertForKey(INSERT_SQL, group.getName(), group.getDescription());
+            if (id < 0)
+                return false;
 
-                    // Add the permissions to the group
-                    for (Permission permission : group.getPermissions()) {
+            group.setId((int) id);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while inserting a new group with name " + group.getName(), e);
 
-                        success = getGroupPermissionUtilDAO().insert(group.getId(), permission.getTabId()) && success;
-                    }
+            return false;
+        }
 
-                    return success;
-                } // end if(insert succeeded)
-                else
-                    return false;
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while inserting a new group with name " + group.getName(), e);
+        boolean success = true;
+        for (Permission permission : group.getPermissions())
+            success = getGroupPermissionUtilDAO().insert(group.getId(), permission.getTabId()) && success;
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(group);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally (close ResultSet)
-        } // end synchronized
+        return success;
     } // end method insert(Group)
 
     @Override
@@ -484,98 +223,39 @@ public class DefaultGroupDAO extends GroupDAO {
         // Check that the fields on the group are valid
         validateFields(group, true, true);
 
-        synchronized (psUpdateLock) {
-            if (log.isDebugEnabled())
-                log.debug("Updating the group with ID " + group.getId());
-
-            try {
-                // If the PreparedStatement to update a group was not defined, create it
-                if (psUpdate == null || dbConnectionManager.isClosed(psUpdate)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + GROUPS_TABLE_NAME + " SET " + COL_NAME + "=?, " +
-                                                                          COL_DESCRIPTION + "=? " +
-                                       "WHERE " + COL_GROUP_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"update group\" PreparedStatement from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psUpdate = dbConnectionManager.prepareStatement(updateSql, psUpdate);
-                } // end if(update PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psUpdate.setString(1, group.getName());
-                psUpdate.setString(2, group.getDescription());
-                psUpdate.setInt(3, group.getId());
-
-                // Execute the update statement and return the result
-                if (dbConnectionManager.executeUpdate(psUpdate) > 0) {
-                    // Remove the old permissions for the group
-                    boolean success = getGroupPermissionUtilDAO().deletePermissionsForGroup(group.getId());
-
-                    // Add the permissions to the group
-                    for (Permission permission : group.getPermissions())
-                        success = getGroupPermissionUtilDAO().insert(group.getId(), permission.getTabId()) && success;
-
-                    return success;
-                } // end if(update successful)
-                else
-                    return false;
-            } // end try (update group)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the group with ID " + group.getId(), e);
+        if (log.isDebugEnabled())
+            log.debug("Updating the group with ID " + group.getId());
 
+        try {
+            if (jdbcTemplate.update(UPDATE_SQL, group.getName(), group.getDescription(), group.getId()) == 0)
                 return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return update(group);
-            }
-        } // end synchronized
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the group with ID " + group.getId(), e);
+
+            return false;
+        }
+
+        boolean success = getGroupPermissionUtilDAO().deletePermissionsForGroup(group.getId());
+        for (Permission permission : group.getPermissions())
+            success = getGroupPermissionUtilDAO().insert(group.getId(), permission.getTabId()) && success;
+
+        return success;
     } // end method update(Group)
 
     @Override
     public boolean delete(Group group) throws DataException {
-        // Check that the ID field on the group are valid
+        // Check that the ID field on the group is valid
         validateFields(group, true, false);
 
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the group with ID " + group.getId());
-
-            try {
-                // If the PreparedStatement to delete a group was not defined, create it
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + GROUPS_TABLE_NAME + " " +
-                                       "WHERE " + COL_GROUP_ID + " = ? ";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"delete group\" PreparedStatement from the SQL " + deleteSql);
-
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if(delete PreparedStatement not defined)
-
-                // Set the parameters on the delete statement
-                psDelete.setInt(1, group.getId());
-
-                // Execute the delete statement and return the result
-                // Permissions will delete automatically because of a
-                // Foreign Key which cascades deletes
-                return dbConnectionManager.execute(psDelete);
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the group with ID " + group.getId(), e);
+        if (log.isDebugEnabled())
+            log.debug("Deleting the group with ID " + group.getId());
 
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(group);
-            }
-        } // end synchronized
+        try {
+            return jdbcTemplate.update(DELETE_SQL, group.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the group with ID " + group.getId(), e);
+
+            return false;
+        }
     } // end method delete(Group)
 } // end class DefaultGroupDAO
@@ -9,19 +9,19 @@
 
 package xc.mst.dao.user;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
 import xc.mst.bo.log.Log;
 import xc.mst.bo.user.Group;
 import xc.mst.bo.user.Server;
 import xc.mst.bo.user.User;
 import xc.mst.constants.Constants;
-import xc.mst.dao.DBConnectionResetException;
 import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 import xc.mst.utils.LogWriter;
@@ -38,190 +38,171 @@ public class DefaultUserDAO extends UserDAO {
     private static Log logObj = null;
 
     /**
-     * A PreparedStatement to get all users in the database
-     */
-    private static PreparedStatement psGetAll = null;
-
-    /**
-     * A PreparedStatement to get a user from the database by its ID
-     */
-    private static PreparedStatement psGetById = null;
-
-    /**
-     * A PreparedStatement to get a user from the database by its user name
+     * The columns of a user, as read by USER_MAPPER
      */
-    private static PreparedStatement psGetByUserName = null;
+    private static final String SELECT_SQL =
+            "SELECT " + COL_USER_ID + ", " +
+                        COL_USERNAME + ", " +
+                        COL_FIRST_NAME + ", " +
+                        COL_LAST_NAME + ", " +
+                        COL_PASSWORD + ", " +
+                        COL_EMAIL + ", " +
+                        COL_SERVER_ID + ", " +
+                        COL_LAST_LOGIN + ", " +
+                        COL_ACCOUNT_CREATED + ", " +
+                        COL_FAILED_LOGIN_ATTEMPTS + " " +
+            "FROM " + USERS_TABLE_NAME + " ";
 
     /**
-     * A PreparedStatement to get a user from the database by its user name
+     * SQL to get a user from the database by its ID
      */
-    private static PreparedStatement psGetByUserNameAndServer = null;
+    private static final String GET_BY_ID_SQL = SELECT_SQL + "WHERE " + COL_USER_ID + "=?";
 
     /**
-     * A PreparedStatement to get a user from the database by their email
+     * SQL to get a user from the database by its username
      */
-    private static PreparedStatement psGetByEmail = null;
+    private static final String GET_BY_NAME_SQL = SELECT_SQL + "WHERE " + COL_USERNAME + "=?";
 
     /**
-     * A PreparedStatement to insert a user into the database
+     * SQL to get a user from the database by its username and server
      */
-    private static PreparedStatement psInsert = null;
+    private static final String GET_BY_USERNAME_SQL = SELECT_SQL + "WHERE " + COL_USERNAME + "=?" + " AND " + COL_SERVER_ID + "=?";
 
     /**
-     * A PreparedStatement to update a user in the database
+     * SQL to get a user from the database by its email and server
      */
-    private static PreparedStatement psUpdate = null;
+    private static final String GET_BY_EMAIL_SQL = SELECT_SQL + "WHERE " + COL_EMAIL + "=?" + " AND " + COL_SERVER_ID + "=?";
 
     /**
-     * A PreparedStatement to delete a user from the database
+     * SQL to count the LDAP users
      */
-    private static PreparedStatement psDelete = null;
+    private static final String LDAP_USER_COUNT_SQL =
+            "SELECT COUNT(" + COL_USER_ID + ") " +
+            "FROM " + USERS_TABLE_NAME + " " +
+            "WHERE " + COL_SERVER_ID + "<> 1";
 
     /**
-     * A PreparedStatement to get count of LDAP users in the system
+     * SQL to insert a user into the database
      */
-    private static PreparedStatement psLDAPUserCount = null;
+    private static final String INSERT_SQL =
+            "INSERT INTO " + USERS_TABLE_NAME + " (" + COL_USERNAME + ", " +
+                                                       COL_FIRST_NAME + ", " +
+                                                       COL_LAST_NAME + ", " +
+                                                       COL_PASSWORD + ", " +
+                                                       COL_EMAIL + ", " +
+                                                       COL_SERVER_ID + ", " +
+                                                       COL_LAST_LOGIN + ", " +
+                                                       COL_ACCOUNT_CREATED + ", " +
+                                                       COL_FAILED_LOGIN_ATTEMPTS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     /**
-     * Lock to synchronize access to the get all PreparedStatement
+     * SQL to update a user in the database
      */
-    private static Object psGetAllLock = new Object();
+    private static final String UPDATE_SQL =
+            "UPDATE " + USERS_TABLE_NAME + " SET " + COL_USERNAME + "=?, " +
+                                                     COL_FIRST_NAME + "=?, " +
+                                                     COL_LAST_NAME + "=?, " +
+                                                     COL_PASSWORD + "=?, " +
+                                                     COL_EMAIL + "=?, " +
+                                                     COL_SERVER_ID + "=?, " +
+                                                     COL_LAST_LOGIN + "=?, " +
+                                                     COL_ACCOUNT_CREATED + "=?, " +
+                                                     COL_FAILED_LOGIN_ATTEMPTS + "=? " +
+            "WHERE " + COL_USER_ID + "=?";
 
     /**
-     * Lock to synchronize access to the get by ID PreparedStatement
+     * SQL to delete a user from the database
      */
-    private static Object psGetByIdLock = new Object();
+    private static final String DELETE_SQL =
+            "DELETE FROM " + USERS_TABLE_NAME + " " +
+            "WHERE " + COL_USER_ID + " = ? ";
 
     /**
-     * Lock to synchronize access to the get by user name PreparedStatement
+     * Builds a User from the columns in SELECT_SQL. The server only has its ID set;
+     * loadReferences() fills in the rest once the connection has been given back.
      */
-    private static Object psGetByUserNameLock = new Object();
+    private static final RowMapper<User> USER_MAPPER = new RowMapper<User>() {
+        public User mapRow(ResultSet results, int rowNum) throws SQLException {
+            User user = new User();
+
+            user.setId(results.getInt(1));
+            user.setUsername(results.getString(2));
+            user.setFirstName(results.getString(3));
+            user.setLastName(results.getString(4));
+            user.setPassword(results.getString(5));
+            user.setEmail(results.getString(6));
+
+            Server server = new Server();
+            server.setId(results.getInt(7));
+            user.setServer(server);
+
+            user.setLastLogin(results.getDate(8));
+            user.setAccountCreated(results.getDate(9));
+            user.setFailedLoginAttempts(results.getInt(10));
+
+            return user;
+        }
+    };
 
-    /**
-     * Lock to synchronize access to the LDAP user count PreparedStatement
-     */
-    private static Object psLDAPUserCountLock = new Object();
+    public void init() {
+        try {
+            logObj = getLogDAO().getById(Constants.LOG_ID_USER_MANAGEMENT);
+        } catch (DatabaseConfigException e) {
+        }
+    }
 
     /**
-     * Lock to synchronize access to the get by user name PreparedStatement
+     * Replaces the ID-only servers set by USER_MAPPER with the full servers
+     * 
+     * @param withGroups
+     *            true to also add each user's groups
      */
-    private static Object psGetByUserNameAndServerLock = new Object();
+    private List<User> loadReferences(List<User> users, boolean withGroups) throws DatabaseConfigException {
+        for (User user : users) {
+            user.setServer(getServerDAO().getById(user.getServer().getId()));
 
-    /**
-     * Lock to synchronize access to the get by email PreparedStatement
-     */
-    private static Object psGetByEmailLock = new Object();
+            if (withGroups)
+                loadGroups(user);
+        }
 
-    /**
-     * Lock to synchronize access to the insert PreparedStatement
-     */
-    private static Object psInsertLock = new Object();
+        return users;
+    }
 
     /**
-     * Lock to synchronize access to the update PreparedStatement
+     * Adds the groups a user belongs to
      */
-    private static Object psUpdateLock = new Object();
+    private void loadGroups(User user) throws DatabaseConfigException {
+        for (Integer groupId : getUserGroupUtilDAO().getGroupsForUser(user.getId()))
+            user.addGroup(getGroupDAO().getById(groupId));
+    }
 
     /**
-     * Lock to synchronize access to the delete PreparedStatement
+     * Writes an error to the user management log and counts it
      */
-    private static Object psDeleteLock = new Object();
-
-    public void init() {
-
-        try {
-            logObj = getLogDAO().getById(Constants.LOG_ID_USER_MANAGEMENT);
-        } catch (DatabaseConfigException e) {
-            log.error("Unable to connect to the database using the parameters from the configuration file.", e);
-        }
+    private void logError(String message) throws DataException {
+        LogWriter.addError(logObj.getLogFileLocation(), message);
+        logObj.setErrors(logObj.getErrors() + 1);
+        getLogDAO().update(logObj);
     }
 
     @Override
     public List<User> getAll() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting all users");
+
+        try {
+            List<User> users = loadReferences(jdbcTemplate.query(SELECT_SQL, USER_MAPPER), true);
 
-        synchronized (psGetAllLock) {
             if (log.isDebugEnabled())
-                log.debug("Getting all users");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            // A list to hold the results of the query
-            ArrayList<User> users = new ArrayList<User>();
-
-            try {
-                // If the PreparedStatement to get all users was not defined, create it
-                if (psGetAll == null || dbConnectionManager.isClosed(psGetAll)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT " + COL_USER_ID + ", " +
-                                                   COL_USERNAME + ", " +
-                                                   COL_FIRST_NAME + ", " +
-                                                   COL_LAST_NAME + ", " +
-                                                   COL_PASSWORD + ", " +
-                                                   COL_EMAIL + ", " +
-                                                   COL_SERVER_ID + ", " +
-                                                   COL_LAST_LOGIN + ", " +
-                                                   COL_ACCOUNT_CREATED + ", " +
-                                                   COL_FAILED_LOGIN_ATTEMPTS + " " +
-                                       "FROM " + USERS_TABLE_NAME;
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get all users\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetAll = dbConnectionManager.prepareStatement(selectSql, psGetAll);
-                } // end if(get all PreparedStatement not defined)
-
-                // Get the results of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetAll);
-
-                // If any results were returned
-                while (results.next()) {
-                    // The Object which will contain data on the user
-                    User user = new User();
-
-                    // Set the fields on the user
-                    user.setId(results.getInt(1));
-                    user.setUsername(results.getString(2));
-                    user.setFirstName(results.getString(3));
-                    user.setLastName(results.getString(4));
-                    user.setPassword(results.getString(5));
-                    user.setEmail(results.getString(6));
-                    user.setServer(getServerDAO().getById(results.getInt(7)));
-                    user.setLastLogin(results.getDate(8));
-                    user.setAccountCreated(results.getDate(9));
-                    user.setFailedLoginAttempts(results.getInt(10));
-
-                    // Get the groups for the user
-                    for (Integer groupId : getUserGroupUtilDAO().getGroupsForUser(user.getId()))
-                        user.addGroup(getGroupDAO().getById(groupId));
-
-                    // Return the user
-                    users.add(user);
-                } // end loop over results
+                log.debug("Found " + users.size() + " users in the database.");
 
-                if (log.isDebugEnabled())
-                    log.debug("Found " + users.size() + " users in the database.");
-
-                return users;
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the users", e);
-                return users;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getAll();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally(close ResultSet)
-        } // end synchronized
+            return users;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the users", e);
+
+            return new ArrayList<User>();
+        }
     } // end method getAll()
 
     /**
@@ -231,68 +212,20 @@ public class DefaultUserDAO extends UserDAO {
      * @throws DatabaseConfigException
      */
     public int getLDAPUserCount() throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        synchronized (psLDAPUserCountLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the count for all LDAP members ");
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get users by group ID wasn't defined, create it
-                if (psLDAPUserCount == null || dbConnectionManager.isClosed(psLDAPUserCount)) {
-                    // SQL to get the rows
-                    String selectSql = "SELECT COUNT(" + COL_USER_ID + ") " +
-                                       "FROM " + USERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_SERVER_ID + "<> 1";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"LDAP user count\" PreparedStatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psLDAPUserCount = dbConnectionManager.prepareStatement(selectSql, psLDAPUserCount);
-                }
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psLDAPUserCount);
+        if (log.isDebugEnabled())
+            log.debug("Getting the count for all LDAP members ");
 
-                // Return the result
-                if (results.next())
-                    return results.getInt(1);
+        try {
+            return jdbcTemplate.queryForInt(LDAP_USER_COUNT_SQL);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the number of LDAP users in the system", e);
 
-                if (log.isDebugEnabled())
-                    log.debug("Did not find count of " + " number of LDAP users in the system.");
-
-                return 0;
-
-            } // end try (get and return the group IDs which the user belongs to)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the number of LDAP users in the system", e);
-
-                return 0;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getLDAPUserCount();
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally
+            return 0;
         }
-    }
+    } // end method getLDAPUserCount()
 
     @Override
     public List<User> getSorted(boolean asc, String columnSorted) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         if (log.isDebugEnabled())
             log.debug("Getting all users sorted in " + (asc ? "ascending" : "descending") + " order on the column " + columnSorted);
 
@@ -302,724 +235,226 @@ public class DefaultUserDAO extends UserDAO {
             return getAll();
         } // end if(sort column invalid)
 
-        // The ResultSet from the SQL query
-        ResultSet results = null;
-
-        // The Statement for getting the rows
-        Statement getSorted = null;
-
-        // A list to hold the results of the query
-        List<User> users = new ArrayList<User>();
-
         try {
-
-            // SQL to get the rows
-            String selectSql = "SELECT " + COL_USER_ID + ", " +
-                                           COL_USERNAME + ", " +
-                                           COL_FIRST_NAME + ", " +
-                                           COL_LAST_NAME + ", " +
-                                           COL_PASSWORD + ", " +
-                                           COL_EMAIL + ", " +
-                                           COL_SERVER_ID + ", " +
-                                           COL_LAST_LOGIN + ", " +
-                                           COL_ACCOUNT_CREATED + ", " +
-                                           COL_FAILED_LOGIN_ATTEMPTS + " " +
-                               "FROM " + USERS_TABLE_NAME + " " +
-                               "ORDER BY " + columnSorted + (asc ? " ASC" : " DESC");
-
-            if (log.isDebugEnabled())
-                log.debug("Creating the \"get all users sorted\" Statement from the SQL " + selectSql);
-
-            // A statement to run the select SQL
-            getSorted = dbConnectionManager.createStatement();
-
-            // Get the results of the SELECT statement
-
-            // Execute the query
-            results = getSorted.executeQuery(selectSql);
-
-            // If any results were returned
-            while (results.next()) {
-                // The Object which will contain data on the user
-                User user = new User();
-
-                // Set the fields on the user
-                user.setId(results.getInt(1));
-                user.setUsername(results.getString(2));
-                user.setFirstName(results.getString(3));
-                user.setLastName(results.getString(4));
-                user.setPassword(results.getString(5));
-                user.setEmail(results.getString(6));
-                user.setServer(getServerDAO().getById(results.getInt(7)));
-                user.setLastLogin(results.getDate(8));
-                user.setAccountCreated(results.getDate(9));
-                user.setFailedLoginAttempts(results.getInt(10));
-
-                // Get the groups for the user
-                for (Integer groupId : getUserGroupUtilDAO().getGroupsForUser(user.getId()))
-                    user.addGroup(getGroupDAO().getById(groupId));
-
-                // Return the user
-                users.add(user);
-            } // end loop over results
+            String selectSql = SELECT_SQL + "ORDER BY " + columnSorted + (asc ? " ASC" : " DESC");
+            List<User> users = loadReferences(jdbcTemplate.query(selectSql, USER_MAPPER), true);
 
             if (log.isDebugEnabled())
                 log.debug("Found " + users.size() + " users in the database.");
 
             return users;
-        } // end try
-        catch (SQLException e) {
-            log.error("A SQLException occurred while getting the users sorted in ascending order.", e);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the users sorted in ascending order.", e);
 
-            return users;
-        } // end catch(SQLException)
-        finally {
-            dbConnectionManager.closeResultSet(results);
-
-            try {
-                if (getSorted != null)
-                    getSorted.close();
-            } // end try(close the Statement)
-            catch (SQLException e) {
-                log.error("An error occurred while trying to close the \"get processing directives sorted\" Statement");
-            } // end catch(DataException)
-        } // end finally(close ResultSet)
+            return new ArrayList<User>();
+        }
     } // end method getSorted(boolean, String)
 
     @Override
     public User getById(int userId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Get the basic user
         User user = loadBasicUser(userId);
 
-        // Get the groups for the user
-        for (Integer groupId : getUserGroupUtilDAO().getGroupsForUser(user.getId()))
-            user.addGroup(getGroupDAO().getById(groupId));
+        if (user != null)
+            loadGroups(user);
 
-        // Return the result
         return user;
     } // end method getById(int)
 
     @Override
     public User loadBasicUser(int userId) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the user with ID " + userId);
 
-        synchronized (psGetByIdLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the user with ID " + userId);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a user by ID was not defined, create it
-                if (psGetById == null || dbConnectionManager.isClosed(psGetById)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_USER_ID + ", " +
-                                                   COL_USERNAME + ", " +
-                                                   COL_FIRST_NAME + ", " +
-                                                   COL_LAST_NAME + ", " +
-                                                   COL_PASSWORD + ", " +
-                                                   COL_EMAIL + ", " +
-                                                   COL_SERVER_ID + ", " +
-                                                   COL_LAST_LOGIN + ", " +
-                                                   COL_ACCOUNT_CREATED + ", " +
-                                                   COL_FAILED_LOGIN_ATTEMPTS + " " +
-                                       "FROM " + USERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_USER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get user by ID\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetById = dbConnectionManager.prepareStatement(selectSql, psGetById);
-                } // end if(get by ID PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetById.setInt(1, userId);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetById);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the user
-                    User user = new User();
-
-                    // Set the fields on the user
-                    user.setId(results.getInt(1));
-                    user.setUsername(results.getString(2));
-                    user.setFirstName(results.getString(3));
-                    user.setLastName(results.getString(4));
-                    user.setPassword(results.getString(5));
-                    user.setEmail(results.getString(6));
-                    user.setServer(getServerDAO().getById(results.getInt(7)));
-                    user.setLastLogin(results.getDate(8));
-                    user.setAccountCreated(results.getDate(9));
-                    user.setFailedLoginAttempts(results.getInt(10));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the user with ID " + userId + " in the database.");
-
-                    // Return the user
-                    return user;
-                } // end if(user found)
-                else // There were no rows in the database, the user could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The user with ID " + userId + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the user with ID " + userId, e);
+        try {
+            List<User> users = jdbcTemplate.query(GET_BY_ID_SQL, USER_MAPPER, userId);
+
+            if (users.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The user with ID " + userId + " was not found in the database.");
 
                 return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return loadBasicUser(userId);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
+            }
+
+            if (log.isDebugEnabled())
+                log.debug("Found the user with ID " + userId + " in the database.");
+
+            return loadReferences(users, false).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the user with ID " + userId, e);
+
+            return null;
+        }
     } // end method loadBasicUser(int)
 
     @Override
     public User getUserByName(String userName) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the user with user name " + userName);
 
-        synchronized (psGetByUserNameLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the user with user name " + userName);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a user by user name was not defined, create it
-                if (psGetByUserName == null || dbConnectionManager.isClosed(psGetByUserName)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_USER_ID + ", " +
-                                                   COL_USERNAME + ", " +
-                                                   COL_FIRST_NAME + ", " +
-                                                   COL_LAST_NAME + ", " +
-                                                   COL_PASSWORD + ", " +
-                                                   COL_EMAIL + ", " +
-                                                   COL_SERVER_ID + ", " +
-                                                   COL_LAST_LOGIN + ", " +
-                                                   COL_ACCOUNT_CREATED + ", " +
-                                                   COL_FAILED_LOGIN_ATTEMPTS + " " +
-                                       "FROM " + USERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_USERNAME + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get user by user name\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByUserName = dbConnectionManager.prepareStatement(selectSql, psGetByUserName);
-                } // end if(get by user name PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetByUserName.setString(1, userName);
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByUserName);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the user
-                    User user = new User();
-
-                    // Set the fields on the user
-                    user.setId(results.getInt(1));
-                    user.setUsername(results.getString(2));
-                    user.setFirstName(results.getString(3));
-                    user.setLastName(results.getString(4));
-                    user.setPassword(results.getString(5));
-                    user.setEmail(results.getString(6));
-                    user.setServer(getServerDAO().getById(results.getInt(7)));
-                    user.setLastLogin(results.getDate(8));
-                    user.setAccountCreated(results.getDate(9));
-                    user.setFailedLoginAttempts(results.getInt(10));
-
-                    // Get the groups for the user
-                    for (Integer groupId : getUserGroupUtilDAO().getGroupsForUser(user.getId()))
-                        user.addGroup(getGroupDAO().getById(groupId));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the user with name " + userName + " in the database.");
-
-                    // Return the user
-                    return user;
-                } // end if(user found)
-                else // There were no rows in the database, the user could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The user with name " + userName + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the user with name " + userName, e);
+        try {
+            List<User> users = jdbcTemplate.query(GET_BY_NAME_SQL, USER_MAPPER, userName);
+
+            if (users.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The user with name " + userName + " was not found in the database.");
 
                 return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getUserByName(userName);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
-    } // end method getUserByName(int)
+            }
+
+            if (log.isDebugEnabled())
+                log.debug("Found the user with name " + userName + " in the database.");
+
+            return loadReferences(users, true).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the user with name " + userName, e);
+
+            return null;
+        }
+    } // end method getUserByName(String)
 
     @Override
     public User getUserByUserName(String userName, Server server) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the user with user name " + userName + " and server id : " + server.getId());
 
-        synchronized (psGetByUserNameAndServerLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the user with user name " + userName + " and server id : " + server.getId());
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a user by user name was not defined, create it
-                if (psGetByUserNameAndServer == null || dbConnectionManager.isClosed(psGetByUserNameAndServer)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_USER_ID + ", " +
-                                                   COL_USERNAME + ", " +
-                                                   COL_FIRST_NAME + ", " +
-                                                   COL_LAST_NAME + ", " +
-                                                   COL_PASSWORD + ", " +
-                                                   COL_EMAIL + ", " +
-                                                   COL_SERVER_ID + ", " +
-                                                   COL_LAST_LOGIN + ", " +
-                                                   COL_ACCOUNT_CREATED + ", " +
-                                                   COL_FAILED_LOGIN_ATTEMPTS + " " +
-                                       "FROM " + USERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_USERNAME + "=?" + " AND " + COL_SERVER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get user by user name\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByUserNameAndServer = dbConnectionManager.prepareStatement(selectSql, psGetByUserNameAndServer);
-                } // end if(get by user name PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetByUserNameAndServer.setString(1, userName);
-                psGetByUserNameAndServer.setInt(2, server.getId());
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByUserNameAndServer);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the user
-                    User user = new User();
-
-                    // Set the fields on the user
-                    user.setId(results.getInt(1));
-                    user.setUsername(results.getString(2));
-                    user.setFirstName(results.getString(3));
-                    user.setLastName(results.getString(4));
-                    user.setPassword(results.getString(5));
-                    user.setEmail(results.getString(6));
-                    user.setServer(getServerDAO().getById(results.getInt(7)));
-                    user.setLastLogin(results.getDate(8));
-                    user.setAccountCreated(results.getDate(9));
-                    user.setFailedLoginAttempts(results.getInt(10));
-
-                    // Get the groups for the user
-                    for (Integer groupId : getUserGroupUtilDAO().getGroupsForUser(user.getId()))
-                        user.addGroup(getGroupDAO().getById(groupId));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the user with name " + userName + " in the database.");
-
-                    // Return the user
-                    return user;
-                } // end if(user found)
-                else // There were no rows in the database, the user could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The user with name " + userName + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the user with name " + userName, e);
+        try {
+            List<User> users = jdbcTemplate.query(GET_BY_USERNAME_SQL, USER_MAPPER, userName, server.getId());
+
+            if (users.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The user with name " + userName + " was not found in the database.");
 
                 return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getUserByUserName(userName, server);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
-    } // end method getUserByName(int)
+            }
+
+            if (log.isDebugEnabled())
+                log.debug("Found the user with name " + userName + " in the database.");
+
+            return loadReferences(users, true).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the user with name " + userName, e);
+
+            return null;
+        }
+    } // end method getUserByUserName(String, Server)
 
     @Override
     public User getUserByEmail(String email, Server server) throws DatabaseConfigException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
+        if (log.isDebugEnabled())
+            log.debug("Getting the user with email " + email);
 
-        synchronized (psGetByEmailLock) {
-            if (log.isDebugEnabled())
-                log.debug("Getting the user with email " + email);
-
-            // The ResultSet from the SQL query
-            ResultSet results = null;
-
-            try {
-                // If the PreparedStatement to get a user by email was not defined, create it
-                if (psGetByEmail == null || dbConnectionManager.isClosed(psGetByEmail)) {
-                    // SQL to get the row
-                    String selectSql = "SELECT " + COL_USER_ID + ", " +
-                                                   COL_USERNAME + ", " +
-                                                   COL_FIRST_NAME + ", " +
-                                                   COL_LAST_NAME + ", " +
-                                                   COL_PASSWORD + ", " +
-                                                   COL_EMAIL + ", " +
-                                                   COL_SERVER_ID + ", " +
-                                                   COL_LAST_LOGIN + ", " +
-                                                   COL_ACCOUNT_CREATED + ", " +
-                                                   COL_FAILED_LOGIN_ATTEMPTS + " " +
-                                       "FROM " + USERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_EMAIL + "=?" + " AND " + COL_SERVER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"get user by email\" PreparedSatement from the SQL " + selectSql);
-
-                    // A prepared statement to run the select SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psGetByEmail = dbConnectionManager.prepareStatement(selectSql, psGetByEmail);
-                } // end if(get by email PreparedStatement not defined)
-
-                // Set the parameters on the select statement
-                psGetByEmail.setString(1, email);
-                psGetByEmail.setInt(2, server.getId());
-
-                // Get the result of the SELECT statement
-
-                // Execute the query
-                results = dbConnectionManager.executeQuery(psGetByEmail);
-
-                // If any results were returned
-                if (results.next()) {
-                    // The Object which will contain data on the user
-                    User user = new User();
-
-                    // Set the fields on the user
-                    user.setId(results.getInt(1));
-                    user.setUsername(results.getString(2));
-                    user.setFirstName(results.getString(3));
-                    user.setLastName(results.getString(4));
-                    user.setPassword(results.getString(5));
-                    user.setEmail(results.getString(6));
-                    user.setServer(getServerDAO().getById(results.getInt(7)));
-                    user.setLastLogin(results.getDate(8));
-                    user.setAccountCreated(results.getDate(9));
-                    user.setFailedLoginAttempts(results.getInt(10));
-
-                    if (log.isDebugEnabled())
-                        log.debug("Found the user with email " + email + " in the database.");
-
-                    // Return the user
-                    return user;
-                } // end if(user found)
-                else // There were no rows in the database, the user could not be found
-                {
-                    if (log.isDebugEnabled())
-                        log.debug("The user with email " + email + " was not found in the database.");
-
-                    return null;
-                } // end else
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while getting the user with email " + email, e);
+        try {
+            List<User> users = jdbcTemplate.query(GET_BY_EMAIL_SQL, USER_MAPPER, email, server.getId());
+
+            if (users.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("The user with email " + email + " was not found in the database.");
 
                 return null;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return getUserByEmail(email, server);
-            } finally {
-                dbConnectionManager.closeResultSet(results);
-            } // end finally (close ResultSet)
-        } // end synchronized
-    } // end method getUserByEmail(int)
+            }
+
+            if (log.isDebugEnabled())
+                log.debug("Found the user with email " + email + " in the database.");
+
+            return loadReferences(users, false).get(0);
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while getting the user with email " + email, e);
+
+            return null;
+        }
+    } // end method getUserByEmail(String, Server)
 
     @Override
     public boolean insert(User user) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the non-ID fields on the user are valid
         validateFields(user, false, true);
 
-        // insert the server if it hasn't already been inserted
+        // Insert the server if it hasn't been inserted yet
         if (user.getServer().getId() < 0)
             getServerDAO().insert(user.getServer());
 
-        synchronized (psInsertLock) {
-            if (log.isDebugEnabled())
-                log.debug("Inserting a new user with username " + user.getUsername());
-
-            // The ResultSet returned by the query
-            ResultSet rs = null;
-
-            try {
-                // If the PreparedStatement to insert a user was not defined, create it
-                if (psInsert == null || dbConnectionManager.isClosed(psInsert)) {
-                    // SQL to insert the new row
-                    String insertSql = "INSERT INTO " + USERS_TABLE_NAME + " (" + COL_USERNAME + ", " +
-                                                                            COL_FIRST_NAME + ", " +
-                                                                            COL_LAST_NAME + ", " +
-                                                                            COL_PASSWORD + ", " +
-                                                                            COL_EMAIL + ", " +
-                                                                            COL_SERVER_ID + ", " +
-                                                                            COL_LAST_LOGIN + ", " +
-                                                                            COL_ACCOUNT_CREATED + ", " +
-                                                                            COL_FAILED_LOGIN_ATTEMPTS + ") " +
-                                       "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"insert user\" PreparedStatement from the SQL " + insertSql);
-
-                    // A prepared statement to run the insert SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psInsert = dbConnectionManager.prepareStatement(insertSql, psInsert);
-                }
-
-                // Set the parameters on the insert statement
-                psInsert.setString(1, user.getUsername().trim());
-                psInsert.setString(2, user.getFirstName().trim());
-                psInsert.setString(3, user.getLastName().trim());
-                psInsert.setString(4, user.getPassword());
-                psInsert.setString(5, user.getEmail().trim());
-                psInsert.setInt(6, user.getServer().getId());
-                psInsert.setDate(7, user.getLastLogin());
-                psInsert.setDate(8, user.getAccountCreated());
-                psInsert.setInt(9, user.getFailedLoginAttempts());
-
-                // Execute the insert statement and return the result
-                if (dbConnectionManager.executeUpdate(psInsert) > 0) {
-                    // Get the auto-generated user ID and set it correctly on this User Object
-                    rs = dbConnectionManager.createStatement().executeQuery("SELECT LAST_INSERT_ID()");
-
-                    if (rs.next())
-                        user.setId(rs.getInt(1));
-
-                    // Add the user to the correct groups
-                    for (Group group : user.getGroups())
-                        getUserGroupUtilDAO().insert(user.getId(), group.getId());
-
-                    LogWriter.addInfo(logObj.getLogFileLocation(), "Added a new user with the username " + user.getUsername());
-
-                    return true;
-                } // end if(insert succeeded)
-                else {
-                    LogWriter.addError(logObj.getLogFileLocation(), "An error occurrred while adding a new user with the username " + user.getUsername());
-
-                    logObj.setErrors(logObj.getErrors() + 1);
-                    getLogDAO().update(logObj);
-
-                    return false;
-                }
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while inserting a new user with username " + user.getUsername(), e);
-
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurrred while adding a new user with the username " + user.getUsername());
-
-                logObj.setErrors(logObj.getErrors() + 1);
-                getLogDAO().update(logObj);
-
-                return false;
-            } // end catch(SQLException)
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return insert(user);
-            } finally {
-                dbConnectionManager.closeResultSet(rs);
-            } // end finally (close ResultSet)
-        } // end synchronized
+        if (log.isDebugEnabled())
+            log.debug("Inserting a new user with username " + user.getUsername());
+
+        long id = -1;
+        try {
+            id = insertForKey(INSERT_SQL, user.getUsername().trim(), user.getFirstName().trim(), user.getLastName().trim(),
+                    user.getPassword(), user.getEmail().trim(), user.getServer().getId(), user.getLastLogin(),
+                    user.getAccountCreated(), user.getFailedLoginAttempts());
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while inserting a new user with username " + user.getUsername(), e);
+        }
+
+        if (id < 0) {
+            logError("An error occurrred while adding a new user with the username " + user.getUsername());
+
+            return false;
+        }
+
+        user.setId((int) id);
+
+        for (Group group : user.getGroups())
+            getUserGroupUtilDAO().insert(user.getId(), group.getId());
+
+        LogWriter.addInfo(logObj.getLogFileLocation(), "Added a new user with the username " + user.getUsername());
+
+        return true;
     } // end method insert(User)
 
     @Override
     public boolean update(User user) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
         // Check that the fields on the user are valid
         validateFields(user, true, true);
 
-        synchronized (psUpdateLock) {
-            if (log.isDebugEnabled())
-                log.debug("Updating the user with ID " + user.getId());
-
-            try {
-                // If the PreparedStatement to update a user was not defined, create it
-                if (psUpdate == null || dbConnectionManager.isClosed(psUpdate)) {
-                    // SQL to update new row
-                    String updateSql = "UPDATE " + USERS_TABLE_NAME + " SET " + COL_USERNAME + "=?, " +
-                                                                          COL_FIRST_NAME + "=?, " +
-                                                                          COL_LAST_NAME + "=?, " +
-                                                                          COL_PASSWORD + "=?, " +
-                                                                          COL_EMAIL + "=?, " +
-                                                                          COL_SERVER_ID + "=?, " +
-                                                                          COL_LAST_LOGIN + "=?, " +
-                                                                          COL_ACCOUNT_CREATED + "=?, " +
-                                                                          COL_FAILED_LOGIN_ATTEMPTS + "=? " +
-                                       "WHERE " + COL_USER_ID + "=?";
-
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"update user\" PreparedStatement from the SQL " + updateSql);
-
-                    // A prepared statement to run the update SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psUpdate = dbConnectionManager.prepareStatement(updateSql, psUpdate);
-                } // end if(update PreparedStatement not defined)
-
-                // Set the parameters on the update statement
-                psUpdate.setString(1, user.getUsername().trim());
-                psUpdate.setString(2, user.getFirstName().trim());
-                psUpdate.setString(3, user.getLastName().trim());
-                psUpdate.setString(4, user.getPassword());
-                psUpdate.setString(5, user.getEmail().trim());
-                psUpdate.setInt(6, user.getServer().getId());
-                psUpdate.setDate(7, user.getLastLogin());
-                psUpdate.setDate(8, user.getAccountCreated());
-                psUpdate.setInt(9, user.getFailedLoginAttempts());
-                psUpdate.setInt(10, user.getId());
-
-                // Execute the update statement and return the result
-                boolean success = dbConnectionManager.executeUpdate(psUpdate) > 0;
-
-                // Delete the old groups for the user
-                getUserGroupUtilDAO().deleteGroupsForUser(user.getId());
-
-                // Add the user to the correct groups
-                for (Group group : user.getGroups())
-                    success = getUserGroupUtilDAO().insert(user.getId(), group.getId()) && success;
-
-                if (success)
-                    LogWriter.addInfo(logObj.getLogFileLocation(), "Updated the user with the username " + user.getUsername());
-                else {
-                    LogWriter.addError(logObj.getLogFileLocation(), "An error occurrred while updating the user with the username " + user.getUsername());
-
-                    logObj.setErrors(logObj.getErrors() + 1);
-                    getLogDAO().update(logObj);
-                }
-
-                return success;
-            } // end try
-            catch (SQLException e) {
-                log.error("A SQLException occurred while updating the user with ID " + user.getId(), e);
-
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurrred while updating the user with the username " + user.getUsername());
-
-                logObj.setErrors(logObj.getErrors() + 1);
-                getLogDAO().update(logObj);
-
-                return false;
-            } // end catch(SQLException
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return update(user);
-            }
-        } // end synchronized
-    } // end method update(User)
-
-    @Override
-    public boolean delete(User user) throws DataException {
-        // Throw an exception if the connection is null. This means the configuration file was bad.
-        if (dbConnectionManager.getDbConnection() == null)
-            throw new DatabaseConfigException("Unable to connect to the database using the parameters from the configuration file.");
-
-        // Check that the ID field on the user are valid
-        validateFields(user, true, false);
-
-        synchronized (psDeleteLock) {
-            if (log.isDebugEnabled())
-                log.debug("Deleting the user with ID " + user.getId());
+        if (log.isDebugEnabled())
+            log.debug("Updating the user with ID " + user.getId());
 
-            try {
-                // If the PreparedStatement to delete a user was not defined, create it
-                if (psDelete == null || dbConnectionManager.isClosed(psDelete)) {
-                    // SQL to delete the row from the table
-                    String deleteSql = "DELETE FROM " + USERS_TABLE_NAME + " " +
-                                       "WHERE " + COL_USER_ID + " = ? ";
+        boolean success = false;
+        try {
+            success = jdbcTemplate.update(UPDATE_SQL, user.getUsername().trim(), user.getFirstName().trim(), user.getLastName().trim(),
+                    user.getPassword(), user.getEmail().trim(), user.getServer().getId(), user.getLastLogin(),
+                    user.getAccountCreated(), user.getFailedLoginAttempts(), user.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while updating the user with ID " + user.getId(), e);
 
-                    if (log.isDebugEnabled())
-                        log.debug("Creating the \"delete user\" PreparedStatement from the SQL " + deleteSql);
+            logError("An error occurrred while updating the user with the username " + user.getUsername());
 
-                    // A prepared statement to run the delete SQL
-                    // This should sanitize the SQL and prevent SQL injection
-                    psDelete = dbConnectionManager.prepareStatement(deleteSql, psDelete);
-                } // end if(delete PreparedStatement not defined)
+            return false;
+        }
 
-                // Set the parameters on the delete statement
-                psDelete.setInt(1, user.getId());
+        // Reset the user's groups
+        getUserGroupUtilDAO().deleteGroupsForUser(user.getId());
+        for (Group group : user.getGroups())
+            success = getUserGroupUtilDAO().insert(user.getId(), group.getId()) && success;
 
-                // Execute the delete statement and return the result
-                boolean success = dbConnectionManager.execute(psDelete);
+        if (success)
+            LogWriter.addInfo(logObj.getLogFileLocation(), "Updated the user with the username " + user.getUsername());
+        else
+            logError("An error occurrred while updating the user with the username " + user.getUsername());
 
-                if (success)
-                    LogWriter.addInfo(logObj.getLogFileLocation(), "Deleted the user with the username " + user.getUsername());
-                else {
-                    LogWriter.addError(logObj.getLogFileLocation(), "An error occurrred while deleting the user with the username " + user.getUsername());
+        return success;
+    } // end method update(User)
 
-                    logObj.setErrors(logObj.getErrors() + 1);
-                    getLogDAO().update(logObj);
-                }
+    @Override
+    public boolean delete(User user) throws DataException {
+        // Check that the ID field on the user is valid
+        validateFields(user, true, false);
 
-                return success;
-            } // end try(delete the user)
-            catch (SQLException e) {
-                log.error("A SQLException occurred while deleting the user with ID " + user.getId(), e);
+        if (log.isDebugEnabled())
+            log.debug("Deleting the user with ID " + user.getId());
 
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurrred while deleting the user with the username " + user.getUsername());
+        boolean success = false;
+        try {
+            success = jdbcTemplate.update(DELETE_SQL, user.getId()) > 0;
+        } catch (DataAccessException e) {
+            log.error("A database error occurred while deleting the user with ID " + user.getId(), e);
+        }
 
-                logObj.setErrors(logObj.getErrors() + 1);
-                getLogDAO().update(logObj);
+        if (success)
+            LogWriter.addInfo(logObj.getLogFileLocation(), "Deleted the user with the username " + user.getUsername());
+        else
+            logError("An error occurrred while deleting the user with the username " + user.getUsername());
 
-                return false;
-            } // end catch(SQLException
-            catch (DBConnectionResetException e) {
-                log.info("Re executing the query that failed ");
-                return delete(user);
-            }
-        } // end synchronized
+        return success;
     } // end method delete(User)
 } // end class DefaultUserDAO
@@ -12,7 +12,6 @@ package xc.mst.dao.user;
 import java.util.List;
 
 import xc.mst.dao.BaseDAO;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Utility class for manipulating the permissions assigned to a group
@@ -20,11 +19,6 @@ import xc.mst.dao.MySqlConnectionManager;
  * @author Eric Osisek
  */
 public abstract class GroupPermissionUtilDAO extends BaseDAO {
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the groups to top level tabs database table
      */
@@ -14,7 +14,6 @@ import java.util.List;
 import xc.mst.bo.user.Permission;
 import xc.mst.dao.BaseDAO;
 import xc.mst.dao.DatabaseConfigException;
-import xc.mst.dao.MySqlConnectionManager;
 
 /**
  * Data access object for permissions belonging to a group. These are taken from the
@@ -23,11 +22,6 @@ import xc.mst.dao.MySqlConnectionManager;
  * @author Eric Osisek
  */
 public abstract class PermissionDAO extends BaseDAO {
-    /**
-     * The Object managing the database connection
-     */
-    protected MySqlConnectionManager dbConnectionManager = MySqlConnectionManager.getInstance();
-
     /**
      * The name of the groups to top level tabs database table
      */
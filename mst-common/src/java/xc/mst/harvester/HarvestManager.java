@@ -11,7 +11,6 @@ package xc.mst.harvester;
 import gnu.trove.TLongByteHashMap;
 
 import java.io.File;
-import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
@@ -53,6 +52,7 @@ import xc.mst.scheduling.WorkerThread;
 import xc.mst.utils.LogWriter;
 import xc.mst.utils.MSTConfiguration;
 import xc.mst.utils.TimingLogger;
+import xc.mst.utils.metrics.Metrics;
 import xc.mst.utils.XmlHelper;
 
 public class HarvestManager extends WorkerThread {
@@ -95,6 +95,16 @@ public class HarvestManager extends WorkerThread {
     protected long recordsProcessedThisRun = 0l;
     protected long records2ProcessThisRun = 0l;
 
+    // When > 0, the next ListRecords page is fetched in the background while the current one is
+    // parsed; this is the maximum number of fetched pages waiting to be parsed.
+    protected int prefetchDepth = 0;
+    protected OaiPagePrefetcher prefetcher = null;
+
+    // When true, ListRecords responses are pulled through record by record with an
+    // OaiListRecordsReader instead of being built into a JDOM Document.
+    protected boolean streamingParser = false;
+    protected OaiListRecordsReader listRecordsReader = new OaiListRecordsReader();
+
     public String printDateTime(Date d) {
         String s = UTC_SECOND_FORMATTER.print(d.getTime());
         s = s.substring(0, s.length() - 5) + "Z";
@@ -158,6 +168,9 @@ public class HarvestManager extends WorkerThread {
             // no longer set up cache for all harvests; only do so for "large" ones
             //setupCache();
 
+            prefetchDepth = config.getPropertyAsInt("harvester.prefetchDepth", 0);
+            streamingParser = config.getPropertyAsBoolean("harvester.streamingParser", false);
+
             this.currentHarvest = getScheduleService().getHarvest(harvestSchedule);
             this.incomingRecordCounts = new RecordCounts(this.currentHarvest.getEndTime(), RecordCounts.INCOMING);
         } catch (DatabaseConfigException e) {
@@ -209,6 +222,7 @@ public class HarvestManager extends WorkerThread {
     
     @Override
     public void finishInner(boolean success) {
+        stopPrefetcher();
         super.finishInner(success);
         RecordCounts mostRecentIncomingRecordCounts =
                 getRecordCountsDAO().getMostRecentIncomingRecordCounts(repo.getName());
@@ -345,6 +359,7 @@ public class HarvestManager extends WorkerThread {
                 provider = harvestSchedule.getProvider();
                 String request = null;
                 Document doc = null;
+                OaiPagePrefetcher.Page page = null;
                 if (baseURL.startsWith("file:")) {
                     File pwd = new File(".");
                     log.debug("pwd: " + pwd.getAbsolutePath());
@@ -449,12 +464,7 @@ public class HarvestManager extends WorkerThread {
                         currentHarvest.setRequest(request);
                         getHarvestDAO().update(currentHarvest);
                     } else {
-                        try {
-                            resumptionToken = URLEncoder.encode(resumptionToken, "utf-8");
-                        } catch (UnsupportedEncodingException uee) {
-                            log.error("couldn't encode resumption token: " + resumptionToken);
-                        }
-                        request += "?verb=" + verb + "&resumptionToken=" + resumptionToken;
+                        request = OaiPagePrefetcher.getResumptionRequest(baseURL, resumptionToken);
                     }
 
                     LogWriter.addInfo(schedule.getProvider().getLogFileName(), "The OAI request is " + request);
@@ -465,12 +475,21 @@ public class HarvestManager extends WorkerThread {
 
                     // Perform the harvest
                     TimingLogger.start("sendRequest");
-                    doc = getHttpService().sendRequest(request);
+                    long requestStart = Metrics.HARVEST_REQUEST.start();
+                    if (prefetchDepth > 0) {
+                        page = getPrefetchedPage(baseURL, request);
+                        doc = page.getDoc();
+                    } else if (streamingParser) {
+                        page = OaiPagePrefetcher.readPage(getHttpService(), listRecordsReader, request);
+                    } else {
+                        doc = getHttpService().sendRequest(request);
+                    }
                     /*
                     log.debug("doc: ");
                     if (log.isDebugEnabled())
                         log.debug(new XmlHelper().getString(doc.getRootElement()));
                     */
+                    Metrics.HARVEST_REQUEST.stop(requestStart);
                     TimingLogger.stop("sendRequest");
 
                     provider.setLastOaiRequest(request);
@@ -478,7 +497,11 @@ public class HarvestManager extends WorkerThread {
                 
                 
                 TimingLogger.start("parseRecords");
-                resumptionToken = parseRecords(metadataPrefix, doc, baseURL);
+                if (page != null && page.getRecords() != null) {
+                    resumptionToken = parseRecords(metadataPrefix, page, baseURL);
+                } else {
+                    resumptionToken = parseRecords(metadataPrefix, doc, baseURL);
+                }
                 log.debug("resumptionToken: " + resumptionToken);
                 TimingLogger.stop("parseRecords");
 
@@ -498,6 +521,7 @@ public class HarvestManager extends WorkerThread {
             hssFirstTime = false;
             retVal = true;
             if (resumptionToken == null) {
+                stopPrefetcher();
                 try {
                     if (provider.getNumberOfRecordsToHarvest() == 0) {
                         provider.setLastHarvestEndTime(new Date());
@@ -524,6 +548,7 @@ public class HarvestManager extends WorkerThread {
         }
         if (harvestSchedule.getProvider().getNumberOfRecordsToHarvest() > 0 &&
                 harvestSchedule.getProvider().getNumberOfRecordsToHarvest() <= this.recordsProcessedThisRun) {
+            stopPrefetcher();
             hssFirstTime = true;
             harvestScheduleStepIndex++;
             if (harvestScheduleStepIndex >= harvestScheduleSteps.size()) {
@@ -535,6 +560,43 @@ public class HarvestManager extends WorkerThread {
         return retVal;
     }
 
+    /**
+     * Returns the response to request, taking it from the prefetcher. The prefetcher is started
+     * (or restarted, if it has fallen out of step with the harvest, e.g. after a failed request)
+     * whenever the page it would hand back next isn't the one being asked for.
+     */
+    protected OaiPagePrefetcher.Page getPrefetchedPage(String baseURL, String request) throws HttpException {
+        OaiPagePrefetcher.Page page = null;
+        if (prefetcher != null) {
+            page = prefetcher.next();
+            if (page == null || !request.equals(page.getRequest())) {
+                LOG.debug("prefetched page doesn't match request, restarting prefetcher: " + request);
+                stopPrefetcher();
+                page = null;
+            }
+        }
+        if (page == null) {
+            prefetcher = new OaiPagePrefetcher(getHttpService(), baseURL, request, prefetchDepth, streamingParser);
+            prefetcher.start();
+            page = prefetcher.next();
+        }
+        if (page == null || page.getError() != null) {
+            stopPrefetcher();
+            if (page != null && page.getError() instanceof HttpException) {
+                throw (HttpException) page.getError();
+            }
+            throw new HttpException("did not receive a successful response for request: " + request);
+        }
+        return page;
+    }
+
+    protected void stopPrefetcher() {
+        if (prefetcher != null) {
+            prefetcher.stop();
+            prefetcher = null;
+        }
+    }
+
     // this is for debug use with a harvest from filesystem, files have format like:
     // 7_969999_970000_6679727.xml
     // 7_974999_975000_6679727.xml
@@ -643,20 +705,7 @@ public class HarvestManager extends WorkerThread {
             resumption = null;
         }
       
-        // Is this a "large" update?
-        // If so, we will cache OAI IDs and previous statuses; otherwise, we hit the DB each time
-        if (resumption != null) {
-        	if (this.records2ProcessThisRun >= largeHarvestThreshold) {
-        		log.info("This is a large update; we will cache OAI IDs (" + this.records2ProcessThisRun + " >= " + largeHarvestThreshold + ").");
-                oaiIdCache.ensureCapacity((int) this.records2ProcessThisRun);
-                setupCache();
-        	} else {
-        		log.info("This is not a large update; we will not need to cache OAI IDs (" + this.records2ProcessThisRun + " < " + largeHarvestThreshold + ").");
-        	}
-        } else {
-    		log.info("This is not a large update; we will not need to cache OAI IDs (no resumptionToken; assuming it's a \"small\" update\").");        	
-        }
-        
+        setupCacheIfLarge(resumption);
 
         // Try to get the element containing the first record. It should be a child of the
         // verb element.
@@ -697,49 +746,127 @@ public class HarvestManager extends WorkerThread {
             recordEl = (Element) recordElObj;
 
             try {
-                HarvestScheduleStep scheduleStep = harvestScheduleSteps.get(harvestScheduleStepIndex);
                 TimingLogger.start("getRecordService().parse(recordEl)");
+                long parseStart = Metrics.HARVEST_PARSE.start();
                 Record record = getRecordService().parse(recordEl, currentHarvest.getProvider());
+                Metrics.HARVEST_PARSE.stop(parseStart);
                 TimingLogger.stop("getRecordService().parse(recordEl)");
-                record.setFormat(scheduleStep.getFormat());
-                record.setHarvest(currentHarvest);
-                record.setProvider(currentHarvest.getProvider());
-
-                String oaiId = record.getHarvestedOaiIdentifier();
-                Long recordId = getRecordId(oaiId);
-                char prevStatus = 0;
-                if (recordId == null || recordId == 0) {
-                    getRepositoryDAO().injectId(record);
-                } else {
-                    record.setId(recordId);
-                    prevStatus = getPreviousStatus(recordId);
-                    log.debug("found prevStatus: " + prevStatus);
-                    record.setPreviousStatus(prevStatus);
-                }
-                cachePreviousStatus(record.getId(), (byte) record.getStatus());
-                cacheRecordId(oaiId, record.getId());
-
-                repo.addRecord(record);
-                if (record.getSets() != null && record.getSets().size() > 1) {
-                    for (Set s : record.getSets()) {
-                        if (s.getSetSpec().contains(":")) {
-                            incomingRecordCounts.incr(s.getSetTypeShort(), record.getStatus(), prevStatus);
-                        }
-                    }
-                } else {
-                    incomingRecordCounts.incr(RecordCounts.OTHER, record.getStatus(), prevStatus);
-                }
-                incomingRecordCounts.incr(null, record.getStatus(), prevStatus);
+                addRecord(record);
             } catch (Exception e) {
                 log.error("An error occurred in insertion ", e);
             }
             this.recordsProcessedThisRun++;
+            Metrics.HARVEST_RECORDS.increment();
         }
 
 
         return resumption;
     }
 
+    /**
+     * Same as parseRecords(String, Document, String), but for a page whose records were read
+     * straight out of the response (see OaiPagePrefetcher.readPage) without building a Document.
+     */
+    protected String parseRecords(String prefix, OaiPagePrefetcher.Page page, String baseURL) {
+        // The resumptionToken comes at the end of the response, but whether or not to cache has to
+        // be decided before the first record is added; by now the whole page has been read.
+        if (!cacheSetup) {
+            if (page.getResumptionToken() != null) {
+                this.records2ProcessThisRun = page.getCompleteListSize();
+            }
+            setupCacheIfLarge(page.getResumptionToken());
+        }
+
+        Provider provider = currentHarvest.getProvider();
+        for (OaiListRecordsReader.HarvestedRecord harvested : page.getRecords()) {
+            try {
+                TimingLogger.start("getRecordService().parse(header)");
+                long parseStart = Metrics.HARVEST_PARSE.start();
+                Record record = getRecordService().parse(harvested.getIdentifier(), harvested.getDatestamp(),
+                        harvested.getSetSpecs(), harvested.getStatus(), harvested.getMetadataXml(), provider);
+                Metrics.HARVEST_PARSE.stop(parseStart);
+                TimingLogger.stop("getRecordService().parse(header)");
+                addRecord(record);
+            } catch (Exception e) {
+                log.error("An error occurred in insertion ", e);
+            }
+            recordsProcessedThisRun++;
+            Metrics.HARVEST_RECORDS.increment();
+        }
+
+        // Check whether or not the response contained an error
+        if (page.getErrorCode() != null) {
+            log.info("errorCode: " + page.getErrorCode() + " " + page.getErrorMessage());
+            return null;
+        }
+        if (!page.isListRecordsFound()) {
+            LogWriter.addError(provider.getLogFileName(), "The OAI provider returned an invalid response to the ListRecords request.");
+            sendReportEmail("The OAI provider returned an invalid response to the ListRecords request.");
+            throw new RuntimeException("The data provider returned an invalid response to the ListRecords request.");
+        }
+
+        String resumption = page.getResumptionToken();
+        log.debug("resumption: " + resumption);
+        if (resumption != null) {
+            this.records2ProcessThisRun = page.getCompleteListSize();
+        }
+        return resumption;
+    }
+
+    /**
+     * Is this a "large" update? If so, we will cache OAI IDs and previous statuses; otherwise, we hit the DB each time
+     */
+    protected void setupCacheIfLarge(String resumption) {
+        if (resumption != null) {
+            if (this.records2ProcessThisRun >= largeHarvestThreshold) {
+                log.info("This is a large update; we will cache OAI IDs (" + this.records2ProcessThisRun + " >= " + largeHarvestThreshold + ").");
+                oaiIdCache.ensureCapacity((int) this.records2ProcessThisRun);
+                setupCache();
+            } else {
+                log.info("This is not a large update; we will not need to cache OAI IDs (" + this.records2ProcessThisRun + " < " + largeHarvestThreshold + ").");
+            }
+        } else {
+            log.info("This is not a large update; we will not need to cache OAI IDs (no resumptionToken; assuming it's a \"small\" update\").");
+        }
+    }
+
+    /**
+     * Fills in the harvest-specific fields of a newly parsed record, gives it an id (or the id it
+     * had when last harvested) and adds it to the repository.
+     */
+    protected void addRecord(Record record) {
+        HarvestScheduleStep scheduleStep = harvestScheduleSteps.get(harvestScheduleStepIndex);
+        record.setFormat(scheduleStep.getFormat());
+        record.setHarvest(currentHarvest);
+        record.setProvider(currentHarvest.getProvider());
+
+        String oaiId = record.getHarvestedOaiIdentifier();
+        Long recordId = getRecordId(oaiId);
+        char prevStatus = 0;
+        if (recordId == null || recordId == 0) {
+            getRepositoryDAO().injectId(record);
+        } else {
+            record.setId(recordId);
+            prevStatus = getPreviousStatus(recordId);
+            log.debug("found prevStatus: " + prevStatus);
+            record.setPreviousStatus(prevStatus);
+        }
+        cachePreviousStatus(record.getId(), (byte) record.getStatus());
+        cacheRecordId(oaiId, record.getId());
+
+        repo.addRecord(record);
+        if (record.getSets() != null && record.getSets().size() > 1) {
+            for (Set s : record.getSets()) {
+                if (s.getSetSpec().contains(":")) {
+                    incomingRecordCounts.incr(s.getSetTypeShort(), record.getStatus(), prevStatus);
+                }
+            }
+        } else {
+            incomingRecordCounts.incr(RecordCounts.OTHER, record.getStatus(), prevStatus);
+        }
+        incomingRecordCounts.incr(null, record.getStatus(), prevStatus);
+    }
+
     /**
      * Builds and sends an email report about the harvest to the schedule's notify email address.
      *
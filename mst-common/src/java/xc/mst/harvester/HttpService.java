@@ -14,7 +14,6 @@ import java.net.URLEncoder;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
-import org.apache.commons.httpclient.SimpleHttpConnectionManager;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.log4j.Logger;
 import org.jdom.Document;
@@ -34,7 +33,8 @@ public class HttpService extends BaseService {
     protected HttpClient client = null;
 
     public void init() {
-        client = new HttpClient(new SimpleHttpConnectionManager());
+        // multi-threaded since harvests may prefetch pages on their own threads
+        client = new HttpClient(new MultiThreadedHttpConnectionManager());
         LOG.debug("client: " + client);
         LOG.debug("client.getParams(): " + client.getParams());
         client.getParams().setParameter("http.socket.timeout",
@@ -45,7 +45,32 @@ public class HttpService extends BaseService {
                 config.getProperty("harvest.protocol.content-charset", "utf-16"));
     }
 
+    /**
+     * Reads the body of a successful response as it comes in over the wire.
+     */
+    public interface ResponseHandler {
+        /**
+         * If this throws, the request is sent again (up to harvester.numErrorsToTolerate times in
+         * all) and this is called again with the new response, so it should start over each time.
+         */
+        public void handleResponse(InputStream is) throws Exception;
+    }
+
     public Document sendRequest(String request) throws HttpException {
+        final Document[] doc = new Document[1];
+        sendRequest(request, new ResponseHandler() {
+            public void handleResponse(InputStream is) throws Exception {
+                doc[0] = xmlHelper.getJDomDocument(is);
+            }
+        });
+        return doc[0];
+    }
+
+    /**
+     * Same as sendRequest, but hands the body of the response to handler as it arrives rather
+     * than parsing it, for callers that stream through the response themselves.
+     */
+    public void sendRequest(String request, ResponseHandler handler) throws HttpException {
         int numErrors2Tolerate = config.getPropertyAsInt("harvester.numErrorsToTolerate", 3);
         int numErrorsTolerated = 0;
 
@@ -53,14 +78,15 @@ public class HttpService extends BaseService {
             if (LOG.isDebugEnabled())
                 LOG.debug("Sending the OAI request: " + request);
 
-            Document doc = null;
+            boolean handled = false;
             InputStream istm = null;
+            GetMethod getOaiRequest = null;
 
             try {
                 int statusCode = 0; // The status code in the HTTP response
                 long startOaiRequest = System.currentTimeMillis();
 
-                GetMethod getOaiRequest = new GetMethod(request);
+                getOaiRequest = new GetMethod(request);
 
                 // Execute the get method to get the Voyager "first" page
                 TimingLogger.start("http");
@@ -72,7 +98,8 @@ public class HttpService extends BaseService {
                     istm = getOaiRequest.getResponseBodyAsStream();
                     long finishOaiRequest = System.currentTimeMillis();
                     LOG.info("Time taken to get a response from the server " + (finishOaiRequest - startOaiRequest));
-                    doc = xmlHelper.getJDomDocument(istm);
+                    handler.handleResponse(istm);
+                    handled = true;
                 } else {
                     LOG.error("statusCode: " + statusCode);
                     LOG.error("response: " + getOaiRequest.getResponseBodyAsString());
@@ -101,9 +128,12 @@ public class HttpService extends BaseService {
                         LOG.error("could not close connection.", t2);
                     }
                 }
+                if (getOaiRequest != null) {
+                    getOaiRequest.releaseConnection();
+                }
             }
-            if (doc != null) {
-                return doc;
+            if (handled) {
+                return;
             }
             if (numErrors2Tolerate == ++numErrorsTolerated) {
                 LOG.error("numErrors2Tolerate: " + numErrors2Tolerate + " numErrorsTolerated:" + numErrorsTolerated);
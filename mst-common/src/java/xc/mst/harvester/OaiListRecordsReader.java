@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) 2010 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.harvester;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Pull-parses an OAI-PMH ListRecords response one record at a time. No document is built for
+ * the page: the header values of each record are read directly and the metadata is copied out
+ * as a string (serialized the same way XmlHelper.getString serializes an element), so the only
+ * objects a record leaves behind are the ones handed to the RecordHandler.
+ *
+ * After read() returns, the error, resumptionToken and completeListSize of the response are
+ * available from the getters. Instances are not thread safe; use one per thread.
+ */
+public class OaiListRecordsReader {
+
+    public interface RecordHandler {
+        /**
+         * @param metadataXml
+         *            the first element inside the record's metadata element, or null if there was
+         *            none (e.g. a deleted record)
+         */
+        public void handleRecord(String identifier, String datestamp, List<String> setSpecs,
+                String status, String metadataXml);
+    }
+
+    /**
+     * A record as it was read, for handlers which hang on to the records of a page (see
+     * OaiPagePrefetcher.readPage)
+     */
+    public static class HarvestedRecord {
+        protected String identifier = null;
+        protected String datestamp = null;
+        protected List<String> setSpecs = null;
+        protected String status = null;
+        protected String metadataXml = null;
+
+        public HarvestedRecord(String identifier, String datestamp, List<String> setSpecs,
+                String status, String metadataXml) {
+            this.identifier = identifier;
+            this.datestamp = datestamp;
+            this.setSpecs = setSpecs;
+            this.status = status;
+            this.metadataXml = metadataXml;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getDatestamp() {
+            return datestamp;
+        }
+
+        public List<String> getSetSpecs() {
+            return setSpecs;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getMetadataXml() {
+            return metadataXml;
+        }
+    }
+
+    protected XMLInputFactory factory = null;
+
+    protected boolean listRecordsFound = false;
+    protected String errorCode = null;
+    protected String errorMessage = null;
+    protected String resumptionToken = null;
+    protected long completeListSize = -1;
+
+    public OaiListRecordsReader() {
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        // not coalescing, so CDATA sections can be written back out as JDOM writes them
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    }
+
+    /**
+     * Reads the response, passing each record to handler. If handler is null the records are
+     * skipped, which is a cheap way to find the resumptionToken of a page.
+     */
+    public void read(InputStream is, RecordHandler handler) throws XMLStreamException {
+        listRecordsFound = false;
+        errorCode = null;
+        errorMessage = null;
+        resumptionToken = null;
+        completeListSize = -1;
+
+        XMLStreamReader xsr = factory.createXMLStreamReader(is);
+        try {
+            while (xsr.hasNext()) {
+                if (xsr.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = xsr.getLocalName();
+                if ("error".equals(name)) {
+                    errorCode = xsr.getAttributeValue(null, "code");
+                    errorMessage = xsr.getElementText();
+                } else if ("ListRecords".equals(name)) {
+                    listRecordsFound = true;
+                } else if ("record".equals(name)) {
+                    if (handler == null) {
+                        skipElement(xsr);
+                    } else {
+                        readRecord(xsr, handler);
+                    }
+                } else if ("resumptionToken".equals(name)) {
+                    try {
+                        completeListSize = Long.parseLong(xsr.getAttributeValue(null, "completeListSize"));
+                    } catch (Throwable t) {
+                        completeListSize = -1;
+                    }
+                    resumptionToken = xsr.getElementText();
+                    if (StringUtils.isEmpty(resumptionToken)) {
+                        resumptionToken = null;
+                    }
+                }
+            }
+        } finally {
+            xsr.close();
+        }
+    }
+
+    protected void readRecord(XMLStreamReader xsr, RecordHandler handler) throws XMLStreamException {
+        String identifier = null;
+        String datestamp = null;
+        List<String> setSpecs = new ArrayList<String>();
+        String status = null;
+        String metadataXml = null;
+
+        while (true) {
+            int event = xsr.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "record".equals(xsr.getLocalName())) {
+                break;
+            } else if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = xsr.getLocalName();
+            if ("header".equals(name)) {
+                // the header's children are picked up by this same loop
+                status = xsr.getAttributeValue(null, "status");
+            } else if ("identifier".equals(name)) {
+                identifier = xsr.getElementText();
+            } else if ("datestamp".equals(name)) {
+                datestamp = xsr.getElementText();
+            } else if ("setSpec".equals(name)) {
+                setSpecs.add(xsr.getElementText());
+            } else if ("metadata".equals(name)) {
+                metadataXml = readMetadata(xsr);
+            } else {
+                skipElement(xsr);
+            }
+        }
+        handler.handleRecord(identifier, datestamp, setSpecs, status, metadataXml);
+    }
+
+    protected String readMetadata(XMLStreamReader xsr) throws XMLStreamException {
+        String xml = null;
+        while (true) {
+            int event = xsr.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                // the end of the metadata element
+                return xml;
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                if (xml == null) {
+                    xml = serializeElement(xsr);
+                } else {
+                    skipElement(xsr);
+                }
+            }
+        }
+    }
+
+    /**
+     * Leaves the reader on the END_ELEMENT matching the current START_ELEMENT.
+     */
+    protected void skipElement(XMLStreamReader xsr) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = xsr.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Writes out the current element and its content. Namespaces are declared on the element
+     * where they're first used, so the result stands on its own even if some of its prefixes
+     * were declared on the envelope.
+     */
+    protected String serializeElement(XMLStreamReader xsr) throws XMLStreamException {
+        StringBuilder sb = new StringBuilder();
+        // the text since the last tag, as read and as it's to be written
+        StringBuilder text = new StringBuilder();
+        StringBuilder escapedText = new StringBuilder();
+        List<Map<String, String>> scopes = new ArrayList<Map<String, String>>();
+        List<String> qnames = new ArrayList<String>();
+        boolean startTagOpen = false;
+
+        int event = XMLStreamConstants.START_ELEMENT;
+        while (true) {
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE) {
+                int start = text.length();
+                text.append(xsr.getTextCharacters(), xsr.getTextStart(), xsr.getTextLength());
+                escapeText(escapedText, text.subSequence(start, text.length()));
+            } else if (event == XMLStreamConstants.CDATA) {
+                int start = text.length();
+                text.append(xsr.getTextCharacters(), xsr.getTextStart(), xsr.getTextLength());
+                escapedText.append("<![CDATA[").append(text, start, text.length()).append("]]>");
+            } else if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT) {
+                if (text.length() > 0) {
+                    // same as Format.TextMode.TRIM_FULL_WHITE
+                    if (text.toString().trim().length() > 0) {
+                        if (startTagOpen) {
+                            sb.append('>');
+                            startTagOpen = false;
+                        }
+                        sb.append(escapedText);
+                    }
+                    text.setLength(0);
+                    escapedText.setLength(0);
+                }
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (startTagOpen) {
+                        sb.append('>');
+                    }
+                    Map<String, String> scope = new HashMap<String, String>();
+                    scopes.add(scope);
+                    String qname = qname(xsr.getPrefix(), xsr.getLocalName());
+                    qnames.add(qname);
+                    sb.append('<').append(qname);
+                    // declared in the same order JDOM's XMLOutputter uses
+                    declare(sb, scopes, xsr.getPrefix(), xsr.getNamespaceURI());
+                    for (int i = 0; i < xsr.getAttributeCount(); i++) {
+                        String prefix = xsr.getAttributePrefix(i);
+                        if (!StringUtils.isEmpty(prefix)) {
+                            declare(sb, scopes, prefix, xsr.getAttributeNamespace(i));
+                        }
+                    }
+                    for (int i = 0; i < xsr.getNamespaceCount(); i++) {
+                        declare(sb, scopes, xsr.getNamespacePrefix(i), xsr.getNamespaceURI(i));
+                    }
+                    for (int i = 0; i < xsr.getAttributeCount(); i++) {
+                        sb.append(' ').append(qname(xsr.getAttributePrefix(i), xsr.getAttributeLocalName(i)));
+                        sb.append("=\"");
+                        escapeAttribute(sb, xsr.getAttributeValue(i));
+                        sb.append('"');
+                    }
+                    startTagOpen = true;
+                } else {
+                    String qname = qnames.remove(qnames.size() - 1);
+                    scopes.remove(scopes.size() - 1);
+                    if (startTagOpen) {
+                        sb.append(" />");
+                        startTagOpen = false;
+                    } else {
+                        sb.append("</").append(qname).append('>');
+                    }
+                    if (qnames.isEmpty()) {
+                        return sb.toString();
+                    }
+                }
+            }
+            event = xsr.next();
+        }
+    }
+
+    protected String qname(String prefix, String localName) {
+        if (StringUtils.isEmpty(prefix)) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    protected void declare(StringBuilder sb, List<Map<String, String>> scopes, String prefix, String uri) {
+        if (prefix == null) {
+            prefix = "";
+        }
+        if (uri == null) {
+            uri = "";
+        }
+        String inScope = "";
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            if (scopes.get(i).containsKey(prefix)) {
+                inScope = scopes.get(i).get(prefix);
+                break;
+            }
+        }
+        if (uri.equals(inScope)) {
+            return;
+        }
+        scopes.get(scopes.size() - 1).put(prefix, uri);
+        sb.append(prefix.length() == 0 ? " xmlns" : " xmlns:" + prefix);
+        sb.append("=\"");
+        escapeAttribute(sb, uri);
+        sb.append('"');
+    }
+
+    protected void escapeText(StringBuilder sb, CharSequence cs) {
+        for (int i = 0; i < cs.length(); i++) {
+            char c = cs.charAt(i);
+            switch (c) {
+            case '&':
+                sb.append("&amp;");
+                break;
+            case '<':
+                sb.append("&lt;");
+                break;
+            case '>':
+                sb.append("&gt;");
+                break;
+            case '\r':
+                sb.append("&#xD;");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+    }
+
+    protected void escapeAttribute(StringBuilder sb, CharSequence cs) {
+        for (int i = 0; i < cs.length(); i++) {
+            char c = cs.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("&quot;");
+                break;
+            case '\t':
+                sb.append("&#x9;");
+                break;
+            case '\n':
+                sb.append("&#xA;");
+                break;
+            case '\r':
+                sb.append("&#xD;");
+                break;
+            case '&':
+                sb.append("&amp;");
+                break;
+            case '<':
+                sb.append("&lt;");
+                break;
+            case '>':
+                sb.append("&gt;");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+    }
+
+    public boolean isListRecordsFound() {
+        return listRecordsFound;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public String getResumptionToken() {
+        return resumptionToken;
+    }
+
+    public long getCompleteListSize() {
+        return completeListSize;
+    }
+}
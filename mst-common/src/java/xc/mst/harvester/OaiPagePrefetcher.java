@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2010 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.harvester;
+
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.HttpException;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.jdom.Document;
+import org.jdom.Element;
+
+import xc.mst.utils.TimingLogger;
+
+/**
+ * Fetches the pages of a ListRecords harvest on a background thread so the next page is on its
+ * way over the wire while the HarvestManager is still parsing the current one.
+ *
+ * As soon as a page arrives its resumptionToken is pulled out and the request for the following
+ * page is sent. Fetched pages are handed over through a queue holding at most prefetchDepth
+ * pages, so a slow consumer (or a paused harvest) simply stalls the fetcher rather than letting
+ * it run ahead and fill the heap.
+ */
+public class OaiPagePrefetcher {
+
+    private static final Logger LOG = Logger.getLogger(OaiPagePrefetcher.class);
+
+    /**
+     * A single fetched page of a harvest. Depending on how the prefetcher was set up, either doc
+     * or records (the records as they were read from the response, see readPage) is filled in. If
+     * the request failed, both are null and error holds the cause.
+     */
+    public static class Page {
+        protected String request = null;
+        protected Document doc = null;
+        protected List<OaiListRecordsReader.HarvestedRecord> records = null;
+        protected boolean listRecordsFound = false;
+        protected String errorCode = null;
+        protected String errorMessage = null;
+        protected String resumptionToken = null;
+        protected long completeListSize = -1;
+        protected Throwable error = null;
+
+        public String getRequest() {
+            return request;
+        }
+
+        public Document getDoc() {
+            return doc;
+        }
+
+        public List<OaiListRecordsReader.HarvestedRecord> getRecords() {
+            return records;
+        }
+
+        public boolean isListRecordsFound() {
+            return listRecordsFound;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        public String getResumptionToken() {
+            return resumptionToken;
+        }
+
+        public long getCompleteListSize() {
+            return completeListSize;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+    }
+
+    protected HttpService httpService = null;
+    protected String baseURL = null;
+    protected String firstRequest = null;
+    protected boolean raw = false;
+    protected BlockingQueue<Page> pages = null;
+    protected ExecutorService executor = null;
+    protected volatile boolean stopped = false;
+    protected volatile boolean done = false;
+
+    public OaiPagePrefetcher(HttpService httpService, String baseURL, String firstRequest, int prefetchDepth) {
+        this(httpService, baseURL, firstRequest, prefetchDepth, false);
+    }
+
+    /**
+     * @param raw
+     *            if true, pages are read record by record as they arrive (see readPage) rather
+     *            than parsed into a Document
+     */
+    public OaiPagePrefetcher(HttpService httpService, String baseURL, String firstRequest, int prefetchDepth, boolean raw) {
+        this.httpService = httpService;
+        this.baseURL = baseURL;
+        this.firstRequest = firstRequest;
+        this.raw = raw;
+        this.pages = new ArrayBlockingQueue<Page>(Math.max(1, prefetchDepth));
+    }
+
+    /**
+     * Builds the ListRecords request used to continue a harvest from the given resumptionToken.
+     */
+    public static String getResumptionRequest(String baseURL, String resumptionToken) {
+        String token = resumptionToken;
+        try {
+            token = URLEncoder.encode(resumptionToken, "utf-8");
+        } catch (UnsupportedEncodingException uee) {
+            LOG.error("couldn't encode resumption token: " + resumptionToken);
+        }
+        return baseURL + "?verb=ListRecords&resumptionToken=" + token;
+    }
+
+    /**
+     * Pulls the resumptionToken out of a ListRecords response without touching its records.
+     *
+     * @return the token, or null if the response is an error or the last page of the list
+     */
+    public static String getResumptionToken(Document doc) {
+        if (doc == null) {
+            return null;
+        }
+        Element root = doc.getRootElement();
+        if (root.getChild("error", root.getNamespace()) != null) {
+            return null;
+        }
+        Element listRecordsEl = root.getChild("ListRecords", root.getNamespace());
+        if (listRecordsEl == null) {
+            listRecordsEl = root;
+        }
+        Element resumptionEl = listRecordsEl.getChild("resumptionToken", root.getNamespace());
+        if (resumptionEl == null || StringUtils.isEmpty(resumptionEl.getText())) {
+            return null;
+        }
+        return resumptionEl.getText();
+    }
+
+    /**
+     * Sends the request and reads the records out of the response as it arrives, so neither the
+     * response nor a Document for it is ever held. The records are kept on the page rather than
+     * handed straight on, since the resumptionToken (which the harvest needs before the first
+     * record is added, see HarvestManager.setupCacheIfLarge) comes at the end of the page.
+     */
+    public static Page readPage(HttpService httpService, final OaiListRecordsReader reader, String request) throws HttpException {
+        final Page page = new Page();
+        page.request = request;
+        httpService.sendRequest(request, new HttpService.ResponseHandler() {
+            public void handleResponse(InputStream is) throws Exception {
+                // start over if this is a retry
+                final List<OaiListRecordsReader.HarvestedRecord> records = new ArrayList<OaiListRecordsReader.HarvestedRecord>();
+                reader.read(is, new OaiListRecordsReader.RecordHandler() {
+                    public void handleRecord(String identifier, String datestamp, List<String> setSpecs,
+                            String status, String metadataXml) {
+                        records.add(new OaiListRecordsReader.HarvestedRecord(identifier, datestamp, setSpecs, status, metadataXml));
+                    }
+                });
+                page.records = records;
+            }
+        });
+        page.listRecordsFound = reader.isListRecordsFound();
+        page.errorCode = reader.getErrorCode();
+        page.errorMessage = reader.getErrorMessage();
+        page.resumptionToken = reader.getResumptionToken();
+        page.completeListSize = reader.getCompleteListSize();
+        return page;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "oai-prefetch-" + baseURL);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        executor.execute(new Runnable() {
+            public void run() {
+                fetchPages();
+            }
+        });
+    }
+
+    protected void fetchPages() {
+        OaiListRecordsReader reader = raw ? new OaiListRecordsReader() : null;
+        String request = firstRequest;
+        while (request != null && !stopped) {
+            Page page = null;
+            try {
+                if (raw) {
+                    page = readPage(httpService, reader, request);
+                } else {
+                    page = new Page();
+                    page.request = request;
+                    page.doc = httpService.sendRequest(request);
+                    page.resumptionToken = getResumptionToken(page.doc);
+                }
+                request = page.resumptionToken == null ? null : getResumptionRequest(baseURL, page.resumptionToken);
+            } catch (Throwable t) {
+                page = new Page();
+                page.request = request;
+                page.error = t;
+                request = null;
+            }
+            try {
+                pages.put(page);
+            } catch (InterruptedException ie) {
+                LOG.debug("prefetcher interrupted while waiting for room in the queue");
+                break;
+            }
+        }
+        done = true;
+        LOG.debug("prefetcher done, stopped: " + stopped);
+    }
+
+    /**
+     * Blocks until the next page has been fetched.
+     *
+     * @return the page, or null if the prefetcher has been stopped or has no more pages
+     */
+    public Page next() {
+        while (!stopped && !(done && pages.isEmpty())) {
+            try {
+                TimingLogger.start("prefetch.wait");
+                Page page = pages.poll(1, TimeUnit.SECONDS);
+                TimingLogger.stop("prefetch.wait");
+                if (page != null) {
+                    return page;
+                }
+            } catch (InterruptedException ie) {
+                TimingLogger.stop("prefetch.wait");
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public void stop() {
+        stopped = true;
+        pages.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+}
@@ -10,7 +10,6 @@
 package xc.mst.manager.record;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -80,13 +79,13 @@ public class DefaultBrowseRecordService extends BaseService implements BrowseRec
         // Load the records in the SolrBrowseResilt object
         SolrDocumentList docs = rsp.getResults();
 
-        RecordService recordService = (RecordService) config.getBean("RecordService");
-        Iterator<SolrDocument> iteration = docs.iterator();
-        List<Record> records = new ArrayList<Record>();
-
-        while (iteration.hasNext()) {
-            records.add(recordService.getRecordFieldsForBrowseFromDocument(iteration.next()));
+        // The whole page is loaded at once, rather than a record (and its repository lookups)
+        // at a time
+        List<Long> ids = new ArrayList<Long>();
+        for (SolrDocument doc : docs) {
+            ids.add(Long.parseLong(doc.getFieldValue(RecordService.FIELD_RECORD_ID).toString()));
         }
+        List<Record> records = getRepositoryService().getRecordsForBrowse(ids);
 
         // Load the facets in the SolrBrowseResult object
         List<FacetField> facets = rsp.getFacetFields();
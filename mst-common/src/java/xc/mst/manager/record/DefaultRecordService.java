@@ -42,6 +42,7 @@ import xc.mst.bo.record.RecordIfc;
 import xc.mst.bo.record.RecordMessage;
 import xc.mst.bo.record.SolrBrowseResult;
 import xc.mst.bo.service.Service;
+import xc.mst.dao.DataException;
 import xc.mst.dao.DatabaseConfigException;
 import xc.mst.dao.record.XcIdentifierForFrbrElementDAO;
 import xc.mst.manager.IndexException;
@@ -1117,14 +1118,15 @@ public class DefaultRecordService extends RecordService {
         Record r = new Record();
         try {
             Element headerEl = recordEl.getChild("header", recordEl.getNamespace());
+            String identifier = null;
             Element identifierElement = headerEl.getChild("identifier", recordEl.getNamespace());
             if (identifierElement != null) {
-                r.setHarvestedOaiIdentifier(identifierElement.getText());
-                LOG.debug("identifierElement.getText(): " + identifierElement.getText());
+                identifier = identifierElement.getText();
             }
+            String datestamp = null;
             Element datestampElement = headerEl.getChild("datestamp", recordEl.getNamespace());
-            if (datestampElement != null && !StringUtils.isEmpty(datestampElement.getText())) {
-                r.setOaiDatestamp(new Date(UTC_PARSER.parseDateTime(datestampElement.getText()).getMillis()));
+            if (datestampElement != null) {
+                datestamp = datestampElement.getText();
             }
 
             /*
@@ -1142,100 +1144,129 @@ public class DefaultRecordService extends RecordService {
             }
             */
 
-            // TODO: BDA - This might not be right, but I don't think I really care
-            // since this is only currently used in the filesystem testing
-            // mechanism and we don't care about setSpecs there.
+            List<String> setSpecs = new ArrayList<String>();
             List setSpecList = headerEl.getChildren("setSpec", recordEl.getNamespace());
-            if (setSpecList != null && setSpecList.size() > 0) {
+            if (setSpecList != null) {
                 for (Object setSpecObj : setSpecList) {
-                    Element setSpecEl = (Element) setSpecObj;
-
-                    String setSpec = null;
-                    if (provider != null) {
-                        setSpec = provider.getName().replace(' ', '-');
-                    }
-                    if (setSpec != null) {
-                        setSpec += ":";
-                    }
-                    setSpec += setSpecEl.getText();
-
-                    // Split the set into its components
-                    String[] setSpecLevels = setSpec.split(":");
-
-                    // This will build the setSpecs to which the record belongs
-                    StringBuilder setSpecAtLevel = new StringBuilder();
-
-                    // Loop over all levels in the set spec
-                    for (String setSpecLevel : setSpecLevels) {
-                        // Append the set at the current level to the setSpec at the previous level to
-                        // get the setSpec for the current level. Append colons as needed
-                        setSpecAtLevel.append(setSpecAtLevel.length() <= 0 ? setSpecLevel : ":" + setSpecLevel);
-
-                        String currentSetSpec = setSpecAtLevel.toString();
-
-                        // If the set's already in the index, get it
-                        Set set = getSetDAO().getBySetSpec(currentSetSpec);
-
-                        // Add the set if there wasn't already one in the database
-                        if (set == null && provider != null) {
-                            set = new Set();
-                            set.setSetSpec(currentSetSpec);
-                            set.setDisplayName(currentSetSpec);
-                            set.setIsProviderSet(false);
-                            set.setIsRecordSet(true);
-                            TimingLogger.start("setDao.insertForProvider");
-                            getSetDAO().insertForProvider(set, provider.getId());
-                            TimingLogger.stop("setDao.insertForProvider");
-                        }
-                        // Add the set's ID to the list of sets to which the record belongs
-                        r.addSet(set);
-                    }
+                    setSpecs.add(((Element) setSpecObj).getText());
                 }
-            } else {
+            }
+
+            parseHeader(r, identifier, datestamp, setSpecs, headerEl.getAttributeValue("status"), provider);
+
+            // Metadata element will not exist in case the record has status = deleted. So null check is required here.
+            if (recordEl.getChild("metadata", recordEl.getNamespace()) != null) {
+                Element xmlEl = (Element) recordEl.getChild("metadata", recordEl.getNamespace()).getChildren().get(0);
+                xmlEl.detach();
+                r.setOaiXmlEl(xmlEl);
+            }
+        } catch (Throwable t) {
+            getUtil().throwIt(t);
+        }
+
+        return r;
+    }
+
+    public Record parse(String identifier, String datestamp, List<String> setSpecs,
+            String status, String metadataXml, Provider provider) {
+        Record r = new Record();
+        try {
+            parseHeader(r, identifier, datestamp, setSpecs, status, provider);
+            r.setMode(Record.STRING_MODE);
+            r.setOaiXml(metadataXml);
+        } catch (Throwable t) {
+            getUtil().throwIt(t);
+        }
+        return r;
+    }
+
+    protected void parseHeader(Record r, String identifier, String datestamp, List<String> setSpecs,
+            String status, Provider provider) throws DatabaseConfigException, DataException {
+        if (identifier != null) {
+            r.setHarvestedOaiIdentifier(identifier);
+            LOG.debug("identifier: " + identifier);
+        }
+        if (!StringUtils.isEmpty(datestamp)) {
+            r.setOaiDatestamp(new Date(UTC_PARSER.parseDateTime(datestamp).getMillis()));
+        }
+        // TODO: BDA - This might not be right, but I don't think I really care
+        // since this is only currently used in the filesystem testing
+        // mechanism and we don't care about setSpecs there.
+        if (setSpecs != null && setSpecs.size() > 0) {
+            for (String setSpecText : setSpecs) {
+                String setSpec = null;
                 if (provider != null) {
-                    String setSpec = provider.getName().replace(' ', '-');
+                    setSpec = provider.getName().replace(' ', '-');
+                }
+                if (setSpec != null) {
+                    setSpec += ":";
+                }
+                setSpec += setSpecText;
+
+                // Split the set into its components
+                String[] setSpecLevels = setSpec.split(":");
+
+                // This will build the setSpecs to which the record belongs
+                StringBuilder setSpecAtLevel = new StringBuilder();
+
+                // Loop over all levels in the set spec
+                for (String setSpecLevel : setSpecLevels) {
+                    // Append the set at the current level to the setSpec at the previous level to
+                    // get the setSpec for the current level. Append colons as needed
+                    setSpecAtLevel.append(setSpecAtLevel.length() <= 0 ? setSpecLevel : ":" + setSpecLevel);
+
+                    String currentSetSpec = setSpecAtLevel.toString();
+
                     // If the set's already in the index, get it
-                    Set set = getSetDAO().getBySetSpec(setSpec);
+                    Set set = getSetDAO().getBySetSpec(currentSetSpec);
 
                     // Add the set if there wasn't already one in the database
                     if (set == null && provider != null) {
                         set = new Set();
-                        set.setSetSpec(setSpec);
-                        set.setDisplayName(set.getDisplayName());
+                        set.setSetSpec(currentSetSpec);
+                        set.setDisplayName(currentSetSpec);
                         set.setIsProviderSet(false);
                         set.setIsRecordSet(true);
                         TimingLogger.start("setDao.insertForProvider");
                         getSetDAO().insertForProvider(set, provider.getId());
                         TimingLogger.stop("setDao.insertForProvider");
                     }
+                    // Add the set's ID to the list of sets to which the record belongs
                     r.addSet(set);
                 }
             }
-
-            String status = headerEl.getAttributeValue("status");
-            if (!StringUtils.isEmpty(status)) {
-                if ("DELETED".equals(status.toUpperCase()) || "D".equals(status.toUpperCase())) {
-                    r.setStatus(Record.DELETED);
-                } else if ("ACTIVE".equals(status.toUpperCase()) || "A".equals(status.toUpperCase())) {
-                    r.setStatus(Record.ACTIVE);
-                } else if ("HELD".equals(status.toUpperCase()) || "H".equals(status.toUpperCase())) {
-                    r.setStatus(Record.HELD);
-                } else if ("REPLACED".equals(status.toUpperCase()) || "R".equals(status.toUpperCase())) {
-                    r.setStatus(Record.REPLACED);
+        } else {
+            if (provider != null) {
+                String setSpec = provider.getName().replace(' ', '-');
+                // If the set's already in the index, get it
+                Set set = getSetDAO().getBySetSpec(setSpec);
+
+                // Add the set if there wasn't already one in the database
+                if (set == null && provider != null) {
+                    set = new Set();
+                    set.setSetSpec(setSpec);
+                    set.setDisplayName(set.getDisplayName());
+                    set.setIsProviderSet(false);
+                    set.setIsRecordSet(true);
+                    TimingLogger.start("setDao.insertForProvider");
+                    getSetDAO().insertForProvider(set, provider.getId());
+                    TimingLogger.stop("setDao.insertForProvider");
                 }
+                r.addSet(set);
             }
+        }
 
-            // Metadata element will not exist in case the record has status = deleted. So null check is required here.
-            if (recordEl.getChild("metadata", recordEl.getNamespace()) != null) {
-                Element xmlEl = (Element) recordEl.getChild("metadata", recordEl.getNamespace()).getChildren().get(0);
-                xmlEl.detach();
-                r.setOaiXmlEl(xmlEl);
+        if (!StringUtils.isEmpty(status)) {
+            if ("DELETED".equals(status.toUpperCase()) || "D".equals(status.toUpperCase())) {
+                r.setStatus(Record.DELETED);
+            } else if ("ACTIVE".equals(status.toUpperCase()) || "A".equals(status.toUpperCase())) {
+                r.setStatus(Record.ACTIVE);
+            } else if ("HELD".equals(status.toUpperCase()) || "H".equals(status.toUpperCase())) {
+                r.setStatus(Record.HELD);
+            } else if ("REPLACED".equals(status.toUpperCase()) || "R".equals(status.toUpperCase())) {
+                r.setStatus(Record.REPLACED);
             }
-        } catch (Throwable t) {
-            getUtil().throwIt(t);
         }
-
-        return r;
     }
 
     public Element createJDomElement(Record r) {
@@ -1,5 +1,7 @@
 package xc.mst.manager.record;
 
+import java.util.List;
+
 import org.testng.log4testng.Logger;
 
 import xc.mst.bo.record.Record;
@@ -16,6 +18,13 @@ public class MessageService extends BaseService {
         injectMessageMessage(r);
     }
 
+    public void injectMessages(List<Record> records) {
+        getMessageDAO().injectMessages(records);
+        for (Record r : records) {
+            injectMessageMessage(r);
+        }
+    }
+
     public void injectMessageMessage(Record r) {
         for (RecordMessage m : r.getMessages()) {
             try {
@@ -705,6 +705,14 @@ public abstract class RecordService extends BaseService {
 
     public abstract Record parse(Element recordEl, Provider provider);
 
+    /**
+     * Builds a harvested Record from the pieces of an OAI record that has already been taken
+     * apart (see xc.mst.harvester.OaiListRecordsReader). The record is left in STRING_MODE
+     * holding metadataXml.
+     */
+    public abstract Record parse(String identifier, String datestamp, List<String> setSpecs,
+            String status, String metadataXml, Provider provider);
+
     public abstract Element createJDomElement(Record r);
 
     public abstract Element createJDomElement(Record r, String namespace);
@@ -107,22 +107,21 @@ public class DefaultProviderService extends BaseService implements ProviderServi
         // Delete schedule for this repository
 
         // Check if any harvest is running
-        if (getScheduler().getRunningJob() != null) {
+        for (WorkerThread runningJob : getScheduler().getRunningJobs()) {
             // Check if this repository is being harvested
-            if (getScheduler().getRunningJob().getType().equals(Constants.THREAD_REPOSITORY)) {
-                WorkerThread harvesterWorkerThread = (WorkerThread) getScheduler().getRunningJob();
-                if (harvesterWorkerThread.getJobName().equals(provider.getName())) {
-                    getScheduler().cancelRunningJob();
+            if (runningJob.getType().equals(Constants.THREAD_REPOSITORY)) {
+                if (runningJob.getJobName().equals(provider.getName())) {
+                    getScheduler().cancelJob(runningJob);
                 }
             }
 
             // Check if this repository is being processed by processing directive
-            if (getScheduler().getRunningJob().getType().equals(Constants.THREAD_SERVICE)) {
-                MetadataServiceManager msm = (MetadataServiceManager) getScheduler().getRunningJob();
+            if (runningJob.getType().equals(Constants.THREAD_SERVICE)) {
+                MetadataServiceManager msm = (MetadataServiceManager) runningJob;
                 Repository incomingRepo = msm.getIncomingRepository();
 
                 if (incomingRepo != null && incomingRepo.getName().equals(provider.getName())) {
-                    getScheduler().cancelRunningJob();
+                    getScheduler().cancelJob(runningJob);
                 }
             }
         }
@@ -9,17 +9,21 @@
 
 package xc.mst.oai;
 
+import gnu.trove.TLongArrayList;
+import gnu.trove.TLongObjectHashMap;
+
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.SimpleTimeZone;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
@@ -64,6 +68,16 @@ public class Facade extends BaseManager {
     private static Logger log = Logger.getLogger(Constants.LOGGER_HARVEST_OUT);
 
     protected static final DateTimeFormatter UTC_PARSER = ISODateTimeFormat.dateTimeParser();
+
+    protected static final String UTF8 = "UTF-8";
+
+    // the parts of a record list which are the same for every record, encoded once
+    protected static final byte[] NEWLINE = getBytes("\n");
+    protected static final byte[] RECORD_START = getBytes("<record>\n");
+    protected static final byte[] RECORD_END = getBytes("\n</record>\n");
+    protected static final byte[] METADATA_START = getBytes("\n<metadata>\n");
+    protected static final byte[] METADATA_END = getBytes("\n</metadata>\n");
+    protected static final byte[] XML_DECLARATION_START = getBytes("<?xml");
     protected static TransformerFactory transformerFactory = TransformerFactory.newInstance();
 
     protected Transformer transformer = null;
@@ -78,6 +92,9 @@ public class Facade extends BaseManager {
     /** The service being harvested */
     private Service service = null;
 
+    /** Writes the headers of the service's records (see getHeaderEncoder()) */
+    protected HeaderEncoder headerEncoder = null;
+
     /**
      * Returns response date element
      * 
@@ -183,26 +200,19 @@ public class Facade extends BaseManager {
         if (log.isDebugEnabled())
             log.debug("Executing request for verb " + oaiRequest.getVerb() + ".");
 
-        // Get the service
-        service = getServicesService().getServiceById(oaiRequest.getServiceId());
-        String prefix = oaiRequest.getMetadataPrefix();
-        MetadataService ms = service.getMetadataService();
-        String xslFileName = ms.getConfig().getProperty("output.format." + prefix + ".xsl");
-        if (xslFileName != null) {
-            xslFileName = MSTConfiguration.getInstance().getServicePath() + service.getName() + "/xsl/" + xslFileName;
-            try {
-                transformer = transformerFactory.newTransformer(new StreamSource(new FileInputStream(xslFileName)));
-            } catch (Throwable t) {
-                log.error("", t);
-            }
-        }
+        setUp(oaiRequest);
+        return buildResponse(oaiRequest);
+    }
 
+    /**
+     * Builds the response to a request, once setUp() has looked up the service
+     */
+    protected String buildResponse(OaiRequestBean oaiRequest) throws DatabaseConfigException {
         // If the verb was null, return a bad verb error
         // Otherwise execute the correct funtionality, and
         // return a bad verb error only when the verb is not
         // recognized
         try {
-
             String oaiVerbOutput = null;
             if (oaiRequest.getVerb() == null) {
                 LogWriter.addWarning(service.getHarvestOutLogFileName(), "The OAI request did not contain a verb.");
@@ -282,25 +292,120 @@ public class Facade extends BaseManager {
             return "";
         } finally // Update the error and warning count for the service
         {
-            // Load the provider again in case it was updated during the harvest
-            Service service = getServiceDAO().getById(this.service.getId());
-
-            // Increase the warning and error counts as appropriate, then update the provider
-            service.setHarvestOutWarnings(service.getHarvestOutWarnings() + warningCount);
-            service.setHarvestOutErrors(service.getHarvestOutErrors() + errorCount);
-
-            // Increase number of harvests if this is the initial request for harvest
-            if (oaiRequest.getVerb() != null && (oaiRequest.getVerb().equalsIgnoreCase("ListRecords")) &&
-                    (oaiRequest.getResumptionToken() == null || oaiRequest.getResumptionToken().trim().length() == 0) &&
-                    (oaiRequest.getMetadataPrefix() != null && oaiRequest.getMetadataPrefix().trim().length() != 0)) {
-                service.setNumberOfHarvests(service.getNumberOfHarvests() + 1);
-            }
+            updateHarvestOutCounts(oaiRequest);
+        }
+    }
 
+    /**
+     * Looks up the service being harvested, and the xsl its records are to be run through (if
+     * any) for the metadataPrefix asked for.
+     */
+    protected void setUp(OaiRequestBean oaiRequest) throws DatabaseConfigException {
+        // Get the service
+        service = getServicesService().getServiceById(oaiRequest.getServiceId());
+        String prefix = oaiRequest.getMetadataPrefix();
+        MetadataService ms = service.getMetadataService();
+        String xslFileName = ms.getConfig().getProperty("output.format." + prefix + ".xsl");
+        if (xslFileName != null) {
+            xslFileName = MSTConfiguration.getInstance().getServicePath() + service.getName() + "/xsl/" + xslFileName;
             try {
-                getServiceDAO().update(service);
-            } catch (DataException e) {
-                log.warn("Unable to update the provider's warning and error counts due to a Data Exception.", e);
+                transformer = transformerFactory.newTransformer(new StreamSource(new FileInputStream(xslFileName)));
+            } catch (Throwable t) {
+                log.error("", t);
+            }
+        }
+    }
+
+    protected void updateHarvestOutCounts(OaiRequestBean oaiRequest) throws DatabaseConfigException {
+        // Load the provider again in case it was updated during the harvest
+        Service service = getServiceDAO().getById(this.service.getId());
+
+        // Increase the warning and error counts as appropriate, then update the provider
+        service.setHarvestOutWarnings(service.getHarvestOutWarnings() + warningCount);
+        service.setHarvestOutErrors(service.getHarvestOutErrors() + errorCount);
+
+        // Increase number of harvests if this is the initial request for harvest
+        if (oaiRequest.getVerb() != null && (oaiRequest.getVerb().equalsIgnoreCase("ListRecords")) &&
+                (oaiRequest.getResumptionToken() == null || oaiRequest.getResumptionToken().trim().length() == 0) &&
+                (oaiRequest.getMetadataPrefix() != null && oaiRequest.getMetadataPrefix().trim().length() != 0)) {
+            service.setNumberOfHarvests(service.getNumberOfHarvests() + 1);
+        }
+
+        try {
+            getServiceDAO().update(service);
+        } catch (DataException e) {
+            log.warn("Unable to update the provider's warning and error counts due to a Data Exception.", e);
+        }
+    }
+
+    /**
+     * Writes the response to the request to out. ListRecords and ListIdentifiers are streamed:
+     * each record is written as soon as it's read, its payload copied across as the bytes stored
+     * (see writeRecordList), so the response is never held in memory whole. The other verbs, and
+     * record lists which are to be run through an xsl, are built as execute(OaiRequestBean) builds them.
+     * 
+     * Once the response has started there's no taking it back, so an error part way through is
+     * thrown on (as a RuntimeException if it isn't an IOException) rather than leaving a truncated
+     * response which looks like it finished.
+     */
+    public void execute(OaiRequestBean oaiRequest, OutputStream out) throws DatabaseConfigException, IOException {
+        if (log.isDebugEnabled())
+            log.debug("Executing request for verb " + oaiRequest.getVerb() + ".");
+
+        setUp(oaiRequest);
+
+        boolean listRecords = "ListRecords".equalsIgnoreCase(oaiRequest.getVerb());
+        boolean listIdentifiers = "ListIdentifiers".equalsIgnoreCase(oaiRequest.getVerb());
+        if ((!listRecords && !listIdentifiers) || transformer != null) {
+            write(out, buildResponse(oaiRequest));
+            return;
+        }
+        if (log.isDebugEnabled())
+            log.debug("Streaming the response for verb " + oaiRequest.getVerb() + ".");
+
+        try {
+            write(out, Constants.OAI_RESPONSE_HEADER);
+            write(out, getResponseDate() + "\n");
+            if (oaiRequest.getRequest() != null) {
+                write(out, getRequestElement(oaiRequest.getRequest(), oaiRequest) + "\n");
             }
+            if (listRecords) {
+                doListRecords(oaiRequest, out);
+            } else {
+                doListIdentifiers(oaiRequest, out);
+            }
+            write(out, "\n" + Constants.OAI_RESPONSE_FOOTER);
+        } catch (IOException ioe) {
+            // most likely the harvester hung up
+            throw ioe;
+        } catch (Exception e) {
+            log.error("An exception occurred while executing the request.", e);
+
+            LogWriter.addError(service.getHarvestOutLogFileName(), "An unexpected error occurred while executing the " + oaiRequest.getVerb() + " request.");
+            errorCount++;
+            throw new RuntimeException("The " + oaiRequest.getVerb() + " response failed part way through.", e);
+        } finally {
+            updateHarvestOutCounts(oaiRequest);
+        }
+    }
+
+    protected static byte[] getBytes(String s) {
+        try {
+            return s.getBytes(UTF8);
+        } catch (UnsupportedEncodingException uee) {
+            throw new RuntimeException(uee);
+        }
+    }
+
+    protected static void write(OutputStream out, String s) throws IOException {
+        out.write(getBytes(s));
+    }
+
+    protected static String toString(ByteArrayOutputStream out) {
+        try {
+            return out.toString(UTF8);
+        } catch (UnsupportedEncodingException uee) {
+            throw new RuntimeException(uee);
         }
     }
 
@@ -470,6 +575,19 @@ public class Facade extends BaseManager {
      * @throws DatabaseConfigException
      */
     public String doListIdentifiers(OaiRequestBean oaiRequest) throws DatabaseConfigException, IndexException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            doListIdentifiers(oaiRequest, out);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        return toString(out);
+    }
+
+    /**
+     * Writes the response to the ListIdentifiers verb to out.
+     */
+    public void doListIdentifiers(OaiRequestBean oaiRequest, OutputStream out) throws DatabaseConfigException, IndexException, IOException {
         if (log.isDebugEnabled())
             log.debug("Entering doListIdentifiers");
 
@@ -480,15 +598,15 @@ public class Facade extends BaseManager {
             LogWriter.addWarning(service.getHarvestOutLogFileName(), "The OAI ListIdentifiers request did not contain a metadataFormat.");
             warningCount++;
 
-            return ErrorBuilder.badArgumentError("Missing metadataPrefix parameter");
-
+            write(out, ErrorBuilder.badArgumentError("Missing metadataPrefix parameter"));
+            return;
         }
 
         // Get the XML for the identifiers
         // The last parameter is true to query for just the identifiers and not the full records
-        return handleRecordLists(oaiRequest.getFrom(), oaiRequest.getUntil(),
+        handleRecordLists(oaiRequest.getFrom(), oaiRequest.getUntil(),
                 getPersistedMetadataPrefix(oaiRequest.getMetadataPrefix()),
-                oaiRequest.getSet(), oaiRequest.getResumptionToken(), false);
+                oaiRequest.getSet(), oaiRequest.getResumptionToken(), false, out);
 
     }
 
@@ -528,6 +646,19 @@ public class Facade extends BaseManager {
      * @throws DatabaseConfigException
      */
     public String doListRecords(OaiRequestBean oaiRequest) throws DatabaseConfigException, IndexException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            doListRecords(oaiRequest, out);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        return toString(out);
+    }
+
+    /**
+     * Writes the response to the ListRecords verb to out.
+     */
+    public void doListRecords(OaiRequestBean oaiRequest, OutputStream out) throws DatabaseConfigException, IndexException, IOException {
         if (log.isDebugEnabled())
             log.debug("Entering doListRecords");
 
@@ -538,14 +669,14 @@ public class Facade extends BaseManager {
             LogWriter.addWarning(service.getHarvestOutLogFileName(), "The OAI ListRecords request did not contain a metadataFormat.");
             warningCount++;
 
-            return ErrorBuilder.badArgumentError("Missing metadataPrefix parameter");
-
+            write(out, ErrorBuilder.badArgumentError("Missing metadataPrefix parameter"));
+            return;
         }
         // Get the XML for the full records
         // The last parameter is true to query for the full records and not just the identifiers
-        return handleRecordLists(oaiRequest.getFrom(), oaiRequest.getUntil(),
+        handleRecordLists(oaiRequest.getFrom(), oaiRequest.getUntil(),
                 getPersistedMetadataPrefix(oaiRequest.getMetadataPrefix()),
-                oaiRequest.getSet(), oaiRequest.getResumptionToken(), true);
+                oaiRequest.getSet(), oaiRequest.getResumptionToken(), true, out);
 
     }
 
@@ -626,7 +757,7 @@ public class Facade extends BaseManager {
 	                }
 	                StringBuilder stringBuilder = new StringBuilder();
 	                stringBuilder.append("<record>")
-	                            .append(getHeader(record))
+	                            .append(getHeaderEncoder().getHeader(record, false))
 	                            .append("<metadata>")
 	                            .append(xmlHelper.getStringRaw(recordContentEl))
 	                            .append("</metadata>")
@@ -646,7 +777,7 @@ public class Facade extends BaseManager {
     }
 
     /**
-     * Returns the OAI XML for a list of records or identifiers.
+     * Writes the OAI XML for a list of records or identifiers to out.
      * 
      * @param from
      *            The earliest date for returned records or identifiers. If null or empty the earliest date out of all records will be used
@@ -660,17 +791,19 @@ public class Facade extends BaseManager {
      *            The resumption token's ID
      * @param getRecords
      *            true if we should return the full records, false if we should only return the headers
-     * @return The XML containing a list of headers or record and header combinations as well as a resumption token.
-     *         These should be included in the response's ListRecords or ListIdentifiers element.
+     * @param out
+     *            where the ListRecords or ListIdentifiers element (a list of headers or record and header
+     *            combinations as well as a resumption token), or the error, is written
      * @throws DatabaseConfigException
      */
-    private String handleRecordLists(String from, String until, String metadataPrefix, String set, String resumptionToken, boolean getRecords)
-            throws DatabaseConfigException, IndexException {
+    private void handleRecordLists(String from, String until, String metadataPrefix, String set, String resumptionToken, boolean getRecords,
+            OutputStream out) throws DatabaseConfigException, IndexException, IOException {
         if (log.isDebugEnabled())
             log.debug("Entering handleRecordLists");
 
         if (from != null && until != null && from.length() != until.length()) {
-            return ErrorBuilder.badArgumentError("From and until have different levels of granularity.");
+            write(out, ErrorBuilder.badArgumentError("From and until have different levels of granularity."));
+            return;
         }
 
         // The from and until dates. They will be null if the passed Strings could not be parsed
@@ -679,7 +812,8 @@ public class Facade extends BaseManager {
             try {
                 fromDate = new Date(UTC_PARSER.parseDateTime(from).getMillis());
             } catch (IllegalArgumentException iae) {
-                return ErrorBuilder.badArgumentError("from: " + from);
+                write(out, ErrorBuilder.badArgumentError("from: " + from));
+                return;
             }
         } else {
             fromDate = new Date(0);
@@ -689,7 +823,8 @@ public class Facade extends BaseManager {
             try {
                 untilDate = new Date(UTC_PARSER.parseDateTime(until).getMillis());
             } catch (IllegalArgumentException iae) {
-                return ErrorBuilder.badArgumentError("until: " + until);
+                write(out, ErrorBuilder.badArgumentError("until: " + until));
+                return;
             }
         } else {
             untilDate = new Date();
@@ -730,7 +865,8 @@ public class Facade extends BaseManager {
                 LogWriter.addWarning(service.getHarvestOutLogFileName(), "The requested set \"" + set + "\" could not be found.");
                 warningCount++;
 
-                return XMLUtil.xmlTag("error", Constants.ERROR_BAD_SET, new String[] { "code", "badArgument" });
+                write(out, XMLUtil.xmlTag("error", Constants.ERROR_BAD_SET, new String[] { "code", "badArgument" }));
+                return;
             }
         }
 
@@ -742,7 +878,8 @@ public class Facade extends BaseManager {
             LogWriter.addWarning(service.getHarvestOutLogFileName(), "The requested metadataPrefix \"" + metadataPrefix + "\" could not be found.");
             warningCount++;
 
-            return XMLUtil.xmlTag("error", Constants.ERROR_NO_RECORDS_MATCH, new String[] { "code", "noRecordsMatch" });
+            write(out, XMLUtil.xmlTag("error", Constants.ERROR_NO_RECORDS_MATCH, new String[] { "code", "noRecordsMatch" }));
+            return;
         }
 
         List<Record> records = new ArrayList<Record>();
@@ -756,113 +893,144 @@ public class Facade extends BaseManager {
         log.debug("totalCount: " + totalCount);
 
         if (totalCount != 0) {
-            records = service.getMetadataService().getRepository().getRecords(fromDate, untilDate, startingId, format, setObject);
+            // the payloads aren't read here, but a few at a time as they're written (see writeRecordList)
+            records = service.getMetadataService().getRepository().getRecordHeader(fromDate, untilDate, startingId, format, setObject);
         }
 
-        // The XML for the OAI result
-        StringBuffer xml = new StringBuffer();
-
         // If there were no records returned, set an error signifying that no records matched.
         // Otherwise, append data for each returned record to the result and insert a resumption token
         // to the database if needed
         if (records == null || records.size() == 0) {
             LogWriter.addInfo(service.getHarvestOutLogFileName(), "There were no records which matched the parameters provided in the " + (getRecords ? " ListRecords " : " ListIdentifiers") + " request.");
-            return xml.append(XMLUtil.xmlTag("error", Constants.ERROR_NO_RECORDS_MATCH, new String[] { "code", "noRecordsMatch" })).toString();
+            write(out, XMLUtil.xmlTag("error", Constants.ERROR_NO_RECORDS_MATCH, new String[] { "code", "noRecordsMatch" }));
         } else {
             // True if there are more results remaining than we can return at once
             boolean hasMore = records.size() == MSTConfiguration.getInstance().getPropertyAsInt(Constants.CONFIG_OAI_REPO_MAX_RECORDS, 5000);
 
-            /*
-            if(log.isDebugEnabled())
-                log.debug("Returning results " + offset + " - " + offset + recordLimit + " " + (set == null ? "" : "of set " + set + " ") + " and format " + format.getId() + (from == null ? "" : "from " + from + " ") + (until == null ? "" : "until " + until) + ".");
-                */
+            write(out, getRecords ? "<ListRecords>" : "<ListIdentifiers>");
+            writeRecordList(records, getRecords, out);
+            startingId = records.get(records.size() - 1).getId();
 
-            // The number of records returned
-            int returnedRecordsCount = 0;
+            if (hasMore) {
+                ResumptionToken newResToken = new ResumptionToken();
+                // Set the fields on the resumption token
+                newResToken.setFrom(fromDate);
+                newResToken.setUntil(untilDate);
+                newResToken.setSetSpec(set);
+                newResToken.setMetadataFormat(metadataPrefix);
+                newResToken.setStartingId(startingId);
 
-            // Add whitespace to make the result more readable
-            xml.append("\n");
+                if (totalCount < -1) {
+                    write(out, "<!-- completeListSize is an estimate -->");
+                    totalCount = -1 * totalCount;
+                }
+                if (totalCount > 0) {
+                    write(out, XMLUtil.xmlTag("resumptionToken", "" + newResToken.getToken(), new String[] { "completeListSize", "" + totalCount }));
+                } else {
+                    write(out, XMLUtil.xmlTag("resumptionToken", "" + newResToken.getToken()
+                            ));
+                    // ,new String[] { "cursor", "" + offset, "completeListSize", ""+totalRecords } ));
 
-            // Append XML for each record to the result
-            for (Record record : records) {
+                }
+
+                // LogWriter.addInfo(service.getHarvestOutLogFileName(), "Returning " + totalRecords + " records and the resumptionToken " + newResToken.getId() + " in response to the " + (getRecords ? " ListRecords " : " ListIdentifiers") + " request.");
+            }
+            write(out, getRecords ? "</ListRecords>" : "</ListIdentifiers>");
+        }
+    }
+
+    /**
+     * Writes the records (or just their headers), reading their payloads db.oaiPayloadsAtOnce at
+     * a time as the ones before are written. The payloads are copied across as the bytes stored,
+     * less any xml declaration, without being decoded.
+     */
+    protected void writeRecordList(List<Record> records, boolean getRecords, OutputStream out) throws IOException {
+        int payloadsAtOnce = getPayloadsAtOnce();
+
+        // Add whitespace to make the result more readable
+        out.write(NEWLINE);
+
+        for (int i = 0; i < records.size(); i += payloadsAtOnce) {
+            List<Record> chunk = records.subList(i, Math.min(i + payloadsAtOnce, records.size()));
+            TLongObjectHashMap<byte[]> xmls = null;
+            if (getRecords) {
+                TLongArrayList ids = new TLongArrayList(chunk.size());
+                for (Record record : chunk) {
+                    if (Record.ACTIVE == record.getStatus() && !record.getDeleted()) {
+                        ids.add(record.getId());
+                    }
+                }
+                xmls = getXmlBytes(ids.toNativeArray());
+            }
+            for (Record record : chunk) {
                 // If we're to get the records, append the record's OAI XML.
                 // Otherwise, we're just supposed to get the identifiers, so
                 // append the record's OAI header
                 if (getRecords) {
-
                     // For deleted record, just append the header
                     if (Record.DELETED == record.getStatus()) {
-                        String header = getHeader(record);
-                        header = header.replaceAll("<header>", "<header status=\"deleted\">");
-                        xml.append("<record>\n")
-                                .append(header)
-                                .append("\n</record>\n");
+                        out.write(RECORD_START);
+                        getHeaderEncoder().write(record, true, out);
+                        out.write(RECORD_END);
                     } else if (Record.ACTIVE == record.getStatus()) {
-                        xml.append("<record>\n");
-
-                        xml.append(getHeader(record));
-                        if (getRecords && !record.getDeleted()) {
-                            if (record.getOaiXml() == null) {
+                        out.write(RECORD_START);
+                        getHeaderEncoder().write(record, false, out);
+                        if (!record.getDeleted()) {
+                            byte[] xml = xmls.get(record.getId());
+                            if (xml == null) {
                                 log.error("record has no content!!!!");
                                 log.error("record.getStatus(): " + record.getStatus());
                                 log.error("record.getId(): " + record.getId());
                             } else {
-                                xml.append("\n<metadata>\n")
-                                        .append(record.getOaiXml().replaceAll("<\\?xml.*\\?>", ""))
-                                        .append("\n</metadata>\n");
+                                int start = getXmlDeclarationEnd(xml);
+                                out.write(METADATA_START);
+                                out.write(xml, start, xml.length - start);
+                                out.write(METADATA_END);
                             }
                         }
-                        xml.append("\n</record>\n");
+                        out.write(RECORD_END);
                     }
                 } else {
-                    xml.append(getHeader(record).replaceAll("<\\?xml.*\\?>", "")).append("\n");
-                }
-
-                startingId = record.getId();
-
-                // Increment the counter for the number of records returned
-                returnedRecordsCount++;
-
-                /* BDA - Is this feature really worthwhile?
-                // If the length of the results exceeds the maximum allowed length,
-                // break from the loop
-                if(xml.length() >= maxLength)
-                {
-                    if(log.isDebugEnabled())
-                        log.debug("Breaking from the loop because after adding " + returnedRecordsCount + " records, the length of the results is " + xml.length() + " which exceeds the maximum allowed length of " + maxLength);
-
-                    hasMore = true;
-                    break;
+                    getHeaderEncoder().write(record, false, out);
+                    out.write(NEWLINE);
                 }
-                */
             }
+        }
+    }
 
-            if (hasMore) {
-                ResumptionToken newResToken = new ResumptionToken();
-                // Set the fields on the resumption token
-                newResToken.setFrom(fromDate);
-                newResToken.setUntil(untilDate);
-                newResToken.setSetSpec(set);
-                newResToken.setMetadataFormat(metadataPrefix);
-                newResToken.setStartingId(startingId);
-
-                if (totalCount < -1) {
-                    xml.append("<!-- completeListSize is an estimate -->");
-                    totalCount = -1 * totalCount;
-                }
-                if (totalCount > 0) {
-                    xml.append(XMLUtil.xmlTag("resumptionToken", "" + newResToken.getToken(), new String[] { "completeListSize", "" + totalCount }));
-                } else {
-                    xml.append(XMLUtil.xmlTag("resumptionToken", "" + newResToken.getToken()
-                            ));
-                    // ,new String[] { "cursor", "" + offset, "completeListSize", ""+totalRecords } ));
+    /**
+     * @return how many payloads writeRecordList reads at once
+     */
+    protected int getPayloadsAtOnce() {
+        return MSTConfiguration.getInstance().getPropertyAsInt("db.oaiPayloadsAtOnce", 100);
+    }
 
-                }
+    /**
+     * @return the stored payloads of the service's records with these ids
+     */
+    protected TLongObjectHashMap<byte[]> getXmlBytes(long[] ids) {
+        return getRepositoryDAO().getXmlBytes(service.getMetadataService().getRepository().getName(), ids);
+    }
 
-                // LogWriter.addInfo(service.getHarvestOutLogFileName(), "Returning " + totalRecords + " records and the resumptionToken " + newResToken.getId() + " in response to the " + (getRecords ? " ListRecords " : " ListIdentifiers") + " request.");
+    /**
+     * @return where the payload starts once its xml declaration (if it has one) is left off
+     */
+    protected static int getXmlDeclarationEnd(byte[] xml) {
+        int i = 0;
+        while (i < xml.length && (xml[i] == ' ' || xml[i] == '\t' || xml[i] == '\r' || xml[i] == '\n')) {
+            i++;
+        }
+        for (int j = 0; j < XML_DECLARATION_START.length; j++) {
+            if (i + j >= xml.length || xml[i + j] != XML_DECLARATION_START[j]) {
+                return 0;
             }
         }
-        return XMLUtil.xmlTag((getRecords ? "ListRecords" : "ListIdentifiers"), xml.toString());
+        for (int j = i + XML_DECLARATION_START.length; j < xml.length - 1; j++) {
+            if (xml[j] == '?' && xml[j + 1] == '>') {
+                return j + 2;
+            }
+        }
+        return 0;
     }
 
     /*
@@ -901,40 +1069,15 @@ public class Facade extends BaseManager {
         }
     }
 
-    /*
-     * Builds the OAI header
+    /**
+     * @return the encoder of the headers of this service's records
      */
-    private String getHeader(Record record) {
-
-        StringBuilder header = new StringBuilder();
-        header.append("<header>\n");
-
-        // Inject service to get OAI identifier
-        record.setService(service);
-
-        header.append("\t<identifier>").append(record.getOaiIdentifier()).append("</identifier>\n");
-
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-        sdf.setTimeZone(new SimpleTimeZone(SimpleTimeZone.UTC_TIME, "UTC"));
-
-        header.append("\t<datestamp>").append(sdf.format(record.getUpdatedAt())).append("</datestamp>\n");
-
-        // Get each set from the list of set IDs this record belongs to. If the set is
-        // not null, add its setSpec to the header.
-        SortedSet<String> setSpecs = new TreeSet<String>();
-
-        for (Set s : record.getSets())
-            if (s != null)
-                setSpecs.add(s.getSetSpec());
-
-        for (String setSpec : setSpecs) {
-            header.append("\t<setSpec>").append(setSpec).append("</setSpec>\n");
+    protected HeaderEncoder getHeaderEncoder() {
+        if (headerEncoder == null) {
+            String id = getRecordService().getOaiIdentifier(0, service);
+            headerEncoder = HeaderEncoder.getInstance(id.substring(0, id.length() - 1));
         }
-
-        header.append("</header>");
-
-        return header.toString();
-
+        return headerEncoder;
     }
 
     public Element transformRecord(Element orig) {
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.oai;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.SimpleTimeZone;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import xc.mst.bo.provider.Set;
+import xc.mst.bo.record.Record;
+
+/**
+ * Writes the OAI headers of a service's records as bytes, doing as little for each record as it
+ * can: the identifiers' prefix is encoded once, the setSpec elements once for each combination of
+ * sets the records are in, and the datestamp once a second (the records of a commit all share
+ * theirs), leaving a few byte copies and the digits of the record id.
+ *
+ * Thread safe. There's one for each identifier prefix, i.e. for each service (see getInstance()).
+ */
+public class HeaderEncoder {
+
+    // the most set combinations kept before they're all dropped
+    protected static final int MAX_SET_COMBINATIONS = 10000;
+
+    protected static final byte[] HEADER_START = getBytes("<header>\n\t<identifier>");
+    protected static final byte[] DELETED_HEADER_START = getBytes("<header status=\"deleted\">\n\t<identifier>");
+    protected static final byte[] DATESTAMP_START = getBytes("</identifier>\n\t<datestamp>");
+    protected static final byte[] DATESTAMP_END = getBytes("</datestamp>\n");
+    protected static final byte[] HEADER_END = getBytes("</header>");
+    protected static final byte[] NO_SETS = new byte[0];
+
+    protected static ConcurrentHashMap<String, HeaderEncoder> instances = new ConcurrentHashMap<String, HeaderEncoder>();
+
+    // what each thread keeps between records: the last datestamp it formatted, and room for the
+    // digits of an id
+    protected static class Scratch {
+        protected SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        protected long second = Long.MIN_VALUE;
+        protected byte[] datestamp = null;
+        protected byte[] digits = new byte[20];
+
+        protected Scratch() {
+            sdf.setTimeZone(new SimpleTimeZone(SimpleTimeZone.UTC_TIME, "UTC"));
+        }
+    }
+
+    protected static ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    protected byte[] identifierPrefix;
+
+    // the setSpec elements by the set id (for a record in one set) or the sorted set ids
+    protected ConcurrentHashMap<Object, byte[]> setSpecs = new ConcurrentHashMap<Object, byte[]>();
+
+    /**
+     * @param identifierPrefix
+     *            the OAI identifiers of the service's records, up to the record id
+     */
+    public static HeaderEncoder getInstance(String identifierPrefix) {
+        HeaderEncoder encoder = instances.get(identifierPrefix);
+        if (encoder == null) {
+            encoder = new HeaderEncoder(identifierPrefix);
+            HeaderEncoder existing = instances.putIfAbsent(identifierPrefix, encoder);
+            if (existing != null) {
+                encoder = existing;
+            }
+        }
+        return encoder;
+    }
+
+    protected HeaderEncoder(String identifierPrefix) {
+        this.identifierPrefix = getBytes(identifierPrefix);
+    }
+
+    public void write(Record record, boolean deleted, OutputStream out) throws IOException {
+        Scratch s = scratch.get();
+        out.write(deleted ? DELETED_HEADER_START : HEADER_START);
+        out.write(identifierPrefix);
+        writeId(record.getId(), s, out);
+        out.write(DATESTAMP_START);
+        out.write(getDatestamp(record.getUpdatedAt(), s));
+        out.write(DATESTAMP_END);
+        out.write(getSetSpecs(record.getSets()));
+        out.write(HEADER_END);
+    }
+
+    public String getHeader(Record record, boolean deleted) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try {
+            write(record, deleted, out);
+            return out.toString("UTF-8");
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    protected static void writeId(long id, Scratch s, OutputStream out) throws IOException {
+        if (id < 0) {
+            out.write(getBytes(String.valueOf(id)));
+            return;
+        }
+        int i = s.digits.length;
+        do {
+            s.digits[--i] = (byte) ('0' + id % 10);
+            id /= 10;
+        } while (id > 0);
+        out.write(s.digits, i, s.digits.length - i);
+    }
+
+    protected static byte[] getDatestamp(Date d, Scratch s) {
+        long t = d.getTime();
+        long second = (t >= 0 ? t : t - 999) / 1000;
+        if (second != s.second) {
+            s.datestamp = getBytes(s.sdf.format(d));
+            s.second = second;
+        }
+        return s.datestamp;
+    }
+
+    protected byte[] getSetSpecs(List<Set> sets) {
+        if (sets == null || sets.isEmpty()) {
+            return NO_SETS;
+        }
+        Object key = null;
+        if (sets.size() == 1 && sets.get(0) != null) {
+            key = sets.get(0).getId();
+        } else {
+            int[] ids = new int[sets.size()];
+            int n = 0;
+            for (Set set : sets) {
+                if (set != null) {
+                    ids[n++] = set.getId();
+                }
+            }
+            Arrays.sort(ids, 0, n);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                sb.append(ids[i]).append(',');
+            }
+            key = sb.toString();
+        }
+        byte[] bytes = setSpecs.get(key);
+        if (bytes == null) {
+            SortedSet<String> specs = new TreeSet<String>();
+            for (Set set : sets) {
+                if (set != null) {
+                    specs.add(set.getSetSpec());
+                }
+            }
+            StringBuilder sb = new StringBuilder();
+            for (String spec : specs) {
+                sb.append("\t<setSpec>").append(spec).append("</setSpec>\n");
+            }
+            bytes = getBytes(sb.toString());
+            if (setSpecs.size() >= MAX_SET_COMBINATIONS) {
+                setSpecs.clear();
+            }
+            setSpecs.put(key, bytes);
+        }
+        return bytes;
+    }
+
+    protected static byte[] getBytes(String s) {
+        try {
+            return s.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException uee) {
+            throw new RuntimeException(uee);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.repo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.dbcp.DelegatingStatement;
+import org.apache.log4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+
+import xc.mst.utils.MSTConfiguration;
+import xc.mst.utils.metrics.Counter;
+import xc.mst.utils.metrics.Metrics;
+import xc.mst.utils.metrics.Timer;
+
+/**
+ * Writes the rows of one table in a commit in one of three ways:
+ *
+ * <ul>
+ * <li>BATCH: a prepared statement for each row, sent as a jdbc batch</li>
+ * <li>MULTI_ROW: insert statements of up to db.bulkWrite.rowsPerStatement rows each</li>
+ * <li>LOCAL_INFILE: load data local infile, streamed from memory rather than a file. This needs
+ * Connector/J 5.1.3 or later and local_infile on in the server; without them it falls back to
+ * MULTI_ROW.</li>
+ * </ul>
+ *
+ * getStrategy() picks db.bulkWrite for commits of at least db.bulkWrite.minRows rows and BATCH for
+ * smaller ones. Each table's writes are timed as db.write.&lt;table&gt; and its rows counted as
+ * db.write.&lt;table&gt;.rows (see Metrics).
+ *
+ * The values of a row may be null, Numbers, Strings, Dates or byte[]s.
+ */
+public class BulkWriter {
+
+    private static final Logger LOG = Logger.getLogger(BulkWriter.class);
+
+    public static final String BATCH = "batch";
+    public static final String MULTI_ROW = "multirow";
+    public static final String LOCAL_INFILE = "localinfile";
+
+    // what happens to a row whose key is already there
+    public static final int INSERT = 0;
+    public static final int IGNORE = 1;
+    public static final int REPLACE = 2;
+
+    // set the first time the driver turns out not to be able to stream local infiles
+    protected static volatile boolean localInfileUnsupported = false;
+
+    protected JdbcTemplate jdbcTemplate;
+    protected String table;
+    protected String metricName;
+    protected String[] columns;
+    protected int onDuplicate;
+    protected List<Object[]> rows = new ArrayList<Object[]>();
+    protected long writeNanos = 0;
+
+    /**
+     * @param metricName
+     *            the name of the table without its repo
+     */
+    public BulkWriter(JdbcTemplate jdbcTemplate, String table, String metricName, int onDuplicate, String... columns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.metricName = metricName;
+        this.onDuplicate = onDuplicate;
+        this.columns = columns;
+    }
+
+    public static String getStrategy(int rows) {
+        MSTConfiguration config = MSTConfiguration.getInstance();
+        if (rows < config.getPropertyAsInt("db.bulkWrite.minRows", 1000)) {
+            return BATCH;
+        }
+        String strategy = config.getProperty("db.bulkWrite");
+        if (LOCAL_INFILE.equals(strategy) || BATCH.equals(strategy)) {
+            return strategy;
+        }
+        return MULTI_ROW;
+    }
+
+    public void add(Object... row) {
+        rows.add(row);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return the time the write took, in nanoseconds
+     */
+    public long write(String strategy) {
+        if (rows.size() == 0) {
+            return 0;
+        }
+        Timer timer = Metrics.timer("db.write." + metricName);
+        Counter counter = Metrics.counter("db.write." + metricName + ".rows");
+        long start = timer.start();
+        if (LOCAL_INFILE.equals(strategy) && !localInfileUnsupported) {
+            if (!writeLocalInfile()) {
+                writeMultiRow();
+            }
+        } else if (MULTI_ROW.equals(strategy) || LOCAL_INFILE.equals(strategy)) {
+            writeMultiRow();
+        } else {
+            writeBatch();
+        }
+        timer.stop(start);
+        counter.add(rows.size());
+        writeNanos = System.nanoTime() - start;
+        return writeNanos;
+    }
+
+    /**
+     * @return how fast the last write went, e.g. "records: 10000 rows at 85000/s"
+     */
+    public String getReport() {
+        long perSecond = writeNanos == 0 ? 0 : (long) (rows.size() * 1e9 / writeNanos);
+        return metricName + ": " + rows.size() + " rows at " + perSecond + "/s";
+    }
+
+    protected String getInsertSql(int numRows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(onDuplicate == IGNORE ? "insert ignore into " : "insert into ");
+        sb.append(table).append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i]);
+        }
+        sb.append(") values ");
+        for (int r = 0; r < numRows; r++) {
+            sb.append(r == 0 ? "(" : ", (");
+            for (int i = 0; i < columns.length; i++) {
+                sb.append(i == 0 ? "?" : ",?");
+            }
+            sb.append(")");
+        }
+        if (onDuplicate == REPLACE) {
+            // the key is the first column
+            sb.append(" on duplicate key update ");
+            for (int i = 1; i < columns.length; i++) {
+                sb.append(i == 1 ? "" : ", ").append(columns[i]).append("=values(").append(columns[i]).append(")");
+            }
+        }
+        return sb.toString();
+    }
+
+    protected void writeBatch() {
+        jdbcTemplate.batchUpdate(getInsertSql(1), new BatchPreparedStatementSetter() {
+            public void setValues(PreparedStatement ps, int j) throws SQLException {
+                Object[] row = rows.get(j);
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            }
+
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    protected void writeMultiRow() {
+        MSTConfiguration config = MSTConfiguration.getInstance();
+        int rowsPerStatement = config.getPropertyAsInt("db.bulkWrite.rowsPerStatement", 500);
+        // kept well under max_allowed_packet
+        long maxBytes = config.getPropertyAsInt("db.bulkWrite.maxStatementKB", 4096) * 1024L;
+        int from = 0;
+        while (from < rows.size()) {
+            int to = from;
+            long bytes = 0;
+            while (to < rows.size() && to - from < rowsPerStatement && (to == from || bytes < maxBytes)) {
+                bytes += getSize(rows.get(to++));
+            }
+            Object[] args = new Object[(to - from) * columns.length];
+            int a = 0;
+            for (int r = from; r < to; r++) {
+                for (Object v : rows.get(r)) {
+                    args[a++] = v;
+                }
+            }
+            jdbcTemplate.update(getInsertSql(to - from), args);
+            from = to;
+        }
+    }
+
+    protected static long getSize(Object[] row) {
+        long size = 0;
+        for (Object v : row) {
+            if (v instanceof String) {
+                size += ((String) v).length();
+            } else if (v instanceof byte[]) {
+                size += ((byte[]) v).length;
+            } else {
+                size += 8;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return false if the driver can't stream local infiles
+     */
+    protected boolean writeLocalInfile() {
+        final boolean binary = hasBinary();
+        final byte[] data = getInfileData();
+        final StringBuilder sb = new StringBuilder();
+        sb.append("load data local infile 'bulkwrite.in' ");
+        sb.append(onDuplicate == REPLACE ? "replace " : onDuplicate == IGNORE ? "ignore " : "");
+        sb.append("into table ").append(table);
+        sb.append(binary ? " character set binary" : " character set utf8");
+        sb.append(" fields terminated by '\\t' escaped by '\\\\' lines terminated by '\\n' (");
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i]);
+        }
+        sb.append(")");
+        return jdbcTemplate.execute(new StatementCallback<Boolean>() {
+            public Boolean doInStatement(Statement stmt) throws SQLException, DataAccessException {
+                Statement s = stmt;
+                if (s instanceof DelegatingStatement) {
+                    s = ((DelegatingStatement) s).getInnermostDelegate();
+                }
+                try {
+                    Method m = s.getClass().getMethod("setLocalInfileInputStream", InputStream.class);
+                    m.invoke(s, new ByteArrayInputStream(data));
+                } catch (Exception e) {
+                    LOG.warn("the jdbc driver can't stream local infiles, using " + MULTI_ROW + " instead", e);
+                    localInfileUnsupported = true;
+                    return false;
+                }
+                s.execute(sb.toString());
+                return true;
+            }
+        });
+    }
+
+    protected boolean hasBinary() {
+        for (Object[] row : rows) {
+            for (Object v : row) {
+                if (v instanceof byte[]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected byte[] getInfileData() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 64);
+        try {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        out.write('\t');
+                    }
+                    Object v = row[i];
+                    if (v == null) {
+                        out.write('\\');
+                        out.write('N');
+                    } else if (v instanceof byte[]) {
+                        escape((byte[]) v, out);
+                    } else if (v instanceof Date) {
+                        out.write(sdf.format((Date) v).getBytes("UTF-8"));
+                    } else {
+                        escape(v.toString().getBytes("UTF-8"), out);
+                    }
+                }
+                out.write('\n');
+            }
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toByteArray();
+    }
+
+    protected static void escape(byte[] bytes, ByteArrayOutputStream out) {
+        for (byte b : bytes) {
+            switch (b) {
+                case '\\':
+                    out.write('\\');
+                    out.write('\\');
+                    break;
+                case '\t':
+                    out.write('\\');
+                    out.write('t');
+                    break;
+                case '\n':
+                    out.write('\\');
+                    out.write('n');
+                    break;
+                case 0:
+                    out.write('\\');
+                    out.write('0');
+                    break;
+                default:
+                    out.write(b);
+            }
+        }
+    }
+}
@@ -44,6 +44,8 @@ public class DefaultRepository extends BaseService implements Repository {
     // This is meant only to be a cache of what is not yet in the DB. This will not
     // keep all pred-succs in memory.
     protected Map<Long, java.util.Set<Record>> predSuccMap = new HashMap<Long, java.util.Set<Record>>();
+    // the same for the records being written in the background (db.asyncCommit)
+    protected Map<Long, java.util.Set<Record>> predSuccMapBeingWritten = new HashMap<Long, java.util.Set<Record>>();
 
     // used to persist links to db...
     protected Map<Long, List<Long>> fromToUplinksAdded = new HashMap<Long, List<Long>>();
@@ -145,6 +147,10 @@ public class DefaultRepository extends BaseService implements Repository {
                 java.util.Set<Record> succIds = predSuccMap.get(ir.getId());
                 if (succIds == null) {
                     succIds = new TreeSet<Record>();
+                    java.util.Set<Record> beingWritten = predSuccMapBeingWritten.get(ir.getId());
+                    if (beingWritten != null) {
+                        succIds.addAll(beingWritten);
+                    }
                     predSuccMap.put(ir.getId(), succIds);
                 }
                 succIds.add(record);
@@ -167,42 +173,66 @@ public class DefaultRepository extends BaseService implements Repository {
 
     public boolean commitIfNecessary(boolean force, long processedRecordsCount,
             RecordCounts incomingRecordCounts, RecordCounts outgoingRecordCounts) {
-        if (getRepositoryDAO().commitIfNecessary(name, force, processedRecordsCount)) {
+        if (!force && getRepositoryDAO().isCommitNecessary(name) && getRepositoryDAO().isAsyncCommit(name)) {
+            commitInBackground(processedRecordsCount);
+        } else if (getRepositoryDAO().commitIfNecessary(name, force, processedRecordsCount)) {
             predSuccMap.clear();
-            
-            List<long[]> uplinksAdded = getArrayListFromKeyedMap(fromToUplinksAdded);
-            getRepositoryDAO().persistLinkedRecordIds(name, uplinksAdded);            
-            uplinksAdded.clear();
-            fromToUplinksAdded.clear(); toFromUplinksAdded.clear();
-            
-            List<long[]> uplinksRemoved = getArrayListFromKeyedMap(fromToUplinksRemoved);
-            getRepositoryDAO().persistLinkedRecordIdsRemoved(name, uplinksRemoved);
-            uplinksRemoved.clear();
-            fromToUplinksRemoved.clear(); toFromUplinksRemoved.clear();
-
-            activateRecords();
-    	    activateLinkedRecords();
-    	    
-    	    for (Map.Entry<String, AtomicInteger> me : recordCountsToActivateByType.entrySet()) {
-    	        int num = me.getValue().get();
-    	        for (int i = 0; i < num; i++) {
-    	            outgoingRecordCounts.incr(me.getKey(), Record.ACTIVE, Record.HELD);
-    	            if (me.getKey() != null && !RecordCounts.TOTALS.equals(me.getKey())) {
-    	                outgoingRecordCounts.incr(null, Record.ACTIVE, Record.HELD);
-    	            }
-    	        }
-    	    }
-    	    recordCountsToActivateByType.clear();
-
-            getRecordCountsDAO().persistRecordCounts(name, incomingRecordCounts, outgoingRecordCounts);
-            if (incomingRecordCounts != null)
-                incomingRecordCounts.clear();
-            if (outgoingRecordCounts != null)
-                outgoingRecordCounts.clear();
-            return true;
+            predSuccMapBeingWritten.clear();
         } else {
             return force;
         }
+        persistLinksAndCounts(incomingRecordCounts, outgoingRecordCounts);
+        return true;
+    }
+
+    /**
+     * The records are handed to the writer thread, and the records to activate with them, as
+     * they can only be activated once they're in. The successors cached for the records stay
+     * readable (predSuccMapBeingWritten) until the write after this one waits for them to be in.
+     */
+    protected void commitInBackground(long processedRecordsCount) {
+        getRepositoryDAO().waitForWrite(name);
+        predSuccMapBeingWritten = predSuccMap;
+        predSuccMap = new HashMap<Long, java.util.Set<Record>>();
+        final TLongHashSet toActivate = recordsToActivate;
+        recordsToActivate = new TLongHashSet();
+        getRepositoryDAO().commitInBackground(name, processedRecordsCount, new Runnable() {
+            public void run() {
+                getRepositoryDAO().activateRecords(name, toActivate);
+            }
+        });
+    }
+
+    protected void persistLinksAndCounts(RecordCounts incomingRecordCounts, RecordCounts outgoingRecordCounts) {
+        List<long[]> uplinksAdded = getArrayListFromKeyedMap(fromToUplinksAdded);
+        getRepositoryDAO().persistLinkedRecordIds(name, uplinksAdded);
+        uplinksAdded.clear();
+        fromToUplinksAdded.clear(); toFromUplinksAdded.clear();
+
+        List<long[]> uplinksRemoved = getArrayListFromKeyedMap(fromToUplinksRemoved);
+        getRepositoryDAO().persistLinkedRecordIdsRemoved(name, uplinksRemoved);
+        uplinksRemoved.clear();
+        fromToUplinksRemoved.clear(); toFromUplinksRemoved.clear();
+
+        activateRecords();
+        activateLinkedRecords();
+
+        for (Map.Entry<String, AtomicInteger> me : recordCountsToActivateByType.entrySet()) {
+            int num = me.getValue().get();
+            for (int i = 0; i < num; i++) {
+                outgoingRecordCounts.incr(me.getKey(), Record.ACTIVE, Record.HELD);
+                if (me.getKey() != null && !RecordCounts.TOTALS.equals(me.getKey())) {
+                    outgoingRecordCounts.incr(null, Record.ACTIVE, Record.HELD);
+                }
+            }
+        }
+        recordCountsToActivateByType.clear();
+
+        getRecordCountsDAO().persistRecordCounts(name, incomingRecordCounts, outgoingRecordCounts);
+        if (incomingRecordCounts != null)
+            incomingRecordCounts.clear();
+        if (outgoingRecordCounts != null)
+            outgoingRecordCounts.clear();
     }
 
     private void activateRecords() {
@@ -284,7 +314,9 @@ public class DefaultRepository extends BaseService implements Repository {
 
     public List<Record> getRecordHeader(Date from, Date until, Long startingId, Format inputFormat, Set inputSet) {
         LOG.debug("from:" + from + " until:" + until + " startingId:" + startingId + " inputFormat:" + inputFormat + " inputSet:" + inputSet);
-        List<Record> records = getRepositoryDAO().getRecordHeader(name, from, until, startingId, inputFormat, inputSet);
+        // the same records getRecords would return, without reading their xml
+        char[] statuses = Util.dateIsNull(from) ? new char[] { Record.ACTIVE } : new char[] { Record.ACTIVE, Record.DELETED };
+        List<Record> records = getRepositoryDAO().getRecordsWSets(name, from, until, startingId, inputFormat, inputSet, statuses, false);
         if (records == null) {
             LOG.debug("no records found");
         } else {
@@ -301,6 +333,17 @@ public class DefaultRepository extends BaseService implements Repository {
         return recs;
     }
 
+    /**
+     * The records queued for indexing, after startingId (see RepositoryDAO.getChangedRecordsWSets).
+     */
+    public List<Record> getChangedRecordsWSets(Long startingId) {
+        List<Record> recs = getRepositoryDAO().getChangedRecordsWSets(name, startingId);
+        for (Record r : recs) {
+            getMessageService().injectMessageMessage(r);
+        }
+        return recs;
+    }
+
     public void injectSuccessors(Record r) {
         List<Record> succs = getRepositoryDAO().getSuccessors(name, r.getId());
         if (succs != null) {
@@ -310,6 +353,9 @@ public class DefaultRepository extends BaseService implements Repository {
 
     public void injectSuccessorIds(Record r) {
         java.util.Set<Record> succIds = predSuccMap.get(r.getId());
+        if (succIds == null) {
+            succIds = predSuccMapBeingWritten.get(r.getId());
+        }
         if (succIds == null) {
             succIds = getRepositoryDAO().getSuccessorIds(name, r.getId());
             predSuccMap.put(r.getId(), succIds);
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.repo;
+
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntIterator;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * What a write does to a repo's record_counts: the records taken out of and put into each
+ * format_id/set_id/status/type row, and the record_updates rows added. Each record is counted in
+ * the set_id 0 row for its format, status and type, and again in the row for each of its sets.
+ *
+ * updates is only kept in the set_id 0 rows, under the status and type the record had when the
+ * record_updates row was written.
+ */
+public class RecordCountDeltas {
+
+    /**
+     * A record as record_counts sees it. Nulls are stored as 0 and ''.
+     */
+    public static class State {
+        protected int formatId;
+        protected String status;
+        protected String type;
+        protected TIntHashSet setIds = new TIntHashSet();
+
+        public State(Integer formatId, String status, String type) {
+            this.formatId = formatId == null ? 0 : formatId;
+            this.status = status == null ? "" : status;
+            this.type = type == null ? "" : type;
+        }
+
+        public void addSetId(int setId) {
+            setIds.add(setId);
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) {
+                return false;
+            }
+            State s = (State) o;
+            return formatId == s.formatId && status.equals(s.status) && type.equals(s.type) && setIds.equals(s.setIds);
+        }
+
+        public int hashCode() {
+            return formatId * 31 * 31 + status.hashCode() * 31 + type.hashCode();
+        }
+    }
+
+    /**
+     * A row of record_counts.
+     */
+    public static class Key {
+        protected int formatId;
+        protected int setId;
+        protected String status;
+        protected String type;
+
+        public Key(int formatId, int setId, String status, String type) {
+            this.formatId = formatId;
+            this.setId = setId;
+            this.status = status;
+            this.type = type;
+        }
+
+        public int getFormatId() {
+            return formatId;
+        }
+
+        public int getSetId() {
+            return setId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return formatId == k.formatId && setId == k.setId && status.equals(k.status) && type.equals(k.type);
+        }
+
+        public int hashCode() {
+            return ((formatId * 31 + setId) * 31 + status.hashCode()) * 31 + type.hashCode();
+        }
+
+        public String toString() {
+            return formatId + "/" + setId + "/" + status + "/" + type;
+        }
+    }
+
+    // key -> { records, updates }
+    protected Map<Key, long[]> deltas = new HashMap<Key, long[]>();
+
+    /**
+     * Counts a record going from one state to another.
+     *
+     * @param before
+     *            null for a new record
+     * @param after
+     *            null for a record that's gone
+     * @param updates
+     *            the record_updates rows written for it
+     */
+    public void change(State before, State after, int updates) {
+        if (before != null && !before.equals(after)) {
+            add(before, -1);
+        }
+        if (after != null) {
+            if (!after.equals(before)) {
+                add(after, 1);
+            }
+            if (updates != 0) {
+                get(new Key(after.formatId, 0, after.status, after.type))[1] += updates;
+            }
+        }
+    }
+
+    protected void add(State s, int records) {
+        get(new Key(s.formatId, 0, s.status, s.type))[0] += records;
+        for (TIntIterator it = s.setIds.iterator(); it.hasNext();) {
+            get(new Key(s.formatId, it.next(), s.status, s.type))[0] += records;
+        }
+    }
+
+    protected long[] get(Key key) {
+        long[] d = deltas.get(key);
+        if (d == null) {
+            d = new long[2];
+            deltas.put(key, d);
+        }
+        return d;
+    }
+
+    /**
+     * @return key -> { records, updates } for the rows that change
+     */
+    public Map<Key, long[]> getDeltas() {
+        for (Iterator<long[]> it = deltas.values().iterator(); it.hasNext();) {
+            long[] d = it.next();
+            if (d[0] == 0 && d[1] == 0) {
+                it.remove();
+            }
+        }
+        return deltas;
+    }
+}
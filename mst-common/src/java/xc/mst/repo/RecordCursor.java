@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.repo;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+
+import xc.mst.bo.record.Record;
+import xc.mst.utils.TimingLogger;
+import xc.mst.utils.Util;
+
+/**
+ * Walks through a repository a page at a time, in record_id order. Each page is asked for with
+ * the highest id of the page before it (a keyset rather than an offset), so a page costs the
+ * same no matter how far into the repository it is.
+ *
+ * If prefetch is on, the query for the next page is sent on a background thread as soon as a
+ * page is handed out, so it's (usually) waiting by the time the current page has been
+ * processed. The cursor stops at the first empty page. Instances are meant to be used by a
+ * single thread; call close() if you stop before the end.
+ */
+public class RecordCursor implements Iterator<List<Record>> {
+
+    private static final Logger LOG = Logger.getLogger(RecordCursor.class);
+
+    public interface PageLoader {
+        /**
+         * @return the records with ids greater than startingId (all of them from the start if
+         *         it's null), at most one page's worth
+         */
+        public List<Record> loadPage(Long startingId);
+    }
+
+    protected PageLoader loader = null;
+    protected ExecutorService executor = null;
+    protected Future<List<Record>> nextPageFuture = null;
+    protected List<Record> nextPage = null;
+    protected Long startingId = null;
+    protected boolean done = false;
+
+    public RecordCursor(PageLoader loader, Long startingId, boolean prefetch) {
+        this.loader = loader;
+        this.startingId = startingId;
+        if (prefetch) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "record-cursor-prefetch");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+    }
+
+    public boolean hasNext() {
+        if (nextPage == null && !done) {
+            nextPage = takePage();
+            if (nextPage == null || nextPage.size() == 0) {
+                nextPage = null;
+                close();
+            }
+        }
+        return nextPage != null;
+    }
+
+    public List<Record> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Record> page = nextPage;
+        nextPage = null;
+        startingId = page.get(page.size() - 1).getId();
+        if (executor != null) {
+            final Long pageStartingId = startingId;
+            nextPageFuture = executor.submit(new Callable<List<Record>>() {
+                public List<Record> call() {
+                    return loader.loadPage(pageStartingId);
+                }
+            });
+        }
+        return page;
+    }
+
+    protected List<Record> takePage() {
+        if (nextPageFuture == null) {
+            return loader.loadPage(startingId);
+        }
+        try {
+            TimingLogger.start("RecordCursor.wait");
+            return nextPageFuture.get();
+        } catch (Throwable t) {
+            Util.getUtil().throwIt(t);
+            return null;
+        } finally {
+            TimingLogger.stop("RecordCursor.wait");
+            nextPageFuture = null;
+        }
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops any prefetching. The cursor won't return any more pages.
+     */
+    public void close() {
+        done = true;
+        if (executor != null) {
+            LOG.debug("closing record cursor after id " + startingId);
+            executor.shutdownNow();
+            executor = null;
+        }
+        nextPageFuture = null;
+    }
+}
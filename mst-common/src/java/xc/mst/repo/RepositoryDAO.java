@@ -11,12 +11,16 @@ package xc.mst.repo;
 
 import gnu.trove.TLongArrayList;
 import gnu.trove.TLongByteHashMap;
+import gnu.trove.TIntHashSet;
 import gnu.trove.TLongHashSet;
+import gnu.trove.TLongIntHashMap;
 import gnu.trove.TLongIterator;
+import gnu.trove.TLongObjectHashMap;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
 import java.sql.PreparedStatement;
@@ -27,12 +31,18 @@ import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -44,8 +54,8 @@ import org.apache.log4j.Logger;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 
@@ -61,9 +71,12 @@ import xc.mst.cache.DynKeyLongMap;
 import xc.mst.constants.Constants;
 import xc.mst.dao.BaseDAO;
 import xc.mst.dao.record.MessageDAO;
+import xc.mst.utils.CompressionUtil;
 import xc.mst.utils.MSTConfiguration;
 import xc.mst.utils.TimingLogger;
 import xc.mst.utils.Util;
+import xc.mst.utils.metrics.Metrics;
+import xc.mst.utils.metrics.Timer;
 
 public class RepositoryDAO extends BaseDAO {
 
@@ -71,6 +84,8 @@ public class RepositoryDAO extends BaseDAO {
 
     public final static String RECORDS_TABLE = "records";
     public final static String RECORD_UPDATES_TABLE = "record_updates";
+    public final static String RECORD_CHANGES_TABLE = "record_changes";
+    public final static String RECORD_COUNTS_TABLE = "record_counts";
     public final static String RECORDS_XML_TABLE = "records_xml";
     public final static String RECORDS_SETS_TABLE = "record_sets";
     public final static String RECORD_PREDECESSORS_TABLE = "record_predecessors";
@@ -81,7 +96,27 @@ public class RepositoryDAO extends BaseDAO {
     public final static String PREV_INCOMING_RECORD_STATUSES = "prev_incoming_record_statuses";
     public int lastCompleteListSizeMethod = 0;
 
+    /**
+     * records_xml.compression for a payload deflated into records_xml.xml_compressed. When the
+     * column is null the payload is plain text in records_xml.xml.
+     */
+    public final static String DEFLATE_COMPRESSION = "Z";
+
+    // repo name -> whether its records_xml table has the xml_compressed and compression columns
+    protected Map<String, Boolean> compressedXmlColumns = Collections.synchronizedMap(new HashMap<String, Boolean>());
+    // the repos known to have a records_xml.xml_md5 column
+    protected java.util.Set<String> xmlDigestColumns = Collections.synchronizedSet(new HashSet<String>());
+    // the repos known to have a record_changes table; one that hasn't is asked again each time,
+    // as the table is created by the solr indexer rather than through this dao
+    protected java.util.Set<String> changeLogs = Collections.synchronizedSet(new HashSet<String>());
+    // the repos known to have a record_counts table
+    protected java.util.Set<String> recordCountTables = Collections.synchronizedSet(new HashSet<String>());
+    // repo name -> what's held while the repo's records and record_counts are written, so the
+    // two never disagree
+    protected Map<String, Object> recordCountsLocks = new HashMap<String, Object>();
+
     protected Lock oaiIdLock = new ReentrantLock();
+    protected ThreadLocal<TLongArrayList> reservedIds = new ThreadLocal<TLongArrayList>();
     protected int nextId = -1;
     protected int nextIdInDB = -1;
 
@@ -105,16 +140,36 @@ public class RepositoryDAO extends BaseDAO {
                     "rm.detail ";
 
     protected boolean inBatch = false;
-    protected List<Record> recordsToAdd = null;
-    protected Map<Long, Record> recordsToAddInx = null;
 
+    // records waiting for the next commit, one batch per repository so that jobs the Scheduler
+    // runs side by side never commit each other's records
+    protected Map<String, RecordsToAdd> recordsToAdd = new HashMap<String, RecordsToAdd>();
+
+    // batches handed to the writer thread (db.asyncCommit) and not yet known to be written, and
+    // their writes, by repository
+    protected Map<String, RecordsToAdd> recordsBeingWritten = new HashMap<String, RecordsToAdd>();
+    protected Map<String, Future<?>> writes = new HashMap<String, Future<?>>();
+    protected ExecutorService writer = null;
+
+    protected static class RecordsToAdd {
+        protected List<Record> records = new ArrayList<Record>();
+        protected Map<Long, Record> inx = new HashMap<Long, Record>();
+    }
+
+    protected RecordsToAdd getRecordsToAdd(String name) {
+        synchronized (recordsToAdd) {
+            RecordsToAdd rta = recordsToAdd.get(name);
+            if (rta == null) {
+                rta = new RecordsToAdd();
+                recordsToAdd.put(name, rta);
+            }
+            return rta;
+        }
+    }
 
     public void init() {
         LOG.debug("RepositoryDAO.init()");
 
-        recordsToAdd = new ArrayList<Record>();
-	recordsToAddInx = new HashMap<Long, Record>();
-
         try {
             if (!tableExists(REPOS_TABLE)) {
                 for (String file : new String[] { "xc/mst/repo/sql/create_repo_platform.sql",
@@ -133,22 +188,41 @@ public class RepositoryDAO extends BaseDAO {
 
     // probably a bad idea exposing some of this implementation stuff but am going for it.
     public boolean haveUnpersistedRecord(Long id) {
-    	return recordsToAddInx == null ? false : recordsToAddInx.containsKey(id);
+    	return getUnpersistedRecord(id) != null;
     }
 
+    // record ids are unique across repositories, so it doesn't matter which batch it's found in
     public Record getUnpersistedRecord(long id) {
-    	if (haveUnpersistedRecord(id)) {
-    		return recordsToAddInx.get(id);
+        synchronized (recordsToAdd) {
+            for (RecordsToAdd rta : recordsToAdd.values()) {
+                synchronized (rta) {
+                    Record r = rta.inx.get(id);
+                    if (r != null) {
+                        return r;
+                    }
+                }
+            }
+            for (RecordsToAdd rta : recordsBeingWritten.values()) {
+                Record r = rta.inx.get(id);
+                if (r != null) {
+                    return r;
+                }
+            }
         }
         return null;
     }
 
     public boolean deleteUnpersistedRecord(Long id) {
-        Record recordToDelete = getUnpersistedRecord(id);
-        if (recordToDelete != null) {
-            recordsToAdd.remove(recordToDelete);
-            recordsToAddInx.remove(id);
-            return true;
+        synchronized (recordsToAdd) {
+            for (RecordsToAdd rta : recordsToAdd.values()) {
+                synchronized (rta) {
+                    Record recordToDelete = rta.inx.remove(id);
+                    if (recordToDelete != null) {
+                        rta.records.remove(recordToDelete);
+                        return true;
+                    }
+                }
+            }
         }
         return false;
     }
@@ -213,7 +287,7 @@ public class RepositoryDAO extends BaseDAO {
 
     public List<Record> getSuccessors(String name, long id) {
         String sql =
-                "select " + RECORDS_TABLE_COLUMNS + ", x.xml " +
+                "select " + RECORDS_TABLE_COLUMNS + ", " + getXmlColumns(name) + " " +
                         "from " + getTableName(name, RECORDS_TABLE) + " r, " +
                         getTableName(name, RECORDS_XML_TABLE) + " x, " +
                         getTableName(name, RECORD_PREDECESSORS_TABLE) + " rp " +
@@ -221,7 +295,7 @@ public class RepositoryDAO extends BaseDAO {
                         "and rp.record_id = r.record_id " +
                         "and x.record_id = r.record_id";
         return this.jdbcTemplate.query(sql, new Object[] { id },
-                new RecordMapper(new String[] { RECORDS_TABLE, RECORDS_XML_TABLE }, this));
+                new RecordMapper(new String[] { RECORDS_TABLE, RECORDS_XML_TABLE }, this, hasCompressedXmlColumns(name)));
     }
 
     public List<Long> getPredecessors(String name, long id) {
@@ -232,6 +306,565 @@ public class RepositoryDAO extends BaseDAO {
         return this.jdbcTemplate.queryForList(sql, Long.class, id);
     }
 
+    protected boolean isCompressingXml() {
+        return MSTConfiguration.getInstance().getPropertyAsBoolean("db.compressRecordXml", false);
+    }
+
+    /**
+     * Repos created before payloads could be compressed don't have the columns, and
+     * aren't given them until something compressed is written to them.
+     */
+    public boolean hasCompressedXmlColumns(String name) {
+        Boolean has = compressedXmlColumns.get(name);
+        if (has == null) {
+            List<Map<String, Object>> rows = this.jdbcTemplate.queryForList(
+                    "show columns from " + getTableName(name, RECORDS_XML_TABLE) + " like 'compression'");
+            has = rows.size() > 0;
+            compressedXmlColumns.put(name, has);
+        }
+        return has;
+    }
+
+    protected void addCompressedXmlColumns(String name) {
+        if (!hasCompressedXmlColumns(name)) {
+            LOG.info("adding compressed xml columns to " + getTableName(name, RECORDS_XML_TABLE));
+            this.jdbcTemplate.execute(
+                    "alter table " + getTableName(name, RECORDS_XML_TABLE) +
+                            " add column xml_compressed longblob, add column compression char(1)");
+            compressedXmlColumns.put(name, true);
+        }
+    }
+
+    /**
+     * records_xml.xml_md5 is the md5 of a payload (before it's compressed), written along with it
+     * in the repos which have a change log, so that a new payload can be told from the one stored
+     * without reading that back (see getIdsWithSameXml). A row written without one, e.g. before
+     * the repo had a change log, counts as changed the next time it's written.
+     */
+    public boolean hasXmlDigestColumn(String name) {
+        if (xmlDigestColumns.contains(name)) {
+            return true;
+        }
+        List<Map<String, Object>> rows = this.jdbcTemplate.queryForList(
+                "show columns from " + getTableName(name, RECORDS_XML_TABLE) + " like 'xml_md5'");
+        if (rows.size() > 0) {
+            xmlDigestColumns.add(name);
+            return true;
+        }
+        return false;
+    }
+
+    protected void addXmlDigestColumn(String name) {
+        if (!hasXmlDigestColumn(name)) {
+            LOG.info("adding xml digest column to " + getTableName(name, RECORDS_XML_TABLE));
+            this.jdbcTemplate.execute(
+                    "alter table " + getTableName(name, RECORDS_XML_TABLE) + " add column xml_md5 char(32)");
+            xmlDigestColumns.add(name);
+        }
+    }
+
+    /**
+     * record_changes holds the ids of the records which have changed since the solr indexer last
+     * indexed them (see getChangedRecordsWSets). A repo only has one once the indexer has been
+     * through it, so that commits to repos nothing indexes don't work out what's changed.
+     */
+    public boolean hasChangeLog(String name) {
+        if (changeLogs.contains(name)) {
+            return true;
+        }
+        if (tableExists(getUtil().getDBSchema(name), RECORD_CHANGES_TABLE)) {
+            changeLogs.add(name);
+            return true;
+        }
+        return false;
+    }
+
+    public void createChangeLog(String name) {
+        if (!hasChangeLog(name)) {
+            LOG.info("creating " + getTableName(name, RECORD_CHANGES_TABLE));
+            this.jdbcTemplate.execute(
+                    "create table if not exists " + getTableName(name, RECORD_CHANGES_TABLE) + " (" +
+                            " record_id int not null, " +
+                            " changes int not null default 1, " +
+                            " primary key (record_id) " +
+                            ") ENGINE=MyISAM DEFAULT CHARSET=utf8");
+            changeLogs.add(name);
+        }
+    }
+
+    /**
+     * record_counts holds the number of records in each format, set, status and type, and the
+     * record_updates rows written for them (see RecordCountDeltas), kept up to date as records are
+     * written so that they needn't be counted. Repos created before it existed are given one,
+     * counted from scratch, the first time it's wanted (see createRecordCounts). Records written
+     * with load data infile (while the indices are down, see commitIfNecessary) aren't counted as
+     * they're written; they're counted once the indices are back (see createIndicesIfNecessary).
+     */
+    public boolean hasRecordCounts(String name) {
+        name = getUtil().getDBSchema(name);
+        if (recordCountTables.contains(name)) {
+            return true;
+        }
+        if (tableExists(name, RECORD_COUNTS_TABLE)) {
+            recordCountTables.add(name);
+            return true;
+        }
+        return false;
+    }
+
+    protected Object getRecordCountsLock(String name) {
+        // by schema, since callers name the repo either way
+        name = getUtil().getDBSchema(name);
+        synchronized (recordCountsLocks) {
+            Object lock = recordCountsLocks.get(name);
+            if (lock == null) {
+                lock = new Object();
+                recordCountsLocks.put(name, lock);
+            }
+            return lock;
+        }
+    }
+
+    /**
+     * Counts the records of a repo that hasn't a record_counts table into a new one. Writes to the
+     * repo wait until it's done.
+     */
+    public void createRecordCounts(String name) {
+        synchronized (getRecordCountsLock(name)) {
+            if (hasRecordCounts(name)) {
+                return;
+            }
+            countRecords(name);
+        }
+    }
+
+    /**
+     * Counts the records into record_counts again from scratch, replacing whatever it had. Writes
+     * to the repo wait until it's done.
+     */
+    public void recountRecords(String name) {
+        synchronized (getRecordCountsLock(name)) {
+            countRecords(name);
+        }
+    }
+
+    /**
+     * The counts are put together under another name first, so a count that doesn't finish
+     * doesn't leave a table of wrong ones behind. Call it holding the repo's record counts lock.
+     */
+    protected void countRecords(String name) {
+        LOG.info("counting " + getTableName(name, RECORD_COUNTS_TABLE));
+        TimingLogger.start("RECORD_COUNTS_TABLE.create");
+        String newTable = getTableName(name, RECORD_COUNTS_TABLE + "_new");
+        this.jdbcTemplate.execute("drop table if exists " + newTable);
+        this.jdbcTemplate.execute(
+                "create table " + newTable + " (" +
+                        " format_id int not null default 0, " +
+                        " set_id int not null default 0, " +
+                        " status char(1) not null default '', " +
+                        " type char(1) not null default '', " +
+                        " records bigint not null default 0, " +
+                        " updates bigint not null default 0, " +
+                        " primary key (format_id, set_id, status, type) " +
+                        ") ENGINE=MyISAM DEFAULT CHARSET=utf8");
+        String state = "ifnull(r.format_id, 0), ifnull(r.status, ''), ifnull(r.type, '')";
+        this.jdbcTemplate.update(
+                "insert into " + newTable + " (format_id, status, type, records) " +
+                        " select " + state + ", count(*) " +
+                        " from " + getTableName(name, RECORDS_TABLE) + " r " +
+                        " group by " + state);
+        this.jdbcTemplate.update(
+                "insert into " + newTable + " (format_id, set_id, status, type, records) " +
+                        " select ifnull(r.format_id, 0), rs.set_id, ifnull(r.status, ''), ifnull(r.type, ''), count(*) " +
+                        " from " + getTableName(name, RECORDS_TABLE) + " r, " +
+                        getTableName(name, RECORDS_SETS_TABLE) + " rs " +
+                        " where r.record_id = rs.record_id " +
+                        " group by ifnull(r.format_id, 0), rs.set_id, ifnull(r.status, ''), ifnull(r.type, '')");
+        this.jdbcTemplate.update(
+                "insert into " + newTable + " (format_id, status, type, updates) " +
+                        " select " + state + ", count(*) " +
+                        " from " + getTableName(name, RECORD_UPDATES_TABLE) + " u, " +
+                        getTableName(name, RECORDS_TABLE) + " r " +
+                        " where u.record_id = r.record_id " +
+                        " group by " + state +
+                        " on duplicate key update updates = values(updates)");
+        if (hasRecordCounts(name)) {
+            String oldTable = getTableName(name, RECORD_COUNTS_TABLE + "_old");
+            this.jdbcTemplate.execute("drop table if exists " + oldTable);
+            this.jdbcTemplate.execute("rename table " + getTableName(name, RECORD_COUNTS_TABLE) + " to " + oldTable + ", " +
+                    newTable + " to " + getTableName(name, RECORD_COUNTS_TABLE));
+            this.jdbcTemplate.execute("drop table " + oldTable);
+        } else {
+            this.jdbcTemplate.execute("rename table " + newTable + " to " + getTableName(name, RECORD_COUNTS_TABLE));
+            recordCountTables.add(getUtil().getDBSchema(name));
+        }
+        TimingLogger.stop("RECORD_COUNTS_TABLE.create");
+    }
+
+    /**
+     * @return the records as record_counts has them now, by record id; new records are left out
+     */
+    protected TLongObjectHashMap<RecordCountDeltas.State> getRecordCountStates(String name, long[] recordIds) {
+        final TLongObjectHashMap<RecordCountDeltas.State> states = new TLongObjectHashMap<RecordCountDeltas.State>();
+        for (int i = 0; i < recordIds.length; i += IN_CLAUSE_SIZE) {
+            int n = Math.min(IN_CLAUSE_SIZE, recordIds.length - i);
+            Object[] params = new Object[n];
+            for (int j = 0; j < n; j++) {
+                params[j] = recordIds[i + j];
+            }
+            this.jdbcTemplate.query(
+                    "select record_id, format_id, status, type from " + getTableName(name, RECORDS_TABLE) +
+                            " where record_id in (" + getPlaceholders(n) + ")",
+                    params, new RowCallbackHandler() {
+                        public void processRow(ResultSet rs) throws SQLException {
+                            states.put(rs.getLong(1), new RecordCountDeltas.State(rs.getInt(2), rs.getString(3), rs.getString(4)));
+                        }
+                    });
+            this.jdbcTemplate.query(
+                    "select record_id, set_id from " + getTableName(name, RECORDS_SETS_TABLE) +
+                            " where record_id in (" + getPlaceholders(n) + ")",
+                    params, new RowCallbackHandler() {
+                        public void processRow(ResultSet rs) throws SQLException {
+                            RecordCountDeltas.State state = states.get(rs.getLong(1));
+                            if (state != null) {
+                                state.addSetId(rs.getInt(2));
+                            }
+                        }
+                    });
+        }
+        return states;
+    }
+
+    /**
+     * Works out what writing the records will do to record_counts, from the way they were and
+     * the way writeRecordRows will leave them. Sets are only ever added to a record, never taken
+     * away.
+     */
+    protected RecordCountDeltas getRecordCountDeltas(String name, List<Record> records) {
+        TimingLogger.start("RECORD_COUNTS_TABLE.diff");
+        long[] ids = new long[records.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = records.get(i).getId();
+        }
+        TLongObjectHashMap<RecordCountDeltas.State> states = getRecordCountStates(name, ids);
+        RecordCountDeltas deltas = new RecordCountDeltas();
+        for (Record r : records) {
+            RecordCountDeltas.State before = states.get(r.getId());
+            RecordCountDeltas.State after = new RecordCountDeltas.State(
+                    r.getFormat() == null ? null : r.getFormat().getId(),
+                    getString(r.getStatus()),
+                    r.getType() != null && r.getType().length() > 0 ? getString(r.getType().charAt(0)) : null);
+            if (before != null) {
+                after.setIds.addAll(before.setIds.toArray());
+            }
+            if (r.getSets() != null) {
+                for (Set s : r.getSets()) {
+                    after.addSetId(s.getId());
+                }
+            }
+            deltas.change(before, after, 1);
+            states.put(r.getId(), after);
+        }
+        TimingLogger.stop("RECORD_COUNTS_TABLE.diff");
+        return deltas;
+    }
+
+    /**
+     * Counts records going from whatever status they're in to another.
+     */
+    protected RecordCountDeltas getStatusChangeDeltas(String name, long[] recordIds, char status, int updates) {
+        RecordCountDeltas deltas = new RecordCountDeltas();
+        TLongObjectHashMap<RecordCountDeltas.State> states = getRecordCountStates(name, recordIds);
+        for (long id : states.keys()) {
+            RecordCountDeltas.State before = states.get(id);
+            RecordCountDeltas.State after = new RecordCountDeltas.State(before.formatId, getString(status), before.type);
+            after.setIds = before.setIds;
+            deltas.change(before, after, updates);
+        }
+        return deltas;
+    }
+
+    protected void writeRecordCounts(String name, RecordCountDeltas deltas) {
+        final List<Map.Entry<RecordCountDeltas.Key, long[]>> rows =
+                new ArrayList<Map.Entry<RecordCountDeltas.Key, long[]>>(deltas.getDeltas().entrySet());
+        if (rows.size() == 0) {
+            return;
+        }
+        TimingLogger.start("RECORD_COUNTS_TABLE.insert");
+        jdbcTemplate.batchUpdate(
+                "insert into " + getTableName(name, RECORD_COUNTS_TABLE) +
+                        " (format_id, set_id, status, type, records, updates) values (?,?,?,?,?,?) " +
+                        "on duplicate key update records=records+values(records), updates=updates+values(updates)",
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        RecordCountDeltas.Key key = rows.get(j).getKey();
+                        long[] delta = rows.get(j).getValue();
+                        ps.setInt(1, key.getFormatId());
+                        ps.setInt(2, key.getSetId());
+                        ps.setString(3, key.getStatus());
+                        ps.setString(4, key.getType());
+                        ps.setLong(5, delta[0]);
+                        ps.setLong(6, delta[1]);
+                    }
+
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+        TimingLogger.stop("RECORD_COUNTS_TABLE.insert");
+    }
+
+    /**
+     * Queues records for indexing. changes counts the times a record has been queued, so that
+     * removeChanges can tell whether it's been changed again since it was read.
+     */
+    public void logChanges(String name, final TLongHashSet recordIds) {
+        if (recordIds.size() == 0) {
+            return;
+        }
+        TimingLogger.start("RECORD_CHANGES_TABLE.insert");
+        final TLongIterator it = recordIds.iterator();
+        jdbcTemplate.batchUpdate(
+                "insert into " + getTableName(name, RECORD_CHANGES_TABLE) + " (record_id) values (?) " +
+                        "on duplicate key update changes=changes+1",
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        ps.setLong(1, it.next());
+                    }
+
+                    public int getBatchSize() {
+                        return recordIds.size();
+                    }
+                });
+        TimingLogger.stop("RECORD_CHANGES_TABLE.insert");
+    }
+
+    /**
+     * @return record_id -> changes of the queued records after startingId, as many as
+     *         getChangedRecordsWSets returns at once, to be handed to removeChanges once they're
+     *         indexed
+     */
+    public TLongIntHashMap getChanges(String name, Long startingId) {
+        final TLongIntHashMap changes = new TLongIntHashMap();
+        this.jdbcTemplate.query(
+                "select record_id, changes from " + getTableName(name, RECORD_CHANGES_TABLE) +
+                        " where (record_id > ? or ? is null) order by record_id limit " +
+                        MSTConfiguration.getInstance().getPropertyAsInt(Constants.CONFIG_OAI_REPO_MAX_RECORDS, 5000),
+                new Object[] { startingId, startingId },
+                new RowCallbackHandler() {
+                    public void processRow(ResultSet rs) throws SQLException {
+                        changes.put(rs.getLong(1), rs.getInt(2));
+                    }
+                });
+        return changes;
+    }
+
+    /**
+     * Takes indexed records off the queue, unless they've been queued again since getChanges read
+     * them.
+     */
+    public void removeChanges(String name, TLongIntHashMap changes) {
+        if (changes.size() == 0) {
+            return;
+        }
+        TimingLogger.start("RECORD_CHANGES_TABLE.delete");
+        final long[] ids = changes.keys();
+        final int[] counts = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            counts[i] = changes.get(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(
+                "delete from " + getTableName(name, RECORD_CHANGES_TABLE) + " where record_id=? and changes=?",
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        ps.setLong(1, ids[j]);
+                        ps.setInt(2, counts[j]);
+                    }
+
+                    public int getBatchSize() {
+                        return ids.length;
+                    }
+                });
+        TimingLogger.stop("RECORD_CHANGES_TABLE.delete");
+    }
+
+    /**
+     * Works out which of the records about to be committed have changed in a way the index would
+     * see: a new or different payload, a different status, a set they weren't in before, or
+     * messages. A payload the same as the one already stored is also taken out of xmls, so it
+     * isn't written again. The digests of the new payloads are put in digests, to be written with
+     * them.
+     */
+    protected TLongHashSet getChangedIds(String name, List<Record> records, List<Record> xmls,
+            TLongObjectHashMap<String> digests) {
+        TimingLogger.start("RECORD_CHANGES_TABLE.diff");
+        TLongHashSet changed = new TLongHashSet();
+        for (Record r : xmls) {
+            // a payload still as it was read from the db is left out of the comparison
+            if (r.getCompressedOaiXml() == null) {
+                digests.put(r.getId(), getUtil().md5(r.getOaiXml()));
+            }
+        }
+        TLongHashSet sameXml = getIdsWithSameXml(name, digests);
+        for (java.util.Iterator<Record> it = xmls.iterator(); it.hasNext();) {
+            Record r = it.next();
+            if (sameXml.contains(r.getId())) {
+                it.remove();
+            } else if (digests.containsKey(r.getId())) {
+                changed.add(r.getId());
+            }
+        }
+        TLongObjectHashMap<TIntHashSet> setIds = getSetIds(name, records);
+        for (Record r : records) {
+            if (r.getStatus() != r.getPreviousStatus() ||
+                    (r.getMessages() != null && r.getMessages().size() > 0)) {
+                changed.add(r.getId());
+            } else if (r.getSets() != null) {
+                TIntHashSet existing = setIds.get(r.getId());
+                for (Set set : r.getSets()) {
+                    if (existing == null || !existing.contains(set.getId())) {
+                        changed.add(r.getId());
+                        break;
+                    }
+                }
+            }
+        }
+        TimingLogger.stop("RECORD_CHANGES_TABLE.diff");
+        return changed;
+    }
+
+    /**
+     * @return the ids of the records whose stored payload has the same digest as the new one
+     */
+    protected TLongHashSet getIdsWithSameXml(String name, final TLongObjectHashMap<String> digests) {
+        final TLongHashSet same = new TLongHashSet();
+        long[] ids = digests.keys();
+        for (int i = 0; i < ids.length; i += IN_CLAUSE_SIZE) {
+            int n = Math.min(IN_CLAUSE_SIZE, ids.length - i);
+            Object[] params = new Object[n];
+            for (int j = 0; j < n; j++) {
+                params[j] = ids[i + j];
+            }
+            this.jdbcTemplate.query(
+                    "select record_id, xml_md5 from " + getTableName(name, RECORDS_XML_TABLE) +
+                            " where record_id in (" + getPlaceholders(n) + ")",
+                    params,
+                    new RowCallbackHandler() {
+                        public void processRow(ResultSet rs) throws SQLException {
+                            long id = rs.getLong(1);
+                            if (digests.get(id).equals(rs.getString(2))) {
+                                same.add(id);
+                            }
+                        }
+                    });
+        }
+        return same;
+    }
+
+    protected TLongObjectHashMap<TIntHashSet> getSetIds(String name, List<Record> records) {
+        final TLongObjectHashMap<TIntHashSet> setIds = new TLongObjectHashMap<TIntHashSet>();
+        List<Long> ids = new ArrayList<Long>();
+        for (Record r : records) {
+            if (r.getSets() != null && r.getSets().size() > 0) {
+                ids.add(r.getId());
+            }
+        }
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_SIZE, ids.size()));
+            this.jdbcTemplate.query(
+                    "select record_id, set_id from " + getTableName(name, RECORDS_SETS_TABLE) +
+                            " where record_id in (" + getPlaceholders(chunk.size()) + ")",
+                    chunk.toArray(),
+                    new RowCallbackHandler() {
+                        public void processRow(ResultSet rs) throws SQLException {
+                            TIntHashSet sets = setIds.get(rs.getLong(1));
+                            if (sets == null) {
+                                sets = new TIntHashSet();
+                                setIds.put(rs.getLong(1), sets);
+                            }
+                            sets.add(rs.getInt(2));
+                        }
+                    });
+        }
+        return setIds;
+    }
+
+    /**
+     * @return the payloads of the records as utf-8 bytes (inflated, if they're stored compressed)
+     *         by record id, for writing out as they are; records without a payload are left out
+     */
+    public TLongObjectHashMap<byte[]> getXmlBytes(String name, long[] recordIds) {
+        final TLongObjectHashMap<byte[]> xmls = new TLongObjectHashMap<byte[]>();
+        final boolean compressedColumns = hasCompressedXmlColumns(name);
+        for (int i = 0; i < recordIds.length; i += IN_CLAUSE_SIZE) {
+            int n = Math.min(IN_CLAUSE_SIZE, recordIds.length - i);
+            Object[] params = new Object[n];
+            for (int j = 0; j < n; j++) {
+                params[j] = recordIds[i + j];
+            }
+            this.jdbcTemplate.query(
+                    "select record_id, xml" + (compressedColumns ? ", xml_compressed, compression" : "") +
+                            " from " + getTableName(name, RECORDS_XML_TABLE) +
+                            " where record_id in (" + getPlaceholders(n) + ")",
+                    params, new RowCallbackHandler() {
+                        public void processRow(ResultSet rs) throws SQLException {
+                            byte[] xml = null;
+                            if (compressedColumns && DEFLATE_COMPRESSION.equals(rs.getString(4))) {
+                                xml = CompressionUtil.decompressBytes(rs.getBytes(3));
+                            } else {
+                                // the connection's characterEncoding is UTF-8
+                                xml = rs.getBytes(2);
+                            }
+                            if (xml != null) {
+                                xmls.put(rs.getLong(1), xml);
+                            }
+                        }
+                    });
+        }
+        return xmls;
+    }
+
+    // the strings of the one-character columns (type, status, prev_status), so a commit doesn't
+    // make new ones for every record
+    protected static final String[] CHAR_STRINGS = new String[128];
+    static {
+        for (char c = 0; c < CHAR_STRINGS.length; c++) {
+            CHAR_STRINGS[c] = String.valueOf(c).intern();
+        }
+    }
+
+    protected static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes();
+
+    protected static void writeHex(OutputStream os, byte[] bytes) throws IOException {
+        byte[] hex = new byte[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        os.write(hex);
+    }
+
+    protected static String getString(char c) {
+        return c < CHAR_STRINGS.length ? CHAR_STRINGS[c] : String.valueOf(c);
+    }
+
+    protected static Timestamp getTimestamp(Date d, Timestamp ifNull) {
+        if (d == null) {
+            return ifNull;
+        }
+        if (d instanceof Timestamp) {
+            return (Timestamp) d;
+        }
+        return new Timestamp(d.getTime());
+    }
+
+    protected String getXmlColumns(String name) {
+        if (hasCompressedXmlColumns(name)) {
+            return "x.xml, x.xml_compressed, x.compression";
+        }
+        return "x.xml";
+    }
+
     protected String getTableName(String repoName, String tableName) {
         return " " + getUtil().getDBSchema(repoName) + "." + tableName;
     }
@@ -251,7 +884,41 @@ public class RepositoryDAO extends BaseDAO {
     }
 
     public void injectId(Record r) {
-        r.setId(getNextIdAndIncr());
+        TLongArrayList reserved = reservedIds.get();
+        if (reserved != null && reserved.size() > 0) {
+            r.setId(reserved.remove(0));
+        } else {
+            if (reserved != null) {
+                // once per record: the rest of the ids it's given depend on what other threads do
+                LOG.warn("a record has used up the ids reserved for it; the records it makes from here on " +
+                        "get ids in whatever order the threads get to them (see parallel_processing.ids_per_record)");
+                reservedIds.remove();
+            }
+            r.setId(getNextIdAndIncr());
+        }
+    }
+
+    /**
+     * Sets aside the next n ids. Handing them to a thread with setReservedIds makes the ids that
+     * thread gets from injectId independent of what other threads are doing at the same time.
+     */
+    public TLongArrayList reserveIds(int n) {
+        TLongArrayList ids = new TLongArrayList(n);
+        for (int i = 0; i < n; i++) {
+            ids.add(getNextIdAndIncr());
+        }
+        return ids;
+    }
+
+    /**
+     * Once these are used up, injectId falls back to the shared sequence. Pass null to clear.
+     */
+    public void setReservedIds(TLongArrayList ids) {
+        if (ids == null) {
+            reservedIds.remove();
+        } else {
+            reservedIds.set(ids);
+        }
     }
 
     public long getNextIdAndIncr() {
@@ -295,15 +962,21 @@ public class RepositoryDAO extends BaseDAO {
     }
 
     public void addRecord(String name, Record r) {
-        recordsToAdd.add(r);
-        recordsToAddInx.put(r.getId(), r);
+        RecordsToAdd rta = getRecordsToAdd(name);
+        synchronized (rta) {
+            rta.records.add(r);
+            rta.inx.put(r.getId(), r);
+        }
     }
 
     public void addRecords(String name, List<Record> records, boolean force) {
-    	for (Record r : records) {
-            recordsToAdd.add(r);
-            recordsToAddInx.put(r.getId(), r);
-    	}
+        RecordsToAdd rta = getRecordsToAdd(name);
+        synchronized (rta) {
+            for (Record r : records) {
+                rta.records.add(r);
+                rta.inx.put(r.getId(), r);
+            }
+        }
     }
 
     private double getMemUsage() {
@@ -327,7 +1000,7 @@ public class RepositoryDAO extends BaseDAO {
         return percentageUsed;
     }
 
-    protected boolean isNecessaryToCommit(boolean force, int batchSize, double memoryPercentageUsed) {
+    protected boolean isNecessaryToCommit(boolean force, int batchSize, double memoryPercentageUsed, List<Record> recordsToAdd) {
         if (force) {
             return true;
         }
@@ -341,255 +1014,126 @@ public class RepositoryDAO extends BaseDAO {
         return false;
     }
 
-    protected boolean commitIfNecessary(String name, boolean force, long processedRecordsCount) {
-        // LOG.debug("commitIfNecessary:Inbatch : " + inBatch);
+    public boolean isCommitNecessary(String name) {
         int batchSize = MSTConfiguration.getInstance().getPropertyAsInt("db.insertsAtOnce", 10000);
-        double memoryPercentageUsed = getMemUsage();
-        if (recordsToAdd != null) {
-            // LOG.error("beluga highest id: "+recordsToAdd.get(recordsToAdd.size()-1).getId());
-        }
-        if (isNecessaryToCommit(force, batchSize, memoryPercentageUsed)) {
-            // LOG.error("beluga commit!!!");
-            TimingLogger.start("commit to db");
-            final long startTime = System.currentTimeMillis();
-            if (ready4harvest(name)) {
-                String sql =
-                        "insert into " + getTableName(name, RECORDS_TABLE) +
-                                " (record_id, oai_datestamp, type, status, prev_status, format_id ) " +
-                                "values (?,?,?,?,?,?) " +
-                                "on duplicate key update " +
-                                "type=?, " +
-                                "status=?, " +
-                                "prev_status=?, " +
-                                "format_id=?, " +
-                                "oai_datestamp=? " +
-                                ";";
-                TimingLogger.start("RECORDS_TABLE.insert");
-                int[] updateCounts = jdbcTemplate.batchUpdate(
-                        sql,
-                        new BatchPreparedStatementSetter() {
-                            public void setValues(PreparedStatement ps, int j) throws SQLException {
-                                int i = 1;
-                                Record r = recordsToAdd.get(j);
-                                ps.setLong(i++, r.getId());
-                                if (r.getOaiDatestamp() == null) {
-                                    ps.setTimestamp(i++, new Timestamp(startTime));
-                                } else {
-                                    ps.setTimestamp(i++, new Timestamp(r.getOaiDatestamp().getTime()));
-                                }
-                                for (int k = 0; k < 2; k++) {
-                                    if (r.getType() != null && r.getType().length() > 0) {
-                                        ps.setString(i++, "" + r.getType().charAt(0));
-                                    } else {
-                                        ps.setString(i++, null);
-                                    }
-                                    ps.setString(i++, String.valueOf(r.getStatus()));
-                                    ps.setString(i++, String.valueOf(r.getPreviousStatus()));
-                                    if (r.getFormat() != null) {
-                                        ps.setInt(i++, r.getFormat().getId());
-                                    } else {
-                                        ps.setObject(i++, null);
-                                    }
-                                }
-                                if (r.getOaiDatestamp() == null) {
-                                    ps.setTimestamp(i++, new Timestamp(startTime));
-                                } else {
-                                    ps.setTimestamp(i++, new Timestamp(r.getOaiDatestamp().getTime()));
-                                }
-                            }
+        return isNecessaryToCommit(false, batchSize, getMemUsage(), getRecordsToAdd(name).records);
+    }
 
-                            public int getBatchSize() {
-                                return recordsToAdd.size();
-                            }
-                        });
-                TimingLogger.stop("RECORDS_TABLE.insert");
-                final long endTime = System.currentTimeMillis();
+    /**
+     * With db.asyncCommit on, commits that aren't forced are written by a background thread (see
+     * commitInBackground). Only repositories past their first load, whose commits go through
+     * jdbc rather than a load data infile, are written this way.
+     */
+    public boolean isAsyncCommit(String name) {
+        return MSTConfiguration.getInstance().getPropertyAsBoolean("db.asyncCommit", false) && ready4harvest(name);
+    }
 
-                final List<Record> recordXmls2Add = new ArrayList<Record>();
-                for (Record r : recordsToAdd) {
-                    r.setMode(Record.STRING_MODE);
-                    if (!Record.UNCHANGED.equals(r.getOaiXml())) {
-                    	// If it's changed and the XML (payload) is null,
-                    	// this means it's a DELETE.
-                    	// Let's *NOT* update the records_xml table, because
-                    	// I want to keep the payload information intact.
-                    	if (r.getOaiXml() != null) {
-                    		recordXmls2Add.add(r);
-                    	}
-                    }
+    /**
+     * Hands the repository's batch of records to the writer thread and starts an empty one. The
+     * previous batch's write is waited for first, so no more than two batches are ever held in
+     * memory, and the batches are written in order. The records stay visible to
+     * getUnpersistedRecord() until they're written.
+     *
+     * @param afterWrite
+     *            run on the writer thread once the records are in, or null
+     */
+    public void commitInBackground(final String name, final long processedRecordsCount, final Runnable afterWrite) {
+        waitForWrite(name);
+        final RecordsToAdd rta;
+        synchronized (recordsToAdd) {
+            rta = getRecordsToAdd(name);
+            recordsToAdd.remove(name);
+            recordsBeingWritten.put(name, rta);
+        }
+        Future<?> write = getWriter().submit(new Runnable() {
+            public void run() {
+                TimingLogger.start("commit to db");
+                long commitStart = Metrics.COMMIT.start();
+                writeRecords(name, rta.records, System.currentTimeMillis(), processedRecordsCount);
+                if (afterWrite != null) {
+                    afterWrite.run();
                 }
+                Metrics.COMMIT.stop(commitStart);
+                Metrics.COMMIT_RECORDS.add(rta.records.size());
+                TimingLogger.stop("commit to db");
+            }
+        });
+        synchronized (writes) {
+            writes.put(name, write);
+        }
+    }
 
-                TimingLogger.start("RECORDS_XML_TABLE.insert");
-                sql =
-                        "insert into " + getTableName(name, RECORDS_XML_TABLE) +
-                                " (record_id, xml) " +
-                                "values (?,?) " +
-                                "on duplicate key update " +
-                                "xml=? " +
-                                ";";
-                updateCounts = jdbcTemplate.batchUpdate(
-                        sql,
-                        new BatchPreparedStatementSetter() {
-                            public void setValues(PreparedStatement ps, int j) throws SQLException {
-                                int i = 1;
-                                Record r = recordXmls2Add.get(j);
-                                r.setMode(Record.STRING_MODE);
-                                ps.setLong(i++, r.getId());
-                                ps.setString(i++, r.getOaiXml());
-                                ps.setString(i++, r.getOaiXml());
-                                if (r.getOaiXml() != null) {
-                                    TimingLogger.add("RECORDS_XML_LENGTH", r.getOaiXml().length());
-                                } else {
-                                    TimingLogger.add("RECORDS_XML_LENGTH", 0);
-                                }
-                            }
-
-                            public int getBatchSize() {
-                                return recordXmls2Add.size();
-                            }
-                        });
-                TimingLogger.stop("RECORDS_XML_TABLE.insert");
-                /*
-                TimingLogger.start("RECORDS_XML_TABLE.fs_insert");
-                try {
-                    OutputStream os = new BufferedOutputStream(new FileOutputStream(
-                            MSTConfiguration.getUrlPath()+"/records/"+recordsToAdd.get(0).getId()+".xml"));
-                    for (Record r : recordsToAdd) {
-                        r.setMode(Record.STRING_MODE);
-                        os.write(r.getOaiXml().getBytes("UTF-8"));
-                    }
-                    os.close();
-                } catch (Throwable t) {
-                    LOG.error("", t);
-                }
-                TimingLogger.stop("RECORDS_XML_TABLE.fs_insert");
-                */
-                TimingLogger.start("RECORDS_SETS_TABLE.insert");
-                sql =
-                        "insert ignore into " + getTableName(name, RECORDS_SETS_TABLE) +
-                                " (record_id, set_id) " +
-                                "values (?,?) " +
-                                ";";
-                updateCounts = jdbcTemplate.batchUpdate(
-                        sql,
-                        new BatchPreparedStatementSetter() {
-                            int recordSetInserts = 0;
-
-                            public void setValues(PreparedStatement ps, int j) throws SQLException {
-                                int k = 0;
-                                Record r = recordsToAdd.get(j);
-                                if (r.getSets() != null && r.getSets().size() > 0) {
-                                    int totalSets = r.getSets().size();
-                                    for (Set s : r.getSets()) {
-                                        int i = 1;
-                                        recordSetInserts++;
-                                        ps.setLong(i++, r.getId());
-                                        ps.setLong(i++, s.getId());
-                                        if (++k < totalSets) {
-                                            ps.addBatch();
-                                        }
-                                    }
-                                } else {
-                                    ps.setObject(++k, null);
-                                    ps.setObject(++k, null);
-                                }
-                            }
+    /**
+     * @return whether a batch handed to commitInBackground() may not have been written yet
+     */
+    public boolean isWriting(String name) {
+        synchronized (writes) {
+            return writes.containsKey(name);
+        }
+    }
 
-                            public int getBatchSize() {
-                                return recordsToAdd.size();
-                            }
-                        });
-                TimingLogger.stop("RECORDS_SETS_TABLE.insert");
-
-                TimingLogger.start("RECORD_PREDECESSORS_TABLE.insert");
-                // TODO: Delete previous predecessors that are no longer there.
-                sql =
-                        "insert ignore into " + getTableName(name, RECORD_PREDECESSORS_TABLE) +
-                                " (record_id, pred_record_id) " +
-                                "values (?,?) " +
-                                ";";
-
-                List<long[]> recordPreds = new ArrayList<long[]>();
-                for (Record r : recordsToAdd) {
-                    if (r.getPredecessors() != null) {
-                        for (RecordIfc p : r.getPredecessors()) {
-                            long[] recPredRow = new long[2];
-                            recPredRow[0] = r.getId();
-                            recPredRow[1] = p.getId();
-                            recordPreds.add(recPredRow);
-                        }
-                    }
+    /**
+     * Waits for the batch handed to commitInBackground() to be written, and rethrows whatever
+     * went wrong writing it. The time spent waiting is kept as db.write.wait; if it's much more
+     * than nothing, the writer isn't keeping up with processing.
+     */
+    public void waitForWrite(String name) {
+        Future<?> write;
+        synchronized (writes) {
+            write = writes.remove(name);
+        }
+        if (write == null) {
+            return;
+        }
+        Timer timer = Metrics.timer("db.write.wait");
+        long start = timer.start();
+        try {
+            write.get();
+        } catch (ExecutionException ee) {
+            getUtil().throwIt(ee.getCause());
+        } catch (InterruptedException ie) {
+            getUtil().throwIt(ie);
+        } finally {
+            timer.stop(start);
+            synchronized (recordsToAdd) {
+                recordsBeingWritten.remove(name);
+            }
+        }
+    }
+
+    protected synchronized ExecutorService getWriter() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "repo-writer");
+                    t.setDaemon(true);
+                    return t;
                 }
-                updateCounts = jdbcTemplate.batchUpdate(
-                        sql,
-                        new RecPredBatchPreparedStatementSetter(recordPreds));
-                TimingLogger.stop("RECORD_PREDECESSORS_TABLE.insert");
-
-                TimingLogger.start("RECORD_OAI_IDS.insert");
-                sql =
-                        "insert ignore into " + getTableName(name, RECORD_OAI_IDS) +
-                                " (record_id, oai_id) " +
-                                "values (?,?) " +
-                                ";";
-                updateCounts = this.jdbcTemplate.execute(sql, new PreparedStatementCallback<int[]>() {
-                    public int[] doInPreparedStatement(PreparedStatement ps)
-                            throws SQLException, DataAccessException {
-                        for (Record r : recordsToAdd) {
-                            if (r.getHarvestedOaiIdentifier() != null) {
-                                ps.setLong(1, r.getId());
-                                ps.setString(2, r.getHarvestedOaiIdentifier());
-                                ps.addBatch();
-                            }
-                        }
-                        return ps.executeBatch();
-                    }
-                });
-                TimingLogger.stop("RECORD_OAI_IDS.insert");
-
-                // I slightly future dating the timestamp of the records so that a record will always
-                // have been available from it's update_date forward. If we don't do this, then it's
-                // possible for harvests to miss records.
-                final long updateTime = System.currentTimeMillis() + (endTime - startTime) + 3000;
-                TimingLogger.start("RECORD_UPDATES_TABLE.insert");
-                sql =
-                        "insert into " + getTableName(name, RECORD_UPDATES_TABLE) +
-                                " (record_id, date_updated) " +
-                                "values (?,?) " +
-                                ";";
-                updateCounts = jdbcTemplate.batchUpdate(
-                        sql,
-                        new BatchPreparedStatementSetter() {
-                            public void setValues(PreparedStatement ps, int j) throws SQLException {
-                                int i = 1;
-                                Record r = recordsToAdd.get(j);
-                                ps.setLong(i++, r.getId());
-                                if (r.getUpdatedAt() == null) {
-                                    ps.setTimestamp(i++, new Timestamp(updateTime));
-                                } else {
-                                    ps.setTimestamp(i++, new Timestamp(r.getUpdatedAt().getTime()));
-                                }
-                            }
+            });
+        }
+        return writer;
+    }
 
-                            public int getBatchSize() {
-                                return recordsToAdd.size();
-                            }
-                        });
-                TimingLogger.stop("RECORD_UPDATES_TABLE.insert");
-                LOG.debug(RECORD_UPDATES_TABLE + " committed: " + new Date());
-                LOG.debug("updateTime: " + new Date(updateTime));
-
-                LOG.debug("processedRecordsCount: " + processedRecordsCount);
-                /****
-                 * Why is this in here? I could maybe understand if you dropped indices *before* the updates (then later re-created them)...
-                ****/
-                LOG.debug("db.numInserts2dropIndexes: " + MSTConfiguration.getInstance().getPropertyAsInt("db.numInserts2dropIndexes", 0));
-                if (processedRecordsCount > MSTConfiguration.getInstance().getPropertyAsInt("db.numInserts2dropIndexes", 0)) {
-                    dropIndices(name);
-                }
+    protected boolean commitIfNecessary(String name, boolean force, long processedRecordsCount) {
+        // LOG.debug("commitIfNecessary:Inbatch : " + inBatch);
+        int batchSize = MSTConfiguration.getInstance().getPropertyAsInt("db.insertsAtOnce", 10000);
+        double memoryPercentageUsed = getMemUsage();
+        final List<Record> recordsToAdd = getRecordsToAdd(name).records;
+        if (isNecessaryToCommit(force, batchSize, memoryPercentageUsed, recordsToAdd)) {
+            // a batch still being written goes in first
+            waitForWrite(name);
+            // LOG.error("beluga commit!!!");
+            TimingLogger.start("commit to db");
+            final long commitStart = Metrics.COMMIT.start();
+            final long startTime = System.currentTimeMillis();
+            if (ready4harvest(name)) {
+                writeRecords(name, recordsToAdd, startTime, processedRecordsCount);
             } else {
+                File dbLoadFile = null;
                 try {
                     LOG.debug("recordsToAdd.size(): " + recordsToAdd.size());
-                    String dbLoadFileStr = (MSTConfiguration.getUrlPath() + "/db_load.in").replace('\\', '/');
+                    dbLoadFile = createLoadFile(name);
+                    String dbLoadFileStr = dbLoadFile.getAbsolutePath().replace('\\', '/');
                     LOG.debug("dbLoadFileStr: " + dbLoadFileStr);
                     SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
                     byte[] startTimeBytes = sdf.format(new Date(startTime)).getBytes();
@@ -598,7 +1142,6 @@ public class RepositoryDAO extends BaseDAO {
                     byte[] nullBytes = "\u0000\n".getBytes();
                     byte[] bellBytes = "\u0000\t".getBytes();
 
-                    File dbLoadFile = new File(dbLoadFileStr);
                     if (dbLoadFile.exists()) {
                         dbLoadFile.delete();
                     }
@@ -646,7 +1189,9 @@ public class RepositoryDAO extends BaseDAO {
                     final List<Record> recordXmls2Add = new ArrayList<Record>();
                     for (Record r : recordsToAdd) {
                         r.setMode(Record.STRING_MODE);
-                        if (!Record.UNCHANGED.equals(r.getOaiXml())) {
+                        // a null payload is a delete, which leaves the stored payload as it was
+                        // (see writeRecords)
+                        if (r.getOaiXml() != null && !Record.UNCHANGED.equals(r.getOaiXml())) {
                             recordXmls2Add.add(r);
                         }
                     }
@@ -654,27 +1199,56 @@ public class RepositoryDAO extends BaseDAO {
                     if (dbLoadFile.exists()) {
                         dbLoadFile.delete();
                     }
+                    final boolean compress = isCompressingXml();
+                    if (compress) {
+                        addCompressedXmlColumns(name);
+                    }
+                    final boolean digestColumn = hasXmlDigestColumn(name);
                     os = new BufferedOutputStream(new FileOutputStream(dbLoadFileStr));
                     i = 0;
                     TimingLogger.start("RECORDS_XML_TABLE.insert");
                     TimingLogger.start("RECORDS_XML_TABLE.insert.create_infile");
-                    for (Record r : recordsToAdd) {
+                    for (Record r : recordXmls2Add) {
                         if (i++ > 0) {
                             os.write(nullBytes);
                         }
                         os.write(String.valueOf(r.getId()).getBytes());
                         os.write(bellBytes);
-                        r.setMode(Record.STRING_MODE);
-                        if (r.getOaiXml() != null)
-                            os.write(String.valueOf(r.getOaiXml()).getBytes("UTF-8"));
+                        if (compress) {
+                            // the deflated bytes could hold the field and line terminators, so
+                            // they're written in hex and unhexed as they're loaded
+                            byte[] compressed = r.getCompressedOaiXml();
+                            if (compressed == null) {
+                                TimingLogger.start("RECORDS_XML_TABLE.compress");
+                                compressed = CompressionUtil.compress(r.getOaiXml());
+                                TimingLogger.stop("RECORDS_XML_TABLE.compress");
+                            }
+                            TimingLogger.add("RECORDS_XML_COMPRESSED_LENGTH", compressed.length);
+                            writeHex(os, compressed);
+                        } else {
+                            os.write(r.getOaiXml().getBytes("UTF-8"));
+                        }
+                        if (digestColumn) {
+                            os.write(bellBytes);
+                            os.write(getUtil().md5(r.getOaiXml()).getBytes());
+                        }
                     }
                     os.close();
                     TimingLogger.stop("RECORDS_XML_TABLE.insert.create_infile");
                     TimingLogger.start("RECORDS_XML_TABLE.insert.load_infile");
+                    // the columns left out are reset to null, as the whole row is replaced
+                    String xmlColumns = null;
+                    if (compress) {
+                        xmlColumns = "(record_id, @xml_compressed" + (digestColumn ? ", xml_md5" : "") + ")" +
+                                " set xml_compressed = unhex(@xml_compressed), compression = '" + DEFLATE_COMPRESSION + "'";
+                    } else {
+                        xmlColumns = "(record_id, xml" + (digestColumn ? ", xml_md5" : "") + ")";
+                    }
                     this.jdbcTemplate.execute(
                             "load data infile '" + dbLoadFileStr + "' REPLACE into table " +
                                     getTableName(name, RECORDS_XML_TABLE) +
-                                    " character set utf8 fields terminated by '\\0\\t' escaped by '' lines terminated by '\\0\\n'"
+                                    " character set utf8 fields terminated by '\\0\\t' escaped by '' lines terminated by '\\0\\n' " +
+                                    xmlColumns
                             );
                     TimingLogger.stop("RECORDS_XML_TABLE.insert.load_infile");
                     TimingLogger.stop("RECORDS_XML_TABLE.insert");
@@ -806,14 +1380,29 @@ public class RepositoryDAO extends BaseDAO {
                     TimingLogger.stop("RECORDS_UPDATES_TABLE.insert.load_infile");
                     TimingLogger.stop("RECORD_UPDATES_TABLE.insert");
 
+                    if (hasChangeLog(name)) {
+                        // a first load, so everything is new
+                        TLongHashSet changedIds = new TLongHashSet();
+                        for (Record r : recordsToAdd) {
+                            changedIds.add(r.getId());
+                        }
+                        logChanges(name, changedIds);
+                    }
                 } catch (Throwable t) {
                     getUtil().throwIt(t);
+                } finally {
+                    if (dbLoadFile != null) {
+                        dbLoadFile.delete();
+                    }
                 }
             }
 
-            recordsToAdd = new ArrayList<Record>();
-            recordsToAddInx = new HashMap<Long, Record>();
+            synchronized (this.recordsToAdd) {
+                this.recordsToAdd.remove(name);
+            }
 
+            Metrics.COMMIT.stop(commitStart);
+            Metrics.COMMIT_RECORDS.add(recordsToAdd.size());
             TimingLogger.stop("commit to db");
             if (force) {
                 inBatch = false;
@@ -824,6 +1413,215 @@ public class RepositoryDAO extends BaseDAO {
         }
     }
 
+    /**
+     * Writes a batch of records (and their xml, sets, predecessors, oai ids and updates) to a
+     * repository which has had its first load.
+     */
+    protected void writeRecords(String name, List<Record> recordsToAdd, long startTime, long processedRecordsCount) {
+        synchronized (getRecordCountsLock(name)) {
+            RecordCountDeltas countDeltas = null;
+            if (hasRecordCounts(name)) {
+                countDeltas = getRecordCountDeltas(name, recordsToAdd);
+            }
+            writeRecordRows(name, recordsToAdd, startTime, processedRecordsCount);
+            if (countDeltas != null) {
+                writeRecordCounts(name, countDeltas);
+            }
+        }
+    }
+
+    protected void writeRecordRows(String name, List<Record> recordsToAdd, long startTime, long processedRecordsCount) {
+        final String strategy = BulkWriter.getStrategy(recordsToAdd.size());
+        List<BulkWriter> writers = new ArrayList<BulkWriter>();
+        Timestamp startTimestamp = new Timestamp(startTime);
+
+        TimingLogger.start("RECORDS_TABLE.insert");
+        BulkWriter recordRows = new BulkWriter(jdbcTemplate, getTableName(name, RECORDS_TABLE), RECORDS_TABLE,
+                BulkWriter.REPLACE, "record_id", "oai_datestamp", "type", "status", "prev_status", "format_id");
+        for (Record r : recordsToAdd) {
+            recordRows.add(
+                    r.getId(),
+                    getTimestamp(r.getOaiDatestamp(), startTimestamp),
+                    r.getType() != null && r.getType().length() > 0 ? getString(r.getType().charAt(0)) : null,
+                    getString(r.getStatus()),
+                    getString(r.getPreviousStatus()),
+                    r.getFormat() == null ? null : r.getFormat().getId());
+        }
+        recordRows.write(strategy);
+        writers.add(recordRows);
+        TimingLogger.stop("RECORDS_TABLE.insert");
+        final long endTime = System.currentTimeMillis();
+
+        final boolean compress = isCompressingXml();
+        final List<Record> recordXmls2Add = new ArrayList<Record>();
+        for (Record r : recordsToAdd) {
+            r.setMode(Record.STRING_MODE);
+            if (r.getCompressedOaiXml() != null) {
+                // still exactly what was read from the db, no need to inflate it to find that out;
+                // it's only written again, inflated, if payloads are no longer to be compressed
+                if (!compress) {
+                    recordXmls2Add.add(r);
+                }
+            } else if (!Record.UNCHANGED.equals(r.getOaiXml())) {
+            	// If it's changed and the XML (payload) is null,
+            	// this means it's a DELETE.
+            	// Let's *NOT* update the records_xml table, because
+            	// I want to keep the payload information intact.
+            	if (r.getOaiXml() != null) {
+            		recordXmls2Add.add(r);
+            	}
+            }
+        }
+
+        // this has to be worked out before the xml and sets are written over
+        TLongHashSet changedIds = null;
+        final TLongObjectHashMap<String> digests = new TLongObjectHashMap<String>();
+        if (hasChangeLog(name)) {
+            addXmlDigestColumn(name);
+            changedIds = getChangedIds(name, recordsToAdd, recordXmls2Add, digests);
+        }
+
+        TimingLogger.start("RECORDS_XML_TABLE.insert");
+        if (compress) {
+            addCompressedXmlColumns(name);
+        }
+        // every column is written so a payload that changes format doesn't leave the old one (or
+        // its digest) behind
+        final boolean compressedColumns = hasCompressedXmlColumns(name);
+        final boolean digestColumn = hasXmlDigestColumn(name);
+        List<String> xmlColumns = new ArrayList<String>();
+        xmlColumns.add("record_id");
+        xmlColumns.add("xml");
+        if (compressedColumns) {
+            xmlColumns.add("xml_compressed");
+            xmlColumns.add("compression");
+        }
+        if (digestColumn) {
+            xmlColumns.add("xml_md5");
+        }
+        BulkWriter xmlRows = new BulkWriter(jdbcTemplate, getTableName(name, RECORDS_XML_TABLE), RECORDS_XML_TABLE,
+                BulkWriter.REPLACE, xmlColumns.toArray(new String[xmlColumns.size()]));
+        for (Record r : recordXmls2Add) {
+            Object[] row = new Object[xmlColumns.size()];
+            row[0] = r.getId();
+            if (compress) {
+                TimingLogger.start("RECORDS_XML_TABLE.compress");
+                byte[] compressed = CompressionUtil.compress(r.getOaiXml());
+                TimingLogger.stop("RECORDS_XML_TABLE.compress");
+                TimingLogger.add("RECORDS_XML_COMPRESSED_LENGTH", compressed.length);
+                row[2] = compressed;
+                row[3] = DEFLATE_COMPRESSION;
+            } else {
+                String xml = r.getOaiXml();
+                TimingLogger.add("RECORDS_XML_LENGTH", xml == null ? 0 : xml.length());
+                row[1] = xml;
+            }
+            if (digestColumn) {
+                String digest = digests.get(r.getId());
+                if (digest == null && r.getOaiXml() != null) {
+                    digest = getUtil().md5(r.getOaiXml());
+                }
+                row[row.length - 1] = digest;
+            }
+            xmlRows.add(row);
+        }
+        xmlRows.write(strategy);
+        writers.add(xmlRows);
+        TimingLogger.stop("RECORDS_XML_TABLE.insert");
+        /*
+        TimingLogger.start("RECORDS_XML_TABLE.fs_insert");
+        try {
+            OutputStream os = new BufferedOutputStream(new FileOutputStream(
+                    MSTConfiguration.getUrlPath()+"/records/"+recordsToAdd.get(0).getId()+".xml"));
+            for (Record r : recordsToAdd) {
+                r.setMode(Record.STRING_MODE);
+                os.write(r.getOaiXml().getBytes("UTF-8"));
+            }
+            os.close();
+        } catch (Throwable t) {
+            LOG.error("", t);
+        }
+        TimingLogger.stop("RECORDS_XML_TABLE.fs_insert");
+        */
+        TimingLogger.start("RECORDS_SETS_TABLE.insert");
+        BulkWriter setRows = new BulkWriter(jdbcTemplate, getTableName(name, RECORDS_SETS_TABLE), RECORDS_SETS_TABLE,
+                BulkWriter.IGNORE, "record_id", "set_id");
+        for (Record r : recordsToAdd) {
+            if (r.getSets() != null) {
+                for (Set s : r.getSets()) {
+                    setRows.add(r.getId(), s.getId());
+                }
+            }
+        }
+        setRows.write(strategy);
+        writers.add(setRows);
+        TimingLogger.stop("RECORDS_SETS_TABLE.insert");
+
+        TimingLogger.start("RECORD_PREDECESSORS_TABLE.insert");
+        // TODO: Delete previous predecessors that are no longer there.
+        BulkWriter predRows = new BulkWriter(jdbcTemplate, getTableName(name, RECORD_PREDECESSORS_TABLE), RECORD_PREDECESSORS_TABLE,
+                BulkWriter.IGNORE, "record_id", "pred_record_id");
+        for (Record r : recordsToAdd) {
+            if (r.getPredecessors() != null) {
+                for (RecordIfc p : r.getPredecessors()) {
+                    predRows.add(r.getId(), p.getId());
+                }
+            }
+        }
+        predRows.write(strategy);
+        writers.add(predRows);
+        TimingLogger.stop("RECORD_PREDECESSORS_TABLE.insert");
+
+        TimingLogger.start("RECORD_OAI_IDS.insert");
+        BulkWriter oaiIdRows = new BulkWriter(jdbcTemplate, getTableName(name, RECORD_OAI_IDS), RECORD_OAI_IDS,
+                BulkWriter.IGNORE, "record_id", "oai_id");
+        for (Record r : recordsToAdd) {
+            if (r.getHarvestedOaiIdentifier() != null) {
+                oaiIdRows.add(r.getId(), r.getHarvestedOaiIdentifier());
+            }
+        }
+        oaiIdRows.write(strategy);
+        writers.add(oaiIdRows);
+        TimingLogger.stop("RECORD_OAI_IDS.insert");
+
+        // I slightly future dating the timestamp of the records so that a record will always
+        // have been available from it's update_date forward. If we don't do this, then it's
+        // possible for harvests to miss records.
+        final long updateTime = System.currentTimeMillis() + (endTime - startTime) + 3000;
+        Timestamp updateTimestamp = new Timestamp(updateTime);
+        TimingLogger.start("RECORD_UPDATES_TABLE.insert");
+        BulkWriter updateRows = new BulkWriter(jdbcTemplate, getTableName(name, RECORD_UPDATES_TABLE), RECORD_UPDATES_TABLE,
+                BulkWriter.INSERT, "record_id", "date_updated");
+        for (Record r : recordsToAdd) {
+            updateRows.add(r.getId(), getTimestamp(r.getUpdatedAt(), updateTimestamp));
+        }
+        updateRows.write(strategy);
+        writers.add(updateRows);
+        TimingLogger.stop("RECORD_UPDATES_TABLE.insert");
+        LOG.debug(RECORD_UPDATES_TABLE + " committed: " + new Date());
+        if (changedIds != null) {
+            logChanges(name, changedIds);
+        }
+        LOG.debug("updateTime: " + new Date(updateTime));
+
+        StringBuilder report = new StringBuilder();
+        report.append("committed ").append(recordsToAdd.size()).append(" records to ").append(name)
+                .append(" (").append(strategy).append(")");
+        for (BulkWriter w : writers) {
+            report.append(", ").append(w.getReport());
+        }
+        LOG.info(report);
+
+        LOG.debug("processedRecordsCount: " + processedRecordsCount);
+        /****
+         * Why is this in here? I could maybe understand if you dropped indices *before* the updates (then later re-created them)...
+        ****/
+        LOG.debug("db.numInserts2dropIndexes: " + MSTConfiguration.getInstance().getPropertyAsInt("db.numInserts2dropIndexes", 0));
+        if (processedRecordsCount > MSTConfiguration.getInstance().getPropertyAsInt("db.numInserts2dropIndexes", 0)) {
+            dropIndices(name);
+        }
+    }
+
     public Long getRecordId(String repoName, String oaiId) {
         String sql = "select record_id from " + getTableName(repoName, RECORD_OAI_IDS) + " where oai_id = ?";
         Long recordId = null;
@@ -911,26 +1709,6 @@ public class RepositoryDAO extends BaseDAO {
         TimingLogger.stop("populatePreviousStatuses");
     }
 
-    private final static class RecPredBatchPreparedStatementSetter implements BatchPreparedStatementSetter {
-        protected List<long[]> recPreds = null;
-
-        public RecPredBatchPreparedStatementSetter(List<long[]> recPreds) {
-            this.recPreds = recPreds;
-        }
-
-        public void setValues(PreparedStatement ps, int j) throws SQLException {
-            int i = 1;
-            // LOG.debug("this.recPreds.get("+j+")[0]: "+this.recPreds.get(j)[0]);
-            ps.setLong(i++, this.recPreds.get(j)[0]);
-            // LOG.debug("this.recPreds.get("+j+")[1]: "+this.recPreds.get(j)[1]);
-            ps.setLong(i++, this.recPreds.get(j)[1]);
-        }
-
-        public int getBatchSize() {
-            return this.recPreds.size();
-        }
-    }
-
     private final static class RecMessageBatchPreparedStatementSetter implements BatchPreparedStatementSetter {
         protected List<Object[]> recMessages = null;
 
@@ -1010,9 +1788,11 @@ public class RepositoryDAO extends BaseDAO {
         this.jdbcTemplate.update(
                 "delete from " + REPOS_TABLE + " where repo_name = ? ", getUtil().getDBSchema(name));
         deleteSchema(getUtil().getDBSchema(name));
+        compressedXmlColumns.remove(name);
     }
 
     public void createTables(Repository repo) {
+        compressedXmlColumns.remove(repo.getName());
         runSql(repo, "xc/mst/repo/sql/create_repo.sql");
         if (repo.getProvider() != null) {
 			runSql(repo, "xc/mst/repo/sql/create_harvest_repo.sql");
@@ -1041,7 +1821,7 @@ public class RepositoryDAO extends BaseDAO {
     public Record getRecord(String name, long id) {
         String sql =
                 "select " + RECORDS_TABLE_COLUMNS +
-                        ", x.xml, " + " max(u.date_updated) as date_updated " +
+                        ", " + getXmlColumns(name) + ", max(u.date_updated) as date_updated " +
                         "from " + getTableName(name, RECORDS_TABLE) + " r, " +
                         getTableName(name, RECORDS_XML_TABLE) + " x, " +
                         getTableName(name, RECORD_UPDATES_TABLE) + " u " +
@@ -1052,7 +1832,8 @@ public class RepositoryDAO extends BaseDAO {
         Record r = null;
         try {
             r = this.jdbcTemplate.queryForObject(sql,
-                    new RecordMapper(new String[] { RECORDS_TABLE, RECORDS_XML_TABLE, RECORD_UPDATES_TABLE }, this),
+                    new RecordMapper(new String[] { RECORDS_TABLE, RECORDS_XML_TABLE, RECORD_UPDATES_TABLE }, this,
+                            hasCompressedXmlColumns(name)),
                     id);
         } catch (EmptyResultDataAccessException e) {
             // LOG.info("record not found for id: "+id);
@@ -1061,6 +1842,62 @@ public class RepositoryDAO extends BaseDAO {
         return r;
     }
 
+    /**
+     * Loads the records' rows, without their xml, sets or updates, in one query per
+     * IN_CLAUSE_SIZE ids. Ids which aren't in this repo are left out.
+     */
+    public List<Record> getRecordsWithoutXml(String name, List<Long> ids) {
+        List<Record> records = new ArrayList<Record>();
+        RecordMapper mapper = new RecordMapper(new String[] { RECORDS_TABLE }, this);
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_SIZE, ids.size()));
+            records.addAll(this.jdbcTemplate.query(
+                    "select " + RECORDS_TABLE_COLUMNS +
+                            "from " + getTableName(name, RECORDS_TABLE) + " r " +
+                            "where r.record_id in (" + getPlaceholders(chunk.size()) + ")",
+                    chunk.toArray(), mapper));
+        }
+        return records;
+    }
+
+    /**
+     * @return record id -> the ids of its predecessors, for those of the records with any
+     */
+    public Map<Long, List<Long>> getPredecessorIds(String name, List<Long> ids) {
+        return getLinks(name, "record_id", "pred_record_id", ids);
+    }
+
+    /**
+     * @return predecessor id -> the ids of the records in this repo it was processed into, for
+     *         those of the predecessors with any
+     */
+    public Map<Long, List<Long>> getSuccessorIds(String name, List<Long> predIds) {
+        return getLinks(name, "pred_record_id", "record_id", predIds);
+    }
+
+    protected Map<Long, List<Long>> getLinks(String name, String fromColumn, String toColumn, List<Long> ids) {
+        final Map<Long, List<Long>> links = new HashMap<Long, List<Long>>();
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_SIZE, ids.size()));
+            this.jdbcTemplate.query(
+                    "select " + fromColumn + ", " + toColumn +
+                            " from " + getTableName(name, RECORD_PREDECESSORS_TABLE) +
+                            " where " + fromColumn + " in (" + getPlaceholders(chunk.size()) + ")",
+                    chunk.toArray(),
+                    new RowCallbackHandler() {
+                        public void processRow(ResultSet rs) throws SQLException {
+                            List<Long> to = links.get(rs.getLong(1));
+                            if (to == null) {
+                                to = new ArrayList<Long>();
+                                links.put(rs.getLong(1), to);
+                            }
+                            to.add(rs.getLong(2));
+                        }
+                    });
+        }
+        return links;
+    }
+
     public void injectHarvestInfo(String name, Record r) {
         String sql = "select oai_id from " + getTableName(name, RECORD_OAI_IDS) + " where record_id = ?";
         r.setHarvestedOaiIdentifier(this.jdbcTemplate.queryForObject(sql, String.class, (Long) r.getId()));
@@ -1160,15 +1997,34 @@ public class RepositoryDAO extends BaseDAO {
         return getRecords(name, from, until, startingId, inputFormat, inputSet, new char[] { Record.ACTIVE, Record.DELETED });
     }
 
-    @SuppressWarnings("unchecked")
     public List<Record> getRecords(String name, Date from, Date until,
             Long startingId, Format inputFormat, Set inputSet, char[] statuses) {
+        return getRecords(name, from, until, startingId, inputFormat, inputSet, statuses, true);
+    }
+
+    /**
+     * @param withXml
+     *            if false, records_xml isn't read at all and the records come back without their
+     *            payload (eg for ListIdentifiers)
+     */
+    public List<Record> getRecords(String name, Date from, Date until,
+            Long startingId, Format inputFormat, Set inputSet, char[] statuses, boolean withXml) {
+        return getRecords(name, from, until, startingId, inputFormat, inputSet, statuses, withXml, false);
+    }
+
+    /**
+     * @param changedOnly
+     *            if true, only the records in record_changes are returned
+     */
+    @SuppressWarnings("unchecked")
+    protected List<Record> getRecords(String name, Date from, Date until,
+            Long startingId, Format inputFormat, Set inputSet, char[] statuses, boolean withXml, boolean changedOnly) {
         long t0 = System.currentTimeMillis();
         List<Object> params = new ArrayList<Object>();
         if (until == null) {
             until = new Date();
         }
-        if (startingId == null) {
+        if (startingId == null && !changedOnly) {
             StringBuilder sb = new StringBuilder();
             sb.append("select straight_join 1 ")
                     .append(" from ").append(getTableName(name, RECORD_UPDATES_TABLE)).append(" u force index (idx_record_updates_date_updated) , ")
@@ -1184,24 +2040,29 @@ public class RepositoryDAO extends BaseDAO {
         StringBuilder sb = new StringBuilder();
         sb.append(
                 " select straight_join " + RECORDS_TABLE_COLUMNS +
-                        " , x.xml, " + " max(u.date_updated) as date_updated " +
+                        (withXml ? " , " + getXmlColumns(name) : "") + ", max(u.date_updated) as date_updated " +
                         " from ");
+        if (changedOnly) {
+            sb.append(getTableName(name, RECORD_CHANGES_TABLE) + " c, ");
+        }
         sb.append(getTableName(name, RECORD_UPDATES_TABLE) + " u force index (idx_record_updates_record_id)");
         sb.append(", ");
         sb.append(getTableName(name, RECORDS_TABLE) + " r ");
         if (inputFormat != null) {
             sb.append("IGNORE index (idx_records_format_id) ");
         }
-        sb.append(", ");
-        sb.append(getTableName(name, RECORDS_XML_TABLE) + " x ");
+        if (withXml) {
+            sb.append(", ");
+            sb.append(getTableName(name, RECORDS_XML_TABLE) + " x ");
+        }
 
         if (inputSet != null) {
             sb.append(
                     ", " + getTableName(name, RECORDS_SETS_TABLE) + " rs ignore index (idx_" + RECORDS_SETS_TABLE + "_set_id) ");
         }
         sb.append(
-                " where r.record_id = x.record_id " +
-                        " and (r.record_id > ? or ? is null) " +
+                " where " + (withXml ? "r.record_id = x.record_id and " : "") +
+                        " (r.record_id > ? or ? is null) " +
                         " and r.record_id = u.record_id " +
                         " and (u.date_updated >= ? or ? is null) " +
                         " and u.date_updated <= ?  "
@@ -1226,6 +2087,13 @@ public class RepositoryDAO extends BaseDAO {
                             " and rs.set_id = ? ");
             params.add(inputSet.getId());
         }
+        if (changedOnly) {
+            sb.append(
+                    " and u.record_id = c.record_id " +
+                            " and (c.record_id > ? or ? is null) ");
+            params.add(startingId);
+            params.add(startingId);
+        }
         sb.append(
                 " group by u.record_id " +
                         " order by u.record_id " +
@@ -1243,8 +2111,11 @@ public class RepositoryDAO extends BaseDAO {
             LOG.error("inputSet: "+inputSet);
             LOG.error("inputFormat: "+inputFormat);
             */
+            String[] tables = withXml ?
+                    new String[] { RECORDS_TABLE, RECORDS_XML_TABLE, RECORD_UPDATES_TABLE } :
+                    new String[] { RECORDS_TABLE, RECORD_UPDATES_TABLE };
             records = this.jdbcTemplate.query(sb.toString(), obj,
-                    new RecordMapper(new String[] { RECORDS_TABLE, RECORDS_XML_TABLE, RECORD_UPDATES_TABLE }, this));
+                    new RecordMapper(tables, this, withXml && hasCompressedXmlColumns(name)));
         } catch (EmptyResultDataAccessException e) {
             LOG.info("no records found for from: " + from + " until: " + until + " startingId: " + startingId + " format:" + inputFormat + " inputSet:" + inputSet);
         }
@@ -1366,6 +2237,13 @@ public class RepositoryDAO extends BaseDAO {
     public long getRecordCount(String name, Date from, Date until,
             Format inputFormat, Set inputSet, boolean force) {
 
+        if (Util.dateIsNull(from)) {
+            Long activeRecords = getActiveRecordCount(name, until, inputFormat, inputSet);
+            if (activeRecords != null) {
+                lastCompleteListSizeMethod = 4;
+                return activeRecords;
+            }
+        }
     	
     	force = true; /****** COMPLEXITY I do not like the inconsistent results coming from of all this complexity. Just "force" a complete count! For now, I'm going to enclose all the complexity within long asterisk comment; eventually, we should just remove it all. 
         
@@ -1562,6 +2440,35 @@ public class RepositoryDAO extends BaseDAO {
         
     }
 
+    /**
+     * @return the number of active records in the format and set, looked up in record_counts, or
+     *         null if the repo has been written to since until, in which case some of them
+     *         mightn't count
+     */
+    protected Long getActiveRecordCount(String name, Date until, Format inputFormat, Set inputSet) {
+        if (!hasRecordCounts(name)) {
+            createRecordCounts(name);
+        }
+        if (until != null) {
+            Date lastUpdated = this.jdbcTemplate.queryForObject(
+                    "select max(date_updated) from " + getTableName(name, RECORD_UPDATES_TABLE), Date.class);
+            if (lastUpdated != null && lastUpdated.after(until)) {
+                return null;
+            }
+        }
+        List<Object> params = new ArrayList<Object>();
+        StringBuilder sb = new StringBuilder();
+        sb.append("select ifnull(sum(records), 0) from " + getTableName(name, RECORD_COUNTS_TABLE) +
+                " where status = ? and set_id = ?");
+        params.add(getString(Record.ACTIVE));
+        params.add(inputSet == null ? 0 : inputSet.getId());
+        if (inputFormat != null) {
+            sb.append(" and format_id = ?");
+            params.add(inputFormat.getId());
+        }
+        return this.jdbcTemplate.queryForLong(sb.toString(), params.toArray());
+    }
+
     public List<Set> getSets(String repoName, long recordId) {
         List<Set> sets = new ArrayList<Set>();
         List<Map<String, Object>> rows = this.jdbcTemplate.queryForList(
@@ -1584,12 +2491,35 @@ public class RepositoryDAO extends BaseDAO {
 
     public List<Record> getRecordsWSets(String name, Date from, Date until,
             Long startingId, Format inputFormat, Set inputSet, char[] statuses) {
+        return getRecordsWSets(name, from, until, startingId, inputFormat, inputSet, statuses, true);
+    }
+
+    public List<Record> getRecordsWSets(String name, Date from, Date until,
+            Long startingId, Format inputFormat, Set inputSet, char[] statuses, boolean withXml) {
+        return getRecordsWSets(name, from, until, startingId, inputFormat, inputSet, statuses, withXml, false);
+    }
+
+    /**
+     * @return the next of the records queued in record_changes (see logChanges) after startingId,
+     *         whatever their dates
+     */
+    public List<Record> getChangedRecordsWSets(String name, Long startingId) {
+        return getRecordsWSets(name, null, null, startingId, null, null, null, true, true);
+    }
+
+    protected List<Record> getRecordsWSets(String name, Date from, Date until,
+            Long startingId, Format inputFormat, Set inputSet, char[] statuses, boolean withXml, boolean changedOnly) {
         List<Object> params = new ArrayList<Object>();
         if (until == null) {
             until = new Date();
         }
+        // the records with sets and messages are looked for between the first and last record
+        // found, and in record_changes too if that's where the records came from, as the records
+        // changed may be few and far between
+        String changes = changedOnly ? getTableName(name, RECORD_CHANGES_TABLE) + " c, " : "";
+        String changesJoin = changedOnly ? " and c.record_id = u.record_id " : "";
 
-        List<Record> records = getRecords(name, from, until, startingId, inputFormat, inputSet, statuses);
+        List<Record> records = getRecords(name, from, until, startingId, inputFormat, inputSet, statuses, withXml, changedOnly);
         if (records != null && records.size() > 0) {
             Long highestId = records.get(records.size() - 1).getId();
             startingId = records.get(0).getId();
@@ -1599,10 +2529,11 @@ public class RepositoryDAO extends BaseDAO {
                             "s.set_id, " +
                             "s.set_spec, " +
                             "s.display_name " +
-                            " from " + getTableName(name, RECORD_UPDATES_TABLE) + " u force index (idx_record_updates_record_id), " +
+                            " from " + changes + getTableName(name, RECORD_UPDATES_TABLE) + " u force index (idx_record_updates_record_id), " +
                             getTableName(name, RECORDS_SETS_TABLE) + " rs, " +
                             " sets s " +
                             " where rs.record_id = u.record_id " +
+                            changesJoin +
                             " and rs.set_id = s.set_id " +
                             " and (rs.record_id >= ? or ? is null) " +
                             " and rs.record_id <= ? " +
@@ -1649,6 +2580,10 @@ public class RepositoryDAO extends BaseDAO {
                         // LOG.debug("recIdx: "+recIdx);
                         currentRecord = records.get(++recIdx);
                     }
+                    // a record between two of those found which wasn't found itself
+                    if (rws.getId() != currentRecord.getId()) {
+                        continue;
+                    }
                     currentRecord.addSet(rws.getSets().get(0));
                 }
             } catch (EmptyResultDataAccessException e) {
@@ -1663,10 +2598,11 @@ public class RepositoryDAO extends BaseDAO {
                             "m.msg_level, " +
                             "m.service_id, " +
                             "md.detail " +
-                            " from " + getTableName(name, RECORD_UPDATES_TABLE) + " u " +
+                            " from " + changes + getTableName(name, RECORD_UPDATES_TABLE) + " u " +
                             " inner join (" + MessageDAO.MESSAGES_TABLE + " m) on (m.record_id=u.record_id) " +
                             " left outer join (" + MessageDAO.MESSAGE_DETAILS_TABLE + " md) on (m.record_message_id=md.record_message_id) " +
                             " where (u.record_id >= ? or ? is null) " +
+                            changesJoin +
                             " and u.record_id <= ? " +
                             " and (u.date_updated >= ? or ? is null) " +
                             " and u.date_updated <= ? " +
@@ -1700,6 +2636,9 @@ public class RepositoryDAO extends BaseDAO {
                     while (rws.getId() > currentRecord.getId()) {
                         currentRecord = records.get(++recIdx);
                     }
+                    if (rws.getId() != currentRecord.getId()) {
+                        continue;
+                    }
                     currentRecord.addMessage(rws.getMessages().get(0));
                 }
             } catch (EmptyResultDataAccessException e) {
@@ -1844,15 +2783,13 @@ public class RepositoryDAO extends BaseDAO {
     }
 
     public void persistPreviousStatuses(String repoName, TLongByteHashMap previousStatuses) {
+        File dbLoadFile = null;
         try {
-            String dbLoadFileStr = (MSTConfiguration.getUrlPath() + "/db_load.in").replace('\\', '/');
+            dbLoadFile = createLoadFile(repoName);
+            String dbLoadFileStr = dbLoadFile.getAbsolutePath().replace('\\', '/');
             byte[] tabBytes = "\t".getBytes();
             byte[] newLineBytes = "\n".getBytes();
 
-            File dbLoadFile = new File(dbLoadFileStr);
-            if (dbLoadFile.exists()) {
-                dbLoadFile.delete();
-            }
             OutputStream os = new BufferedOutputStream(new FileOutputStream(dbLoadFileStr));
             int i = 0;
             TimingLogger.start(PREV_INCOMING_RECORD_STATUSES + ".insert");
@@ -1877,9 +2814,23 @@ public class RepositoryDAO extends BaseDAO {
             TimingLogger.stop(PREV_INCOMING_RECORD_STATUSES + ".insert");
         } catch (Throwable t) {
             throw new RuntimeException(t);
+        } finally {
+            if (dbLoadFile != null) {
+                dbLoadFile.delete();
+            }
         }
     }
 
+    /**
+     * @return a new, empty file to load data infile from, of the caller's own, so that jobs
+     *         writing to other repos at the same time (see Scheduler) can't write over it. It's
+     *         made in the MST folder, where the database server can read it; delete it when done.
+     */
+    protected File createLoadFile(String name) throws IOException {
+        return File.createTempFile("db_load_" + getUtil().getDBSchema(name) + "_", ".in",
+                new File(MSTConfiguration.getUrlPath()));
+    }
+
 /*
  * This method determines whether or not a holdings record's links (to its referenced bib -- either the MARC 004 or 014) are present and active.
  * This is useful to know in decided when/if to activate a previously "held" holdings record.
@@ -1936,81 +2887,122 @@ public class RepositoryDAO extends BaseDAO {
     
     public void activateRecords(String name, final TLongHashSet recordIds) {
         if (recordIds.size() > 0) {
-            long startTime = System.currentTimeMillis();
-            TimingLogger.start("activateRecords");
-            String sql = "update " + getTableName(name, RepositoryDAO.RECORDS_TABLE) +
-                    " set status='" + Record.ACTIVE + "', prev_status=status "+ // in future may need flex. to pass in prev_status;true today though
-                    " where record_id = ?";
-            final TLongIterator it = recordIds.iterator();
-            int[] updateCount = jdbcTemplate.batchUpdate(
-                    sql,
-                    new BatchPreparedStatementSetter() {
-                        public void setValues(PreparedStatement ps, int j) throws SQLException {
-                            ps.setLong(1, it.next());
-                        }
-
-                        public int getBatchSize() {
-                            return recordIds.size();
-                        }
-                    });
-            TimingLogger.stop("activateRecords");
-            long endTime = System.currentTimeMillis();
-            final long updateTime = System.currentTimeMillis() + (endTime - startTime) + 3000;
-            final TLongIterator it2 = recordIds.iterator();
-            TimingLogger.start("RECORD_UPDATES_TABLE.insert");
-            sql =
-                    "insert into " + getTableName(name, RECORD_UPDATES_TABLE) +
-                            " (record_id, date_updated) " +
-                            "values (?,?) " +
-                            ";";
-            jdbcTemplate.batchUpdate(
-                    sql,
-                    new BatchPreparedStatementSetter() {
-                        public void setValues(PreparedStatement ps, int j) throws SQLException {
-                            int i = 1;
-                            ps.setLong(i++, it2.next());
-                            ps.setTimestamp(i++, new Timestamp(updateTime));
-                        }
-
-                        public int getBatchSize() {
-                            return recordIds.size();
-                        }
-                    });
-            TimingLogger.stop("RECORD_UPDATES_TABLE.insert");
+            synchronized (getRecordCountsLock(name)) {
+                RecordCountDeltas countDeltas = null;
+                if (hasRecordCounts(name)) {
+                    countDeltas = getStatusChangeDeltas(name, recordIds.toArray(), Record.ACTIVE, 1);
+                }
+                activateRecordRows(name, recordIds);
+                if (countDeltas != null) {
+                    writeRecordCounts(name, countDeltas);
+                }
+            }
         } else {
             LOG.debug("linkedToIds is null or empty");
         }
     }
 
+    protected void activateRecordRows(String name, final TLongHashSet recordIds) {
+        long startTime = System.currentTimeMillis();
+        TimingLogger.start("activateRecords");
+        String sql = "update " + getTableName(name, RepositoryDAO.RECORDS_TABLE) +
+                " set status='" + Record.ACTIVE + "', prev_status=status "+ // in future may need flex. to pass in prev_status;true today though
+                " where record_id = ?";
+        final TLongIterator it = recordIds.iterator();
+        int[] updateCount = jdbcTemplate.batchUpdate(
+                sql,
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        ps.setLong(1, it.next());
+                    }
+
+                    public int getBatchSize() {
+                        return recordIds.size();
+                    }
+                });
+        TimingLogger.stop("activateRecords");
+        long endTime = System.currentTimeMillis();
+        final long updateTime = System.currentTimeMillis() + (endTime - startTime) + 3000;
+        final TLongIterator it2 = recordIds.iterator();
+        TimingLogger.start("RECORD_UPDATES_TABLE.insert");
+        sql =
+                "insert into " + getTableName(name, RECORD_UPDATES_TABLE) +
+                        " (record_id, date_updated) " +
+                        "values (?,?) " +
+                        ";";
+        jdbcTemplate.batchUpdate(
+                sql,
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        int i = 1;
+                        ps.setLong(i++, it2.next());
+                        ps.setTimestamp(i++, new Timestamp(updateTime));
+                    }
+
+                    public int getBatchSize() {
+                        return recordIds.size();
+                    }
+                });
+        TimingLogger.stop("RECORD_UPDATES_TABLE.insert");
+        if (hasChangeLog(name)) {
+            logChanges(name, recordIds);
+        }
+    }
+
     public void activateLinkedRecords(String name, final TLongArrayList linkedToIds) {
         if (linkedToIds.size() > 0) {
-            TimingLogger.start("activateHeldHoldings");
-            StringBuilder sb = new StringBuilder("update " + getTableName(name, RepositoryDAO.RECORDS_TABLE) +
-                    " set status='" + Record.ACTIVE + "'" +
-                    " where record_id in (select from_record_id from links where to_record_id in (");
-            for (int i = 0; i < linkedToIds.size(); i++) {
-                sb.append("?");
-                if (i + 1 < linkedToIds.size()) {
-                    sb.append(", ");
+            synchronized (getRecordCountsLock(name)) {
+                RecordCountDeltas countDeltas = null;
+                if (hasRecordCounts(name)) {
+                    Object[] params = new Object[linkedToIds.size()];
+                    for (int i = 0; i < params.length; i++) {
+                        params[i] = linkedToIds.get(i);
+                    }
+                    // the records the update below will activate
+                    List<Long> ids = jdbcTemplate.queryForList(
+                            "select from_record_id from links where to_record_id in (" + getPlaceholders(params.length) + ")",
+                            params, Long.class);
+                    long[] recordIds = new long[ids.size()];
+                    for (int i = 0; i < recordIds.length; i++) {
+                        recordIds[i] = ids.get(i);
+                    }
+                    countDeltas = getStatusChangeDeltas(name, recordIds, Record.ACTIVE, 0);
+                }
+                activateLinkedRecordRows(name, linkedToIds);
+                if (countDeltas != null) {
+                    writeRecordCounts(name, countDeltas);
                 }
             }
-            sb.append("))");
-            LOG.debug("sb.toString(): " + sb.toString());
-
-            int updateCount = jdbcTemplate.update(
-                    sb.toString(), new PreparedStatementSetter() {
-                        public void setValues(PreparedStatement ps) throws SQLException {
-                            for (int i = 0; i < linkedToIds.size(); i++) {
-                                ps.setLong(i + 1, linkedToIds.get(i));
-                            }
-                        }
-                    });
-            TimingLogger.stop("activateHeldHoldings");
         } else {
             LOG.debug("linkedToIds is null or empty");
         }
     }
 
+    protected void activateLinkedRecordRows(String name, final TLongArrayList linkedToIds) {
+        TimingLogger.start("activateHeldHoldings");
+        StringBuilder sb = new StringBuilder("update " + getTableName(name, RepositoryDAO.RECORDS_TABLE) +
+                " set status='" + Record.ACTIVE + "'" +
+                " where record_id in (select from_record_id from links where to_record_id in (");
+        for (int i = 0; i < linkedToIds.size(); i++) {
+            sb.append("?");
+            if (i + 1 < linkedToIds.size()) {
+                sb.append(", ");
+            }
+        }
+        sb.append("))");
+        LOG.debug("sb.toString(): " + sb.toString());
+
+        int updateCount = jdbcTemplate.update(
+                sb.toString(), new PreparedStatementSetter() {
+                    public void setValues(PreparedStatement ps) throws SQLException {
+                        for (int i = 0; i < linkedToIds.size(); i++) {
+                            ps.setLong(i + 1, linkedToIds.get(i));
+                        }
+                    }
+                });
+        TimingLogger.stop("activateHeldHoldings");
+    }
+
     public void setAllLastModifiedOais(String name, Date d) {
         this.jdbcTemplate.update("update " + getTableName(name, RECORDS_TABLE) + " set oai_datestamp=?", d);
     }
@@ -2022,6 +3014,12 @@ public class RepositoryDAO extends BaseDAO {
         this.jdbcTemplate.update("delete from " + getTableName(name, RECORD_UPDATES_TABLE));
         this.jdbcTemplate.update("delete from " + getTableName(name, RECORDS_TABLE));
         this.jdbcTemplate.update("delete from " + getTableName(name, RECORDS_XML_TABLE));
+        if (hasChangeLog(name)) {
+            this.jdbcTemplate.update("delete from " + getTableName(name, RECORD_CHANGES_TABLE));
+        }
+        if (hasRecordCounts(name)) {
+            this.jdbcTemplate.update("delete from " + getTableName(name, RECORD_COUNTS_TABLE));
+        }
     }
 
     private static final class RepoMapper implements RowMapper<Repository> {
@@ -2048,10 +3046,20 @@ public class RepositoryDAO extends BaseDAO {
     private static final class RecordMapper implements RowMapper<Record> {
         protected List<String> tables = null;
         protected RepositoryDAO thisthis = null;
+        protected boolean compressedXmlColumns = false;
 
         public RecordMapper(String[] tables, RepositoryDAO thisthis) {
+            this(tables, thisthis, false);
+        }
+
+        /**
+         * @param compressedXmlColumns
+         *            whether x.xml_compressed and x.compression were selected along with x.xml
+         */
+        public RecordMapper(String[] tables, RepositoryDAO thisthis, boolean compressedXmlColumns) {
             this.tables = Arrays.asList(tables);
             this.thisthis = thisthis;
+            this.compressedXmlColumns = compressedXmlColumns;
         }
 
         public Record mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -2083,8 +3091,13 @@ public class RepositoryDAO extends BaseDAO {
                 r.setUpdatedAt(rs.getTimestamp("date_updated"));
             }
             if (tables.contains(RECORDS_XML_TABLE)) {
-                r.setMode(Record.STRING_MODE);
-                r.setOaiXml(rs.getString("x.xml"));
+                if (compressedXmlColumns && DEFLATE_COMPRESSION.equals(rs.getString("x.compression"))) {
+                    // left compressed until the xml is actually needed
+                    r.setCompressedOaiXml(rs.getBytes("x.xml_compressed"));
+                } else {
+                    r.setMode(Record.STRING_MODE);
+                    r.setOaiXml(rs.getString("x.xml"));
+                }
             }
 
             if (tables.contains(RECORDS_SETS_TABLE)) {
@@ -2204,6 +3217,9 @@ public class RepositoryDAO extends BaseDAO {
                 }
                 TimingLogger.stop(i2c.split(" ")[2]);
             }
+            // the records loaded since the indices were dropped (or since the repo was created)
+            // went in with load data infile, which doesn't keep record_counts up to date
+            recountRecords(name);
         }
         
         boolean createIndicesOnRecordUpdates = false;
@@ -2439,12 +3455,18 @@ public class RepositoryDAO extends BaseDAO {
 
     public String getRecordStatsByType(String name) {
         StringBuilder sb = new StringBuilder();
+        if (!hasRecordCounts(name)) {
+            createRecordCounts(name);
+        }
+        // the counts of the records in any set (set_id 0) and in each set
+        String counts = getTableName(name, RECORD_COUNTS_TABLE);
+        String c = "cast(sum(records) as signed) c";
 
         List<Map<String, Object>> otherRows = new ArrayList<Map<String, Object>>();
         List<Map<String, Object>> totalsRows =
                 this.jdbcTemplate.queryForList(
-                        "select status, count(*) c from " +
-                                getTableName(name, RECORDS_TABLE) + " group by status order by status");
+                        "select status, " + c + " from " + counts +
+                                " where set_id = 0 group by status having sum(records) > 0 order by status");
         List<Map<String, Object>> rowsByType = null;
 
         // the below returns something like:
@@ -2467,15 +3489,12 @@ public class RepositoryDAO extends BaseDAO {
         //
         if (isServiceRepo(name)) {
             rowsByType = this.jdbcTemplate.queryForList(
-                    "select type, status, count(*) c from " +
-                            getTableName(name, RECORDS_TABLE) + " group by type, status order by type, status");
+                    "select type, status, " + c + " from " + counts +
+                            " where set_id = 0 group by type, status having sum(records) > 0 order by type, status");
         } else {
             rowsByType = this.jdbcTemplate.queryForList(
-                    "select rs.set_id type, r.status status, count(*) c " +
-                            "from " +
-                            getTableName(name, RECORDS_SETS_TABLE) + " rs, " +
-                            getTableName(name, RECORDS_TABLE) + " r " +
-                            " where r.record_id = rs.record_id group by rs.set_id, r.status");
+                    "select set_id type, status, " + c + " from " + counts +
+                            " where set_id <> 0 group by set_id, status having sum(records) > 0");
 
             for (Map<String, Object> row : totalsRows) {
                 Map<String, Object> m = new HashMap<String, Object>();
@@ -2546,9 +3565,13 @@ public class RepositoryDAO extends BaseDAO {
     public void updateOutgoingRecordCounts(String name) {
         Map<String, long[]> countsByType = new HashMap<String, long[]>();
         countsByType.put("total", new long[3]);
+        if (!hasRecordCounts(name)) {
+            createRecordCounts(name);
+        }
 
         List<Map<String, Object>> rows = this.jdbcTemplate.queryForList(
-                "select count(*) as count, type, status from " + getTableName(name, RECORDS_TABLE) + " group by type, status");
+                "select cast(sum(records) as signed) as count, type, status from " + getTableName(name, RECORD_COUNTS_TABLE) +
+                        " where set_id = 0 group by type, status having sum(records) > 0");
 
         if (rows != null) {
             for (Map<String, Object> row : rows) {
@@ -2572,13 +3595,8 @@ public class RepositoryDAO extends BaseDAO {
         }
 
         rows = this.jdbcTemplate.queryForList(
-                " select count(*) as count, r.type as type " +
-                        " from " +
-                        getTableName(name, RECORD_UPDATES_TABLE) + " as u, " +
-                        getTableName(name, RECORDS_TABLE) + " as r " +
-                        " where u.record_id = r.record_id " +
-                        " group by r.type"
-                );
+                "select cast(sum(updates) as signed) as count, type from " + getTableName(name, RECORD_COUNTS_TABLE) +
+                        " where set_id = 0 group by type having sum(updates) > 0");
         if (rows != null) {
             for (Map<String, Object> row : rows) {
                 Long count = (Long) row.get("count");
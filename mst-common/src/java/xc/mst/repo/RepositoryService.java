@@ -102,6 +102,78 @@ public class RepositoryService extends BaseService {
         return null;
     }
 
+    /**
+     * Loads a page of records for browsing, in the order of ids, with what the results list
+     * shows: the record's repository, its messages, and its predecessors and successors (which
+     * carry only their ids). Each repository is asked once for all of the ids it might hold,
+     * rather than once per record as getRecord(long) does. Ids which aren't found are left out.
+     */
+    public List<Record> getRecordsForBrowse(List<Long> ids) {
+        Map<Long, Record> found = new HashMap<Long, Record>();
+        try {
+            List<Repository> repos = getAll();
+            List<Long> remaining = new ArrayList<Long>(ids);
+            for (Repository r : repos) {
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                List<Record> recs = getRepositoryDAO().getRecordsWithoutXml(r.getName(), remaining);
+                if (recs.isEmpty()) {
+                    continue;
+                }
+                List<Long> recIds = new ArrayList<Long>();
+                for (Record rec : recs) {
+                    if (r.getService() != null) {
+                        rec.setService(r.getService());
+                    } else if (r.getProvider() != null) {
+                        rec.setProvider(r.getProvider());
+                    } else {
+                        LOG.error("neither service or provider set on r.getName(): " + r.getName());
+                    }
+                    found.put(rec.getId(), rec);
+                    recIds.add(rec.getId());
+                    remaining.remove((Long) rec.getId());
+                }
+                // a record's predecessors are kept in its own repository
+                Map<Long, List<Long>> preds = getRepositoryDAO().getPredecessorIds(r.getName(), recIds);
+                for (Map.Entry<Long, List<Long>> me : preds.entrySet()) {
+                    for (Long predId : me.getValue()) {
+                        found.get(me.getKey()).getPredecessors().add(idOnly(predId));
+                    }
+                }
+            }
+            // and its successors in the repositories of the services it was processed by
+            List<Long> foundIds = new ArrayList<Long>(found.keySet());
+            if (!foundIds.isEmpty()) {
+                for (Repository r : repos) {
+                    Map<Long, List<Long>> succs = getRepositoryDAO().getSuccessorIds(r.getName(), foundIds);
+                    for (Map.Entry<Long, List<Long>> me : succs.entrySet()) {
+                        for (Long succId : me.getValue()) {
+                            found.get(me.getKey()).getSuccessors().add(idOnly(succId));
+                        }
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            util.throwIt(t);
+        }
+        List<Record> records = new ArrayList<Record>();
+        for (Long id : ids) {
+            Record rec = found.get(id);
+            if (rec != null) {
+                records.add(rec);
+            }
+        }
+        getMessageService().injectMessages(records);
+        return records;
+    }
+
+    protected Record idOnly(long id) {
+        Record r = new Record();
+        r.setId(id);
+        return r;
+    }
+
     public void injectSuccessors(Record rec) {
         for (Repository r : getAll()) {
             r.injectSuccessors(rec);
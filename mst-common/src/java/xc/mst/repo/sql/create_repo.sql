@@ -35,9 +35,27 @@ create table repo_name.record_updates (
 	*/
 ) ENGINE=MyISAM DEFAULT CHARSET=utf8;
 
+/*
+the number of records in each format, set, status and type, kept up to date as records are
+written; set_id 0 counts records whatever their sets. see RepositoryDAO.hasRecordCounts
+*/
+create table repo_name.record_counts (
+	format_id             int        NOT NULL    default 0,
+	set_id                int        NOT NULL    default 0,
+	status                char(1)    NOT NULL    default '',
+	type                  char(1)    NOT NULL    default '',
+	records               bigint     NOT NULL    default 0,
+	updates               bigint     NOT NULL    default 0,
+
+	PRIMARY KEY (format_id, set_id, status, type)
+) ENGINE=MyISAM DEFAULT CHARSET=utf8;
+
 create table repo_name.records_xml (
 	record_id      int         not null,
 	xml            longtext,
+	/* used instead of xml when compression is set; see RepositoryDAO.DEFLATE_COMPRESSION */
+	xml_compressed longblob,
+	compression    char(1),
 	
 	PRIMARY KEY (record_id)
 ) ENGINE=MyISAM DEFAULT CHARSET=utf8;
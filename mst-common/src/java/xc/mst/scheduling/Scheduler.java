@@ -11,9 +11,13 @@ package xc.mst.scheduling;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 
@@ -44,7 +48,8 @@ import xc.mst.utils.TimingLogger;
  * matches a processing directive requiring the service to be run.
  * 
  * This Thread maintains a queue of jobs to be run. A job may be
- * either a harvest or a service.
+ * either a harvest or a service.  Up to scheduler.maxConcurrentJobs jobs
+ * run at once, as long as no two of them touch the same repository.
  * 
  * @author Eric Osisek
  */
@@ -54,23 +59,43 @@ public class Scheduler extends BaseService implements Runnable {
 
     protected boolean killed = false;
 
+    // the job started last (or, when none are running, the one which ran last or the solr indexer),
+    // which is what the status bar shows
     protected WorkerThread runningJob;
     protected Thread runningThread;
-    protected Job previousJob = null;
+    protected List<JobSlot> runningJobs = new CopyOnWriteArrayList<JobSlot>();
+    protected int maxConcurrentJobs = 1;
     protected boolean pausedManually = false;
     private final Object lock = new Object();
 
     public void init() {
         LOG.info("init");
+        // Jobs whose repositories don't overlap (e.g. harvests of two providers, or two services
+        // fed by different repositories) may run side by side.
+        maxConcurrentJobs = Math.max(1, config.getPropertyAsInt("scheduler.maxConcurrentJobs", 1));
         new Thread(this, "Scheduler").start();
     }
 
+    /**
+     * Loads the formats, sets, providers and services into the DAOs' caches, so the first
+     * harvests, services and browse pages don't each go to the database for them.
+     */
+    protected void warmCaches() {
+        try {
+            LOG.info("warmed caches: " + getFormatDAO().getAll().size() + " formats, " + getSetDAO().getAll().size() + " sets, " +
+                    getProviderDAO().getAll().size() + " providers, " + getServiceDAO().getAll().size() + " services");
+        } catch (DatabaseConfigException e) {
+            LOG.error("Unable to warm the caches; they will fill as they're used", e);
+        }
+    }
+
     public WorkerThread getRunningJob() {
         return runningJob;
     }
 
     public void run() {
         LOG.info("Scheduler.run");
+        warmCaches();
         if (!config.getPropertyAsBoolean("runScheduler", true)) {
             return;
         }
@@ -160,7 +185,6 @@ public class Scheduler extends BaseService implements Runnable {
         	else
         		LOG.info("solr.index.enabled is false");
         }
-        HarvestManager hm = (HarvestManager) MSTConfiguration.getInstance().getBean("HarvestManager");
 
         while (!killed) {
             Calendar now = Calendar.getInstance();
@@ -201,206 +225,48 @@ public class Scheduler extends BaseService implements Runnable {
                 }
             }
 
-            // LOG.debug("runningJob: "+runningJob);
-            if (runningJob != null) {
-                LOG.debug("runningJob: " + runningJob);
-                LOG.debug("runningJob.getType(): " + runningJob.getType());
-                // LOG.debug("runningJob == solrWorkerThread: "+(runningJob == solrWorkerThread));
-            }
-            if (runningJob == null || !runningThread.isAlive() || runningJob == solrWorkerThread) {
+            try {
+                for (JobSlot slot : runningJobs) {
+                    if (!slot.thread.isAlive()) {
+                        runningJobs.remove(slot);
+                        finishJob(slot);
+                    }
+                }
+                if (!runningJobs.isEmpty() && (runningThread == null || !runningThread.isAlive())) {
+                    runningJob = runningJobs.get(0).worker;
+                    runningThread = runningJobs.get(0).thread;
+                }
                 if (runningJob != null) {
-                    // LOG.debug("runningJob.getWorkDelegate(): "+runningJob.getWorkDelegate());
+                    LOG.debug("runningJob: " + runningJob);
+                    LOG.debug("runningJob.getType(): " + runningJob.getType());
                 }
-                // LOG.debug("previousJob: "+previousJob);
-                try {
-                    if (previousJob != null) {
-                        LOG.debug("previousJob: " + previousJob);
-                        getJobService().deleteJob(previousJob);
-
-                        TimingLogger.reset();
-
-                        Repository previousRepo = null;
-                        List<ProcessingDirective> processingDirectives = null;
-                        LOG.debug("previousJob.getHarvestSchedule(): " + previousJob.getHarvestSchedule());
-                        if (previousJob.getHarvestSchedule() != null) { // was harvest
-                            processingDirectives = getProcessingDirectiveDAO().getBySourceProviderId(
-                                    previousJob.getHarvestSchedule().getProvider().getId());
-                            previousJob.getHarvestSchedule().setStatus(runningJob.getJobStatus());
-                            getHarvestScheduleDAO().update(previousJob.getHarvestSchedule(), false);
-                            previousRepo = (Repository) config.getBean("Repository");
-                            previousRepo.setName(previousJob.getHarvestSchedule().getProvider().getName());
-                        } else if (previousJob.getService() != null) { // was service
-                            processingDirectives = getProcessingDirectiveDAO().getBySourceServiceId(
-                                    previousJob.getService().getId());
-                            // Reload service. It is changed during service processing.
-                            // TODO check to see if there is better way to do this
-                            Service service = getServicesService().getServiceById(previousJob.getService().getId());
-                            // getById(previousJob.getService().getId());
-                            LOG.debug("service: " + service);
-                            LOG.debug("service.getName(): " + service.getName());
-                            LOG.debug("service.getMetadataService(): " + service.getMetadataService());
-                            previousRepo = service.getMetadataService().getRepository();
-                            if (runningJob != null) {
-                                service.setStatus(runningJob.getJobStatus());
-                            }
-                            getServiceDAO().update(service);
-                        }
-                        LOG.debug("processingDirectives: " + processingDirectives);
-
-                        if (previousRepo != null) {
-                            if (previousRepo instanceof DefaultRepository) {
-                                LOG.debug("sleepUntilReady...start");
-                                ((DefaultRepository) previousRepo).sleepUntilReady();
-                                LOG.debug("sleepUntilReady...finished");
-                            }
-                        }
 
-                        if (processingDirectives != null) {
-                            try {
-                                for (ProcessingDirective pd : processingDirectives) {
-                                    // TODO
-                                    // match by set
-                                    // match by format
-                                    // OR you could run the service and it just won't grab any records
-                                    /*
-                                    boolean matched = false;
-                                    if (pd.getTriggeringFormats() != null) {
-                                        for (Format f : pd.getTriggeringFormats()) {
-                                            if (previousJob.getHarvestSchedule().getFormats() != null) {
-
-                                            }
-                                            if (f.getId().equals(previousJob.getHarvestSchedule().getFormats()))
-                                        }
-                                    }
-                                    */
-
-                                    // Job job = new Job(pd.getService(), pd.getOutputSet().getId(), Constants.THREAD_SERVICE);
-                                    Job job = new Job();
-                                    job.setService(pd.getService());
-                                    if (pd.getOutputSet() != null)
-                                        job.setOutputSetId(pd.getOutputSet().getId());
-                                    job.setJobType(Constants.THREAD_SERVICE);
-                                    job.setOrder(getJobService().getMaxOrder() + 1);
-                                    job.setProcessingDirective(pd);
-                                    getJobService().insertJob(job);
-                                }
-                            } catch (DatabaseConfigException dce) {
-                                LOG.error("DatabaseConfig exception occured when ading jobs to database", dce);
-                            }
-                        }
+                List<Job> queuedJobs = null;
+                if (runningJobs.size() < maxConcurrentJobs) {
+                    queuedJobs = getJobService().getAllJobs();
+                    // nothing new is started next to a job paused from the UI
+                    if (!pausedManually || runningJobs.isEmpty()) {
+                        startJobs(queuedJobs, thisMinute, solrEnabled && solrWorkerThreadStarted ? solrWorkerThread : null);
                     }
+                }
 
-                    Job jobToStart = getJobService().getNextJobToExecute();
-                    if (jobToStart != null)
-                        LOG.debug("jobToStart: " + jobToStart);
-                    if (jobToStart == null && solrEnabled && runningJob != solrWorkerThread && solrWorkerThread != null) {
-                        LOG.debug("solrWorkerThead.proceed");
-                        if (!solrWorkerThreadStarted) {
-                            solrWorkerThreadStarted = true;
-                            solrThread.start();
-                        } else {
-                            if (!pausedManually)
-                                solrWorkerThread.proceed();
-                        }
-                        runningJob = solrWorkerThread;
-                        runningJob.type = Constants.SOLR_INDEXER;
-                        runningThread = solrThread;
-                    }
-                    previousJob = jobToStart;
-
-                    // LOG.debug("jobToStart: "+jobToStart);
-                    // If there was a service job in the waiting queue, start it. Otherwise break from the loop
-                    if (jobToStart != null) {
-                        if (solrEnabled && solrWorkerThread != null && solrWorkerThreadStarted) {
-                            solrWorkerThread.pause();
-                        }
-                        runningJob = null;
-                        runningThread = null;
-                        TimingLogger.reset();
-                        TimingLogger.log("starting job: " + jobToStart.getJobType());
-
-                        if (jobToStart.getJobType().equalsIgnoreCase(Constants.THREAD_REPOSITORY)) {
-                            // TODO perhaps consider for future whether it is more correct to getBean each time here (would be new instance each harvest)
-                            hm.setHarvestSchedule(jobToStart.getHarvestSchedule());
-                            runningJob = hm;
-                            runningJob.type = Constants.THREAD_REPOSITORY;
-                        } else if (jobToStart.getJobType().equalsIgnoreCase(Constants.THREAD_SERVICE)) {
-                            MetadataServiceManager msm = (MetadataServiceManager) config.getBean("MetadataServiceManager");
-
-                            Service s = getServicesService().getServiceByName(jobToStart.getService().getName());
-                            msm.setMetadataService(s.getMetadataService());
-                            runningJob = msm;
-                            msm.setOutputSet(getSetDAO().getById(jobToStart.getOutputSetId()));
-                            Repository incomingRepo = null;
-                            if (jobToStart.getProcessingDirective().getSourceProvider() != null) {
-                                incomingRepo =
-                                        getRepositoryService().getRepository(jobToStart.getProcessingDirective().getSourceProvider());
-                                if (!incomingRepo.ready4harvest()) {
-
-                                    getJobService().deleteJob(jobToStart);
-                                    runningJob = null;
-                                    previousJob = null;
-                                    LOG.error("A job came in of type THREAD_SERVICE but incomingRepo ! ready4harvest.");
-                                }
-                            } else if (jobToStart.getProcessingDirective().getSourceService() != null) {
-                                Service s2 = getServicesService().getServiceById(jobToStart.getProcessingDirective().getSourceService().getId());
-                                incomingRepo = s2.getMetadataService().getRepository();
-                                if (!incomingRepo.ready4harvest()) {
-
-                                    getJobService().deleteJob(jobToStart);
-                                    runningJob = null;
-                                    previousJob = null;
-                                    LOG.error("A job came in of type THREAD_SERVICE but incomingRepo ! ready4harvest.");
-                                }
-                            } else {
-                                throw new RuntimeException("error");
-                            }
-                            LOG.debug("incomingRepo.getName(): " + incomingRepo.getName());
-                            msm.setIncomingRepository(incomingRepo);
-                            msm.setTriggeringFormats(jobToStart.getProcessingDirective().getTriggeringFormats());
-                            msm.setTriggeringSets(jobToStart.getProcessingDirective().getTriggeringSets());
-                            if (runningJob != null) {
-                                runningJob.type = Constants.THREAD_SERVICE;
-                            }
-                            /*
-                            TimingLogger.log("service : "+jobToStart.getService().getClassName());
-                            ServiceWorkerThread serviceThread = new ServiceWorkerThread();
-                            serviceThread.setServiceId(jobToStart.getService().getId());
-                            serviceThread.setOutputSetId(jobToStart.getOutputSetId());
-                            serviceThread.start();
-                            runningJob = serviceThread;
-                            */
-                        } else if (jobToStart.getJobType().equalsIgnoreCase(Constants.THREAD_MARK_PROVIDER_DELETED)) {
-                            LOG.debug("**** Scheduler - THREAD_MARK_PROVIDER_DELETED!");
-                            RepositoryDeletionManager rdm = (RepositoryDeletionManager) config.getBean("RepositoryDeletionManager");
-
-                            runningJob = rdm;
-
-                            Repository incomingRepo = null;
-                            if (jobToStart.getHarvestSchedule() != null) {
-                                Provider provider = jobToStart.getHarvestSchedule().getProvider();
-                                incomingRepo = getRepositoryService().getRepository(provider);
-                            }
-                            rdm.setIncomingRepository(incomingRepo);
-                            rdm.setHarvestSchedule(jobToStart.getHarvestSchedule());
-                            LOG.debug("jobToStart.getHarvestSchedule(): " + jobToStart.getHarvestSchedule());
-                            runningJob.type = Constants.THREAD_MARK_PROVIDER_DELETED;
-                        }
-
-                        if (runningJob != null) {
-                            LOG.debug("runningJob.start()");
-                            runningThread = new Thread(runningJob, jobToStart.getJobType() + "_" + thisMinute);
-                            runningThread.start();
-                        } else {
-                            LOG.debug("**** Scheduler - No valid job found to start! Provided type was " +
-                                    jobToStart.getJobType());
-                        }
+                if (runningJobs.isEmpty() && queuedJobs != null && queuedJobs.isEmpty() && solrEnabled && runningJob != solrWorkerThread && solrWorkerThread != null) {
+                    LOG.debug("solrWorkerThead.proceed");
+                    if (!solrWorkerThreadStarted) {
+                        solrWorkerThreadStarted = true;
+                        solrThread.start();
+                    } else {
+                        if (!pausedManually)
+                            solrWorkerThread.proceed();
                     }
-                } catch (DataException de) {
-                    LOG.error("DataException occured when getting job from database", de);
-                } catch (Throwable t) {
-                    LOG.error("** EXCEPTION occured while trying to process next jobtostart !", t);
+                    runningJob = solrWorkerThread;
+                    runningJob.type = Constants.SOLR_INDEXER;
+                    runningThread = solrThread;
                 }
+            } catch (DataException de) {
+                LOG.error("DataException occured when getting job from database", de);
+            } catch (Throwable t) {
+                LOG.error("** EXCEPTION occured while trying to process next jobtostart !", t);
             }
 
             try {
@@ -421,15 +287,261 @@ public class Scheduler extends BaseService implements Runnable {
         }
     }
 
-    public void kill() {
-        if (runningJob != null) {
-            runningJob.cancel();
+    /**
+     * Starts as many of the queued jobs as the concurrency limit allows. The queue is taken in
+     * order and a job only jumps ahead of one still waiting if the two don't share a repository, so
+     * a service always sees its input repository after everything queued before it has finished
+     * with it.
+     */
+    protected void startJobs(List<Job> queuedJobs, String thisMinute, WorkerThread solrWorkerThread) throws DataException {
+        Set<String> busyRepos = new HashSet<String>();
+        for (JobSlot slot : runningJobs) {
+            if (slot.repos == null) {
+                return;
+            }
+            busyRepos.addAll(slot.repos);
+        }
+        for (Job job : queuedJobs) {
+            if (runningJobs.size() >= maxConcurrentJobs) {
+                break;
+            }
+            if (isRunning(job)) {
+                continue;
+            }
+            LOG.debug("jobToStart: " + job);
+            Set<String> repos = getRepositoryIds(job);
+            if (repos == null) {
+                // has to run alone, and nothing queued after it may go first
+                if (runningJobs.isEmpty() && busyRepos.isEmpty()) {
+                    startJob(job, null, thisMinute, solrWorkerThread);
+                }
+                break;
+            }
+            if (Collections.disjoint(repos, busyRepos)) {
+                startJob(job, repos, thisMinute, solrWorkerThread);
+            }
+            busyRepos.addAll(repos);
+        }
+    }
+
+    protected boolean isRunning(Job job) {
+        for (JobSlot slot : runningJobs) {
+            if (slot.job.getId() == job.getId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the repositories the job reads from or writes to, or null if that can't be told and
+     *         the job has to run on its own
+     */
+    protected Set<String> getRepositoryIds(Job job) {
+        Set<String> repos = new HashSet<String>();
+        if (Constants.THREAD_REPOSITORY.equalsIgnoreCase(job.getJobType()) ||
+                Constants.THREAD_MARK_PROVIDER_DELETED.equalsIgnoreCase(job.getJobType())) {
+            if (job.getHarvestSchedule() == null || job.getHarvestSchedule().getProvider() == null) {
+                return null;
+            }
+            repos.add("provider-" + job.getHarvestSchedule().getProvider().getId());
+        } else if (Constants.THREAD_SERVICE.equalsIgnoreCase(job.getJobType())) {
+            ProcessingDirective pd = job.getProcessingDirective();
+            if (job.getService() == null || pd == null) {
+                return null;
+            }
+            repos.add("service-" + job.getService().getId());
+            if (pd.getSourceProvider() != null) {
+                repos.add("provider-" + pd.getSourceProvider().getId());
+            } else if (pd.getSourceService() != null) {
+                repos.add("service-" + pd.getSourceService().getId());
+            } else {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        return repos;
+    }
+
+    protected void startJob(Job jobToStart, Set<String> repos, String thisMinute, WorkerThread solrWorkerThread) throws DataException {
+        WorkerThread worker = null;
+        if (solrWorkerThread != null) {
+            solrWorkerThread.pause();
+        }
+        if (runningJobs.isEmpty()) {
+            TimingLogger.reset();
+        }
+        TimingLogger.log("starting job: " + jobToStart.getJobType());
+
+        if (jobToStart.getJobType().equalsIgnoreCase(Constants.THREAD_REPOSITORY)) {
+            HarvestManager hm = (HarvestManager) config.getBean("HarvestManager");
+            hm.setHarvestSchedule(jobToStart.getHarvestSchedule());
+            worker = hm;
+            worker.type = Constants.THREAD_REPOSITORY;
+        } else if (jobToStart.getJobType().equalsIgnoreCase(Constants.THREAD_SERVICE)) {
+            MetadataServiceManager msm = (MetadataServiceManager) config.getBean("MetadataServiceManager");
+
+            Service s = getServicesService().getServiceByName(jobToStart.getService().getName());
+            msm.setMetadataService(s.getMetadataService());
+            worker = msm;
+            msm.setOutputSet(getSetDAO().getById(jobToStart.getOutputSetId()));
+            Repository incomingRepo = null;
+            if (jobToStart.getProcessingDirective().getSourceProvider() != null) {
+                incomingRepo =
+                        getRepositoryService().getRepository(jobToStart.getProcessingDirective().getSourceProvider());
+            } else if (jobToStart.getProcessingDirective().getSourceService() != null) {
+                Service s2 = getServicesService().getServiceById(jobToStart.getProcessingDirective().getSourceService().getId());
+                incomingRepo = s2.getMetadataService().getRepository();
+            } else {
+                getJobService().deleteJob(jobToStart);
+                LOG.error("A job came in of type THREAD_SERVICE but its processing directive has no source.");
+                return;
+            }
+            if (!incomingRepo.ready4harvest()) {
+                getJobService().deleteJob(jobToStart);
+                LOG.error("A job came in of type THREAD_SERVICE but incomingRepo ! ready4harvest.");
+                return;
+            }
+            LOG.debug("incomingRepo.getName(): " + incomingRepo.getName());
+            msm.setIncomingRepository(incomingRepo);
+            msm.setTriggeringFormats(jobToStart.getProcessingDirective().getTriggeringFormats());
+            msm.setTriggeringSets(jobToStart.getProcessingDirective().getTriggeringSets());
+            worker.type = Constants.THREAD_SERVICE;
+        } else if (jobToStart.getJobType().equalsIgnoreCase(Constants.THREAD_MARK_PROVIDER_DELETED)) {
+            LOG.debug("**** Scheduler - THREAD_MARK_PROVIDER_DELETED!");
+            RepositoryDeletionManager rdm = (RepositoryDeletionManager) config.getBean("RepositoryDeletionManager");
+
+            worker = rdm;
+
+            Repository incomingRepo = null;
+            if (jobToStart.getHarvestSchedule() != null) {
+                Provider provider = jobToStart.getHarvestSchedule().getProvider();
+                incomingRepo = getRepositoryService().getRepository(provider);
+            }
+            rdm.setIncomingRepository(incomingRepo);
+            rdm.setHarvestSchedule(jobToStart.getHarvestSchedule());
+            LOG.debug("jobToStart.getHarvestSchedule(): " + jobToStart.getHarvestSchedule());
+            worker.type = Constants.THREAD_MARK_PROVIDER_DELETED;
         }
+
+        if (worker != null) {
+            LOG.debug("runningJob.start()");
+            JobSlot slot = new JobSlot();
+            slot.job = jobToStart;
+            slot.worker = worker;
+            slot.repos = repos;
+            slot.thread = new Thread(worker, jobToStart.getJobType() + "_" + thisMinute);
+            runningJobs.add(slot);
+            runningJob = worker;
+            runningThread = slot.thread;
+            slot.thread.start();
+        } else {
+            LOG.debug("**** Scheduler - No valid job found to start! Provided type was " +
+                    jobToStart.getJobType());
+            getJobService().deleteJob(jobToStart);
+        }
+    }
+
+    /**
+     * Removes a job which has ended from the queue, records how it ended and queues up the
+     * services its output feeds.
+     */
+    protected void finishJob(JobSlot slot) throws DataException {
+        Job previousJob = slot.job;
+        WorkerThread previousWorker = slot.worker;
+        LOG.debug("previousJob: " + previousJob);
+        getJobService().deleteJob(previousJob);
+
+        if (runningJobs.isEmpty()) {
+            TimingLogger.reset();
+        }
+
+        Repository previousRepo = null;
+        List<ProcessingDirective> processingDirectives = null;
+        LOG.debug("previousJob.getHarvestSchedule(): " + previousJob.getHarvestSchedule());
+        if (previousJob.getHarvestSchedule() != null) { // was harvest
+            processingDirectives = getProcessingDirectiveDAO().getBySourceProviderId(
+                    previousJob.getHarvestSchedule().getProvider().getId());
+            previousJob.getHarvestSchedule().setStatus(previousWorker.getJobStatus());
+            getHarvestScheduleDAO().update(previousJob.getHarvestSchedule(), false);
+            previousRepo = (Repository) config.getBean("Repository");
+            previousRepo.setName(previousJob.getHarvestSchedule().getProvider().getName());
+        } else if (previousJob.getService() != null) { // was service
+            processingDirectives = getProcessingDirectiveDAO().getBySourceServiceId(
+                    previousJob.getService().getId());
+            // Reload service. It is changed during service processing.
+            // TODO check to see if there is better way to do this
+            Service service = getServicesService().getServiceById(previousJob.getService().getId());
+            LOG.debug("service: " + service);
+            LOG.debug("service.getName(): " + service.getName());
+            LOG.debug("service.getMetadataService(): " + service.getMetadataService());
+            previousRepo = service.getMetadataService().getRepository();
+            service.setStatus(previousWorker.getJobStatus());
+            getServiceDAO().update(service);
+        }
+        LOG.debug("processingDirectives: " + processingDirectives);
+
+        if (previousRepo != null) {
+            if (previousRepo instanceof DefaultRepository) {
+                LOG.debug("sleepUntilReady...start");
+                ((DefaultRepository) previousRepo).sleepUntilReady();
+                LOG.debug("sleepUntilReady...finished");
+            }
+        }
+
+        if (processingDirectives != null) {
+            try {
+                for (ProcessingDirective pd : processingDirectives) {
+                    // TODO
+                    // match by set
+                    // match by format
+                    // OR you could run the service and it just won't grab any records
+                    Job job = new Job();
+                    job.setService(pd.getService());
+                    if (pd.getOutputSet() != null)
+                        job.setOutputSetId(pd.getOutputSet().getId());
+                    job.setJobType(Constants.THREAD_SERVICE);
+                    job.setOrder(getJobService().getMaxOrder() + 1);
+                    job.setProcessingDirective(pd);
+                    getJobService().insertJob(job);
+                }
+            } catch (DatabaseConfigException dce) {
+                LOG.error("DatabaseConfig exception occured when ading jobs to database", dce);
+            }
+        }
+    }
+
+    /**
+     * @return the jobs running right now, or the job which ran last (or the solr indexer) when
+     *         there are none, which is what getRunningJob() returns.
+     */
+    public List<WorkerThread> getRunningJobs() {
+        List<WorkerThread> jobs = new ArrayList<WorkerThread>();
+        for (JobSlot slot : runningJobs) {
+            jobs.add(slot.worker);
+        }
+        if (jobs.isEmpty() && runningJob != null) {
+            jobs.add(runningJob);
+        }
+        return jobs;
+    }
+
+    public void kill() {
         killed = true;
+        for (WorkerThread job : getRunningJobs()) {
+            job.cancel();
+        }
     }
 
     public void cancelRunningJob() {
-        runningJob.cancel();
+        for (WorkerThread job : getRunningJobs()) {
+            job.cancel();
+        }
+    }
+
+    public void cancelJob(WorkerThread job) {
+        job.cancel();
     }
 
     public boolean wasPausedManually() {
@@ -442,11 +554,39 @@ public class Scheduler extends BaseService implements Runnable {
 
     public void pauseRunningJob() {
         pausedManually = true;
-        runningJob.pause();
+        for (WorkerThread job : getRunningJobs()) {
+            job.pause();
+        }
+    }
+
+    public void pauseJob(WorkerThread job) {
+        pausedManually = true;
+        job.pause();
     }
 
     public void resumePausedJob() {
         pausedManually = false;
-        runningJob.proceed();
+        for (WorkerThread job : getRunningJobs()) {
+            job.proceed();
+        }
+    }
+
+    public void resumeJob(WorkerThread job) {
+        job.proceed();
+        for (WorkerThread j : getRunningJobs()) {
+            if (j.getJobStatus() == Status.PAUSED || j.getJobStatus() == Status.PAUSING) {
+                return;
+            }
+        }
+        pausedManually = false;
+    }
+
+    // a job the scheduler has started
+    protected static class JobSlot {
+        protected Job job;
+        protected WorkerThread worker;
+        protected Thread thread;
+        // the repositories it reads from and writes to (see getRepositoryIds), null if it runs alone
+        protected Set<String> repos;
     }
 }
@@ -9,12 +9,19 @@
 
 package xc.mst.services;
 
+import gnu.trove.TLongArrayList;
 import gnu.trove.TLongByteHashMap;
 import gnu.trove.TLongHashSet;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Logger;
 import org.springframework.context.ApplicationContext;
@@ -37,11 +44,14 @@ import xc.mst.constants.Status;
 import xc.mst.dao.DataException;
 import xc.mst.dao.MetadataServiceDAO;
 import xc.mst.email.Emailer;
+import xc.mst.repo.RecordCursor;
 import xc.mst.repo.Repository;
 import xc.mst.repo.TestRepository;
 import xc.mst.utils.LogWriter;
 import xc.mst.utils.MSTConfiguration;
 import xc.mst.utils.TimingLogger;
+import xc.mst.utils.metrics.Metrics;
+import xc.mst.utils.metrics.Timer;
 
 /**
  * A copy of the MST is designed to interface with one or more Metadata Services
@@ -72,6 +82,8 @@ public abstract class GenericMetadataService extends SolrMetadataService
     protected boolean preserveStatuses = true;
     protected TLongByteHashMap previousStatuses = new TLongByteHashMap();
     protected TLongByteHashMap tempPreviousStatuses = new TLongByteHashMap();
+    // the highest id of the records handed to the writer thread by the last commit (db.asyncCommit)
+    protected Long highestIdBeingWritten = null;
 
     protected static int LARGE_HARVEST_THRESHOLD_DEFAULT = 10000;
     protected int largeHarvestThreshold = LARGE_HARVEST_THRESHOLD_DEFAULT;
@@ -105,6 +117,29 @@ public abstract class GenericMetadataService extends SolrMetadataService
      */
     protected LinkedHashMap<String, String> m_identifiers = new LinkedHashMap<String, String>();
 
+    /**
+     * Services whose process(InputRecord) is safe to run on several records at once can set
+     * parallel_processing = true in their custom.properties to have each batch processed on a
+     * pool of parallel_processing.threads threads (default: one per processor). Each new input
+     * record gets parallel_processing.ids_per_record ids reserved for the records it creates.
+     * Reserved ids a record doesn't use (because it made fewer records, or its processing
+     * failed) are not handed out again. That leaves gaps in the ids, as a restart does, and
+     * keeps every other record's ids the same from run to run. A record that makes more records
+     * than that gets the ids for the rest from the shared sequence, in whatever order the
+     * threads get there. Those ids, and the ones reserved for the records after it in the batch,
+     * can then differ from run to run; RepositoryDAO.injectId logs a warning when that happens.
+     */
+    protected ExecutorService processingPool = null;
+    protected int idsReservedPerRecord = 1;
+    // while a record is processed on a worker thread, the messages it adds are collected here
+    protected ThreadLocal<List<RecordMessage>> pendingMessages = new ThreadLocal<List<RecordMessage>>();
+
+    // set up once per run, rather than building the names for each record
+    protected String preprocessTimingName = null;
+    protected String processTimingName = null;
+    protected Timer preprocessTimer = null;
+    protected Timer processTimer = null;
+
     static {
         LOG.debug("GenericMetadataService class loaded!!!");
     }
@@ -468,10 +503,28 @@ public abstract class GenericMetadataService extends SolrMetadataService
 
     protected List<Record> getRecords(Repository repo, ServiceHarvest sh,
             Format inputFormat, Set inputSet) {
-        return repo.getRecords(sh.getFrom(), sh.getUntil(), sh.getHighestId(),
+        return getRecords(repo, sh, sh.getHighestId(), inputFormat, inputSet);
+    }
+
+    protected List<Record> getRecords(Repository repo, ServiceHarvest sh, Long startingId,
+            Format inputFormat, Set inputSet) {
+        return repo.getRecords(sh.getFrom(), sh.getUntil(), startingId,
                 inputFormat, inputSet);
     }
 
+    /**
+     * Pages through the records getRecords returns, starting after sh.getHighestId(). While a
+     * page is being processed the next one is fetched in the background (db.prefetchRecordPages).
+     */
+    protected RecordCursor getRecordCursor(final Repository repo, final ServiceHarvest sh,
+            final Format inputFormat, final Set inputSet) {
+        return new RecordCursor(new RecordCursor.PageLoader() {
+            public List<Record> loadPage(Long startingId) {
+                return getRecords(repo, sh, startingId, inputFormat, inputSet);
+            }
+        }, sh.getHighestId(), MSTConfiguration.getInstance().getPropertyAsBoolean("db.prefetchRecordPages", false));
+    }
+
     protected boolean commitIfNecessary(boolean force, long processedRecordCount) {
         if (!isSolrIndexer()) {
             if (getRepository().commitIfNecessary(force, processedRecordCount,
@@ -510,15 +563,54 @@ public abstract class GenericMetadataService extends SolrMetadataService
         return force;
     }
     
+    /**
+     * Persists sh after a commit. With db.asyncCommit on, the records of the commit may still be
+     * being written, so the highest id persisted is the one as of the commit before, whose records
+     * are known to be in (see DefaultRepository.commitInBackground); a restart then picks up after
+     * those rather than after records which never made it to the database.
+     */
+    protected void persistHarvest(ServiceHarvest sh) {
+        if (isTestRepository() || !getRepositoryDAO().isWriting(getRepository().getName())) {
+            getServiceDAO().persist(sh);
+            return;
+        }
+        Long highestId = sh.getHighestId();
+        sh.setHighestId(highestIdBeingWritten);
+        getServiceDAO().persist(sh);
+        sh.setHighestId(highestId);
+        highestIdBeingWritten = highestId;
+    }
+
     // Allow Services the opportunity to pre-process records
     // By default, they will not
     public void preProcess(InputRecord r) {  }
     public void preProcessCompleted() { }
 
+    /**
+     * The part of pre-processing a record which doesn't depend on any other record (e.g. parsing
+     * it). With parallel_preprocessing on this is run on several threads at once, and what it
+     * returns is handed to preProcess(InputRecord, Object), which is called on the service's own
+     * thread in record order. It must not change anything but the record.
+     */
+    public Object prepareForPreProcess(InputRecord r) {
+        return null;
+    }
+
+    /**
+     * @param prepared what prepareForPreProcess returned for r, or null if it wasn't called
+     */
+    public void preProcess(InputRecord r, Object prepared) {
+        preProcess(r);
+    }
+
     public void process(Repository repo, Format inputFormat, Set inputSet,
             Set outputSet) {
         startTime = new Date().getTime();
         processedRecordCount = 0;
+        preprocessTimingName = getServiceName() + ".preprocess";
+        processTimingName = getServiceName() + ".process";
+        preprocessTimer = Metrics.serviceTimer(getServiceName(), "preprocess");
+        processTimer = Metrics.serviceTimer(getServiceName(), "process");
         processStatusDisplay(repo, inputFormat, inputSet, outputSet);
         running.acquireUninterruptibly();
 
@@ -538,46 +630,68 @@ public abstract class GenericMetadataService extends SolrMetadataService
             // To show preProcessing progress, we'll display the count down starting with negative numbers, beginning with negative total and ending with zero
             processedRecordCount = (int) -this.totalRecordCount;
                   	
-        	List<Record> records = getRecords(repo, sh, inputFormat, inputSet);
-            while (records != null && records.size() > 0 && !stopped) {
-            	atLeastOneRecordProcessed = true;
-                if (paused) {
-                    previouslyPaused = true;
-                    running.release();
-                    try {
-                        Thread.sleep(1000);
-                    } catch (Throwable t) {
-                        throw new RuntimeException(t);
+            RecordCursor cursor = getRecordCursor(repo, sh, inputFormat, inputSet);
+            List<Record> records = cursor.hasNext() ? cursor.next() : null;
+            ExecutorService preProcessingPool = null;
+            if (config.getPropertyAsBoolean("parallel_preprocessing", false)) {
+                preProcessingPool = newWorkerPool("parallel_preprocessing.threads", "preprocessor");
+            }
+            try {
+                while (records != null && !stopped) {
+                	atLeastOneRecordProcessed = true;
+                    if (paused) {
+                        previouslyPaused = true;
+                        running.release();
+                        try {
+                            Thread.sleep(1000);
+                        } catch (Throwable t) {
+                            throw new RuntimeException(t);
+                        }
+                        continue;
+                    }
+                    if (previouslyPaused) {
+                        running.acquireUninterruptibly();
+                        previouslyPaused = false;
                     }
-                    continue;
-                }
-                if (previouslyPaused) {
-                    running.acquireUninterruptibly();
-                    previouslyPaused = false;
-                }
 
-                if (++getRecordLoops % 100 == 0) {
-                    // TODO here is the place to display performance!
-                    // processedRecordCount is a sensible count to pass here as the number of records updated.
-                    TimingLogger.reset(processedRecordCount);
-                }
+                    if (++getRecordLoops % 100 == 0) {
+                        // TODO here is the place to display performance!
+                        // processedRecordCount is a sensible count to pass here as the number of records updated.
+                        TimingLogger.reset(processedRecordCount);
+                    }
 
-                
-                for (Record in : records) {
-                	//LOG.debug("PRE-processing record id=" + in.getId());                	
-                    TimingLogger.start(getServiceName() + ".preprocess");
-                    try {
-                        preProcess(in);
-                    } catch (Throwable t) {
-                        LOG.error("error preprocessing record w/ id: " + in.getId(), t);
+                    List<Future<Object>> prepared = null;
+                    if (preProcessingPool != null) {
+                        prepared = prepareInParallel(records, preProcessingPool);
                     }
-                    processedRecordCount++;
-                    TimingLogger.stop(getServiceName() + ".preprocess");
+                    for (int i = 0; i < records.size(); i++) {
+                        Record in = records.get(i);
+                    	//LOG.debug("PRE-processing record id=" + in.getId());                	
+                        TimingLogger.start(preprocessTimingName);
+                        long preprocessStart = preprocessTimer.start();
+                        try {
+                            if (prepared == null) {
+                                preProcess(in);
+                            } else {
+                                preProcess(in, prepared.get(i).get());
+                            }
+                        } catch (Throwable t) {
+                            LOG.error("error preprocessing record w/ id: " + in.getId(), t);
+                        }
+                        processedRecordCount++;
+                        preprocessTimer.stop(preprocessStart);
+                        TimingLogger.stop(preprocessTimingName);
                     
-                    sh.setHighestId(in.getId());
-                }
+                        sh.setHighestId(in.getId());
+                    }
                 
-                records = getRecords(repo, sh, inputFormat, inputSet);
+                    records = cursor.hasNext() ? cursor.next() : null;
+                }
+            } finally {
+                cursor.close();
+                if (preProcessingPool != null) {
+                    preProcessingPool.shutdown();
+                }
             }
             if (atLeastOneRecordProcessed) preProcessCompleted();
         }
@@ -623,7 +737,9 @@ public abstract class GenericMetadataService extends SolrMetadataService
         }
 
         sh.setHighestId(null); // reset harvest
-        List<Record> records = getRecords(repo, sh, inputFormat, inputSet);
+        highestIdBeingWritten = null;
+        RecordCursor cursor = getRecordCursor(repo, sh, inputFormat, inputSet);
+        List<Record> records = cursor.hasNext() ? cursor.next() : null;
 
 //LOG.error("GenericMetadataService, processing repo "+ repo.getName()+" NOW. Actual RecordCount: " + records.size());
 
@@ -638,167 +754,46 @@ public abstract class GenericMetadataService extends SolrMetadataService
         previouslyPaused = false;
         int getRecordLoops = 0;
         atLeastOneRecordProcessed = false;
-        while (records != null && records.size() > 0 && !stopped) {
-            atLeastOneRecordProcessed = true;
-            if (paused) {
-                previouslyPaused = true;
-                running.release();
-                try {
-                    Thread.sleep(1000);
-                } catch (Throwable t) {
-                    throw new RuntimeException(t);
-                }
-                continue;
-            }
-            if (previouslyPaused) {
-                running.acquireUninterruptibly();
-                previouslyPaused = false;
-            }
-            if (++getRecordLoops % 100 == 0) {
-                // TODO here is the place to display performance!
-                // processedRecordCount is a sensible count to pass here as the number of records updated.
-                TimingLogger.reset(processedRecordCount);
-            }
-            //TODO here is the code to break out!!!!!
-            for (Record in : records) {
-            	//LOG.debug("processing record id=" + in.getId());            	
-            /*
-            for (int i=0; i<records.size();) {
-                Record in = customProcessQueue.pop();
-                if (in == null) {
-                    in = records.get(i);
-                    i++;
-                }
-                */
-                //START, intro stuff before processing
-
-
-                // TODO: currently the injected records here only contain ids.
-                // This is helpful enough if you simply want to overwrite the
-                // the existing record. Although I can't think of a reason
-                // why, someone might also want the xml with these injected
-                // records.
-                // We may want to supply an optional way of doing that.
-                in.setPreviousStatus(Record.NULL);
-                injectKnownData(in);
-                if (in.getMessages() != null) {
-                    for (RecordMessage rm : in.getMessages()) {
-                        if (rm.getServiceId() == getService().getId()) {
-                            messages2delete.add(rm.clone());
-                        }
-                    }
-                }
-                if (preserveStatuses) {
-                    if (!isSolrIndexer()) {
-                        previousStatuses.put(in.getId(), (byte) in.getStatus());
-                    }
-                    tempPreviousStatuses.put(in.getId(), (byte) in.getStatus());
-                }
-                Map<Long, OutputRecord> origSuccessorMap = new HashMap<Long, OutputRecord>();
-                if (in.getSuccessors() != null && in.getSuccessors().size() > 0) {
-                    for (OutputRecord or : in.getSuccessors()) {
-                        origSuccessorMap.put(or.getId(), or.clone());
+        startProcessingPool();
+        try {
+            while (records != null && !stopped) {
+                atLeastOneRecordProcessed = true;
+                if (paused) {
+                    previouslyPaused = true;
+                    running.release();
+                    try {
+                        Thread.sleep(1000);
+                    } catch (Throwable t) {
+                        throw new RuntimeException(t);
                     }
+                    continue;
                 }
-                //END, intro stuff before processing
-
-                // START, real processing!
-                TimingLogger.start(getServiceName() + ".process");
-                List<OutputRecord> out = null;
-                boolean unexpectedError = false;
-                try {
-                    out = process(in);
-                } catch (Throwable t) {
-                    unexpectedError = true;
-                    LOG.error("error processing record w/ id: " + in.getId(), t);
+                if (previouslyPaused) {
+                    running.acquireUninterruptibly();
+                    previouslyPaused = false;
                 }
-                TimingLogger.stop(getServiceName() + ".process");
-                // END, real processing!
-
-
-                // START, post-processing record count handling!
-                if (!isSolrIndexer() && !isTestRepository()) {
-                    if (in.getType() != null) {
-                        getMetadataServiceManager().getIncomingRecordCounts()
-                                .incr(in.getType(), in.getStatus(),
-                                        in.getPreviousStatus());
-                    } else {
-                        getMetadataServiceManager().getIncomingRecordCounts()
-                                .incr(RecordCounts.OTHER, in.getStatus(),
-                                        in.getPreviousStatus());
-                    }
-                    getMetadataServiceManager().getIncomingRecordCounts().incr(
-                            null, in.getStatus(), in.getPreviousStatus());
+                if (++getRecordLoops % 100 == 0) {
+                    // TODO here is the place to display performance!
+                    // processedRecordCount is a sensible count to pass here as the number of records updated.
+                    TimingLogger.reset(processedRecordCount);
                 }
-
-                if (unexpectedError) {
-                    if (!isSolrIndexer() && !isTestRepository()) {
-                        if (in.getType() != null) {
-                            getMetadataServiceManager().getIncomingRecordCounts()
-                                    .incr(in.getType(),
-                                            RecordCounts.UNEXPECTED_ERROR);
-                        }
-                        getMetadataServiceManager().getIncomingRecordCounts().incr(
-                                null, RecordCounts.UNEXPECTED_ERROR);
-                    }
+                //TODO here is the code to break out!!!!!
+                if (processingPool != null) {
+                    processInParallel(records, sh);
                 } else {
-                    processedRecordCount++;
-                    if (out != null) {
-                        // start processing the received OutputRecord(s)
-                        for (RecordIfc rout : out) {
-                            messages2deleteByRecordId.add(rout.getId());
-                            Record rout2 = (Record) rout;
-                            if (origSuccessorMap.containsKey(rout2.getId())) {
-                                rout2.setPreviousStatus(origSuccessorMap.get(
-                                        rout2.getId()).getStatus());
-                            }
-                            LOG.debug("rout2.getIndexedObjectType(): "
-                                    + rout2.getType() + " rout2.getStatus(): "
-                                    + rout2.getStatus()
-                                    + " rout2.getPreviousStatus(): "
-                                    + rout2.getPreviousStatus());
-               ///
-               ///LOG.info("rout id="+rout.getId()+" rout2.getIndexedObjectType(): "
-               //       + rout2.getType() + " rout2.getStatus(): "
-               //       + rout2.getStatus()
-               //      + " rout2.getPreviousStatus(): "
-               //+ rout2.getPreviousStatus());
-               ///
-                            if (!isTestRepository()) {
-                                // one last bit of record counting.
-                                incrementOutputRecordCounts(rout2);
-                            }
-                            // finally, actually process the received records.
-                            addPredecessor(in, rout2);
-                            rout2.setService(getService());
-                            if (rout2.getId() == -1) {
-                                getRepositoryDAO().injectId(rout2);
-                            }
-                            if (outputSet != null) {
-                                rout2.addSet(outputSet);
-                            }
-                            getRepository().addRecord(rout2);
-                        }
-                    }
+                    processSerially(records, sh);
                 }
-                // END, post-processing record count handling!
+                //TODO end , code to break out!!!
 
-                sh.setHighestId(in.getId());
-                updateService(out, sh);
-
-                // TODO not inserting errors on input record.
-                // Update the error message on incoming record
-                // repo.addRecord(in);
-            }
-            //TODO end , code to break out!!!
+                if (commitIfNecessary(false, processedRecordCount)) {
+                    persistHarvest(sh);
+                }
 
-            if (commitIfNecessary(false, processedRecordCount)) {
-                getServiceDAO().persist(sh);
+                records = cursor.hasNext() ? cursor.next() : null;
             }
-
-            this.totalRecordCount = repo.getRecordCount(sh.getFrom(),
-                    sh.getUntil(), inputFormat, inputSet);
-            records = getRecords(repo, sh, inputFormat, inputSet);
+        } finally {
+            cursor.close();
+            stopProcessingPool();
         }
         // TODO not inserting errors on input record.
 
@@ -852,6 +847,286 @@ public abstract class GenericMetadataService extends SolrMetadataService
         setStatus(Status.NOT_RUNNING);
     }
 
+    /**
+     * Everything that happens to an incoming record before it's handed to process(InputRecord).
+     *
+     * @return the record's successors as they were before processing, keyed by id
+     */
+    protected Map<Long, OutputRecord> beforeProcess(Record in) {
+        //START, intro stuff before processing
+
+
+        // TODO: currently the injected records here only contain ids.
+        // This is helpful enough if you simply want to overwrite the
+        // the existing record. Although I can't think of a reason
+        // why, someone might also want the xml with these injected
+        // records.
+        // We may want to supply an optional way of doing that.
+        in.setPreviousStatus(Record.NULL);
+        injectKnownData(in);
+        if (in.getMessages() != null) {
+            for (RecordMessage rm : in.getMessages()) {
+                if (rm.getServiceId() == getService().getId()) {
+                    messages2delete.add(rm.clone());
+                }
+            }
+        }
+        if (preserveStatuses) {
+            if (!isSolrIndexer()) {
+                previousStatuses.put(in.getId(), (byte) in.getStatus());
+            }
+            tempPreviousStatuses.put(in.getId(), (byte) in.getStatus());
+        }
+        Map<Long, OutputRecord> origSuccessorMap = new HashMap<Long, OutputRecord>();
+        if (in.getSuccessors() != null && in.getSuccessors().size() > 0) {
+            for (OutputRecord or : in.getSuccessors()) {
+                origSuccessorMap.put(or.getId(), or.clone());
+            }
+        }
+        //END, intro stuff before processing
+        return origSuccessorMap;
+    }
+
+    /**
+     * Record counts, links and ids for the output of process(InputRecord), which is then added to
+     * the repository.
+     */
+    protected void afterProcess(Record in, List<OutputRecord> out, boolean unexpectedError,
+            Map<Long, OutputRecord> origSuccessorMap, ServiceHarvest sh) {
+        // START, post-processing record count handling!
+        if (!isSolrIndexer() && !isTestRepository()) {
+            if (in.getType() != null) {
+                getMetadataServiceManager().getIncomingRecordCounts()
+                        .incr(in.getType(), in.getStatus(),
+                                in.getPreviousStatus());
+            } else {
+                getMetadataServiceManager().getIncomingRecordCounts()
+                        .incr(RecordCounts.OTHER, in.getStatus(),
+                                in.getPreviousStatus());
+            }
+            getMetadataServiceManager().getIncomingRecordCounts().incr(
+                    null, in.getStatus(), in.getPreviousStatus());
+        }
+
+        if (unexpectedError) {
+            if (!isSolrIndexer() && !isTestRepository()) {
+                if (in.getType() != null) {
+                    getMetadataServiceManager().getIncomingRecordCounts()
+                            .incr(in.getType(),
+                                    RecordCounts.UNEXPECTED_ERROR);
+                }
+                getMetadataServiceManager().getIncomingRecordCounts().incr(
+                        null, RecordCounts.UNEXPECTED_ERROR);
+            }
+        } else {
+            processedRecordCount++;
+            if (out != null) {
+                // start processing the received OutputRecord(s)
+                for (RecordIfc rout : out) {
+                    messages2deleteByRecordId.add(rout.getId());
+                    Record rout2 = (Record) rout;
+                    if (origSuccessorMap.containsKey(rout2.getId())) {
+                        rout2.setPreviousStatus(origSuccessorMap.get(
+                                rout2.getId()).getStatus());
+                    }
+                    LOG.debug("rout2.getIndexedObjectType(): "
+                            + rout2.getType() + " rout2.getStatus(): "
+                            + rout2.getStatus()
+                            + " rout2.getPreviousStatus(): "
+                            + rout2.getPreviousStatus());
+       ///
+       ///LOG.info("rout id="+rout.getId()+" rout2.getIndexedObjectType(): "
+       //       + rout2.getType() + " rout2.getStatus(): "
+       //       + rout2.getStatus()
+       //      + " rout2.getPreviousStatus(): "
+       //+ rout2.getPreviousStatus());
+       ///
+                    if (!isTestRepository()) {
+                        // one last bit of record counting.
+                        incrementOutputRecordCounts(rout2);
+                    }
+                    // finally, actually process the received records.
+                    addPredecessor(in, rout2);
+                    rout2.setService(getService());
+                    if (rout2.getId() == -1) {
+                        getRepositoryDAO().injectId(rout2);
+                    }
+                    if (outputSet != null) {
+                        rout2.addSet(outputSet);
+                    }
+                    getRepository().addRecord(rout2);
+                }
+            }
+        }
+        // END, post-processing record count handling!
+
+        sh.setHighestId(in.getId());
+        updateService(out, sh);
+    }
+
+    /**
+     * Runs process(InputRecord) for a batch of records, one after the other on this thread.
+     */
+    protected void processSerially(List<Record> records, ServiceHarvest sh) {
+        for (Record in : records) {
+        	//LOG.debug("processing record id=" + in.getId());            	
+        /*
+        for (int i=0; i<records.size();) {
+            Record in = customProcessQueue.pop();
+            if (in == null) {
+                in = records.get(i);
+                i++;
+            }
+            */
+            Map<Long, OutputRecord> origSuccessorMap = beforeProcess(in);
+
+            // START, real processing!
+            TimingLogger.start(processTimingName);
+            long processStart = processTimer.start();
+            List<OutputRecord> out = null;
+            boolean unexpectedError = false;
+            try {
+                out = process(in);
+            } catch (Throwable t) {
+                unexpectedError = true;
+                LOG.error("error processing record w/ id: " + in.getId(), t);
+            }
+            processTimer.stop(processStart);
+            TimingLogger.stop(processTimingName);
+            // END, real processing!
+
+            afterProcess(in, out, unexpectedError, origSuccessorMap, sh);
+            // TODO not inserting errors on input record.
+            // Update the error message on incoming record
+            // repo.addRecord(in);
+        }
+    }
+
+    /**
+     * The result of running process(InputRecord) on a worker thread.
+     */
+    protected static class ProcessedRecord {
+        protected List<OutputRecord> out = null;
+        protected boolean unexpectedError = false;
+        protected List<RecordMessage> messages = new ArrayList<RecordMessage>();
+    }
+
+    /**
+     * Runs process(InputRecord) for a batch of records on processingPool. Only the calls to
+     * process(InputRecord) overlap: each record is prepared (beforeProcess) on this thread in
+     * batch order as it's submitted, and the results are taken back in batch order and handled
+     * (afterProcess) here as well. Each record gets its own block of ids to create its output
+     * records with, and the messages it adds are held back until its turn, so ids, links,
+     * messages, record counts and commits come out the same on every run.
+     */
+    protected void processInParallel(List<Record> records, ServiceHarvest sh) {
+        TimingLogger.start(getServiceName() + ".processInParallel");
+        List<Map<Long, OutputRecord>> origSuccessorMaps = new ArrayList<Map<Long, OutputRecord>>(records.size());
+        List<Future<ProcessedRecord>> results = new ArrayList<Future<ProcessedRecord>>(records.size());
+        for (final Record in : records) {
+            origSuccessorMaps.add(beforeProcess(in));
+            TLongArrayList ids = null;
+            if (in.getSuccessors() == null || in.getSuccessors().size() == 0) {
+                ids = getRepositoryDAO().reserveIds(idsReservedPerRecord);
+            }
+            final TLongArrayList reservedIds = ids;
+            results.add(processingPool.submit(new Callable<ProcessedRecord>() {
+                public ProcessedRecord call() {
+                    ProcessedRecord pr = new ProcessedRecord();
+                    getRepositoryDAO().setReservedIds(reservedIds);
+                    pendingMessages.set(pr.messages);
+                    long processStart = processTimer.start();
+                    try {
+                        pr.out = process(in);
+                    } catch (Throwable t) {
+                        pr.unexpectedError = true;
+                        LOG.error("error processing record w/ id: " + in.getId(), t);
+                    } finally {
+                        processTimer.stop(processStart);
+                        pendingMessages.remove();
+                        getRepositoryDAO().setReservedIds(null);
+                    }
+                    return pr;
+                }
+            }));
+        }
+        for (int i = 0; i < records.size(); i++) {
+            ProcessedRecord pr = null;
+            try {
+                pr = results.get(i).get();
+            } catch (Throwable t) {
+                getUtil().throwIt(t);
+            }
+            for (RecordMessage rm : pr.messages) {
+                getMessageDAO().injectId(rm);
+                messages2insert.add(rm);
+            }
+            afterProcess(records.get(i), pr.out, pr.unexpectedError, origSuccessorMaps.get(i), sh);
+        }
+        TimingLogger.stop(getServiceName() + ".processInParallel");
+    }
+
+    /**
+     * Runs prepareForPreProcess for a batch of records on pool.
+     *
+     * @return what it returned for each record, in batch order. An error is returned in place of
+     *         the result, so that preProcess sees it for that record.
+     */
+    protected List<Future<Object>> prepareInParallel(List<Record> records, ExecutorService pool) {
+        final Timer prepareTimer = Metrics.serviceTimer(getServiceName(), "preprocess.prepare");
+        List<Future<Object>> prepared = new ArrayList<Future<Object>>(records.size());
+        for (final Record in : records) {
+            prepared.add(pool.submit(new Callable<Object>() {
+                public Object call() {
+                    long start = prepareTimer.start();
+                    try {
+                        return prepareForPreProcess(in);
+                    } catch (Throwable t) {
+                        return t;
+                    } finally {
+                        prepareTimer.stop(start);
+                    }
+                }
+            }));
+        }
+        return prepared;
+    }
+
+    protected void startProcessingPool() {
+        processingPool = null;
+        if (isSolrIndexer() || !config.getPropertyAsBoolean("parallel_processing", false)) {
+            return;
+        }
+        idsReservedPerRecord = config.getPropertyAsInt("parallel_processing.ids_per_record", 1);
+        processingPool = newWorkerPool("parallel_processing.threads", "worker");
+    }
+
+    /**
+     * @param threadsProperty the property giving the number of threads, 0 meaning one per processor
+     */
+    protected ExecutorService newWorkerPool(String threadsProperty, final String threadName) {
+        int threads = config.getPropertyAsInt(threadsProperty, 0);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        LOG.info(getServiceName() + " is using " + threads + " " + threadName + " threads");
+        final AtomicInteger threadNum = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, getServiceName() + "-" + threadName + "-" + threadNum.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    protected void stopProcessingPool() {
+        if (processingPool != null) {
+            processingPool.shutdown();
+            processingPool = null;
+        }
+    }
+
     protected void incrementOutputRecordCounts(Record rout2) {
         //increment type's counts, i.e. 'bib' or 'unknown' if type is null.
         if (rout2.getType() != null) {
@@ -995,7 +1270,6 @@ public abstract class GenericMetadataService extends SolrMetadataService
             String detail) {
         Record r = (Record) record;
         RecordMessage rm = new RecordMessage();
-        getMessageDAO().injectId(rm);
         rm.setServiceId(getService().getId());
         rm.setInputRecord(false);
         rm.setCode(code);
@@ -1003,7 +1277,7 @@ public abstract class GenericMetadataService extends SolrMetadataService
         rm.setDetail(detail);
         rm.setRecord(r);
 
-        messages2insert.add(rm);
+        addMessage(rm);
     }
 
     protected void addMessage(InputRecord record, int code, char level, String detail, Service service) {
@@ -1013,7 +1287,6 @@ public abstract class GenericMetadataService extends SolrMetadataService
         }
         Record r = (Record) record;
         RecordMessage rm = new RecordMessage();
-        getMessageDAO().injectId(rm);
         rm.setServiceId(service.getId());
         rm.setInputRecord(true);
         rm.setCode(code);
@@ -1021,7 +1294,18 @@ public abstract class GenericMetadataService extends SolrMetadataService
         rm.setDetail(detail);
         rm.setRecord(r);
 
-        messages2insert.add(rm);
+        addMessage(rm);
+    }
+
+    private void addMessage(RecordMessage rm) {
+        List<RecordMessage> pending = pendingMessages.get();
+        if (pending != null) {
+            // on a worker thread; processInParallel gives it an id and queues it in record order
+            pending.add(rm);
+        } else {
+            getMessageDAO().injectId(rm);
+            messages2insert.add(rm);
+        }
     }
 
     protected void addMessage(InputRecord record, int code, char level) {
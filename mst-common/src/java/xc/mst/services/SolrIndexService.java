@@ -8,6 +8,8 @@
  */
 package xc.mst.services;
 
+import gnu.trove.TLongIntHashMap;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -16,10 +18,6 @@ import java.util.List;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.apache.solr.common.SolrInputDocument;
-import org.jdom.Element;
-import org.jdom.JDOMException;
-import org.jdom.Namespace;
-import org.jdom.xpath.XPath;
 
 import xc.mst.bo.provider.Format;
 import xc.mst.bo.provider.Set;
@@ -33,7 +31,7 @@ import xc.mst.repo.DefaultRepository;
 import xc.mst.repo.Repository;
 import xc.mst.utils.MSTConfiguration;
 import xc.mst.utils.TimingLogger;
-import xc.mst.utils.XmlHelper;
+import xc.mst.utils.index.FieldExtractor;
 import xc.mst.utils.index.SolrIndexManager;
 
 public class SolrIndexService extends GenericMetadataService {
@@ -46,6 +44,14 @@ public class SolrIndexService extends GenericMetadataService {
 
     protected String name4progressBar = null;
 
+    // Whether this run indexes the records queued in the repo's record_changes, rather than those
+    // updated since the last run. The queued records read but not yet indexed are in
+    // unindexedChanges, those indexed but not yet committed in indexedChanges (record_id ->
+    // changes, see RepositoryDAO.getChanges). Pages may be read ahead on another thread.
+    protected boolean changeLog = false;
+    protected TLongIntHashMap unindexedChanges = new TLongIntHashMap();
+    protected TLongIntHashMap indexedChanges = new TLongIntHashMap();
+
     private static final String id_identifier_key =  "id_identifier_key";
     private static final String  xc_record_id_w =  "xc_record_id_w";
     private static final String  record_id_l = "record_id_l";
@@ -93,6 +99,18 @@ public class SolrIndexService extends GenericMetadataService {
     private static final String  id_004_key = "id_004_key";
     private static final String  id_014_key = "id_014_key";
 
+    // The fields indexed for each kind of record. All of a record's fields come out of one pass
+    // over its xml (see FieldExtractor) rather than an XPath and a parse for each of them.
+    protected FieldExtractor xcExtractor = null;
+    protected IndexedFields xcWorkFields = null;
+    protected IndexedFields xcExpressionFields = null;
+    protected IndexedFields xcManifestationFields = null;
+    protected IndexedFields xcHoldingsFields = null;
+    protected FieldExtractor marcExtractor = null;
+    protected int marcLeaderPath = -1;
+    protected IndexedFields marcBibFields = null;
+    protected IndexedFields marcHoldingsFields = null;
+
     public void init() {
         //TODO get these out of config file!
         //  note, for solr to recognize as dynamic field I've add _key, and others like _l,
@@ -143,6 +161,64 @@ public class SolrIndexService extends GenericMetadataService {
         registerId(" - xc:manifestationHeld", id_xc_manifestationHeld_l);
         registerId(" - marc:controlfield 004", id_004_key);
         registerId(" - marc:datafield 014$a",  id_014_key);
+
+        setupFields();
+    }
+
+    protected void setupFields() {
+        xcExtractor = new FieldExtractor();
+        xcWorkFields = new IndexedFields(xcExtractor)
+                .add("//rdvocab:titleOfWork", false, id_title_key, rdvocab_titleOfWork_key)
+                .add("//xc:creator", true, id_author_key, xc_creator_key)
+                .add("//rdarole:author", true, id_author_key, xc_rdarole_author_key)
+                .add("//rdarole:compiler", true, id_author_key, xc_rdarole_compiler_key)
+                .add("//rdarole:composer", true, id_author_key, xc_rdarole_composer_key)
+                .add("//rdarole:speaker", true, id_author_key, xc_rdarole_speaker_key)
+                .add("//dcterms:creator", true, id_author_key, dcterms_creator_key)
+                .add("//rdarole:director", true, id_author_key, xc_rdarole_director_key)
+                .add("//rdarole:producer", true, id_author_key, xc_rdarole_producer_key);
+        xcExpressionFields = new IndexedFields(xcExtractor)
+                .addStripped("//xc:workExpressed", true, id_uplink_key, id_xc_workExpressed_l)
+                .add("//xc:titleOfExpression", false, id_title_key, xc_titleOfExpression_key)
+                .add("//xc:contributor", true, id_author_key, xc_contributor_key)
+                .add("//dcterms:contributor", true, id_author_key, dcterms_contributor_key)
+                .add("//rdarole:director", true, id_author_key, xc_rdarole_director_key)
+                .add("//rdarole:editor", true, id_author_key, xc_rdarole_editor_key)
+                .add("//rdarole:illustrator", true, id_author_key, xc_rdarole_illustrator_key)
+                .add("//rdarole:performer", true, id_author_key, xc_rdarole_performer_key)
+                .add("//rdarole:producer", true, id_author_key, xc_rdarole_producer_key)
+                .add("//rdarole:translator", true, id_author_key, xc_rdarole_translator_key);
+        xcManifestationFields = new IndexedFields(xcExtractor)
+                .addStripped("//xc:expressionManifested", true, id_uplink_key, id_xc_expressionManifested_l)
+                .add("//dcterms:title", false, id_title_key, dcterms_title_key)
+                .add("//dcterms:identifier", false, id_resIdent_key, id_manDCTermsIdent_key)
+                // this produces some mixed values, could strip it but for now, just accept text.  require exact match for now.
+                .add("//xc:recordID", true, id_identifier_key, xc_record_id_w);
+        xcHoldingsFields = new IndexedFields(xcExtractor)
+                .addStripped("//xc:manifestationHeld", true, id_uplink_key, id_xc_manifestationHeld_l)
+                .add("//xc:callNumber", false, id_callnum_key, xc_callnum_key)
+                .add("//dcterms:identifier", false, id_resIdent_key, id_holdDCTermsIdent_key);
+
+        marcExtractor = new FieldExtractor();
+        marcLeaderPath = marcExtractor.addPath("//marc:leader");
+        marcBibFields = new IndexedFields(marcExtractor)
+                .add("//marc:controlfield[@tag='001']", false, id_identifier_key, id_001bib_key)
+                .add("//marc:datafield[@tag='035']/marc:subfield[@code='a']", true, id_identifier_key, id_035bib_key)
+                .add("//marc:datafield[@tag='245']/marc:subfield[@code='a']", false, id_title_key, id_245_key)
+                .add("//marc:datafield[@tag='245']/marc:subfield[@code='b']", false, id_title_key, id_245_key)
+                .add("//marc:datafield[@tag='100']/marc:subfield[@code='a']", false, id_author_key, id_100a_key)
+                .add("//marc:datafield[@tag='110']/marc:subfield[@code='a']", false, id_author_key, id_110a_key)
+                .add("//marc:datafield[@tag='111']/marc:subfield[@code='a']", false, id_author_key, id_111a_key)
+                .add("//marc:datafield[@tag='700']/marc:subfield[@code='a']", true, id_author_key, id_700a_key)
+                .add("//marc:datafield[@tag='710']/marc:subfield[@code='a']", true, id_author_key, id_710a_key)
+                .add("//marc:datafield[@tag='711']/marc:subfield[@code='a']", false, id_author_key, id_711a_key)
+                .add("//marc:datafield[@tag='953']/marc:subfield[@code='h']", true, id_callnum_key, id_953h_key);
+        marcHoldingsFields = new IndexedFields(marcExtractor)
+                .add("//marc:controlfield[@tag='001']", false, id_identifier_key, id_001hold_key)
+                .add("//marc:datafield[@tag='014']/marc:subfield[@code='a']", true, id_uplink_key, id_014_key)
+                .add("//marc:controlfield[@tag='004']", false, id_uplink_key, id_004_key)
+                .add("//marc:datafield[@tag='852']/marc:subfield[@code='h']", false, id_callnum_key, id_852h_key)
+                .add("//marc:datafield[@tag='852']/marc:subfield[@code='i']", false, id_callnum_key, id_852i_key);
     }
 
     public String getName4progressBar() {
@@ -150,10 +226,25 @@ public class SolrIndexService extends GenericMetadataService {
     }
 
     @Override
-    protected List<Record> getRecords(Repository repo, ServiceHarvest sh, Format inputFormat, Set inputSet) {
+    protected List<Record> getRecords(Repository repo, ServiceHarvest sh, Long startingId, Format inputFormat, Set inputSet) {
+            if (changeLog) {
+                TimingLogger.start("getChangedRecordsWSets");
+                // read first, so a record changed again while this page is read stays queued
+                TLongIntHashMap changes = getRepositoryDAO().getChanges(repo.getName(), startingId);
+                List<Record> rs = ((DefaultRepository) repo).getChangedRecordsWSets(startingId);
+                synchronized (unindexedChanges) {
+                    for (Record r : rs) {
+                        if (changes.containsKey(r.getId())) {
+                            unindexedChanges.put(r.getId(), changes.get(r.getId()));
+                        }
+                    }
+                }
+                TimingLogger.stop("getChangedRecordsWSets");
+                return rs;
+            }
             TimingLogger.start("getRecordsWSets");
             List<Record> rs =
-                ((DefaultRepository)repo).getRecordsWSets(sh.getFrom(), sh.getUntil(), sh.getHighestId(), null);
+                ((DefaultRepository)repo).getRecordsWSets(sh.getFrom(), sh.getUntil(), startingId, null);
             TimingLogger.stop("getRecordsWSets");
             /*
             if (loops++ % 1000 == 0) {
@@ -173,6 +264,14 @@ public class SolrIndexService extends GenericMetadataService {
                 getSolrIndexManager().commitIndex();
                 TimingLogger.stop("commitIndex");
                 recordsProcessedSinceCommit=0;
+                if (changeLog) {
+                    TLongIntHashMap committed;
+                    synchronized (unindexedChanges) {
+                        committed = indexedChanges;
+                        indexedChanges = new TLongIntHashMap();
+                    }
+                    getRepositoryDAO().removeChanges(incomingRepository.getName(), committed);
+                }
                 /***
                  * We no longer optimize the SOLR index automatically.  It's a rather expensive operation
                  * which should instead be performed as a stand-alone (cron?) administrative process
@@ -193,6 +292,17 @@ public class SolrIndexService extends GenericMetadataService {
         this.incomingRepository = repo;
         this.preserveStatuses = false;
         try {
+            // A repo's first run, or the first since record_changes was added, goes by dates as
+            // before; record_changes is created as it starts, so it holds everything since.
+            changeLog = getRepositoryDAO().hasChangeLog(repo.getName());
+            if (!changeLog) {
+                getRepositoryDAO().createChangeLog(repo.getName());
+            }
+            LOG.info("SolrIndexService, indexing " + (changeLog ? "the changed records of " : "the updated records of ") + repo.getName());
+            synchronized (unindexedChanges) {
+                unindexedChanges.clear();
+                indexedChanges.clear();
+            }
 //LOG.error("SolrIndexService, processing repo "+ repo.getName()+" NOW...");
             super.process(repo, inputFormat, inputSet, outputSet);
         } catch (Exception e) {
@@ -202,6 +312,13 @@ public class SolrIndexService extends GenericMetadataService {
 
     public List<OutputRecord> process(InputRecord ri) {
         recordsProcessedSinceCommit++;
+        if (changeLog) {
+            synchronized (unindexedChanges) {
+                if (unindexedChanges.containsKey(ri.getId())) {
+                    indexedChanges.put(ri.getId(), unindexedChanges.remove(ri.getId()));
+                }
+            }
+        }
         this.name4progressBar = "indexing "+incomingRepository.getName();
 
         /*
@@ -298,92 +415,16 @@ public class SolrIndexService extends GenericMetadataService {
             if (format.equals(xc)) {
                 if (type != null) {
                     if (type.equals("w")) {
-                        addFieldToIndex(ri, doc, "//rdvocab:titleOfWork",
-                                Collections.unmodifiableList(Arrays.asList(id_title_key, rdvocab_titleOfWork_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//xc:creator",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_creator_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:author",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_author_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:compiler",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_compiler_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:composer",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_composer_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:speaker",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_speaker_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//dcterms:creator",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, dcterms_creator_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:director",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_director_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:producer",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key,xc_rdarole_producer_key)),
-                                true);
+                        addFields(ri, doc, xcWorkFields);
                     }
                     if (type.equals("e")) {
-                        addFieldToIndex(ri, doc, "//xc:workExpressed",
-                                Collections.unmodifiableList(Arrays.asList(id_uplink_key, id_xc_workExpressed_l)),
-                                true, true);
-
-                        addFieldToIndex(ri, doc, "//xc:titleOfExpression",
-                                Collections.unmodifiableList(Arrays.asList(id_title_key, xc_titleOfExpression_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//xc:contributor",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_contributor_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//dcterms:contributor",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, dcterms_contributor_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:director",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_director_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:editor",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_editor_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:illustrator",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_illustrator_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:performer",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_performer_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:producer",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_producer_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//rdarole:translator",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, xc_rdarole_translator_key)),
-                                true);
+                        addFields(ri, doc, xcExpressionFields);
                     }
                     if (type.equals("m")) {
-                        addFieldToIndex(ri, doc, "//xc:expressionManifested",
-                                Collections.unmodifiableList(Arrays.asList(id_uplink_key, id_xc_expressionManifested_l)),
-                                true, true);
-                        addFieldToIndex(ri, doc, "//dcterms:title",
-                                Collections.unmodifiableList(Arrays.asList(id_title_key, dcterms_title_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//dcterms:identifier",
-                                Collections.unmodifiableList(Arrays.asList(id_resIdent_key, id_manDCTermsIdent_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//xc:recordID",
-                                // this produces some mixed values, could strip it but for now, just accept text.  require exact match for now.
-                                Collections.unmodifiableList(Arrays.asList(id_identifier_key, xc_record_id_w)),
-                                true);
+                        addFields(ri, doc, xcManifestationFields);
                     }
                     if (type.equals("h")) {
-                        addFieldToIndex(ri, doc, "//xc:manifestationHeld",
-                                Collections.unmodifiableList(Arrays.asList(id_uplink_key, id_xc_manifestationHeld_l)),
-                                true, true);
-                        addFieldToIndex(ri, doc, "//xc:callNumber",
-                                Collections.unmodifiableList(Arrays.asList(id_callnum_key, xc_callnum_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//dcterms:identifier",
-                                Collections.unmodifiableList(Arrays.asList(id_resIdent_key, id_holdDCTermsIdent_key)),
-                                false);
+                        addFields(ri, doc, xcHoldingsFields);
                     }
                 }
             }
@@ -397,70 +438,28 @@ public class SolrIndexService extends GenericMetadataService {
                     // get identifiers that could be present only in a bib marc21 record
                     if (type.equals("b")) {
                         LOG.debug("*** SolrIndexService, found a Marc, type=" +type);
-                        addFieldToIndex(ri, doc, "//marc:controlfield[@tag='001']",
-                                Collections.unmodifiableList(Arrays.asList(id_identifier_key, id_001bib_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='035']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_identifier_key, id_035bib_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='245']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_title_key, id_245_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='245']/marc:subfield[@code='b']",
-                                Collections.unmodifiableList(Arrays.asList(id_title_key, id_245_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='100']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, id_100a_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='110']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, id_110a_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='111']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, id_111a_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='700']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, id_700a_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='710']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, id_710a_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='711']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_author_key, id_711a_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='953']/marc:subfield[@code='h']",
-                                Collections.unmodifiableList(Arrays.asList(id_callnum_key,id_953h_key)),
-                                true);
+                        addFields(ri, doc, marcBibFields);
                     }
                     // get identifiers that could be present only in a holdings marc21 record
                     else if (type.equals("h")) {
                         LOG.debug("*** SolrIndexService, found a Marc, type=" +type);
-                        addFieldToIndex(ri, doc, "//marc:controlfield[@tag='001']",
-                                Collections.unmodifiableList(Arrays.asList(id_identifier_key, id_001hold_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='014']/marc:subfield[@code='a']",
-                                Collections.unmodifiableList(Arrays.asList(id_uplink_key,id_014_key)),
-                                true);
-                        addFieldToIndex(ri, doc, "//marc:controlfield[@tag='004']",
-                                Collections.unmodifiableList(Arrays.asList(id_uplink_key,id_004_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='852']/marc:subfield[@code='h']",
-                                Collections.unmodifiableList(Arrays.asList(id_callnum_key,id_852h_key)),
-                                false);
-                        addFieldToIndex(ri, doc, "//marc:datafield[@tag='852']/marc:subfield[@code='i']",
-                                Collections.unmodifiableList(Arrays.asList(id_callnum_key,id_852i_key)),
-                                false);
+                        addFields(ri, doc, marcHoldingsFields);
                     }
                 }
                 else {
                     try {
-                        // TODO this should be refactored to use common code along with TransfromationService where the exact same thing is done
-                        ri.setMode(Record.STRING_MODE);
-                        SaxMarcXmlRecord originalRecord = new SaxMarcXmlRecord(ri.getOaiXml());
+                        // the leader comes out of the same pass as the fields, so the record is
+                        // still only parsed once
+                        List<String>[] values = extract(ri, marcExtractor);
+                        String leader = null;
+                        if (values != null && values[marcLeaderPath].size() > 0) {
+                            leader = values[marcLeaderPath].get(0);
+                        }
 
                         boolean isBib = false;
                         boolean isHolding = false;
 
-                        char leader06 = originalRecord.getLeader().charAt(6);
+                        char leader06 = leader == null || leader.length() < 7 ? ' ' : leader.charAt(6);
                         if ("abcdefghijkmnoprt".contains("" + leader06)) {
                             isBib = true;
                         } else if (leader06 == 'u' || leader06 == 'v' || leader06 == 'x' || leader06 == 'y') {
@@ -469,58 +468,12 @@ public class SolrIndexService extends GenericMetadataService {
                             logDebug("Record Id " + ri.getId() + " with leader character " + leader06 + " not processed.");
                         }
                         if (isBib) {
-                            addFieldToIndex(ri, doc, "//marc:controlfield[@tag='001']",
-                                    Collections.unmodifiableList(Arrays.asList(id_identifier_key, id_001bib_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='035']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_identifier_key, id_035bib_key)),
-                                    true);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='245']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_title_key, id_245_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='245']/marc:subfield[@code='b']",
-                                    Collections.unmodifiableList(Arrays.asList(id_title_key, id_245_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='100']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_author_key, id_100a_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='110']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_author_key, id_110a_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='111']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_author_key, id_111a_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='700']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_author_key, id_700a_key)),
-                                    true);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='710']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_author_key, id_710a_key)),
-                                    true);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='711']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_author_key, id_711a_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='953']/marc:subfield[@code='h']",
-                                    Collections.unmodifiableList(Arrays.asList(id_callnum_key,id_953h_key)),
-                                    true);
+                            addFields(doc, marcBibFields, values);
                         }
                         // get identifiers that could be present only in a holdings marc21 record
                         else if (isHolding) {
                             LOG.debug("*** SolrIndexService, found a Marc, type=" +type);
-                            addFieldToIndex(ri, doc, "//marc:controlfield[@tag='001']",
-                                    Collections.unmodifiableList(Arrays.asList(id_identifier_key, id_001hold_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='014']/marc:subfield[@code='a']",
-                                    Collections.unmodifiableList(Arrays.asList(id_uplink_key,id_014_key)),
-                                    true);
-                            addFieldToIndex(ri, doc, "//marc:controlfield[@tag='004']",
-                                    Collections.unmodifiableList(Arrays.asList(id_uplink_key,id_004_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='852']/marc:subfield[@code='h']",
-                                    Collections.unmodifiableList(Arrays.asList(id_callnum_key,id_852h_key)),
-                                    false);
-                            addFieldToIndex(ri, doc, "//marc:datafield[@tag='852']/marc:subfield[@code='i']",
-                                    Collections.unmodifiableList(Arrays.asList(id_callnum_key,id_852i_key)),
-                                    false);
+                            addFields(doc, marcHoldingsFields, values);
                         }
                     } catch (Exception e) {
                         LOG.debug("Error determining or indexing raw.", e);
@@ -561,122 +514,117 @@ public class SolrIndexService extends GenericMetadataService {
         return null;
     }
 
-    private void addFieldToIndex(InputRecord ri, SolrInputDocument doc, String xpStr, String key, boolean repeats) {
-        ArrayList<String> list = new ArrayList<String>();
-        list.add(key);
-        addFieldToIndex(ri, doc, xpStr, list, repeats);
+    /**
+     * Adds the fields to doc. The record's xml is parsed once for all of them.
+     */
+    protected void addFields(InputRecord ri, SolrInputDocument doc, IndexedFields fields) {
+        List<String>[] values = extract(ri, fields.extractor);
+        if (values != null) {
+            addFields(doc, fields, values);
+        }
+    }
+
+    /**
+     * @return what extractor.extract() returns for the record's xml, or null if it has none or
+     *         it can't be parsed
+     */
+    protected List<String>[] extract(InputRecord ri, FieldExtractor extractor) {
+        ri.setMode(Record.STRING_MODE);
+        String xStr = ri.getOaiXml();
+        if (StringUtils.isEmpty(xStr)) {
+            return null;
+        }
+        try {
+            return extractor.extract(xStr);
+        } catch (Throwable t) {
+            LOG.debug("", t);
+            return null;
+        }
     }
-    private void addFieldToIndex(InputRecord ri, SolrInputDocument doc, String xpStr, List<String> keys, boolean repeats) {
-        addFieldToIndex(ri, doc, xpStr, keys, repeats, false);
+
+    protected void addFields(SolrInputDocument doc, IndexedFields fields, List<String>[] values) {
+        for (IndexedField field : fields.fields) {
+            addField(doc, field, values[field.path]);
+        }
     }
 
-    // if param 'strip' is true, then remove all but the number portions of things like the strings below:
+    // if field.strip is true, then remove all but the number portions of things like the strings below:
     //
     // <xc:workExpressed>oai:mst.rochester.edu:MetadataServicesToolkit/marctoxctransformation/19693841</xc:workExpressed>
     // <xc:expressionManifested>oai:mst.rochester.edu:MetadataServicesToolkit/marctoxctransformation/13947986</xc:expressionManifested>
     // <xc:manifestationHeld>oai:mst.rochester.edu:MetadataServicesToolkit/marctoxctransformation/18940216</xc:manifestationHeld>
     //
-    private void addFieldToIndex(InputRecord ri, SolrInputDocument doc, String xpStr, List<String> keys, boolean repeats, boolean strip) {
-        ri.setMode(Record.STRING_MODE);
-        List<Element> elements = null;
-        String xStr = ri.getOaiXml();
-        if (!StringUtils.isEmpty(xStr)) {
-            try {
-                elements = getFieldValue(xpStr, xStr);
-            } catch (Throwable t) {
-                LOG.debug("", t);
-            }
+    protected void addField(SolrInputDocument doc, IndexedField field, List<String> values) {
+        if (values.size() == 0) {
+            if (LOG.isDebugEnabled())
+                LOG.debug("The " + field.xpath + " field did not exist in the record.");
+            return;
         }
-        if (elements != null) {
-            if (repeats) {
-                for (Element element: elements) {
-                    for (String key: keys) {
-                        LOG.debug("*** SolrIndexService, adding ident: "+ key +" add data:"+element.getText());
-                        //if (key.endsWith("_l")) {
-                        //    LOG.info("*** SolrIndexService, adding ident: "+ key +" add data:"+element.getText());
-                        //}
-
-                        if (strip) {
-                            String stripped=null;
-                            try {
-                                stripped = element.getText().replaceAll("[^\\d]", "");
-                                Long.parseLong(stripped);
-                                doc.addField(key, stripped);
-                            }catch(NumberFormatException e) {
-                                LOG.error("** Problem with stripped string, not numeric, key="+key+" all_data="+element.getText()+ " stripped="+stripped);
-                            }
-
-                        }
-                        else {
-                            doc.addField(key, element.getText());
-                        }
+        // only the first one, unless the field repeats
+        List<String> toAdd = field.repeats ? values : values.subList(0, 1);
+        for (String value : toAdd) {
+            for (String key : field.keys) {
+                LOG.debug("*** SolrIndexService, adding ident: "+ key +" add data:"+value);
+                if (field.strip) {
+                    String stripped=null;
+                    try {
+                        stripped = value.replaceAll("[^\\d]", "");
+                        Long.parseLong(stripped);
+                        doc.addField(key, stripped);
+                    }catch(NumberFormatException e) {
+                        LOG.error("** Problem with stripped string, not numeric, key="+key+" all_data="+value+ " stripped="+stripped);
                     }
                 }
-            }
-            else {
-                for (String key: keys) {
-                    //if (key.endsWith("_l")) {
-                    //    LOG.info("*** SolrIndexService, adding ident: "+ key +" add data:"+elements.get(0).getText());
-                    //}
-                    if (strip) {
-                        String stripped=null;
-                        try {
-                            stripped = elements.get(0).getText().replaceAll("[^\\d]", "");
-                            Long.parseLong(stripped);
-                            doc.addField(key, stripped);
-                        }catch(NumberFormatException e) {
-                            LOG.error("**2) Problem with stripped string, not numeric, key="+key+" all_data="+elements.get(0).getText()+ " stripped="+stripped);
-                        }
-                    }
-                    else {
-                        doc.addField(key, elements.get(0).getText());
-                    }
+                else {
+                    doc.addField(key, value);
                 }
             }
         }
-        // m_recordRegisteredData.add(new RegisteredData("id_title_key", elements.get(0).getText()));
     }
 
     /**
-     * Gets the value of a MARC XML field
-     *
-     * @param targetField
-     *            The field to retrieve (for example, "008")
-     * @return The value of the requested field
+     * A field to index: the path to its value in the record and the solr fields to put it in.
      */
-    @SuppressWarnings("unchecked")
-    private List<Element> getFieldValue(String xpathStr, String xml) {
-        try {
-            //TODO change this over to sax, when I do method signature probably will change to return list of Strings vs. Elements
-            Namespace marcNamespace = Namespace.getNamespace("marc", "http://www.loc.gov/MARC21/slim");
-            List<Element> elements = null;
-            XPath xpath = XPath.newInstance(xpathStr);
-            xpath.addNamespace(marcNamespace);
-
-            // Get the control field. There should not be more than one Element in this list.
-            // start with dom, move to sax.
-            org.jdom.Document doc = new XmlHelper().getJDomDocument(xml);
-
-            elements = xpath.selectNodes(doc);
-
-            if (elements.size() == 0) {
-                if (LOG.isDebugEnabled())
-                    LOG.debug("The " + xpathStr + " field did not exist in the MARC XML record.");
-                return null;
-            } else {
-                // The value of the requested field
-                String value = elements.get(0).getText();
+    protected static class IndexedField {
+        protected String xpath;
+        protected int path;
+        protected List<String> keys;
+        protected boolean repeats;
+        // keep only the digits (of an oai id)
+        protected boolean strip;
+    }
 
-                if (LOG.isDebugEnabled())
-                    LOG.debug("The " + xpathStr + " field had a value of " + value + ".");
-                return elements;
-            }
-        } catch (JDOMException e) {
-            LOG.error("An error occurred getting field " + xpathStr);
-            return null;
+    /**
+     * The fields indexed for one kind of record. Kinds of records in the same format share an
+     * extractor.
+     */
+    protected static class IndexedFields {
+        protected FieldExtractor extractor;
+        protected List<IndexedField> fields = new ArrayList<IndexedField>();
+
+        protected IndexedFields(FieldExtractor extractor) {
+            this.extractor = extractor;
+        }
+
+        protected IndexedFields add(String xpath, boolean repeats, String... keys) {
+            return add(xpath, repeats, false, keys);
         }
-    }
 
+        protected IndexedFields addStripped(String xpath, boolean repeats, String... keys) {
+            return add(xpath, repeats, true, keys);
+        }
+
+        protected IndexedFields add(String xpath, boolean repeats, boolean strip, String[] keys) {
+            IndexedField field = new IndexedField();
+            field.xpath = xpath;
+            field.path = extractor.addPath(xpath);
+            field.keys = Collections.unmodifiableList(Arrays.asList(keys));
+            field.repeats = repeats;
+            field.strip = strip;
+            fields.add(field);
+            return this;
+        }
+    }
 
     public void runTests() {
         //do nothing
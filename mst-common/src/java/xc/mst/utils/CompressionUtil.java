@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates record xml for storage and inflates it again. MARCXML is very repetitive, so even
+ * the fastest deflate level shrinks it several times over.
+ */
+public class CompressionUtil {
+
+    private static final String UTF8 = "UTF-8";
+
+    public static byte[] compress(String xml) {
+        if (xml == null) {
+            return null;
+        }
+        byte[] in = null;
+        try {
+            in = xml.getBytes(UTF8);
+        } catch (UnsupportedEncodingException uee) {
+            throw new RuntimeException(uee);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(in);
+            deflater.finish();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(in.length / 4 + 64);
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int len = deflater.deflate(buf);
+                baos.write(buf, 0, len);
+            }
+            return baos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decompress(byte[] compressed) {
+        if (compressed == null) {
+            return null;
+        }
+        try {
+            return new String(decompressBytes(compressed), UTF8);
+        } catch (UnsupportedEncodingException uee) {
+            throw new RuntimeException(uee);
+        }
+    }
+
+    /**
+     * @return the utf-8 bytes of the xml
+     */
+    public static byte[] decompressBytes(byte[] compressed) {
+        if (compressed == null) {
+            return null;
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(compressed.length * 8);
+            byte[] buf = new byte[8192];
+            while (!inflater.finished()) {
+                int len = inflater.inflate(buf);
+                // an empty payload inflates to nothing and is finished then
+                if (len == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new RuntimeException("truncated or corrupt compressed xml");
+                }
+                baos.write(buf, 0, len);
+            }
+            return baos.toByteArray();
+        } catch (DataFormatException dfe) {
+            throw new RuntimeException(dfe);
+        } finally {
+            inflater.end();
+        }
+    }
+}
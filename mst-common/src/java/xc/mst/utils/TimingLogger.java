@@ -11,71 +11,66 @@ package xc.mst.utils;
 
 public class TimingLogger {
 
-    /*
-     * @SuppressWarnings("unchecked")
-    protected static ThreadLocal timingStats = new ThreadLocal() {
-    	protected synchronized Object initialValue() {
-    		TimingStats ts = new TimingStats();
-    		ts.log("TimingStats()");
-            return ts;
+    // One TimingStats per thread, since several jobs (and a service's processing pool) may run
+    // at once. For numbers that are always on and can be watched over JMX, see xc.mst.utils.metrics.
+    protected static ThreadLocal<TimingStats> timingStats = new ThreadLocal<TimingStats>() {
+        protected TimingStats initialValue() {
+            return new TimingStats();
         }
     };
-    */
-
-    protected static TimingStats ts = new TimingStats();
 
     public static void log(String message) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.log(message);
         }
     }
 
     public static void log(String message, boolean suppressOutput) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.log(null, message, suppressOutput);
         }
     }
 
     public static void log(String name, String message, boolean suppressOutput) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.log(name, message, suppressOutput);
         }
     }
 
     public static void start(String name) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.start(name);
         }
     }
 
     public static void stop(String name) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.stop(name);
         }
     }
 
     public static void turnOn() {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.turnOn();
         }
     }
 
     public static void turnOff() {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.turnOff();
         }
     }
 
     public static void add(String name, long l) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.add(name, l);
         }
     }
@@ -83,7 +78,7 @@ public class TimingLogger {
     public static void reset(long counts) {
         // TimingStats.LOG.debug("", new Exception());
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.reset(counts);
         }
     }
@@ -91,28 +86,28 @@ public class TimingLogger {
     public static void reset() {
         // TimingStats.LOG.debug("", new Exception());
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.reset();
         }
     }
 
     public static void reset(boolean includeDefault) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.reset(includeDefault);
         }
     }
 
     public static void reset(String name) {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.reset(name);
         }
     }
 
     public static void outputMemory() {
         if (TimingStats.LOG.isDebugEnabled()) {
-            // TimingStats ts = (TimingStats)timingStats.get();
+            TimingStats ts = timingStats.get();
             ts.outputMemory();
         }
     }
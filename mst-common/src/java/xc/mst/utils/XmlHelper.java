@@ -33,19 +33,28 @@ public class XmlHelper {
 
     // BDA: These statics are an 11th hour hack. It's fine for now since it's single threaded,
     // but should eventually be put in a pool
-    protected static DocumentBuilder docBuilder = null;
-    protected static SAXBuilder saxBuilder = new SAXBuilder();
     protected static DOMBuilder domBuilder = new DOMBuilder();
 
-    static {
-        saxBuilder = new SAXBuilder();
-        domBuilder = new DOMBuilder();
-        try {
-            docBuilder = dbf.newDocumentBuilder();
-        } catch (Throwable t) {
-            LOG.error("", t);
+    // Neither SAXBuilder nor DocumentBuilder may be used by two threads at once. The harvester
+    // parses on a prefetch thread and services may process records on a pool of worker
+    // threads, so each thread gets its own.
+    protected static ThreadLocal<SAXBuilder> saxBuilder = new ThreadLocal<SAXBuilder>() {
+        protected SAXBuilder initialValue() {
+            return new SAXBuilder();
         }
-    }
+    };
+    protected static ThreadLocal<DocumentBuilder> docBuilder = new ThreadLocal<DocumentBuilder>() {
+        protected DocumentBuilder initialValue() {
+            try {
+                synchronized (dbf) {
+                    return dbf.newDocumentBuilder();
+                }
+            } catch (Throwable t) {
+                LOG.error("", t);
+                return null;
+            }
+        }
+    };
 
     // protected Format xmlFormat = null;
     protected XMLOutputter xmlOutputterPretty = null;
@@ -53,10 +62,7 @@ public class XmlHelper {
     protected XMLOutputter xmlOutputterRaw = null;
 
     protected SAXBuilder getSaxBuilder() {
-        if (saxBuilder == null) {
-            saxBuilder = new SAXBuilder();
-        }
-        return saxBuilder;
+        return saxBuilder.get();
     }
 
     protected DOMBuilder getDomBuilder() {
@@ -67,16 +73,7 @@ public class XmlHelper {
     }
 
     protected DocumentBuilder getDocumentBuilder() {
-        if (docBuilder == null) {
-            try {
-                docBuilder = dbf.newDocumentBuilder();
-            } catch (Throwable t) {
-                LOG.error("", t);
-            }
-            LOG.debug("docBuilder: " + docBuilder);
-            LOG.debug("docBuilder.getClass(): " + docBuilder.getClass());
-        }
-        return docBuilder;
+        return docBuilder.get();
     }
 
     public XMLOutputter getXMLOutputterPretty() {
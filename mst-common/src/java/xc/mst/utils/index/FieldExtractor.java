@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.utils.index;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Pulls the text of a set of fields out of a record's xml in one pass, instead of building a
+ * document and running an XPath over it for each field.
+ *
+ * The paths are compiled once, by addPath(). Only the kind of XPath used to pick fields out of
+ * records is supported: a descendant step followed by any number of child steps, each of which
+ * may have one attribute test, e.g.
+ *
+ * <pre>
+ * //xc:creator
+ * //marc:controlfield[@tag='001']
+ * //marc:datafield[@tag='245']/marc:subfield[@code='a']
+ * </pre>
+ *
+ * The marc prefix always means the MARC21 slim namespace. Any other prefix means whatever the
+ * record's root element binds it to, which is how the same XPaths behaved when run with JDOM.
+ * The value of a field is its element's own text (not its descendants'), the same as
+ * Element.getText(). A path's values are in document order.
+ *
+ * Once the paths are added, extract() may be called from any number of threads.
+ */
+public class FieldExtractor {
+
+    public static final String MARC_NAMESPACE = "http://www.loc.gov/MARC21/slim";
+
+    protected static final Pattern STEP = Pattern.compile(
+            "(?:([\\w.-]+):)?([\\w.-]+)(?:\\[@([\\w.-]+)='([^']*)'\\])?");
+
+    protected static ThreadLocal<XMLInputFactory> factory = new ThreadLocal<XMLInputFactory>() {
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory f = XMLInputFactory.newInstance();
+            f.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+            f.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            f.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            return f;
+        }
+    };
+
+    protected static class Step {
+        protected int path;
+        protected int index;
+        protected boolean last;
+        protected int prefix;
+        protected String localName;
+        protected String attrName;
+        protected String attrValue;
+    }
+
+    protected List<String> paths = new ArrayList<String>();
+    // the prefixes used in the paths, in the order first seen
+    protected List<String> prefixes = new ArrayList<String>();
+    // the steps of all the paths, by the local name of the element they match
+    protected Map<String, List<Step>> stepsByName = new HashMap<String, List<Step>>();
+
+    /**
+     * @return the index of this path's values in what extract() returns
+     * @throws IllegalArgumentException
+     *             if the path isn't of the supported kind
+     */
+    public int addPath(String xpath) {
+        int existing = paths.indexOf(xpath);
+        if (existing != -1) {
+            return existing;
+        }
+        if (!xpath.startsWith("//")) {
+            throw new IllegalArgumentException("only paths starting with // are supported: " + xpath);
+        }
+        int pathIndex = paths.size();
+        String[] stepStrs = xpath.substring(2).split("/");
+        List<Step> steps = new ArrayList<Step>();
+        for (int i = 0; i < stepStrs.length; i++) {
+            Matcher m = STEP.matcher(stepStrs[i]);
+            if (!m.matches()) {
+                throw new IllegalArgumentException("unsupported step " + stepStrs[i] + " in " + xpath);
+            }
+            Step step = new Step();
+            step.path = pathIndex;
+            step.index = i;
+            step.last = i == stepStrs.length - 1;
+            String prefix = m.group(1) == null ? "" : m.group(1);
+            step.prefix = prefixes.indexOf(prefix);
+            if (step.prefix == -1) {
+                step.prefix = prefixes.size();
+                prefixes.add(prefix);
+            }
+            step.localName = m.group(2);
+            step.attrName = m.group(3);
+            step.attrValue = m.group(4);
+            steps.add(step);
+        }
+        paths.add(xpath);
+        for (Step step : steps) {
+            List<Step> named = stepsByName.get(step.localName);
+            if (named == null) {
+                named = new ArrayList<Step>();
+                stepsByName.put(step.localName, named);
+            }
+            named.add(step);
+        }
+        return pathIndex;
+    }
+
+    public int getNumPaths() {
+        return paths.size();
+    }
+
+    /**
+     * @return for each path added, in the order they were added, the values found for it (an
+     *         empty list if none were)
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<String>[] extract(String xml) throws XMLStreamException {
+        List<StringBuilder>[] found = new List[paths.size()];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = new ArrayList<StringBuilder>(1);
+        }
+
+        XMLStreamReader xsr = factory.get().createXMLStreamReader(new StringReader(xml));
+        try {
+            String[] uris = null;
+            // for each open element, the steps it matched and the fields it's the value of
+            List<List<Step>> matchedStack = new ArrayList<List<Step>>();
+            List<List<StringBuilder>> textStack = new ArrayList<List<StringBuilder>>();
+            while (xsr.hasNext()) {
+                int event = xsr.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (uris == null) {
+                        uris = resolvePrefixes(xsr);
+                    }
+                    List<Step> matched = null;
+                    List<StringBuilder> texts = null;
+                    List<Step> candidates = stepsByName.get(xsr.getLocalName());
+                    if (candidates != null) {
+                        List<Step> parentMatched = matchedStack.isEmpty() ? null : matchedStack.get(matchedStack.size() - 1);
+                        for (Step step : candidates) {
+                            if (matches(xsr, step, uris, parentMatched)) {
+                                if (step.last) {
+                                    StringBuilder sb = new StringBuilder();
+                                    found[step.path].add(sb);
+                                    if (texts == null) {
+                                        texts = new ArrayList<StringBuilder>(1);
+                                    }
+                                    texts.add(sb);
+                                } else {
+                                    if (matched == null) {
+                                        matched = new ArrayList<Step>(1);
+                                    }
+                                    matched.add(step);
+                                }
+                            }
+                        }
+                    }
+                    matchedStack.add(matched);
+                    textStack.add(texts);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    matchedStack.remove(matchedStack.size() - 1);
+                    textStack.remove(textStack.size() - 1);
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                        event == XMLStreamConstants.SPACE) {
+                    if (!textStack.isEmpty()) {
+                        List<StringBuilder> texts = textStack.get(textStack.size() - 1);
+                        if (texts != null) {
+                            for (StringBuilder sb : texts) {
+                                sb.append(xsr.getTextCharacters(), xsr.getTextStart(), xsr.getTextLength());
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            xsr.close();
+        }
+
+        List<String>[] values = new List[found.length];
+        for (int i = 0; i < found.length; i++) {
+            values[i] = new ArrayList<String>(found[i].size());
+            for (StringBuilder sb : found[i]) {
+                values[i].add(sb.toString());
+            }
+        }
+        return values;
+    }
+
+    protected String[] resolvePrefixes(XMLStreamReader root) {
+        String[] uris = new String[prefixes.size()];
+        for (int i = 0; i < uris.length; i++) {
+            String prefix = prefixes.get(i);
+            if ("marc".equals(prefix)) {
+                uris[i] = MARC_NAMESPACE;
+            } else if (prefix.length() == 0) {
+                uris[i] = "";
+            } else {
+                // an unbound prefix matches nothing
+                uris[i] = root.getNamespaceURI(prefix);
+            }
+        }
+        return uris;
+    }
+
+    protected boolean matches(XMLStreamReader xsr, Step step, String[] uris, List<Step> parentMatched) {
+        String uri = uris[step.prefix];
+        if (uri == null) {
+            return false;
+        }
+        String elementUri = xsr.getNamespaceURI();
+        if (!uri.equals(elementUri == null ? "" : elementUri)) {
+            return false;
+        }
+        if (step.attrName != null && !step.attrValue.equals(xsr.getAttributeValue(null, step.attrName))) {
+            return false;
+        }
+        if (step.index == 0) {
+            return true;
+        }
+        if (parentMatched != null) {
+            for (Step p : parentMatched) {
+                if (p.path == step.path && p.index == step.index - 1) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
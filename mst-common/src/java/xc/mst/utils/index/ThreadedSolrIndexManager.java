@@ -10,36 +10,78 @@
 package xc.mst.utils.index;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
 
 import xc.mst.dao.DataException;
 import xc.mst.manager.IndexException;
 import xc.mst.utils.LogWriter;
 import xc.mst.utils.MSTConfiguration;
+import xc.mst.utils.metrics.Counter;
+import xc.mst.utils.metrics.Metrics;
+import xc.mst.utils.metrics.Timer;
 
 /**
- * Multi-Threaded extension of SolrIndexManager. Overrides the addDoc method of SolrIndexManager
- * and runs the add operation using one of the threads available in a pool of threads initialized.
- * The size of the pool is hard coded.
+ * Multi-Threaded extension of SolrIndexManager. addDoc collects documents into batches, and each
+ * batch is sent to solr in one request by one of a pool of threads.
+ * 
+ * A batch is sent once it holds solr.batch.docs documents or roughly solr.batch.kb of text,
+ * whichever comes first. At most solr.batch.maxQueued batches may be waiting for or being sent at
+ * once; past that addDoc blocks until one has gone, so a slow solr server slows the indexer down
+ * instead of letting documents pile up in memory.
+ * 
+ * commitIndex(), deleteByQuery() and waitForJobCompletion() send what's in the current batch and
+ * wait for every batch to be sent first, so a commit always includes the documents added before it.
+ * 
+ * Each batch sent is timed by the solr.add metric, and the documents sent are counted by solr.docs.
+ * Time spent blocked in addDoc waiting for room is timed by solr.add.wait.
  * 
  * @author Vinaykumar Bangera
  */
 public class ThreadedSolrIndexManager extends SolrIndexManager {
+
+    protected static final Timer ADD_TIMER = Metrics.timer("solr.add");
+    protected static final Timer WAIT_TIMER = Metrics.timer("solr.add.wait");
+    protected static final Counter DOCS_COUNTER = Metrics.counter("solr.docs");
+
     /**
      * Service for pipelining and executing tasks.
      */
     protected ExecutorService threadPool;
 
+    protected int maxBatchDocs;
+    protected long maxBatchChars;
+
     /**
-     * The number of Jobs which have been scheduled to run but have not been completed
+     * One permit for each batch which may be waiting for or being sent at once. A batch holds its
+     * permit until it's been sent, so they're all available only when nothing is outstanding.
      */
-    protected int numQueuedJobs = 0;
+    protected Semaphore batchPermits;
+    protected int maxQueuedBatches;
+
+    /**
+     * The batch being filled, and roughly how many chars of text it holds. Guarded by batchLock.
+     */
+    protected final Object batchLock = new Object();
+    protected List<SolrInputDocument> batch = null;
+    protected long batchChars = 0;
+
+    /**
+     * The error a batch failed with, reported (and cleared) by the next addDoc or commitIndex.
+     */
+    protected volatile String failure = null;
 
     /**
      * Gets the singleton instance of the LuceneIndexManager
@@ -49,134 +91,245 @@ public class ThreadedSolrIndexManager extends SolrIndexManager {
         log.info("Initializing the SolrIndexManager instance.");
 
         // Get the queue size and pool size for threads
-        int poolSize = Integer.parseInt(
-                MSTConfiguration.getInstance().getProperty("SOLRIndexerMultiThreadCount")) == 0 ? 20 :
-                    Integer.parseInt(MSTConfiguration.getInstance().getProperty("SOLRIndexerMultiThreadCount"));
-
-        log.info("SolrIndexManager Thread Pool Initialized");
+        MSTConfiguration config = MSTConfiguration.getInstance();
+        int poolSize = config.getPropertyAsInt("SOLRIndexerMultiThreadCount", 20);
+        if (poolSize <= 0) {
+            poolSize = 20;
+        }
+        maxBatchDocs = Math.max(1, config.getPropertyAsInt("solr.batch.docs", 500));
+        maxBatchChars = Math.max(1, config.getPropertyAsInt("solr.batch.kb", 2048)) * 1024L;
+        maxQueuedBatches = config.getPropertyAsInt("solr.batch.maxQueued", 0);
+        if (maxQueuedBatches <= 0) {
+            maxQueuedBatches = 2 * poolSize;
+        }
+        batchPermits = new Semaphore(maxQueuedBatches);
 
-        /* Initialize the thread pool*/
+        /* Initialize the thread pool. The permits keep the number of batches submitted under
+         * maxQueuedBatches, so the queue never needs to refuse one.*/
+        final AtomicInteger threadNum = new AtomicInteger();
         threadPool = new ThreadPoolExecutor(poolSize,
                                             poolSize,
                                             Long.MAX_VALUE,
                                             TimeUnit.NANOSECONDS,
-                                            new ArrayBlockingQueue<Runnable>(poolSize, false),
-                                            new ThreadPoolExecutor.CallerRunsPolicy());
+                                            new LinkedBlockingQueue<Runnable>(),
+                                            new ThreadFactory() {
+                                                public Thread newThread(Runnable r) {
+                                                    Thread t = new Thread(r, "solr-indexer-" + threadNum.incrementAndGet());
+                                                    t.setDaemon(true);
+                                                    return t;
+                                                }
+                                            });
+
+        log.info("SolrIndexManager Thread Pool Initialized: " + poolSize + " threads, batches of up to " +
+                maxBatchDocs + " docs, " + maxQueuedBatches + " batches outstanding");
     }
 
     /**
-     * Adds a document to the Lucene index
+     * Adds a document to the batch being filled, sending the batch if it's full.
      * 
      * @param doc
      *            The document to add
      * @return true on success, false on failure
      */
     public boolean addDoc(SolrInputDocument doc) throws IndexException {
-        log.debug("Add index to Solr - begin");
-
         // Check if solr server is null
         if (getMSTSolrService().getServer() == null) {
             log.error("Solr server is null");
 
             return false;
-        } else {
-            try {
-                synchronized (this) {
-                    threadPool.execute(new Job(doc));
-                    log.debug("incrementing numQueuedJobs");
-                    numQueuedJobs++;
-                    log.debug("incremented numQueuedJobs: " + numQueuedJobs);
-                }
-            } catch (RuntimeException e) {
-                throw new IndexException(e.getMessage());
+        }
+        checkFailure();
+
+        List<SolrInputDocument> full = null;
+        synchronized (batchLock) {
+            if (batch == null) {
+                batch = new ArrayList<SolrInputDocument>(maxBatchDocs);
+            }
+            batch.add(doc);
+            batchChars += getSize(doc);
+            if (batch.size() >= maxBatchDocs || batchChars >= maxBatchChars) {
+                full = batch;
+                batch = null;
+                batchChars = 0;
             }
+        }
+        if (full != null) {
+            submit(full);
+        }
+        return true;
+    }
 
-            return true;
+    /**
+     * Sends the batch being filled, if there is one.
+     */
+    public void flush() throws IndexException {
+        List<SolrInputDocument> partial = null;
+        synchronized (batchLock) {
+            partial = batch;
+            batch = null;
+            batchChars = 0;
+        }
+        if (partial != null && partial.size() > 0) {
+            submit(partial);
         }
     }
 
     /**
-     * Makes the calling Thread yield until all add/update/delete jobs have completed.
+     * Hands a batch to the pool, blocking while maxQueuedBatches are already outstanding.
      */
-    public void waitForJobCompletion(long timeout) {
-        long start = System.currentTimeMillis();
+    protected void submit(List<SolrInputDocument> docs) throws IndexException {
+        try {
+            if (!batchPermits.tryAcquire()) {
+                long start = WAIT_TIMER.start();
+                batchPermits.acquire();
+                WAIT_TIMER.stop(start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexException("interrupted while waiting to send documents to solr");
+        }
+        try {
+            threadPool.execute(new Job(docs));
+        } catch (RuntimeException e) {
+            batchPermits.release();
+            throw new IndexException(e.getMessage());
+        }
+    }
 
-        while (numQueuedJobs > 0) {
-            if (timeout < System.currentTimeMillis() - start) {
+    /**
+     * Sends the batch being filled and blocks until all batches have been sent, or until timeout
+     * millis have passed.
+     * 
+     * @return true if everything was sent in time
+     */
+    public boolean awaitBatches(long timeout) throws IndexException {
+        flush();
+        try {
+            if (batchPermits.tryAcquire(maxQueuedBatches, timeout, TimeUnit.MILLISECONDS)) {
+                batchPermits.release(maxQueuedBatches);
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Blocks the calling Thread until all add jobs have completed.
+     */
+    public void waitForJobCompletion(long timeout) {
+        try {
+            if (!awaitBatches(timeout)) {
                 log.warn("ThreadedSolrIndexManager's jobs aren't getting marked as finished, timeout of " + timeout + " was reached.");
-                break;
             }
+        } catch (IndexException e) {
+            log.error("couldn't send the last batch of documents to solr", e);
+        }
+    }
 
-            Thread.yield();
+    public boolean deleteByQuery(String query) {
+        waitForJobCompletion(Long.MAX_VALUE);
+        return super.deleteByQuery(query);
+    }
+
+    /**
+     * Sends any documents not yet sent and waits for them to be added before committing.
+     */
+    public boolean commitIndex() throws IndexException {
+        awaitBatches(Long.MAX_VALUE);
+        checkFailure();
+        return super.commitIndex();
+    }
+
+    protected void checkFailure() throws IndexException {
+        String f = failure;
+        if (f != null) {
+            failure = null;
+            throw new IndexException(f);
         }
     }
 
     /**
-     * A task that adds a document to the SOLR Index Manager
+     * @return roughly how many chars of text the document holds. It's only used to keep batches
+     *         (and so requests) from growing too large when documents are big.
+     */
+    protected long getSize(SolrInputDocument doc) {
+        long size = 0;
+        for (SolrInputField field : doc) {
+            size += field.getName().length();
+            Collection<Object> values = field.getValues();
+            if (values != null) {
+                for (Object v : values) {
+                    size += v instanceof CharSequence ? ((CharSequence) v).length() : 16;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A task that adds a batch of documents to the SOLR Index Manager
      * 
      * @author vinaykumarb
      * 
      */
     private class Job implements Runnable {
         /**
-         * Document to be added to SOLR
+         * Documents to be added to SOLR
          */
-        SolrInputDocument doc;
+        List<SolrInputDocument> docs;
 
         /**
          * Creates a new Job with the given initial parameters.
          * 
-         * @param doc
-         *            Document to be added to SOLR
+         * @param docs
+         *            Documents to be added to SOLR
          */
-        public Job(SolrInputDocument doc) {
-            this.doc = doc;
+        public Job(List<SolrInputDocument> docs) {
+            this.docs = docs;
         }
 
         /**
-         * Adds the document to SOLR in a separate thread
+         * Adds the documents to SOLR in a separate thread
          */
-        public void run() throws RuntimeException {
+        public void run() {
+            long start = ADD_TIMER.start();
             try {
-                getMSTSolrService().getServer().add(doc);
+                getMSTSolrService().getServer().add(docs);
+                DOCS_COUNTER.add(docs.size());
             } catch (SolrServerException se) {
-                log.error("Solr server exception occured when adding document to the index.", se);
-
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurred while adding a document to the Solr index: " + se.getMessage());
+                log.error("Solr server exception occured when adding documents to the index.", se);
+                fail(se.getMessage());
 
-                logObj.setErrors(logObj.getErrors() + 1);
-
-                try {
-                    getLogDAO().update(logObj);
+                if (getScheduler().getRunningJob() != null) {
                     getScheduler().getRunningJob().cancel();
-                } catch (DataException e) {
-                    log.error("DataExcepiton while updating the log's error count.", e);
                 }
-
-                throw new RuntimeException(se.getMessage());
             } catch (IOException ioe) {
                 log.error("An IOException occurred", ioe);
+                fail(ioe.getMessage());
+            } catch (RuntimeException re) {
+                log.error("An error occurred adding documents to the index.", re);
+                fail(re.getMessage());
+            } finally {
+                ADD_TIMER.stop(start);
+                batchPermits.release();
+            }
+        }
 
-                LogWriter.addError(logObj.getLogFileLocation(), "An error occurred while adding a document to the Solr index: " + ioe.getMessage());
+        protected void fail(String message) {
+            failure = "An error occurred while adding " + docs.size() + " documents to the Solr index: " + message;
 
-                logObj.setErrors(logObj.getErrors() + 1);
+            LogWriter.addError(logObj.getLogFileLocation(), failure);
 
+            synchronized (logObj) {
+                logObj.setErrors(logObj.getErrors() + 1);
                 try {
                     getLogDAO().update(logObj);
                 } catch (DataException e) {
                     log.error("DataExcepiton while updating the log's error count.", e);
                 }
-
-                throw new RuntimeException(ioe.getMessage());
-            } finally {
-                synchronized (this) {
-                    log.debug("decrementing numQueuedJobs");
-                    numQueuedJobs--;
-                    log.debug("decremented numQueuedJobs: " + numQueuedJobs);
-                }
             }
-
-            log.debug("Add index to Solr - end");
         }
     }
 }
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.utils.metrics;
+
+/**
+ * A count of things done (records harvested, records committed, ...).
+ */
+public class Counter extends Metric implements CounterMBean {
+
+    public Counter(String name) {
+        super(name, 1);
+    }
+
+    public void increment() {
+        cell.get().add(0, 1);
+    }
+
+    public void add(long n) {
+        cell.get().add(0, n);
+    }
+
+    public long getCount() {
+        return snapshot()[0];
+    }
+}
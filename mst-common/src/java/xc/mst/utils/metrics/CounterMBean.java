@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.utils.metrics;
+
+/**
+ * What a Counter shows over JMX. Everything is since the last reset.
+ */
+public interface CounterMBean {
+
+    public long getCount();
+
+    public double getRatePerSecond();
+
+    public void reset();
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.utils.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The bookkeeping shared by Timer and Counter. A metric is a fixed number of long sums. Each thread
+ * adds to its own copy of them (a Cell), so recording never takes a lock or contends with another
+ * thread; a reader adds the cells up.
+ *
+ * The cells of threads which have ended are folded into one set of sums the next time the metric
+ * is read, so a metric doesn't keep a cell for every job thread that ever ran.
+ *
+ * reset() doesn't clear anything (the cells belong to their threads), it just remembers the sums
+ * at that point and the values reported from then on are relative to them.
+ */
+public abstract class Metric {
+
+    protected final String name;
+    protected final int numValues;
+
+    protected final List<Cell> cells = new CopyOnWriteArrayList<Cell>();
+    protected final ThreadLocal<Cell> cell = new ThreadLocal<Cell>() {
+        protected Cell initialValue() {
+            Cell c = new Cell(Thread.currentThread(), numValues);
+            retireEnded();
+            cells.add(c);
+            return c;
+        }
+    };
+
+    // sums of the cells of threads which have ended
+    protected final long[] retired;
+    // sums at the last reset()
+    protected long[] baseline;
+    protected volatile long resetTime = System.currentTimeMillis();
+
+    protected Metric(String name, int numValues) {
+        this.name = name;
+        this.numValues = numValues;
+        this.retired = new long[numValues];
+        this.baseline = new long[numValues];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * adds v to the calling thread's i-th sum
+     */
+    protected void addTo(int i, long v) {
+        cell.get().add(i, v);
+    }
+
+    /**
+     * @return the sums since the last reset
+     */
+    protected synchronized long[] snapshot() {
+        retireEnded();
+        long[] sums = retired.clone();
+        for (Cell c : cells) {
+            for (int i = 0; i < numValues; i++) {
+                sums[i] += c.values.get(i);
+            }
+        }
+        for (int i = 0; i < numValues; i++) {
+            sums[i] -= baseline[i];
+        }
+        return sums;
+    }
+
+    /**
+     * folds the cells of threads which have ended into retired. Also done whenever a thread gets
+     * a new cell, so they don't pile up if nobody reads the metric.
+     */
+    protected synchronized void retireEnded() {
+        for (Cell c : cells) {
+            if (!c.thread.isAlive()) {
+                for (int i = 0; i < numValues; i++) {
+                    retired[i] += c.values.get(i);
+                }
+                cells.remove(c);
+            }
+        }
+    }
+
+    public synchronized void reset() {
+        long[] sums = snapshot();
+        for (int i = 0; i < numValues; i++) {
+            baseline[i] += sums[i];
+        }
+        resetTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return how many times a second getCount() has gone up since the last reset
+     */
+    public double getRatePerSecond() {
+        long millis = System.currentTimeMillis() - resetTime;
+        if (millis <= 0) {
+            return 0;
+        }
+        return getCount() * 1000d / millis;
+    }
+
+    public abstract long getCount();
+
+    /**
+     * One thread's sums. Only that thread writes to them, so a plain read-add-write is safe, and
+     * lazySet is enough to get the new value to readers soon without the cost of a full fence.
+     */
+    protected static class Cell {
+        protected final Thread thread;
+        protected final AtomicLongArray values;
+
+        protected Cell(Thread thread, int numValues) {
+            this.thread = thread;
+            this.values = new AtomicLongArray(numValues);
+        }
+
+        protected void add(int i, long v) {
+            values.lazySet(i, values.get(i) + v);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.utils.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The timers and counters of the harvest and processing pipeline. Unlike TimingLogger these are
+ * always on, are cheap enough to leave on (no locks, no strings built per record) and can be
+ * watched while MST runs: each one is registered with the platform MBeanServer as
+ * xc.mst:type=Metrics,name=&lt;name&gt;, e.g. with jconsole or the metrics target of jmx-build.xml.
+ *
+ * Get a metric once (into a static or a field) and keep it, rather than looking it up by name
+ * for each record.
+ */
+public class Metrics {
+
+    private static final Logger LOG = Logger.getLogger(Metrics.class);
+
+    public static final String DOMAIN = "xc.mst";
+
+    protected static final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>();
+
+    // each OAI request sent to a provider, including reading the response
+    public static final Timer HARVEST_REQUEST = timer("harvest.request");
+    // turning each harvested record into a Record
+    public static final Timer HARVEST_PARSE = timer("harvest.parse");
+    public static final Counter HARVEST_RECORDS = counter("harvest.records");
+    // each batch of records written to a repository
+    public static final Timer COMMIT = timer("commit");
+    public static final Counter COMMIT_RECORDS = counter("commit.records");
+
+    /**
+     * @return the timer of this name, created the first time it's asked for
+     */
+    public static Timer timer(String name) {
+        Metric m = metrics.get(name);
+        if (m == null) {
+            m = register(new Timer(name));
+        }
+        return (Timer) m;
+    }
+
+    /**
+     * @return the counter of this name, created the first time it's asked for
+     */
+    public static Counter counter(String name) {
+        Metric m = metrics.get(name);
+        if (m == null) {
+            m = register(new Counter(name));
+        }
+        return (Counter) m;
+    }
+
+    /**
+     * Timer for a stage of a service's processing, e.g. serviceTimer("MARCNormalization", "process")
+     */
+    public static Timer serviceTimer(String serviceName, String stage) {
+        return timer("service." + serviceName + "." + stage);
+    }
+
+    public static void resetAll() {
+        for (Metric m : metrics.values()) {
+            m.reset();
+        }
+    }
+
+    protected static Metric register(Metric m) {
+        Metric existing = metrics.putIfAbsent(m.getName(), m);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = getObjectName(m.getName());
+            try {
+                server.registerMBean(m, on);
+            } catch (InstanceAlreadyExistsException e) {
+                // left over from before the webapp was reloaded
+                server.unregisterMBean(on);
+                server.registerMBean(m, on);
+            }
+        } catch (Throwable t) {
+            LOG.warn("couldn't register metric " + m.getName() + " with JMX", t);
+        }
+        return m;
+    }
+
+    protected static ObjectName getObjectName(String name) throws Exception {
+        return new ObjectName(DOMAIN + ":type=Metrics,name=" + name.replaceAll("[,=:*?\"\\s]", "_"));
+    }
+}
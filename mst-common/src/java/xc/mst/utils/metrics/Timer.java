@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.utils.metrics;
+
+/**
+ * Times something done over and over (an OAI request, processing a record, a commit) and keeps a
+ * histogram of the times so percentiles can be given as well as the mean.
+ *
+ * The histogram has 4 buckets for each power of two of nanoseconds, so a percentile is off by at
+ * most an eighth either way, and a timer takes a couple of KB per thread that uses it.
+ *
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ */
+public class Timer extends Metric implements TimerMBean {
+
+    protected static final int COUNT = 0;
+    protected static final int TOTAL = 1;
+    protected static final int FIRST_BUCKET = 2;
+    protected static final int NUM_BUCKETS = 4 + 61 * 4;
+
+    public Timer(String name) {
+        super(name, FIRST_BUCKET + NUM_BUCKETS);
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        Cell c = cell.get();
+        c.add(COUNT, 1);
+        c.add(TOTAL, nanos);
+        c.add(FIRST_BUCKET + bucket(nanos), 1);
+    }
+
+    protected static int bucket(long nanos) {
+        if (nanos < 4) {
+            return (int) nanos;
+        }
+        int p = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (p - 2)) & 3;
+        return 4 + (p - 2) * 4 + sub;
+    }
+
+    protected static long lowerBound(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int p = (bucket - 4) / 4 + 2;
+        int sub = (bucket - 4) % 4;
+        return (4L + sub) << (p - 2);
+    }
+
+    protected static long upperBound(int bucket) {
+        if (bucket == NUM_BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return lowerBound(bucket + 1) - 1;
+    }
+
+    public long getCount() {
+        return snapshot()[COUNT];
+    }
+
+    public double getTotalSeconds() {
+        return snapshot()[TOTAL] / 1e9;
+    }
+
+    public double getMeanMillis() {
+        long[] s = snapshot();
+        if (s[COUNT] == 0) {
+            return 0;
+        }
+        return s[TOTAL] / 1e6 / s[COUNT];
+    }
+
+    public double getMedianMillis() {
+        return getPercentileMillis(0.5);
+    }
+
+    public double get95thPercentileMillis() {
+        return getPercentileMillis(0.95);
+    }
+
+    public double get99thPercentileMillis() {
+        return getPercentileMillis(0.99);
+    }
+
+    /**
+     * @return the top of the highest bucket anything fell in
+     */
+    public double getMaxMillis() {
+        long[] s = snapshot();
+        for (int b = NUM_BUCKETS - 1; b >= 0; b--) {
+            if (s[FIRST_BUCKET + b] > 0) {
+                return upperBound(b) / 1e6;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param q
+     *            between 0 and 1
+     * @return the middle of the bucket the q-th time fell in
+     */
+    public double getPercentileMillis(double q) {
+        long[] s = snapshot();
+        long count = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            count += s[FIRST_BUCKET + b];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            seen += s[FIRST_BUCKET + b];
+            if (seen >= target && s[FIRST_BUCKET + b] > 0) {
+                return (lowerBound(b) + (upperBound(b) - lowerBound(b)) / 2) / 1e6;
+            }
+        }
+        return getMaxMillis();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.bo.record;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import xc.mst.utils.CompressionUtil;
+
+/**
+ * No database needed.
+ */
+public class RecordCompressionTest {
+
+    @Test
+    public void roundTripTest() {
+        // non-ascii, and long enough that deflate has something to do
+        StringBuilder sb = new StringBuilder("<record xmlns=\"http://www.loc.gov/MARC21/slim\">");
+        for (int i = 0; i < 200; i++) {
+            sb.append("<datafield tag=\"245\" ind1=\"1\" ind2=\"0\"><subfield code=\"a\">Sl\u00e9epy Jack \u30e9\u30a4 ")
+                    .append(i).append("</subfield></datafield>");
+        }
+        sb.append("</record>");
+        String xml = sb.toString();
+
+        byte[] compressed = CompressionUtil.compress(xml);
+        assert compressed.length < xml.length() : "deflated to " + compressed.length + " from " + xml.length();
+        assert xml.equals(CompressionUtil.decompress(compressed));
+
+        Record r = new Record();
+        r.setCompressedOaiXml(compressed);
+        // lazy inflate: nothing's inflated until the xml is asked for
+        assert r.oaiXml == null;
+        assert Record.STRING_MODE.equals(r.getMode());
+        assert xml.equals(r.getOaiXml());
+        assert xml.equals(r.oaiXml);
+
+        // reading the xml doesn't change it, so the bytes read from the db can be written back as they are
+        assert r.getCompressedOaiXml() == compressed;
+        assert r.clone().getCompressedOaiXml() == compressed;
+
+        // a changed payload can't be
+        r.setOaiXml(xml + " ");
+        assert r.getCompressedOaiXml() == null;
+        assert (xml + " ").equals(r.getOaiXml());
+
+        // nor can one whose element was handed out to be changed in place
+        r = new Record();
+        r.setCompressedOaiXml(compressed);
+        r.setMode(Record.JDOM_MODE);
+        assert r.getCompressedOaiXml() == null;
+        assert r.getOaiXmlEl() != null;
+        r.setMode(Record.STRING_MODE);
+        assert xml.equals(r.getOaiXml()) : r.getOaiXml();
+    }
+
+    @Test
+    public void emptyTest() {
+        assert CompressionUtil.compress(null) == null;
+        assert CompressionUtil.decompress(null) == null;
+        assert "".equals(CompressionUtil.decompress(CompressionUtil.compress("")));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void truncatedTest() {
+        byte[] compressed = CompressionUtil.compress("<record>truncated</record>");
+        CompressionUtil.decompress(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+}
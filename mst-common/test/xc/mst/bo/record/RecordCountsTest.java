@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.bo.record;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Checks which columns a record is counted in, from several threads at once. No database needed.
+ */
+public class RecordCountsTest {
+
+    @Test
+    public void countsTest() throws Exception {
+        final RecordCounts rc = new RecordCounts(new Date(), RecordCounts.INCOMING);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        rc.incr("b", Record.ACTIVE, Record.NULL);
+                        rc.incr(null, Record.ACTIVE, Record.NULL);
+                        rc.incr("b", Record.DELETED, Record.ACTIVE);
+                        rc.incr(null, Record.DELETED, Record.ACTIVE);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        rc.incr(null, RecordCounts.UNEXPECTED_ERROR);
+
+        assert rc.getCount("b", RecordCounts.NEW_ACTIVE) == 4000;
+        assert rc.getCount(RecordCounts.TOTALS, RecordCounts.NEW_ACTIVE) == 4000;
+        assert rc.getCount("b", RecordCounts.UPDATE_DELETE) == 4000;
+        assert rc.getCount("b", Record.DELETED, Record.ACTIVE) == 4000;
+        assert rc.getCount("b", "upd_del_prev_act_cnt") == 4000;
+        assert rc.getCount("b", Record.ACTIVE, Record.DELETED) == 0;
+        assert rc.getCount(RecordCounts.TOTALS, RecordCounts.UNEXPECTED_ERROR) == 1;
+
+        // only the columns counted are reported
+        Map<String, Map<String, AtomicInteger>> counts = rc.getCounts();
+        assert counts.size() == 2 : counts;
+        assert counts.get("b").size() == 3 : counts.get("b");
+        assert counts.get(RecordCounts.TOTALS).size() == 4 : counts.get(RecordCounts.TOTALS);
+
+        // loaded zeros are still reported
+        rc.add("h", RecordCounts.NEW_HELD, 0);
+        assert rc.getCounts().get("h").get(RecordCounts.NEW_HELD).get() == 0;
+
+        rc.clear();
+        assert rc.getCounts().isEmpty();
+        assert rc.getCount("b", RecordCounts.NEW_ACTIVE) == 0;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.bo.record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+/**
+ * No database needed.
+ */
+public class SaxMarcXmlRecordTest {
+
+    public static final String MARC_BIB =
+            "<record xmlns=\"http://www.loc.gov/MARC21/slim\">" +
+                "<leader>00714cam a2200205 a 4500</leader>" +
+                "<controlfield tag=\"001\">12883376</controlfield>" +
+                "<controlfield tag=\"003\">NRU</controlfield>" +
+                "<datafield tag=\"035\" ind1=\" \" ind2=\" \"><subfield code=\"a\">(OCoLC)1</subfield><subfield code=\"a\">(NRU)2</subfield></datafield>" +
+                "<datafield tag=\"245\" ind1=\"1\" ind2=\"0\"><subfield code=\"a\">Sl\u00e9epy Jack /</subfield><subfield code=\"c\">by Ann Ryan.</subfield></datafield>" +
+                "<datafield tag=\"880\" ind1=\"1\" ind2=\" \"><subfield code=\"6\">700-01</subfield><subfield code=\"a\">\u30e9\u30a4\u30a2\u30f3</subfield></datafield>" +
+                "<datafield tag=\"945\" ind1=\" \" ind2=\" \"><subfield code=\"5\">NRU</subfield><subfield code=\"a\">kept</subfield></datafield>" +
+                "<datafield tag=\"946\" ind1=\" \" ind2=\" \"><subfield code=\"5\">XYZ</subfield><subfield code=\"a\">dropped</subfield></datafield>" +
+                "<datafield tag=\"500\" ind1=\" \" ind2=\" \"/>" +
+            "</record>";
+
+    @Test
+    public void packTest() {
+        SaxMarcXmlRecord smr = new SaxMarcXmlRecord(MARC_BIB);
+        smr.setRecordId(42);
+        byte[] packed = smr.pack();
+        SaxMarcXmlRecord copy = SaxMarcXmlRecord.unpack(packed);
+
+        assert copy.getRecordId() == 42;
+        assert smr.getLeader().equals(copy.getLeader());
+        assert smr.getOrgCode().equals(copy.getOrgCode());
+        assert "12883376".equals(copy.getControlField(1));
+        assert smr.getBib001_or_035s().toString().equals(copy.getBib001_or_035s().toString());
+        for (int tag : new int[] {1, 3, 35, 245, 500, 700, 880, 945, 946}) {
+            assert smr.getDataFields(tag).size() == copy.getDataFields(tag).size() : "tag " + tag;
+            for (char code : new char[] {'a', 'c', '5', '6'}) {
+                assert smr.getSubfield(tag, code).equals(copy.getSubfield(tag, code)) : "tag " + tag + " $" + code;
+            }
+        }
+        assert copy.getSubfield(700, 'a').get(0).equals("\u30e9\u30a4\u30a2\u30f3");
+        assert copy.getDataFields(245).get(0).getInd1() == '1';
+        assert copy.getDataFields(500).get(0).getSubfields().isEmpty();
+        // a control field is in both maps as the same list, in the copy too
+        copy.getDataFields(1).clear();
+        assert copy.getControlField(1) == null;
+
+        assert packed.length < MARC_BIB.length() / 2 : packed.length;
+    }
+
+    /**
+     * Each thread has its own XMLReader, so records can be parsed on several threads at once.
+     */
+    @Test
+    public void concurrentParseTest() throws Exception {
+        final String expected = new SaxMarcXmlRecord(MARC_BIB).getSubfield(245, 'a').toString();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(new Callable<Integer>() {
+                    public Integer call() {
+                        for (int i = 0; i < 500; i++) {
+                            // a different record each time, so a shared handler would be caught mixing them
+                            String id = Integer.toString(i);
+                            SaxMarcXmlRecord smr = new SaxMarcXmlRecord(MARC_BIB.replace("12883376", id));
+                            assert id.equals(smr.getControlField(1)) : smr.getControlField(1);
+                            assert expected.equals(smr.getSubfield(245, 'a').toString());
+                            assert smr.getDataFields(35).size() == 1;
+                        }
+                        return 500;
+                    }
+                }));
+            }
+            for (Future<Integer> f : futures) {
+                assert f.get() == 500;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
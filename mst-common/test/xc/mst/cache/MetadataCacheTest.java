@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.cache;
+
+import java.util.ArrayList;
+
+import org.testng.annotations.Test;
+
+import xc.mst.bo.provider.Format;
+import xc.mst.bo.provider.Provider;
+import xc.mst.bo.provider.Set;
+
+/**
+ * Checks lookups, renames, removal and copying in the cache. No database needed.
+ */
+public class MetadataCacheTest {
+
+    protected Format format(int id, String name) {
+        Format f = new Format();
+        f.setId(id);
+        f.setName(name);
+        return f;
+    }
+
+    @Test
+    public void cacheTest() {
+        MetadataCache<Format> cache = new MetadataCache<Format>("test-" + System.nanoTime()) {
+            protected int getId(Format format) {
+                return format.getId();
+            }
+
+            protected String getKey(Format format) {
+                return format.getName();
+            }
+        };
+
+        Format marc = format(1, "marc21");
+        cache.put(marc);
+        cache.put(format(2, "xc"));
+        assert cache.size() == 2;
+        assert cache.get(1) == marc;
+        assert cache.get("marc21") == marc;
+        assert cache.get(3) == null;
+        assert cache.getHits() == 2 : cache;
+        assert cache.getMisses() == 1 : cache;
+
+        // renamed in place: the old name no longer finds it
+        marc.setName("marcxml");
+        assert cache.get("marc21") == null;
+        assert cache.get(1) == marc;
+
+        // removed: gone by id and name
+        cache.put(marc);
+        assert cache.get("marcxml") == marc;
+        cache.remove(marc);
+        assert cache.get(1) == null;
+        assert cache.get("marcxml") == null;
+        assert cache.size() == 1;
+    }
+
+    @Test
+    public void copyTest() {
+        MetadataCache<Provider> cache = new MetadataCache<Provider>("test-" + System.nanoTime()) {
+            protected int getId(Provider provider) {
+                return provider.getId();
+            }
+
+            protected String getKey(Provider provider) {
+                return provider.getName();
+            }
+
+            protected Provider copy(Provider provider) {
+                return new Provider(provider);
+            }
+        };
+
+        Provider p = new Provider();
+        p.setId(1);
+        p.setName("repo");
+        p.setFormats(new ArrayList<Format>());
+        p.addFormat(format(1, "marc21"));
+        cache.put(p);
+
+        // changing the caller's provider, or one handed out, leaves the cached one alone
+        p.setName("renamed");
+        p.addSet(new Set());
+        Provider got = cache.get(1);
+        assert got != p;
+        assert "repo".equals(got.getName());
+        assert got.getSets().isEmpty();
+        assert got.getFormats().size() == 1;
+        got.setNumberOfRecordsToHarvest(5);
+        got.getFormats().clear();
+        assert cache.get("repo").getNumberOfRecordsToHarvest() == 0;
+        assert cache.get("repo").getFormats().size() == 1;
+    }
+}
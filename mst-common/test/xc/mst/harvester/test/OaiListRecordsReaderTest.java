@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.harvester.test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom.Document;
+import org.jdom.Element;
+import org.testng.annotations.Test;
+
+import xc.mst.harvester.OaiListRecordsReader;
+import xc.mst.utils.XmlHelper;
+
+/**
+ * Checks that OaiListRecordsReader reads a ListRecords response the same as it's read through a
+ * JDOM Document. No database needed.
+ */
+public class OaiListRecordsReaderTest {
+
+    protected static final String RESPONSE =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<OAI-PMH xmlns=\"http://www.openarchives.org/OAI/2.0/\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
+            "    xmlns:marc=\"http://www.loc.gov/MARC21/slim\"\n" +
+            "    xsi:schemaLocation=\"http://www.openarchives.org/OAI/2.0/ http://www.openarchives.org/OAI/2.0/OAI-PMH.xsd\">\n" +
+            "  <responseDate>2011-02-03T04:05:06Z</responseDate>\n" +
+            "  <request verb=\"ListRecords\">http://example.org/oai</request>\n" +
+            "  <ListRecords>\n" +
+            "    <record>\n" +
+            "      <header>\n" +
+            "        <identifier>oai:example.org:1</identifier>\n" +
+            "        <datestamp>2011-02-03T04:05:06Z</datestamp>\n" +
+            "        <setSpec>a</setSpec>\n" +
+            "        <setSpec>b:c</setSpec>\n" +
+            "      </header>\n" +
+            "      <metadata>\n" +
+            "        <marc:record xsi:schemaLocation=\"http://www.loc.gov/MARC21/slim http://www.loc.gov/standards/marcxml/schema/MARC21slim.xsd\">\n" +
+            "          <marc:leader>00000cam a2200000 a 4500</marc:leader>\n" +
+            "          <marc:controlfield tag=\"001\">12883376</marc:controlfield>\n" +
+            "          <marc:datafield tag=\"245\" ind1=\"1\" ind2=\"0\">\n" +
+            "            <marc:subfield code=\"a\">Gödel, Escher &amp; Bach &lt;an eternal golden braid&gt;</marc:subfield>\n" +
+            "            <marc:subfield code=\"b\"><![CDATA[a \"metaphorical\" fugue]]></marc:subfield>\n" +
+            "            <marc:subfield code=\"c\" />\n" +
+            "          </marc:datafield>\n" +
+            "          <note xmlns=\"http://example.org/notes\" type=\"a &quot;quoted&quot; &amp; tabbed&#9;value\">  spaced  </note>\n" +
+            "        </marc:record>\n" +
+            "      </metadata>\n" +
+            "    </record>\n" +
+            "    <record>\n" +
+            "      <header status=\"deleted\">\n" +
+            "        <identifier>oai:example.org:2</identifier>\n" +
+            "        <datestamp>2011-02-03T04:05:07Z</datestamp>\n" +
+            "      </header>\n" +
+            "    </record>\n" +
+            "    <record>\n" +
+            "      <header>\n" +
+            "        <identifier>oai:example.org:3</identifier>\n" +
+            "        <datestamp>2011-02-03T04:05:08Z</datestamp>\n" +
+            "      </header>\n" +
+            "      <metadata>\n" +
+            "        <dc xmlns=\"http://purl.org/dc/elements/1.1/\"><title>untitled</title></dc>\n" +
+            "      </metadata>\n" +
+            "    </record>\n" +
+            "    <resumptionToken completeListSize=\"12345\" cursor=\"0\">token|3</resumptionToken>\n" +
+            "  </ListRecords>\n" +
+            "</OAI-PMH>\n";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readTest() throws Exception {
+        byte[] bytes = RESPONSE.getBytes("UTF-8");
+
+        final List<OaiListRecordsReader.HarvestedRecord> read = new ArrayList<OaiListRecordsReader.HarvestedRecord>();
+        OaiListRecordsReader reader = new OaiListRecordsReader();
+        reader.read(new ByteArrayInputStream(bytes), new OaiListRecordsReader.RecordHandler() {
+            public void handleRecord(String identifier, String datestamp, List<String> setSpecs,
+                    String status, String metadataXml) {
+                read.add(new OaiListRecordsReader.HarvestedRecord(identifier, datestamp, setSpecs, status, metadataXml));
+            }
+        });
+        assert reader.isListRecordsFound();
+        assert reader.getErrorCode() == null;
+        assert "token|3".equals(reader.getResumptionToken()) : reader.getResumptionToken();
+        assert reader.getCompleteListSize() == 12345;
+
+        // the same as HarvestManager and DefaultRecordService read it through JDOM
+        XmlHelper xmlHelper = new XmlHelper();
+        Document doc = xmlHelper.getJDomDocument(new ByteArrayInputStream(bytes));
+        Element root = doc.getRootElement();
+        Element listRecordsEl = root.getChild("ListRecords", root.getNamespace());
+        List<Element> recordEls = listRecordsEl.getChildren("record", root.getNamespace());
+        assert recordEls.size() == read.size() : read.size();
+        for (int i = 0; i < recordEls.size(); i++) {
+            Element recordEl = recordEls.get(i);
+            OaiListRecordsReader.HarvestedRecord r = read.get(i);
+            Element headerEl = recordEl.getChild("header", root.getNamespace());
+            assert headerEl.getChildText("identifier", root.getNamespace()).equals(r.getIdentifier()) : r.getIdentifier();
+            assert headerEl.getChildText("datestamp", root.getNamespace()).equals(r.getDatestamp()) : r.getDatestamp();
+            List<String> setSpecs = new ArrayList<String>();
+            for (Object setSpecEl : headerEl.getChildren("setSpec", root.getNamespace())) {
+                setSpecs.add(((Element) setSpecEl).getText());
+            }
+            assert setSpecs.equals(r.getSetSpecs()) : r.getSetSpecs();
+            String status = headerEl.getAttributeValue("status");
+            assert status == null ? r.getStatus() == null : status.equals(r.getStatus()) : r.getStatus();
+
+            Element metadataEl = recordEl.getChild("metadata", root.getNamespace());
+            if (metadataEl == null) {
+                assert r.getMetadataXml() == null : r.getMetadataXml();
+            } else {
+                String expected = xmlHelper.getString((Element) metadataEl.getChildren().get(0));
+                assert expected.equals(r.getMetadataXml()) : "expected:\n" + expected + "\nread:\n" + r.getMetadataXml();
+            }
+        }
+    }
+
+    @Test
+    public void errorTest() throws Exception {
+        String response = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<OAI-PMH xmlns=\"http://www.openarchives.org/OAI/2.0/\">\n" +
+                "  <responseDate>2011-02-03T04:05:06Z</responseDate>\n" +
+                "  <request verb=\"ListRecords\">http://example.org/oai</request>\n" +
+                "  <error code=\"noRecordsMatch\">no records</error>\n" +
+                "</OAI-PMH>\n";
+        OaiListRecordsReader reader = new OaiListRecordsReader();
+        reader.read(new ByteArrayInputStream(response.getBytes("UTF-8")), null);
+        assert "noRecordsMatch".equals(reader.getErrorCode());
+        assert "no records".equals(reader.getErrorMessage());
+        assert !reader.isListRecordsFound();
+        assert reader.getResumptionToken() == null;
+    }
+}
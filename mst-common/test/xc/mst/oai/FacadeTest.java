@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.oai;
+
+import gnu.trove.TLongObjectHashMap;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import xc.mst.bo.record.Record;
+
+/**
+ * Checks that record lists written a few payloads at a time come out as they did when the whole
+ * response was built as a String. No database needed.
+ */
+public class FacadeTest {
+
+    protected static final HeaderEncoder ENCODER = HeaderEncoder.getInstance("oai:example.org:MetadataServicesToolkit/marcnormalization/");
+
+    protected Record record(long id, char status, String xml) {
+        Record r = new Record();
+        r.setId(id);
+        r.setStatus(status);
+        r.setUpdatedAt(new Date(1296705906000L + id * 1000));
+        r.setMode(Record.STRING_MODE);
+        r.setOaiXml(xml);
+        return r;
+    }
+
+    /**
+     * The record list as handleRecordLists built it before it was streamed
+     */
+    protected String oldRecordList(List<Record> records, boolean getRecords) {
+        StringBuilder xml = new StringBuilder("\n");
+        for (Record record : records) {
+            if (getRecords) {
+                if (Record.DELETED == record.getStatus()) {
+                    String header = ENCODER.getHeader(record, false);
+                    header = header.replaceAll("<header>", "<header status=\"deleted\">");
+                    xml.append("<record>\n").append(header).append("\n</record>\n");
+                } else if (Record.ACTIVE == record.getStatus()) {
+                    xml.append("<record>\n");
+                    xml.append(ENCODER.getHeader(record, false));
+                    if (!record.getDeleted() && record.getOaiXml() != null) {
+                        xml.append("\n<metadata>\n")
+                                .append(record.getOaiXml().replaceAll("<\\?xml.*\\?>", ""))
+                                .append("\n</metadata>\n");
+                    }
+                    xml.append("\n</record>\n");
+                }
+            } else {
+                xml.append(ENCODER.getHeader(record, false)).append("\n");
+            }
+        }
+        return xml.toString();
+    }
+
+    protected String newRecordList(final List<Record> records, boolean getRecords) throws Exception {
+        Facade facade = new Facade() {
+            protected int getPayloadsAtOnce() {
+                return 2;
+            }
+
+            protected TLongObjectHashMap<byte[]> getXmlBytes(long[] ids) {
+                TLongObjectHashMap<byte[]> xmls = new TLongObjectHashMap<byte[]>();
+                for (Record r : records) {
+                    for (long id : ids) {
+                        if (r.getId() == id && r.getOaiXml() != null) {
+                            xmls.put(id, getBytes(r.getOaiXml()));
+                        }
+                    }
+                }
+                return xmls;
+            }
+
+            protected HeaderEncoder getHeaderEncoder() {
+                return ENCODER;
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        facade.writeRecordList(records, getRecords, out);
+        return out.toString("UTF-8");
+    }
+
+    @Test
+    public void recordListTest() throws Exception {
+        List<Record> records = new ArrayList<Record>();
+        records.add(record(1, Record.ACTIVE, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<marc:record xmlns:marc=\"http://www.loc.gov/MARC21/slim\">Gödel</marc:record>"));
+        records.add(record(2, Record.ACTIVE, "<marc:record xmlns:marc=\"http://www.loc.gov/MARC21/slim\">no declaration</marc:record>"));
+        records.add(record(3, Record.DELETED, null));
+        records.add(record(4, Record.ACTIVE, null));
+        Record flagged = record(5, Record.ACTIVE, "<marc:record/>");
+        flagged.setDeleted(true);
+        records.add(flagged);
+
+        for (boolean getRecords : new boolean[] { true, false }) {
+            String expected = oldRecordList(records, getRecords);
+            String streamed = newRecordList(records, getRecords);
+            assert expected.equals(streamed) : "expected:\n" + expected + "\nstreamed:\n" + streamed;
+        }
+    }
+
+    @Test
+    public void xmlDeclarationEndTest() {
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("")) == 0;
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("<a/>")) == 0;
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("<?xml version=\"1.0\"?><a/>")) == 21;
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("\r\n <?xml version=\"1.0\"?>\n<a/>")) == 24;
+        // not a declaration, or not a finished one
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("<?xml-stylesheet")) == 0;
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("<?xm")) == 0;
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("<?xml version=\"1.0\"")) == 0;
+        assert Facade.getXmlDeclarationEnd(Facade.getBytes("<a>?></a>")) == 0;
+    }
+}
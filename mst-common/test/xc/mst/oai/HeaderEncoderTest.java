@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.oai;
+
+import java.util.Date;
+
+import org.testng.annotations.Test;
+
+import xc.mst.bo.provider.Set;
+import xc.mst.bo.record.Record;
+
+/**
+ * Checks the headers HeaderEncoder writes. No database needed.
+ */
+public class HeaderEncoderTest {
+
+    protected Set getSet(int id, String setSpec) {
+        Set set = new Set();
+        set.setId(id);
+        set.setSetSpec(setSpec);
+        return set;
+    }
+
+    @Test
+    public void headerTest() {
+        HeaderEncoder encoder = HeaderEncoder.getInstance("oai:example.org:MetadataServicesToolkit/marcnormalization/");
+        assert encoder == HeaderEncoder.getInstance("oai:example.org:MetadataServicesToolkit/marcnormalization/");
+
+        Record r = new Record();
+        r.setId(1234567L);
+        // 2011-02-03T04:05:06Z
+        r.setUpdatedAt(new Date(1296705906000L));
+        String header = encoder.getHeader(r, false);
+        assert header.equals("<header>\n" +
+                "\t<identifier>oai:example.org:MetadataServicesToolkit/marcnormalization/1234567</identifier>\n" +
+                "\t<datestamp>2011-02-03T04:05:06Z</datestamp>\n" +
+                "</header>") : header;
+
+        // the same second, cached
+        r.setUpdatedAt(new Date(1296705906999L));
+        r.addSet(getSet(2, "b"));
+        r.addSet(getSet(1, "a"));
+        header = encoder.getHeader(r, true);
+        assert header.equals("<header status=\"deleted\">\n" +
+                "\t<identifier>oai:example.org:MetadataServicesToolkit/marcnormalization/1234567</identifier>\n" +
+                "\t<datestamp>2011-02-03T04:05:06Z</datestamp>\n" +
+                "\t<setSpec>a</setSpec>\n" +
+                "\t<setSpec>b</setSpec>\n" +
+                "</header>") : header;
+
+        // the next second, and the same sets in another order
+        r = new Record();
+        r.setId(0L);
+        r.setUpdatedAt(new Date(1296705907000L));
+        r.addSet(getSet(1, "a"));
+        r.addSet(getSet(2, "b"));
+        header = encoder.getHeader(r, false);
+        assert header.contains("<identifier>oai:example.org:MetadataServicesToolkit/marcnormalization/0</identifier>") : header;
+        assert header.contains("<datestamp>2011-02-03T04:05:07Z</datestamp>") : header;
+        assert header.contains("\t<setSpec>a</setSpec>\n\t<setSpec>b</setSpec>\n</header>") : header;
+    }
+}
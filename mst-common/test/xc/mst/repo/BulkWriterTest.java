@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.repo;
+
+import java.sql.Timestamp;
+
+import org.testng.annotations.Test;
+
+/**
+ * Checks the statements and infile data BulkWriter builds. No database needed.
+ */
+public class BulkWriterTest {
+
+    @Test
+    public void insertSqlTest() {
+        BulkWriter w = new BulkWriter(null, "r.records", "records", BulkWriter.REPLACE, "record_id", "status", "type");
+        assert w.getInsertSql(2).equals("insert into r.records (record_id, status, type) values (?,?,?), (?,?,?)" +
+                " on duplicate key update status=values(status), type=values(type)") : w.getInsertSql(2);
+
+        w = new BulkWriter(null, "r.record_sets", "record_sets", BulkWriter.IGNORE, "record_id", "set_id");
+        assert w.getInsertSql(1).equals("insert ignore into r.record_sets (record_id, set_id) values (?,?)") : w.getInsertSql(1);
+    }
+
+    @Test
+    public void infileTest() throws Exception {
+        BulkWriter w = new BulkWriter(null, "r.records_xml", "records_xml", BulkWriter.REPLACE, "record_id", "xml", "date");
+        Timestamp t = Timestamp.valueOf("2011-02-03 04:05:06");
+        w.add(1L, "<a>\tb\\c\nd</a>", t);
+        w.add(2L, null, t);
+        w.add(3L, "\u00e9", null);
+        String data = new String(w.getInfileData(), "UTF-8");
+        assert data.equals(
+                "1\t<a>\\tb\\\\c\\nd</a>\t2011-02-03 04:05:06\n" +
+                "2\t\\N\t2011-02-03 04:05:06\n" +
+                "3\t\u00e9\t\\N\n") : data;
+        assert !w.hasBinary();
+
+        w.add(4L, new byte[] {0, '\t', 'x'}, null);
+        assert w.hasBinary();
+        assert new String(w.getInfileData(), "UTF-8").endsWith("4\t\\0\\tx\t\\N\n");
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.repo;
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+/**
+ * Checks the record_counts rows a write changes. No database needed.
+ */
+public class RecordCountDeltasTest {
+
+    protected long[] get(RecordCountDeltas deltas, int formatId, int setId, String status, String type) {
+        return deltas.getDeltas().get(new RecordCountDeltas.Key(formatId, setId, status, type));
+    }
+
+    @Test
+    public void deltasTest() {
+        RecordCountDeltas deltas = new RecordCountDeltas();
+
+        // a new record in two sets
+        RecordCountDeltas.State s = new RecordCountDeltas.State(1, "A", "b");
+        s.addSetId(5);
+        s.addSetId(6);
+        deltas.change(null, s, 1);
+        assert get(deltas, 1, 0, "A", "b")[0] == 1;
+        assert get(deltas, 1, 0, "A", "b")[1] == 1;
+        assert get(deltas, 1, 5, "A", "b")[0] == 1;
+        assert get(deltas, 1, 6, "A", "b")[0] == 1;
+        assert get(deltas, 1, 6, "A", "b")[1] == 0;
+
+        // written again unchanged: only the update is counted
+        deltas = new RecordCountDeltas();
+        RecordCountDeltas.State same = new RecordCountDeltas.State(1, "A", "b");
+        same.addSetId(6);
+        same.addSetId(5);
+        deltas.change(s, same, 1);
+        Map<RecordCountDeltas.Key, long[]> rows = deltas.getDeltas();
+        assert rows.size() == 1 : rows;
+        assert get(deltas, 1, 0, "A", "b")[0] == 0;
+        assert get(deltas, 1, 0, "A", "b")[1] == 1;
+
+        // deleted, with no type
+        deltas = new RecordCountDeltas();
+        RecordCountDeltas.State before = new RecordCountDeltas.State(null, "A", null);
+        before.addSetId(5);
+        RecordCountDeltas.State after = new RecordCountDeltas.State(null, "D", null);
+        after.addSetId(5);
+        deltas.change(before, after, 0);
+        assert get(deltas, 0, 0, "A", "")[0] == -1;
+        assert get(deltas, 0, 5, "A", "")[0] == -1;
+        assert get(deltas, 0, 0, "D", "")[0] == 1;
+        assert get(deltas, 0, 5, "D", "")[0] == 1;
+        assert deltas.getDeltas().size() == 4;
+
+        // and back again in the same write
+        deltas.change(after, before, 0);
+        assert deltas.getDeltas().isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package xc.mst.repo;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import xc.mst.bo.provider.Set;
+import xc.mst.bo.record.Record;
+import xc.mst.common.test.BaseTest;
+
+/**
+ * Checks record_counts after a repo's first load, which goes in with load data infile rather than
+ * being counted as it's written, and after a write once the indices are up.
+ */
+public class RecordCountsFirstLoadTest extends BaseTest {
+
+    protected List<Record> getRecords(int from, int to, Set set) throws Exception {
+        List<Record> records = new ArrayList<Record>();
+        for (int i = from; i < to; i++) {
+            Record r = new Record();
+            r.setId(i);
+            r.setStatus(Record.ACTIVE);
+            r.setUpdatedAt(new Date());
+            r.setFormat(getMarc21Format());
+            r.addSet(set);
+            records.add(r);
+        }
+        return records;
+    }
+
+    // straight from the DAO, since the repo keeps the counts it's given
+    protected long count(Repository repo, Set set) throws Exception {
+        return getRepositoryDAO().getRecordCount(repo.getName(), null, null, getMarc21Format(), set, false);
+    }
+
+    @Test
+    public void firstLoadTest() {
+        try {
+            Set bibSet = getSetService().getSetBySetSpec("MARCXMLbibliographic");
+            Set holdSet = getSetService().getSetBySetSpec("MARCXMLholdings");
+
+            Repository repo = (Repository) getConfig().getBean("Repository");
+            repo.setName("record_counts_first_load");
+            try {
+                getRepositoryDAO().deleteSchema(repo.getName());
+            } catch (Throwable t) {
+            }
+            getRepositoryDAO().createRepo(repo);
+            getRepositoryDAO().createTables(repo);
+
+            // no indices yet, so this is a first load
+            Assert.assertFalse(repo.ready4harvest());
+            repo.addRecords(getRecords(1, 1001, bibSet));
+            ((DefaultRepository) repo).commitIfNecessary(true);
+            getRepositoryDAO().createIndicesIfNecessary(repo.getName());
+            Assert.assertTrue(repo.ready4harvest());
+
+            getRepositoryDAO().lastCompleteListSizeMethod = -1;
+            Assert.assertEquals(count(repo, null), 1000);
+            // answered from record_counts
+            Assert.assertEquals(getRepositoryDAO().lastCompleteListSizeMethod, 4);
+            Assert.assertEquals(count(repo, bibSet), 1000);
+            Assert.assertEquals(count(repo, holdSet), 0);
+
+            // counted as it's written from here on
+            repo.addRecords(getRecords(1001, 1101, holdSet));
+            ((DefaultRepository) repo).commitIfNecessary(true);
+            Assert.assertEquals(count(repo, null), 1100);
+            Assert.assertEquals(count(repo, bibSet), 1000);
+            Assert.assertEquals(count(repo, holdSet), 100);
+        } catch (Throwable t) {
+            getUtil().throwIt(t);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.springframework.context.support.StaticApplicationContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import xc.mst.bo.record.InputRecord;
+import xc.mst.bo.record.OutputRecord;
+import xc.mst.bo.record.Record;
+import xc.mst.bo.record.RecordCounts;
+import xc.mst.bo.service.Service;
+import xc.mst.bo.service.ServiceHarvest;
+import xc.mst.email.Emailer;
+import xc.mst.repo.DefaultRepository;
+import xc.mst.repo.RepositoryDAO;
+import xc.mst.utils.MSTConfiguration;
+import xc.mst.utils.metrics.Metrics;
+
+/**
+ * Runs a stub service over one batch with and without parallel_processing. No database needed.
+ */
+public class ParallelProcessingTest {
+
+    protected static final int IDS_PER_RECORD = 2;
+    protected static final int FIRST_ID = 1000;
+
+    // set up here when there's no MSTConfiguration yet, as a service needs one with an Emailer to be made
+    protected MSTConfiguration config = null;
+
+    @BeforeClass
+    public void setUpConfig() {
+        if (MSTConfiguration.getInstance() == null) {
+            StaticApplicationContext ac = new StaticApplicationContext();
+            ac.getBeanFactory().registerSingleton("Emailer", new Emailer());
+            ac.refresh();
+            config = new MSTConfiguration();
+            config.setApplicationContext(ac);
+        }
+    }
+
+    @AfterClass
+    public void tearDownConfig() throws Exception {
+        if (config != null) {
+            // so that a test run after this one gets a real configuration
+            java.lang.reflect.Field instance = MSTConfiguration.class.getDeclaredField("instance");
+            instance.setAccessible(true);
+            instance.set(null, null);
+        }
+    }
+
+    /**
+     * Gives out ids from a counter rather than the db's sequence.
+     */
+    public static class SequenceDAO extends RepositoryDAO {
+        protected long next = FIRST_ID;
+
+        public synchronized long getNextIdAndIncr() {
+            return next++;
+        }
+    }
+
+    /**
+     * Keeps the records it's given rather than writing them.
+     */
+    public static class ListRepository extends DefaultRepository {
+        protected List<Record> added = new ArrayList<Record>();
+
+        public int getSize() {
+            return added.size();
+        }
+
+        public void addRecord(Record record) {
+            added.add(record);
+        }
+    }
+
+    /**
+     * Makes outputs[i] records from the i-th input record (-1 to fail), each given its id as it's
+     * made, as the services do. A random pause first lets the threads finish out of order.
+     */
+    public static class StubService extends GenericMetadataService {
+        protected int[] outputs = null;
+        protected Random random = new Random();
+        protected ListRepository repo = new ListRepository();
+
+        public StubService(int[] outputs) {
+            this.outputs = outputs;
+            setRepositoryDAO(new SequenceDAO());
+            setRepository(repo);
+            setService(new Service());
+            MetadataServiceManager msm = new MetadataServiceManager();
+            msm.setIncomingRecordCounts(new RecordCounts(new Date(), RecordCounts.INCOMING));
+            msm.setOutgoingRecordCounts(new RecordCounts(new Date(), RecordCounts.OUTGOING));
+            setMetadataServiceManager(msm);
+            preserveStatuses = false;
+            processTimingName = "StubService.process";
+            processTimer = Metrics.serviceTimer("StubService", "process");
+        }
+
+        public List<OutputRecord> process(InputRecord in) {
+            try {
+                Thread.sleep(random.nextInt(3));
+            } catch (InterruptedException ie) {
+                throw new RuntimeException(ie);
+            }
+            int n = outputs[(int) in.getId() - 1];
+            if (n < 0) {
+                throw new RuntimeException("failed on purpose");
+            }
+            List<OutputRecord> out = new ArrayList<OutputRecord>();
+            for (int i = 0; i < n; i++) {
+                Record r = new Record();
+                getRepositoryDAO().injectId(r);
+                r.setType(i % 2 == 0 ? "b" : "h");
+                out.add(r);
+            }
+            return out;
+        }
+
+        public void runTests() {
+        }
+
+        public void run(boolean parallel) {
+            List<Record> records = new ArrayList<Record>();
+            for (int i = 0; i < outputs.length; i++) {
+                Record in = new Record();
+                in.setId(i + 1);
+                in.setType("b");
+                records.add(in);
+            }
+            ServiceHarvest sh = new ServiceHarvest();
+            if (parallel) {
+                idsReservedPerRecord = IDS_PER_RECORD;
+                processingPool = Executors.newFixedThreadPool(4);
+                try {
+                    processInParallel(records, sh);
+                } finally {
+                    processingPool.shutdown();
+                }
+            } else {
+                processSerially(records, sh);
+            }
+        }
+
+        /**
+         * @return each output record as id<-predecessor ids, in the order they were added
+         */
+        public List<String> getLinks() {
+            List<String> links = new ArrayList<String>();
+            for (Record r : repo.added) {
+                StringBuilder sb = new StringBuilder().append(r.getId()).append("<-");
+                for (InputRecord pred : r.getPredecessors()) {
+                    sb.append(pred.getId()).append(" ");
+                }
+                links.add(sb.toString());
+            }
+            return links;
+        }
+
+        public Map<String, Map<String, Integer>> getCounts(RecordCounts rc) {
+            Map<String, Map<String, Integer>> counts = new TreeMap<String, Map<String, Integer>>();
+            for (Map.Entry<String, Map<String, AtomicInteger>> me : rc.getCounts().entrySet()) {
+                Map<String, Integer> counts4type = new TreeMap<String, Integer>();
+                for (Map.Entry<String, AtomicInteger> me2 : me.getValue().entrySet()) {
+                    counts4type.put(me2.getKey(), me2.getValue().get());
+                }
+                counts.put(me.getKey(), counts4type);
+            }
+            return counts;
+        }
+
+        public Map<String, Map<String, Integer>> getIncomingCounts() {
+            return getCounts(getMetadataServiceManager().getIncomingRecordCounts());
+        }
+
+        public Map<String, Map<String, Integer>> getOutgoingCounts() {
+            return getCounts(getMetadataServiceManager().getOutgoingRecordCounts());
+        }
+    }
+
+    protected static int[] outputs(int records, int n) {
+        int[] outputs = new int[records];
+        for (int i = 0; i < records; i++) {
+            outputs[i] = n;
+        }
+        return outputs;
+    }
+
+    protected static StubService run(int[] outputs, boolean parallel) {
+        StubService s = new StubService(outputs);
+        s.run(parallel);
+        return s;
+    }
+
+    protected static void assertSameRun(StubService expected, StubService actual) {
+        assert expected.getLinks().equals(actual.getLinks()) :
+                "expected " + expected.getLinks() + " got " + actual.getLinks();
+        assert expected.getIncomingCounts().equals(actual.getIncomingCounts()) :
+                "expected " + expected.getIncomingCounts() + " got " + actual.getIncomingCounts();
+        assert expected.getOutgoingCounts().equals(actual.getOutgoingCounts()) :
+                "expected " + expected.getOutgoingCounts() + " got " + actual.getOutgoingCounts();
+    }
+
+    @Test
+    public void sameAsSerialTest() {
+        // each record uses exactly the ids reserved for it, so the ids are the ones a serial run gives out
+        int[] outputs = outputs(200, IDS_PER_RECORD);
+        StubService serial = run(outputs, false);
+        assert serial.getLinks().size() == 200 * IDS_PER_RECORD;
+        assert serial.getLinks().get(0).equals(FIRST_ID + "<-1 ") : serial.getLinks().get(0);
+        for (int i = 0; i < 5; i++) {
+            assertSameRun(serial, run(outputs, true));
+        }
+    }
+
+    @Test
+    public void repeatableTest() {
+        // fewer records than ids reserved (leaving gaps), none, and failures
+        int[] outputs = new int[200];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = i % 7 == 6 ? -1 : i % (IDS_PER_RECORD + 1);
+        }
+        StubService first = run(outputs, true);
+        for (int i = 0; i < 5; i++) {
+            assertSameRun(first, run(outputs, true));
+        }
+        // the gaps are the only difference from a serial run
+        StubService serial = run(outputs, false);
+        assert serial.getIncomingCounts().equals(first.getIncomingCounts());
+        assert serial.getOutgoingCounts().equals(first.getOutgoingCounts());
+        List<String> serialPreds = new ArrayList<String>();
+        for (String link : serial.getLinks()) {
+            serialPreds.add(link.substring(link.indexOf("<-")));
+        }
+        List<String> parallelPreds = new ArrayList<String>();
+        for (int i = 0; i < first.getLinks().size(); i++) {
+            String link = first.getLinks().get(i);
+            parallelPreds.add(link.substring(link.indexOf("<-")));
+            long id = Long.parseLong(link.substring(0, link.indexOf("<-")));
+            long pred = Long.parseLong(link.substring(link.indexOf("<-") + 2).trim());
+            long firstReserved = FIRST_ID + (pred - 1) * IDS_PER_RECORD;
+            assert id >= firstReserved && id < firstReserved + IDS_PER_RECORD : link;
+        }
+        assert serialPreds.equals(parallelPreds);
+    }
+
+    @Test
+    public void moreOutputsThanIdsTest() {
+        final List<String> warnings = new ArrayList<String>();
+        AppenderSkeleton appender = new AppenderSkeleton() {
+            protected void append(LoggingEvent event) {
+                if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                    synchronized (warnings) {
+                        warnings.add(String.valueOf(event.getMessage()));
+                    }
+                }
+            }
+
+            public boolean requiresLayout() {
+                return false;
+            }
+
+            public void close() {
+            }
+        };
+        Logger.getLogger(RepositoryDAO.class).addAppender(appender);
+        try {
+            int[] outputs = outputs(100, IDS_PER_RECORD);
+            int big = 50;
+            outputs[big - 1] = IDS_PER_RECORD + 3;
+            StubService serial = run(outputs, false);
+            StubService parallel = run(outputs, true);
+
+            assert warnings.size() == 1 : warnings;
+            assert warnings.get(0).contains("parallel_processing.ids_per_record") : warnings;
+
+            // every record still gets its own ids, and the links and counts are as in a serial run
+            List<String> links = parallel.getLinks();
+            assert links.size() == 100 * IDS_PER_RECORD + 3;
+            java.util.Set<String> ids = new HashSet<String>();
+            List<String> serialPreds = new ArrayList<String>();
+            for (String link : serial.getLinks()) {
+                serialPreds.add(link.substring(link.indexOf("<-")));
+            }
+            List<String> parallelPreds = new ArrayList<String>();
+            for (String link : links) {
+                assert ids.add(link.substring(0, link.indexOf("<-"))) : link;
+                parallelPreds.add(link.substring(link.indexOf("<-")));
+            }
+            assert serialPreds.equals(parallelPreds);
+            assert serial.getIncomingCounts().equals(parallel.getIncomingCounts());
+            assert serial.getOutgoingCounts().equals(parallel.getOutgoingCounts());
+
+            // the records up to it had their ids reserved before it could take any more, so
+            // theirs (and its first IDS_PER_RECORD) are the ids a serial run gives them
+            for (int i = 0; i < big * IDS_PER_RECORD; i++) {
+                assert serial.getLinks().get(i).equals(links.get(i)) : serial.getLinks().get(i) + " " + links.get(i);
+            }
+        } finally {
+            Logger.getLogger(RepositoryDAO.class).removeAppender(appender);
+        }
+    }
+}
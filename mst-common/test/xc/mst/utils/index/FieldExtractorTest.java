@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.utils.index;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom.Document;
+import org.jdom.Element;
+import org.jdom.Namespace;
+import org.jdom.input.SAXBuilder;
+import org.jdom.xpath.XPath;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that FieldExtractor finds the same values as the JDOM XPaths SolrIndexService used to
+ * run. No database needed.
+ */
+public class FieldExtractorTest {
+
+    protected static final String XC_WORK =
+            "<xc:frbr xmlns:xc=\"http://www.extensiblecatalog.info/Elements\" " +
+                "xmlns:rdvocab=\"http://rdvocab.info/Elements\" xmlns:dcterms=\"http://purl.org/dc/terms/\" " +
+                "xmlns:rdarole=\"http://rdvocab.info/roles\">" +
+            "<xc:entity type=\"work\">" +
+                "<rdvocab:titleOfWork>Symphonies, no. 9</rdvocab:titleOfWork>" +
+                "<xc:creator>Beethoven, Ludwig van</xc:creator>" +
+                "<rdarole:composer>Beethoven, <![CDATA[Ludwig]]> van</rdarole:composer>" +
+                "<rdarole:author>First <b>bold</b> last</rdarole:author>" +
+                "<rdarole:author>Second</rdarole:author>" +
+                "<xc:creator/>" +
+            "</xc:entity></xc:frbr>";
+
+    protected static final String MARC_BIB =
+            "<record xmlns=\"http://www.loc.gov/MARC21/slim\">" +
+                "<leader>00714cam a2200205 a 4500</leader>" +
+                "<controlfield tag=\"001\">12883376</controlfield>" +
+                "<datafield tag=\"035\" ind1=\" \" ind2=\" \"><subfield code=\"a\">(OCoLC)1</subfield><subfield code=\"a\">(OCoLC)2</subfield></datafield>" +
+                "<datafield tag=\"245\" ind1=\"1\" ind2=\"0\"><subfield code=\"a\">Sleepy Jack /</subfield><subfield code=\"c\">by Ann Ryan.</subfield></datafield>" +
+                "<datafield tag=\"700\" ind1=\"1\" ind2=\" \"><subfield code=\"a\">Ryan, Ann</subfield></datafield>" +
+                "<datafield tag=\"700\" ind1=\"1\" ind2=\" \"><subfield code=\"a\">Jack</subfield></datafield>" +
+                "<datafield tag=\"710\" ind1=\"1\" ind2=\" \"><subfield code=\"b\">not a</subfield></datafield>" +
+            "</record>";
+
+    protected static final String[] XC_PATHS = new String[] {
+        "//rdvocab:titleOfWork", "//xc:creator", "//rdarole:composer", "//rdarole:author",
+        "//rdarole:editor", "//dcterms:title"};
+
+    protected static final String[] MARC_PATHS = new String[] {
+        "//marc:leader", "//marc:controlfield[@tag='001']", "//marc:controlfield[@tag='004']",
+        "//marc:datafield[@tag='035']/marc:subfield[@code='a']",
+        "//marc:datafield[@tag='245']/marc:subfield[@code='a']",
+        "//marc:datafield[@tag='245']/marc:subfield[@code='b']",
+        "//marc:datafield[@tag='700']/marc:subfield[@code='a']",
+        "//marc:datafield[@tag='710']/marc:subfield[@code='a']"};
+
+    @Test
+    public void xcTest() throws Exception {
+        compare(XC_WORK, XC_PATHS);
+    }
+
+    @Test
+    public void marcTest() throws Exception {
+        compare(MARC_BIB, MARC_PATHS);
+    }
+
+    @Test
+    public void unsupportedTest() {
+        FieldExtractor fe = new FieldExtractor();
+        for (String xpath : new String[] {"/marc:record", "//marc:datafield[1]", "//marc:datafield[@tag='245' and @ind1='1']"}) {
+            try {
+                fe.addPath(xpath);
+                assert false : xpath + " should have been refused";
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        assert fe.addPath("//xc:creator") == fe.addPath("//xc:creator");
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void compare(String xml, String[] xpaths) throws Exception {
+        FieldExtractor fe = new FieldExtractor();
+        for (String xpath : xpaths) {
+            fe.addPath(xpath);
+        }
+        List<String>[] values = fe.extract(xml);
+
+        Document doc = new SAXBuilder().build(new StringReader(xml));
+        for (int i = 0; i < xpaths.length; i++) {
+            XPath xpath = XPath.newInstance(xpaths[i]);
+            xpath.addNamespace(Namespace.getNamespace("marc", FieldExtractor.MARC_NAMESPACE));
+            List<String> expected = new ArrayList<String>();
+            for (Element e : (List<Element>) xpath.selectNodes(doc)) {
+                expected.add(e.getText());
+            }
+            assert expected.equals(values[i]) : xpaths[i] + ": expected " + expected + " but was " + values[i];
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+
+package xc.mst.utils.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.testng.annotations.Test;
+
+/**
+ * No database needed.
+ */
+public class MetricsTest {
+
+    @Test
+    public void bucketTest() {
+        long last = -1;
+        for (int b = 0; b < Timer.NUM_BUCKETS; b++) {
+            assert Timer.lowerBound(b) == last + 1 : "bucket " + b + " doesn't follow on";
+            assert Timer.bucket(Timer.lowerBound(b)) == b;
+            assert Timer.bucket(Timer.upperBound(b)) == b;
+            last = Timer.upperBound(b);
+        }
+        assert last == Long.MAX_VALUE;
+    }
+
+    @Test
+    public void percentileTest() {
+        Timer t = new Timer("test.percentile");
+        for (int i = 1; i <= 1000; i++) {
+            t.record(i * 1000000L);
+        }
+        assert t.getCount() == 1000;
+        assert Math.abs(t.getMeanMillis() - 500.5) < 0.001;
+        assertClose(500, t.getMedianMillis());
+        assertClose(950, t.get95thPercentileMillis());
+        assertClose(990, t.get99thPercentileMillis());
+        assert t.getMaxMillis() >= 1000;
+
+        t.reset();
+        assert t.getCount() == 0;
+        assert t.getMedianMillis() == 0;
+        t.record(2000000L);
+        assert t.getCount() == 1;
+        assertClose(2, t.getMedianMillis());
+    }
+
+    @Test
+    public void threadsTest() throws Exception {
+        final Counter c = new Counter("test.threads");
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 100000; j++) {
+                        c.increment();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert c.getCount() == 800000;
+        // the threads have ended, so their cells have been folded together
+        assert c.cells.size() == 0;
+        c.add(5);
+        assert c.getCount() == 800005;
+        assert c.cells.size() == 1;
+    }
+
+    @Test
+    public void jmxTest() throws Exception {
+        Timer t = Metrics.timer("test.jmx");
+        assert Metrics.timer("test.jmx") == t;
+        t.record(1000000L);
+        Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("xc.mst:type=Metrics,name=test.jmx"), "Count");
+        assert Long.valueOf(1).equals(count);
+    }
+
+    protected void assertClose(double expected, double actual) {
+        assert Math.abs(actual - expected) <= expected / 8 : "expected about " + expected + " but was " + actual;
+    }
+}
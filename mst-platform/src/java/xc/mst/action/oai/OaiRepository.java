@@ -9,7 +9,9 @@
 
 package xc.mst.action.oai;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -120,19 +122,18 @@ public class OaiRepository extends BaseActionSupport implements ServletRequestAw
             // Create the Facade Object, which will compute the results of the request and set them on the bean
             Facade facade = (Facade) MSTConfiguration.getInstance().getBean("Facade");
 
-            // Execute the correct request on the Facade Object
-            oaiXMLOutput = facade.execute(oaiRequest);
-
             response.setContentType("text/xml; charset=UTF-8");
 
-            // Write the response
-            response.getWriter().write(oaiXMLOutput);
+            // Execute the correct request on the Facade Object, which writes the response as it goes
+            OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+            facade.execute(oaiRequest, out);
+            out.flush();
 
             return SUCCESS;
         } catch (DatabaseConfigException e) {
             log.error("Cannot connect to the database with the parameters from the config file.", e);
 
-            response.getWriter().write("Do to a configuration error, this OAI repository cannot access its database.");
+            response.getOutputStream().write("Do to a configuration error, this OAI repository cannot access its database.".getBytes("UTF-8"));
 
             return ERROR;
         }
@@ -47,7 +47,6 @@ public class DCTransformationService extends GenericMetadataService {
     protected XmlHelper xmlHelper = new XmlHelper();
 
     protected HashMap<String, String> dctermsElements = new HashMap<String, String>();
-    protected HashMap<String, List<Element>> dcValues = new HashMap<String, List<Element>>();
 
     public void init() {
         // Initialize the list of dcterms element
@@ -124,7 +123,8 @@ public class DCTransformationService extends GenericMetadataService {
                     }
                 }
             } else {
-                dcValues.clear();
+                // local rather than a field so records can be processed on several threads at once
+                HashMap<String, List<Element>> dcValues = new HashMap<String, List<Element>>();
 
                 processMe.setMode(Record.JDOM_MODE);
                 Element metadataEl = processMe.getOaiXmlEl();
@@ -168,7 +168,7 @@ public class DCTransformationService extends GenericMetadataService {
                 //
 
                 AggregateXCRecord ar = new AggregateXCRecord();
-                processBibliographicRecord(ar, processMe);
+                processBibliographicRecord(ar, processMe, dcValues);
                 if (processMe.getSuccessors() != null && processMe.getSuccessors().size() > 0) {
                     for (OutputRecord or : processMe.getSuccessors()) {
                         Record succ = getRepository().getRecord(or.getId());
@@ -225,17 +225,19 @@ public class DCTransformationService extends GenericMetadataService {
     }
 
     protected void processBibliographicRecord(
-            AggregateXCRecord transformedRecord, InputRecord originalRecord) {
+            AggregateXCRecord transformedRecord, InputRecord originalRecord,
+            HashMap<String, List<Element>> dcValues) {
         java.util.Set<String> keySet = dctermsElements.keySet();
         Iterator<String> keyItrtr = keySet.iterator();
         while (keyItrtr.hasNext()) {
             String element = keyItrtr.next();
             String frbrLevel = dctermsElements.get(element);
-            transformedRecord = dctermsTransform(transformedRecord, element, frbrLevel);
+            transformedRecord = dctermsTransform(transformedRecord, dcValues, element, frbrLevel);
         }
     }
 
-    private AggregateXCRecord dctermsTransform(AggregateXCRecord transformInto, String element, String frbrLevel) {
+    private AggregateXCRecord dctermsTransform(AggregateXCRecord transformInto, HashMap<String, List<Element>> dcValues,
+            String element, String frbrLevel) {
         FrbrLevel level = FrbrLevel.MANIFESTATION;
         if (frbrLevel.equals("work")) {
             level = FrbrLevel.WORK;
@@ -0,0 +1,130 @@
+/**
+  * Copyright (c) 2011 eXtensible Catalog Organization
+  *
+  * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+  * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+  * website http://www.extensiblecatalog.org/.
+  *
+  */
+package xc.mst.services.marcaggregation;
+
+import gnu.trove.TLongArrayList;
+import gnu.trove.TLongLongHashMap;
+import gnu.trove.TLongObjectHashMap;
+
+/**
+ * A set-valued map of longs, for the one-to-many relationships the service keeps for every record
+ * (output record -> its input records, matchpoint -> records having it, ...).
+ *
+ * Nearly all keys have a single value, so those are kept in a primitive long->long map, and only
+ * the keys with more than one value get a list.  With 1 key in 10 having 3 values, that comes to
+ * under 60 bytes a key, against over 250 for a Map<Long, HashSet<Long>> (see MatchStateMemoryTest).
+ *
+ * A frozen CSR layout (one offsets array and one values array) would be a little smaller still,
+ * but these maps change with every record processed.
+ */
+public class LongMultiMap {
+
+    private static final long[] NONE = new long[0];
+
+    protected TLongLongHashMap singles = new TLongLongHashMap();
+    protected TLongObjectHashMap<TLongArrayList> multiples = new TLongObjectHashMap<TLongArrayList>();
+
+    /**
+     * @return false if the value was already there for this key
+     */
+    public boolean put(long key, long value) {
+        TLongArrayList values = multiples.get(key);
+        if (values != null) {
+            if (values.contains(value)) {
+                return false;
+            }
+            values.add(value);
+            return true;
+        }
+        if (singles.containsKey(key)) {
+            long single = singles.get(key);
+            if (single == value) {
+                return false;
+            }
+            singles.remove(key);
+            values = new TLongArrayList(2);
+            values.add(single);
+            values.add(value);
+            multiples.put(key, values);
+            return true;
+        }
+        singles.put(key, value);
+        return true;
+    }
+
+    /**
+     * replaces whatever values key had.
+     */
+    public void putAll(long key, long[] values) {
+        removeAll(key);
+        for (long value : values) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * @return the values for key, never null
+     */
+    public long[] get(long key) {
+        TLongArrayList values = multiples.get(key);
+        if (values != null) {
+            return values.toNativeArray();
+        }
+        if (singles.containsKey(key)) {
+            return new long[] {singles.get(key)};
+        }
+        return NONE;
+    }
+
+    public boolean containsKey(long key) {
+        return singles.containsKey(key) || multiples.containsKey(key);
+    }
+
+    public void remove(long key, long value) {
+        TLongArrayList values = multiples.get(key);
+        if (values != null) {
+            int i = values.indexOf(value);
+            if (i >= 0) {
+                values.remove(i);
+            }
+            if (values.size() == 1) {
+                multiples.remove(key);
+                singles.put(key, values.get(0));
+            }
+        } else if (singles.containsKey(key) && singles.get(key) == value) {
+            singles.remove(key);
+        }
+    }
+
+    /**
+     * @return the values key had
+     */
+    public long[] removeAll(long key) {
+        TLongArrayList values = multiples.remove(key);
+        if (values != null) {
+            return values.toNativeArray();
+        }
+        if (singles.containsKey(key)) {
+            return new long[] {singles.remove(key)};
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public int size() {
+        return singles.size() + multiples.size();
+    }
+
+    public void clear() {
+        singles.clear();
+        multiples.clear();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+  * Copyright (c) 2011 eXtensible Catalog Organization
+  *
+  * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+  * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+  * website http://www.extensiblecatalog.org/.
+  *
+  */
+package xc.mst.services.marcaggregation;
+
+import gnu.trove.TIntObjectHashMap;
+import gnu.trove.TLongArrayList;
+import gnu.trove.TLongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Disjoint sets of record ids (union-find with path halving and union by size), used to combine
+ * match sets that share a record: if {62,160} and {160,201} are both found, the records all end up
+ * in one set {62,160,201}.  Each id costs one entry in a long->int map plus two ints.
+ */
+public class LongUnionFind {
+
+    protected TLongIntHashMap id2index = new TLongIntHashMap();
+    protected TLongArrayList ids = new TLongArrayList();
+    protected int[] parent = new int[16];
+    protected int[] size = new int[16];
+
+    public boolean contains(long id) {
+        return id2index.containsKey(id);
+    }
+
+    /**
+     * adds id as a set of its own, if it isn't already in one.
+     */
+    public void add(long id) {
+        index(id);
+    }
+
+    /**
+     * puts a and b (adding them if need be) in the same set.
+     */
+    public void union(long a, long b) {
+        int ra = root(index(a));
+        int rb = root(index(b));
+        if (ra == rb) {
+            return;
+        }
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+    }
+
+    /**
+     * @return the sets, in the order their first member was added
+     */
+    public List<HashSet<Long>> getSets() {
+        List<HashSet<Long>> sets = new ArrayList<HashSet<Long>>();
+        TIntObjectHashMap<HashSet<Long>> root2set = new TIntObjectHashMap<HashSet<Long>>();
+        for (int i = 0; i < ids.size(); i++) {
+            int r = root(i);
+            HashSet<Long> set = root2set.get(r);
+            if (set == null) {
+                set = new HashSet<Long>();
+                root2set.put(r, set);
+                sets.add(set);
+            }
+            set.add(ids.get(i));
+        }
+        return sets;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    protected int index(long id) {
+        if (id2index.containsKey(id)) {
+            return id2index.get(id);
+        }
+        int i = ids.size();
+        if (i == parent.length) {
+            int[] p = new int[i * 2];
+            int[] s = new int[i * 2];
+            System.arraycopy(parent, 0, p, 0, i);
+            System.arraycopy(size, 0, s, 0, i);
+            parent = p;
+            size = s;
+        }
+        ids.add(id);
+        id2index.put(id, i);
+        parent[i] = i;
+        size[i] = 1;
+        return i;
+    }
+
+    protected int root(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
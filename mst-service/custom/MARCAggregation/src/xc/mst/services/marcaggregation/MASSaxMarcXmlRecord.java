@@ -12,6 +12,6 @@ public class MASSaxMarcXmlRecord extends SaxMarcXmlRecord {
 
 
     protected XMLReader getXmlReader() {
-        return xmlReader;
+        return xmlReader.get();
     }
 }
@@ -9,6 +9,7 @@
 package xc.mst.services.marcaggregation;
 
 import gnu.trove.TLongLongHashMap;
+import gnu.trove.TLongLongProcedure;
 import gnu.trove.TLongObjectHashMap;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.log4j.Logger;
@@ -55,7 +56,6 @@ public class MarcAggregationService extends GenericMetadataService {
     protected MarcAggregationServiceDAO              masDAO = null;
     protected MASMarcBuilder                         masBld = null;
     protected RecordOfSourceManager                  masRsm = null;
-    protected List<HashSet<Long>>                    masMatchSetList = null;
 
     /**
      * processBibUpdateActive is actually 2 separate actions: processBibDelete follwed by processBibNewActive
@@ -79,8 +79,9 @@ public class MarcAggregationService extends GenericMetadataService {
     /**
      * map output records to corresponding input records map
      * not only tracked merged records, 1 to many, but track unmerged 1 to 1
+     * (there is one entry per output record, so this is kept as primitives, see LongMultiMap)
      */
-    protected Map<Long, HashSet<Long>>               allBibRecordsO2Imap = null;
+    protected LongMultiMap                           allBibRecordsO2Imap = null;
 
     /** map input records to corresponding output map,
      *  not only tracked merged records, many to 1, but track unmerged 1 to 1
@@ -111,9 +112,9 @@ public class MarcAggregationService extends GenericMetadataService {
     
     /** 
      * SaxMarcXmlRecord processing occurs often, perhaps on the same records multiple times.
-     * Let's cache these as we preProcess.
+     * Let's cache these as we preProcess (as many as fit in cache_smr.mb).
      */
-    protected TLongObjectHashMap<SaxMarcXmlRecord> SMRs             = null;
+    protected SMRCache SMRs             = null;
     private boolean cacheSMRs = true;
 
     /**
@@ -156,6 +157,11 @@ public class MarcAggregationService extends GenericMetadataService {
     
     boolean isSetUp = false;
 
+    /**
+     * Should the matchers keep all matchpoints in memory rather than querying for them?
+     */
+    protected boolean matchpointIndex = false;
+
     private static final Logger LOG               = Logger.getLogger(MarcAggregationService.class);
 
     private void clear_objects() {
@@ -163,7 +169,6 @@ public class MarcAggregationService extends GenericMetadataService {
         matchRuleMap = null;
         masBld = null;
         masRsm = null;
-        masMatchSetList = null;
 
         scores             = null;
         scores_unpersisted = null;
@@ -179,6 +184,12 @@ public class MarcAggregationService extends GenericMetadataService {
         recordOfSourceMap = null;
         
         currentMatchSets = null;
+
+        if (SMRs != null) {
+            LOG.info("MAS: SMR cache held " + SMRs.size() + " records in " + SMRs.getBytes() / 1024 + "KB");
+            SMRs.clear();
+            SMRs = null;
+        }
         
         isSetUp = false;
        
@@ -201,6 +212,7 @@ public class MarcAggregationService extends GenericMetadataService {
         
         debugMode = config.getPropertyAsBoolean("debug_mode", false);
         cacheSMRs = config.getPropertyAsBoolean("cache_smr", false);
+        matchpointIndex = config.getPropertyAsBoolean("matchpoint_index", false);
         
         // 001/003 manipulation
         insert001 = config.getPropertyAsBoolean("insert_001", false);
@@ -217,11 +229,17 @@ public class MarcAggregationService extends GenericMetadataService {
         doPreProcess = true;
     }
 
+    public boolean isMatchpointIndexEnabled() {
+        return matchpointIndex;
+    }
+
     // Too time-consuming to do on "real" setup(); fire this off only if we need to process records! (totalRecordCount > 0)
     private void doSetup() {
     	if (isSetUp) return;
     	
-    	SMRs = new TLongObjectHashMap<SaxMarcXmlRecord>();
+    	if (cacheSMRs) {
+    	    SMRs = new SMRCache(config.getPropertyAsInt("cache_smr.mb", 256) * 1048576L);
+    	}
     	
         recordOfSourceMap = new TLongLongHashMap();
 
@@ -315,24 +333,16 @@ public class MarcAggregationService extends GenericMetadataService {
      * @param i_to_o_map
      * @return
      */
-    private Map<Long, HashSet<Long>> createMergedRecordsO2Imap(TLongLongHashMap i_to_o_map) {
+    private LongMultiMap createMergedRecordsO2Imap(TLongLongHashMap i_to_o_map) {
         LOG.info("start createMergedRecordsO2Imap");
-        TreeMap<Long,HashSet<Long>> results = new TreeMap<Long, HashSet<Long>>();
+        final LongMultiMap results = new LongMultiMap();
         // obviously there can be multiple input records corresponding to one output record.
-        for (Long in: i_to_o_map.keys()) {
-            Long out = i_to_o_map.get(in);
-            if (!results.containsKey(out)) {
-                HashSet<Long> set = new HashSet<Long>();
-                set.add(in);
-                results.put(out, set);
+        i_to_o_map.forEachEntry(new TLongLongProcedure() {
+            public boolean execute(long in, long out) {
+                results.put(out, in);
+                return true;
             }
-            else {
-                // this output record already had at least one input record associated with it.
-                HashSet<Long> _set = results.get(out);
-                _set.add(in);
-                results.put(out, _set);
-            }
-        }
+        });
         LOG.info("done createMergedRecordsO2Imap");
         return results;
     }
@@ -365,7 +375,6 @@ public class MarcAggregationService extends GenericMetadataService {
         if (this.masDAO == null) {  // this was really an initial unit test
             LOG.error("***  ERROR, DAO did not get initialized by Spring!");
         }
-        masMatchSetList = new ArrayList<HashSet<Long>>();
         scores = new TLongObjectHashMap<RecordOfSourceData>();   /// TODO load what you have in the db!
 
         if (hasIntermediatePersistence) {
@@ -428,17 +437,6 @@ public class MarcAggregationService extends GenericMetadataService {
         }
     }
 
-    /**
-     * this is just for what we have so far, not meant to always be up to date, i.e. it doesn't get
-     * started off from looking at existing merged stuff in the database.  Based on the current record
-     * that comes in, see what it matches, and go from there.
-     *
-     * @return
-     */
-    public List<HashSet<Long>> getCurrentMatchSetList() {
-        return masMatchSetList;
-    }
-
     /**
      * load property from the service's config file.
      * @param name
@@ -536,7 +534,37 @@ public class MarcAggregationService extends GenericMetadataService {
     // turn on the two-phase "pre process" hook
     public boolean doPreProcess() { return true; }
     
-    public void preProcess(InputRecord r) { 
+    /**
+     * What prepareForPreProcess() works out for a record ahead of preProcess().
+     */
+    protected static class PreparedRecord {
+        protected SaxMarcXmlRecord smr;
+        protected int size;
+    }
+
+    /**
+     * Parses the record and measures its xml, which is what most of preProcess's time goes on.
+     * Adding the record to the matchers stays in preProcess, since the matchers are shared and
+     * records have to be added to them in order. That includes working out the matchpoints: each
+     * matcher does it field by field as it adds them (and attaches errors to the input record as
+     * it goes), and it's only string normalization once the record is parsed.
+     */
+    public Object prepareForPreProcess(InputRecord r) {
+        if (r.getDeleted()) {
+            return null;
+        }
+        PreparedRecord prepared = new PreparedRecord();
+        prepared.smr = new SaxMarcXmlRecord(r.getOaiXml());
+        prepared.smr.setRecordId(r.getId());
+        prepared.size = r.getOaiXml().getBytes().length;
+        return prepared;
+    }
+
+    public void preProcess(InputRecord r) {
+        preProcess(r, null);
+    }
+
+    public void preProcess(InputRecord r, Object prepared) { 
         TimingLogger.start("preProcess");
         
         // we do the "real" setup here, since we now know that we will need to process at least 1 record!
@@ -556,9 +584,17 @@ public class MarcAggregationService extends GenericMetadataService {
             return;
     	}
     	
+    	int rSize = -1;
     	try {    	    	       
-    		smr = new SaxMarcXmlRecord(r.getOaiXml());
-    		smr.setRecordId(r.getId());
+    		if (prepared instanceof Throwable) {
+    			throw (Throwable) prepared;
+    		} else if (prepared != null) {
+    			smr = ((PreparedRecord) prepared).smr;
+    			rSize = ((PreparedRecord) prepared).size;
+    		} else {
+    			smr = new SaxMarcXmlRecord(r.getOaiXml());
+    			smr.setRecordId(r.getId());
+    		}
     		if(cacheSMRs && inputType.equals("b")) SMRs.put(r.getId(), smr);
         } catch (Throwable t) {
             LOG.error("error pre-processing record :" + r + " type: " + inputType + " isDeleted? " + inputDeleted, t);
@@ -595,7 +631,7 @@ public class MarcAggregationService extends GenericMetadataService {
         	if (r.getStatus() == Record.DELETED) {
             	// we don't need to do anything with these        		
         	} else {            	
-        		addAndPersistScores(r, smr);
+        		addAndPersistScores(r, smr, rSize);
         	}
         }
         TimingLogger.stop("preProcess");
@@ -603,15 +639,18 @@ public class MarcAggregationService extends GenericMetadataService {
     }
     
     private SaxMarcXmlRecord getSMR(InputRecord r) {
-    	if (cacheSMRs && SMRs.contains(r.getId())) {
-    		//LOG.info("MAS: getSMR() returned a cached record: " + r.getId());
-    		return SMRs.get(r.getId());
+    	if (cacheSMRs) {
+    		SaxMarcXmlRecord cached = SMRs.get(r.getId());
+    		if (cached != null) {
+    			//LOG.info("MAS: getSMR() returned a cached record: " + r.getId());
+    			return cached;
+    		}
     	}
     	SaxMarcXmlRecord smr = null;
     	try {    	    	       
     		smr = new SaxMarcXmlRecord(r.getOaiXml());
     		smr.setRecordId(r.getId());
-    		if (cacheSMRs) SMRs.put(r.getId(), smr);
+    		if (cacheSMRs) SMRs.putRead(r.getId(), smr);
     		return smr;
         } catch (Throwable t) {
             LOG.error("Couldn't create SaxMarcXmlRecord for id="+r.getId()+" error="+t);
@@ -621,11 +660,18 @@ public class MarcAggregationService extends GenericMetadataService {
     
 
     private void addAndPersistScores (InputRecord r, SaxMarcXmlRecord smr) {
+    	addAndPersistScores(r, smr, -1);
+    }
+
+    /**
+     * @param size the length in bytes of r's xml, or -1 if it hasn't been worked out yet
+     */
+    private void addAndPersistScores (InputRecord r, SaxMarcXmlRecord smr, int size) {
     	TimingLogger.start("addAndPersistScores");
         // get record of source data for this bib
         //  (only a bib would be a record of source)
         final char leaderByte17 = smr.getLeader().charAt(17);
-        final int rSize = r.getOaiXml().getBytes().length;
+        final int rSize = size == -1 ? r.getOaiXml().getBytes().length : size;
         
     	TimingLogger.start("addAndPersistScores.addScores");
         scores.put(r.getId(), new RecordOfSourceData(leaderByte17, rSize));
@@ -779,13 +825,14 @@ public class MarcAggregationService extends GenericMetadataService {
     private void addToMasMergedRecordsMemory(Long outputRecordId, HashSet<Long> mergedInputRecordSet) {
         TimingLogger.start("addToMasMergedRecordsMemory");
 
+        allBibRecordsO2Imap.removeAll(outputRecordId);
         for (Long num: mergedInputRecordSet) {
             allBibRecordsI2Omap.put(num,outputRecordId);
             if (hasIntermediatePersistence) {
                 allBibRecordsI2Omap_unpersisted.put(num,outputRecordId);
             }
+            allBibRecordsO2Imap.put(outputRecordId, num);
         }
-        allBibRecordsO2Imap.put(outputRecordId, mergedInputRecordSet);
 
         /****if (mergedInputRecordSet.size() > 1) {
             for (Long num: mergedInputRecordSet) {
@@ -948,15 +995,15 @@ public class MarcAggregationService extends GenericMetadataService {
      */
     @Override
     protected void addPredecessor(Record in, Record out) {
-        HashSet<Long> set = allBibRecordsO2Imap.get(out.getId());
-        if (set==null || set.isEmpty()) {
+        long[] set = allBibRecordsO2Imap.get(out.getId());
+        if (set.length == 0) {
             // picks up the holding records
             LOG.debug("addPredecessor, empty or null set for record id: "+out.getId());
             out.addPredecessor(in);
         }
         else {
             LOG.debug("addPredecessor, will add, for record id: "+out.getId());
-            for (Long in_rec: set) {
+            for (long in_rec: set) {
                 Record r = inputRepo.getRecord(in_rec);
                 if (r != null) {
                     out.addPredecessor(r);
@@ -1028,9 +1075,9 @@ public class MarcAggregationService extends GenericMetadataService {
     }
     	
     private HashSet<Long> getCurrentMatchSetForRecordId(Long id) {
-        HashSet<Long> matchSet = allBibRecordsO2Imap.get(id);
-        if (matchSet == null) {
-            matchSet = new HashSet<Long>();
+        HashSet<Long> matchSet = new HashSet<Long>();
+        for (long in: allBibRecordsO2Imap.get(id)) {
+            matchSet.add(in);
         }
         return matchSet;
     }
@@ -1040,12 +1087,13 @@ public class MarcAggregationService extends GenericMetadataService {
     private List<HashSet<Long>> findMatchSets(HashSet<Long> formerMatchSet) {
         TimingLogger.start("findMatchSets");
 
-        List<HashSet<Long>> listOfMatchSets = new ArrayList<HashSet<Long>>();
-        HashSet<Long> processedTheseAlready = new HashSet<Long>();
+        // the sets found for different records can overlap (a record matching records in 2 of them),
+        // union-find joins those up so no record ends up in more than one match set.
+        LongUnionFind matchSets = new LongUnionFind();
                 
     	for (Long id: formerMatchSet) {
 
-    		if (processedTheseAlready.contains(id)) continue;
+    		if (matchSets.contains(id)) continue;
     		
             Record r = getInputRepo().getRecord(id);
             
@@ -1070,14 +1118,15 @@ public class MarcAggregationService extends GenericMetadataService {
             newMatchedRecordIds.add(id);
     		
     		newMatchedRecordIds = expandMatchedRecords(newMatchedRecordIds);
-    		processedTheseAlready.addAll(newMatchedRecordIds);
-    		
-    		listOfMatchSets.add(newMatchedRecordIds);
+    		matchSets.add(id);
+    		for (Long match: newMatchedRecordIds) {
+    		    matchSets.union(id, match);
+    		}
     		
         }
         TimingLogger.stop("findMatchSets");
 
-    	return listOfMatchSets;
+    	return matchSets.getSets();
     }
     
     /*
@@ -1630,7 +1679,7 @@ public class MarcAggregationService extends GenericMetadataService {
                 if (hasIntermediatePersistence) {
                     mergedInRecordsList_unpersisted.remove(input);
                 }****/
-                allBibRecordsO2Imap.remove(outputRecordToBeDeletedNum);
+                allBibRecordsO2Imap.removeAll(outputRecordToBeDeletedNum);
                 if (deleteOutputRecord) {
                     LOG.debug("must delete output record! id="+outputRecordToBeDeletedNum);
                     results = deleteOutputRecord(results, outputRecordToBeDeletedNum);
@@ -1887,9 +1936,8 @@ public class MarcAggregationService extends GenericMetadataService {
         for (Long input: matchedRecordIds) {
             Long output = allBibRecordsI2Omap.get(input);
             if (output != null) {
-                HashSet<Long> temp = allBibRecordsO2Imap.get(output);
-                if (temp != null) {
-                    results.addAll(allBibRecordsO2Imap.get(output));
+                for (long in: allBibRecordsO2Imap.get(output)) {
+                    results.add(in);
                 }
             }
         }
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.services.marcaggregation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import xc.mst.bo.record.SaxMarcXmlRecord;
+import xc.mst.utils.metrics.Counter;
+import xc.mst.utils.metrics.Metrics;
+
+/**
+ * Holds on to the bibs parsed by preProcess() so that process() doesn't have to parse them again,
+ * within a fixed number of bytes. The records are kept packed (see SaxMarcXmlRecord.pack()),
+ * which takes a fraction of the heap of the parsed object graph.
+ *
+ * preProcess() parses every record before process() sees the first, and process() then asks for
+ * them in the same order, which is the worst case for plain LRU: once the cache is full, each
+ * record is evicted just before it's wanted. So records which haven't been read yet are never
+ * evicted; a record put in when the cache is full of those is turned away instead. Records which
+ * have been read are evicted least recently used first, as process() only comes back to them
+ * when remerging.
+ *
+ * The mas.smr.* counters show whether the cache is paying for itself.
+ */
+public class SMRCache {
+
+    protected static final Counter HITS = Metrics.counter("mas.smr.hits");
+    protected static final Counter MISSES = Metrics.counter("mas.smr.misses");
+    protected static final Counter EVICTIONS = Metrics.counter("mas.smr.evictions");
+    protected static final Counter REJECTIONS = Metrics.counter("mas.smr.rejections");
+
+    protected final long maxBytes;
+    protected long bytes = 0;
+
+    // records put but not yet read, in the order they were put
+    protected Map<Long, byte[]> unread = new LinkedHashMap<Long, byte[]>();
+    // records which have been read, least recently read first
+    protected Map<Long, byte[]> read = new LinkedHashMap<Long, byte[]>(16, 0.75f, true);
+
+    public SMRCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the record, or null if it isn't cached
+     */
+    public synchronized SaxMarcXmlRecord get(long recordId) {
+        byte[] packed = unread.remove(recordId);
+        if (packed != null) {
+            read.put(recordId, packed);
+        } else {
+            packed = read.get(recordId);
+        }
+        if (packed == null) {
+            MISSES.increment();
+            return null;
+        }
+        HITS.increment();
+        return SaxMarcXmlRecord.unpack(packed);
+    }
+
+    /**
+     * Caches a record which is yet to be read.
+     */
+    public void put(long recordId, SaxMarcXmlRecord smr) {
+        add(recordId, smr.pack(), false);
+    }
+
+    /**
+     * Caches a record which has just been read (parsed after a miss), so is only worth keeping
+     * if there's room.
+     */
+    public void putRead(long recordId, SaxMarcXmlRecord smr) {
+        add(recordId, smr.pack(), true);
+    }
+
+    protected synchronized void add(long recordId, byte[] packed, boolean alreadyRead) {
+        remove(recordId);
+        while (bytes + packed.length > maxBytes && !read.isEmpty()) {
+            Iterator<byte[]> it = read.values().iterator();
+            bytes -= it.next().length;
+            it.remove();
+            EVICTIONS.increment();
+        }
+        if (bytes + packed.length > maxBytes) {
+            REJECTIONS.increment();
+            return;
+        }
+        (alreadyRead ? read : unread).put(recordId, packed);
+        bytes += packed.length;
+    }
+
+    public synchronized void remove(long recordId) {
+        byte[] packed = unread.remove(recordId);
+        if (packed == null) {
+            packed = read.remove(recordId);
+        }
+        if (packed != null) {
+            bytes -= packed.length;
+        }
+    }
+
+    public synchronized int size() {
+        return unread.size() + read.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized void clear() {
+        unread.clear();
+        read.clear();
+        bytes = 0;
+    }
+}
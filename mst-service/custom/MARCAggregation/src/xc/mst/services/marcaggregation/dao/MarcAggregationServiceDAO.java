@@ -17,7 +17,10 @@ import gnu.trove.TLongObjectProcedure;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -30,10 +33,13 @@ import java.util.TreeMap;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.mutable.MutableInt;
 import org.apache.log4j.Logger;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 
 import xc.mst.services.impl.dao.GenericMetadataServiceDAO;
 import xc.mst.services.marcaggregation.RecordOfSourceData;
+import xc.mst.services.marcaggregation.matcher.MatchpointIndex;
 import xc.mst.services.marcaggregation.matcher.SCNData;
 import xc.mst.utils.MSTConfiguration;
 import xc.mst.utils.TimingLogger;
@@ -152,6 +158,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
             LOG.error("*** problem with replaceIntoTable data",e4);
             getUtil().throwIt(e4);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persistSCNMaps");
         }
     }
@@ -223,6 +230,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
             LOG.error("*** problem with replaceIntoTable data",e4);
             getUtil().throwIt(e4);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persist2StrMaps");
         }
     }
@@ -297,6 +305,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
             LOG.error("*** problem with replaceIntoTable data",t4);
             getUtil().throwIt(t4);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persist1StrMatchpointMaps");
         }
     }
@@ -362,6 +371,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
             LOG.error("*** problem with replaceIntoTable data",t4);
             getUtil().throwIt(t4);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persistPrefixMap");
         }
     }
@@ -369,9 +379,8 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
     public void persistLongOnly(List<Long> values, String tableName)  {
 
         TimingLogger.start("MarcAggregationServiceDAO.persistLongOnly");
+        String dbLoadFileStr = getDbLoadFileStr();
         try {
-
-            String dbLoadFileStr = getDbLoadFileStr();
             final OutputStream os = new BufferedOutputStream(new FileOutputStream(dbLoadFileStr));
             final MutableInt j = new MutableInt(0);
 
@@ -395,6 +404,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
             LOG.error("problem with replaceIntoTable data ",t);
             getUtil().throwIt(t);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persistLongOnly");
         }
     }
@@ -410,9 +420,8 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
     public void persistLongMatchpointMaps(TLongLongHashMap inputId2numMap, String tableName, final boolean swap) {
 
         TimingLogger.start("MarcAggregationServiceDAO.persistLongMaps");
+        String dbLoadFileStr = getDbLoadFileStr();
         try {
-
-            String dbLoadFileStr = getDbLoadFileStr();
             final OutputStream os = new BufferedOutputStream(new FileOutputStream(dbLoadFileStr));
             final MutableInt j = new MutableInt(0);
 
@@ -455,6 +464,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
             LOG.error("problem with replaceIntoTable data - ",t);
             getUtil().throwIt(t);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persistLongMaps");
         }
     }
@@ -463,9 +473,8 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
 
         final String tableName = merge_scores_table;
         TimingLogger.start("MarcAggregationServiceDAO.persistScores");
+        String dbLoadFileStr = getDbLoadFileStr();
         try {
-            String dbLoadFileStr = getDbLoadFileStr();
-
             final byte[] tabBytes = getTabBytes();
             final byte[] newLineBytes = getNewLineBytes();
 
@@ -501,6 +510,7 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
         } catch (Throwable t) {
             getUtil().throwIt(t);
         } finally {
+            new File(dbLoadFileStr).delete();
             TimingLogger.stop("MarcAggregationServiceDAO.persistScores");
         }
     }
@@ -540,17 +550,15 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
         return s3;
     }
 
-    // not only does it create the string but it has a side effect - it creates a file from the string,
-    // checks for its existence and deletes it if it finds it.
+    // not only does it create the string but it has a side effect - it creates a new, empty file of the
+    // caller's own, so that the service's threads and other jobs can't write over it.  Delete it when done.
     protected String getDbLoadFileStr() {
-        String dbLoadFileStr =
-        (MSTConfiguration.getUrlPath() + "/db_load.in").replace('\\', '/');
-
-        File dbLoadFile = new File(dbLoadFileStr);
-        if (dbLoadFile.exists()) {
-            dbLoadFile.delete();
+        try {
+            File dbLoadFile = File.createTempFile("db_load_mas_", ".in", new File(MSTConfiguration.getUrlPath()));
+            return dbLoadFile.getAbsolutePath().replace('\\', '/');
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        return dbLoadFileStr;
     }
 
     /**
@@ -856,6 +864,68 @@ public class MarcAggregationServiceDAO extends GenericMetadataServiceDAO {
         return records;
     }
 
+    /**
+     * Loads a whole "generic" matchpoints table (string_id, input_record_id) into an index.
+     */
+    public MatchpointIndex get1StrMatchpointIndex(String tableName) {
+        return getMatchpointIndex("select input_record_id, string_id from " + tableName,
+                new MatchpointIndexLoader() {
+                    protected long getMatchpoint(ResultSet rs) throws SQLException {
+                        return MatchpointIndex.hash(rs.getString(2));
+                    }
+                });
+    }
+
+    public MatchpointIndex getLccnMatchpointIndex() {
+        return getMatchpointIndex("select input_record_id, numeric_id from " + matchpoints_010a_table,
+                new MatchpointIndexLoader() {
+                    protected long getMatchpoint(ResultSet rs) throws SQLException {
+                        return rs.getLong(2);
+                    }
+                });
+    }
+
+    public MatchpointIndex getSCNMatchpointIndex() {
+        return getMatchpointIndex("select input_record_id, prefix_id, numeric_id from " + matchpoints_035a_table,
+                new MatchpointIndexLoader() {
+                    protected long getMatchpoint(ResultSet rs) throws SQLException {
+                        return MatchpointIndex.hash(SCNData.getIndexKey(rs.getInt(2), rs.getString(3)));
+                    }
+                });
+    }
+
+    /**
+     * Reads the table in a single pass instead of the limit pages the *RecordsCache methods use
+     * (each of which has to skip over all of the rows before it).  The rows are streamed, which
+     * Connector/J only does for a forward-only, read-only statement with a fetch size of
+     * Integer.MIN_VALUE, so the whole table never sits in memory as a result set.
+     *
+     * @param sql must select input_record_id first
+     */
+    private MatchpointIndex getMatchpointIndex(final String sql, MatchpointIndexLoader loader) {
+        TimingLogger.start("MarcAggregationServiceDAO.getMatchpointIndex");
+        LOG.info(sql);
+        this.jdbcTemplate.query(new PreparedStatementCreator() {
+            public PreparedStatement createPreparedStatement(Connection conn) throws SQLException {
+                PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }
+        }, loader);
+        TimingLogger.stop("MarcAggregationServiceDAO.getMatchpointIndex");
+        return loader.index;
+    }
+
+    private static abstract class MatchpointIndexLoader implements RowCallbackHandler {
+        protected MatchpointIndex index = new MatchpointIndex();
+
+        public void processRow(ResultSet rs) throws SQLException {
+            index.add(getMatchpoint(rs), rs.getLong(1));
+        }
+
+        protected abstract long getMatchpoint(ResultSet rs) throws SQLException;
+    }
+
     public List<Long> getMergedInputRecordsCache() {
         TimingLogger.start("getMergedInputRecordsCache");
         int page = 0;
@@ -38,6 +38,12 @@ public abstract class FieldMatcherService extends BaseService implements FieldMa
     private MarcAggregationService mas;
     private String name;
 
+    /**
+     * when the service is configured with matchpoint_index=true, holds all of this matcher's
+     * matchpoints (persisted or not), and is consulted instead of the database.
+     */
+    protected MatchpointIndex matchpointIndex = null;
+
     public String getName() {
         return name;
     }
@@ -62,6 +68,21 @@ public abstract class FieldMatcherService extends BaseService implements FieldMa
     	return false;
     }
 
+    protected boolean isMatchpointIndexEnabled() {
+        return mas != null && mas.isMatchpointIndexEnabled();
+    }
+
+    /**
+     * add the records in matches to results, leaving out the record being matched and any already there.
+     */
+    protected void addIndexedMatches(long[] matches, long id, List<Long> results) {
+        for (long match : matches) {
+            if (match != id && !results.contains(match)) {
+                results.add(match);
+            }
+        }
+    }
+
     protected SolrServer getMASSolrServer() {
         MASSolrService mss = (MASSolrService)config.getBean("MASSolrService");
         return mss.getServer();
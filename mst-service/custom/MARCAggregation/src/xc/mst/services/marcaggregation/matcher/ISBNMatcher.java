@@ -107,6 +107,9 @@ public class ISBNMatcher extends FieldMatcherService {
             }
         }
         inputId2isbn.remove(id);
+        if (matchpointIndex != null) {
+            matchpointIndex.remove(id);
+        }
 
         // keep database in sync.  Don't worry about the one-off performance hit...yet.
         getMAS().getMarcAggregationServiceDAO().deleteMergeRow(MarcAggregationServiceDAO.matchpoints_020a_table, id);
@@ -126,6 +129,10 @@ public class ISBNMatcher extends FieldMatcherService {
 
             for (String subfield : subfields) {
                 String isbn = getIsbn(subfield);
+                if (matchpointIndex != null) {
+                    addIndexedMatches(matchpointIndex.getInputIds(isbn), id, results);
+                    continue;
+                }
                 if (isbn2inputIds.get(isbn) != null) {
                 	List<Long> m = isbn2inputIds.get(isbn);
                 	if (m != null && m.size() > 0) {
@@ -227,6 +234,12 @@ public class ISBNMatcher extends FieldMatcherService {
                     LOG.debug("*** 2.adding to inputId2isbn, for id: " + id + " for isbn: " + isbn);
                 }
 
+                if (matchpointIndex != null) {
+                    // the index answers the lookups, so the matchpoint->ids map isn't needed
+                    matchpointIndex.add(isbn, id);
+                    continue;
+                }
+
                 List<Long> ids = isbn2inputIds.get(isbn);
                 if (ids == null) {
                     ids = new ArrayList<Long>();
@@ -283,11 +296,15 @@ public class ISBNMatcher extends FieldMatcherService {
 
     @Override
     public void load(boolean firstTime) {
-        // TODO Auto-generated method stub
-
+        matchpointIndex = null;
+        if (isMatchpointIndexEnabled()) {
+            matchpointIndex = getMAS().getMarcAggregationServiceDAO().get1StrMatchpointIndex(MarcAggregationServiceDAO.matchpoints_020a_table);
+            LOG.info("020 matchpoint index loaded, records="+matchpointIndex.getNumRecordIds()+" matchpoints="+matchpointIndex.getNumMatchpoints());
+        }
     }
 
     // TODO this can fail.  so to sanitize the table?
+    // (the index, if there is one, already has everything being persisted here)
     @Override
     public void flush(boolean freeUpMemory) {
         getMAS().getMarcAggregationServiceDAO().persist1StrMatchpointMaps(inputId2isbn, MarcAggregationServiceDAO.matchpoints_020a_table);
@@ -108,6 +108,10 @@ public class ISSNMatcher extends FieldMatcherService {
 
             for (String subfield : subfields) {
                 String issn = getAllButDash(subfield);
+                if (matchpointIndex != null) {
+                    addIndexedMatches(matchpointIndex.getInputIds(issn), id, results);
+                    continue;
+                }
                 List<Long> m = issn2inputIds.get(issn);
                 if (m != null && m.size() > 0) {
                     results.addAll(m);
@@ -156,6 +160,9 @@ public class ISSNMatcher extends FieldMatcherService {
             }
         }
         inputId2issn.remove(id);
+        if (matchpointIndex != null) {
+            matchpointIndex.remove(id);
+        }
 
         // keep database in sync.  Don't worry about the one-off performance hit...yet.
         getMAS().getMarcAggregationServiceDAO().deleteMergeRow(MarcAggregationServiceDAO.matchpoints_022a_table, id);
@@ -205,6 +212,12 @@ public class ISSNMatcher extends FieldMatcherService {
                     }
                 }
 
+                if (matchpointIndex != null) {
+                    // the index answers the lookups, so the matchpoint->ids map isn't needed
+                    matchpointIndex.add(issn, id);
+                    continue;
+                }
+
                 List<Long> ids = issn2inputIds.get(issn);
                 if (ids == null) {
                     ids = new ArrayList<Long>();
@@ -264,8 +277,11 @@ public class ISSNMatcher extends FieldMatcherService {
 
     @Override
     public void load(boolean firstTime) {
-        // TODO Auto-generated method stub
-
+        matchpointIndex = null;
+        if (isMatchpointIndexEnabled()) {
+            matchpointIndex = getMAS().getMarcAggregationServiceDAO().get1StrMatchpointIndex(MarcAggregationServiceDAO.matchpoints_022a_table);
+            LOG.info("022 matchpoint index loaded, records="+matchpointIndex.getNumRecordIds()+" matchpoints="+matchpointIndex.getNumMatchpoints());
+        }
     }
 
     @Override
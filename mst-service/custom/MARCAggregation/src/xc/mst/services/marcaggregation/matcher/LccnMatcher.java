@@ -175,6 +175,11 @@ public class LccnMatcher extends FieldMatcherService {
             for (String subfield : subfields) {
                 Long goods = new Long(getUniqueId(subfield));
                 if (goods <= 0L) continue; // we don't accept <= 0
+
+                if (matchpointIndex != null) {
+                    addIndexedMatches(matchpointIndex.getInputIds(goods), id, results);
+                    continue;
+                }
                 
                 // look in memory first
             	List<Long> m = lccn2inputIds.get(goods);
@@ -227,6 +232,9 @@ public class LccnMatcher extends FieldMatcherService {
         if (MarcAggregationService.hasIntermediatePersistence) {
             inputId2lccn_unpersisted.remove(id);
         }
+        if (matchpointIndex != null) {
+            matchpointIndex.remove(id);
+        }
 
         // keep database in sync.  Don't worry about the one-off performance hit...yet.
         MarcAggregationService s = getMAS();
@@ -265,6 +273,12 @@ public class LccnMatcher extends FieldMatcherService {
                     }
                 }
 
+                if (matchpointIndex != null) {
+                    // the index answers the lookups, so the matchpoint->ids map isn't needed
+                    matchpointIndex.add(goods, id);
+                    continue;
+                }
+
                 List<Long> idsList = lccn2inputIds.get(goods);
                 if (idsList == null || idsList.size() == 0) {
                     idsList = new ArrayList<Long>();
@@ -332,6 +346,14 @@ public class LccnMatcher extends FieldMatcherService {
     public void load(boolean firstTime) {
     	// we will only keep all objects in-memory for the initial (large) load; otherwise, we need to consult database too
     	keepAllCached = firstTime;
+    	matchpointIndex = null;
+
+    	// the index covers everything the maps would, so they need only hold what is yet to be persisted
+    	if (isMatchpointIndexEnabled()) {
+    	    keepAllCached = false;
+    	    matchpointIndex = getMAS().getMarcAggregationServiceDAO().getLccnMatchpointIndex();
+    	    LOG.info("010 matchpoint index loaded, records="+matchpointIndex.getNumRecordIds()+" matchpoints="+matchpointIndex.getNumMatchpoints());
+    	}
     	
     	if (! keepAllCached) return;
 
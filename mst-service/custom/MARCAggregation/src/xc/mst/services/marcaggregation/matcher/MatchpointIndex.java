@@ -0,0 +1,92 @@
+/**
+  * Copyright (c) 2011 eXtensible Catalog Organization
+  *
+  * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+  * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+  * website http://www.extensiblecatalog.org/.
+  *
+  */
+package xc.mst.services.marcaggregation.matcher;
+
+import xc.mst.services.marcaggregation.LongMultiMap;
+
+/**
+ * An in-memory copy of one of the matchpoints_* tables, so a matcher can find the records sharing
+ * a matchpoint without going to the database for every subfield.
+ *
+ * Matchpoints are keyed by a long: numeric matchpoints (010$a) are used as is, string ones are
+ * reduced to a 64 bit hash with {@link #hash(String)}.  With 64 bits, the odds of two different
+ * matchpoints colliding are negligible even with tens of millions of them, and a collision would
+ * only ever add a candidate to a match set - the match rules still compare the records.
+ *
+ * Most matchpoints belong to exactly one record and most records have exactly one matchpoint of
+ * a given kind, which LongMultiMap stores compactly.  The id->key direction is there so a record
+ * can be removed from the index by id alone.
+ *
+ * Not thread safe, the matchers are only called from the service's processing thread.
+ */
+public class MatchpointIndex {
+
+    protected LongMultiMap matchpoint2inputIds = new LongMultiMap();
+    protected LongMultiMap inputId2matchpoints = new LongMultiMap();
+
+    // FNV-1a, 64 bit
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME  = 0x100000001b3L;
+
+    public static long hash(String matchpoint) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < matchpoint.length(); i++) {
+            final char c = matchpoint.charAt(i);
+            h ^= (c & 0xff);
+            h *= FNV_PRIME;
+            h ^= (c >>> 8);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    public void add(String matchpoint, long inputId) {
+        add(hash(matchpoint), inputId);
+    }
+
+    public void add(long matchpoint, long inputId) {
+        if (matchpoint2inputIds.put(matchpoint, inputId)) {
+            inputId2matchpoints.put(inputId, matchpoint);
+        }
+    }
+
+    /**
+     * @return the ids of the records having this matchpoint, never null
+     */
+    public long[] getInputIds(String matchpoint) {
+        return getInputIds(hash(matchpoint));
+    }
+
+    public long[] getInputIds(long matchpoint) {
+        return matchpoint2inputIds.get(matchpoint);
+    }
+
+    /**
+     * Removes all of the matchpoints of this record.
+     */
+    public void remove(long inputId) {
+        long[] matchpoints = inputId2matchpoints.removeAll(inputId);
+        for (long matchpoint : matchpoints) {
+            matchpoint2inputIds.remove(matchpoint, inputId);
+        }
+    }
+
+    public int getNumRecordIds() {
+        return inputId2matchpoints.size();
+    }
+
+    public int getNumMatchpoints() {
+        return matchpoint2inputIds.size();
+    }
+
+    public void clear() {
+        matchpoint2inputIds.clear();
+        inputId2matchpoints.clear();
+    }
+}
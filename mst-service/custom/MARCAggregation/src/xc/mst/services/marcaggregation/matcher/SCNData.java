@@ -28,6 +28,17 @@ public class SCNData {
     
     public String toString() { return full; }
 
+    /**
+     * the key this matchpoint is kept under in a MatchpointIndex
+     */
+    public String getIndexKey() {
+        return getIndexKey(prefixNum, scn);
+    }
+
+    public static String getIndexKey(int prefixNum, String scn) {
+        return prefixNum + " " + scn;
+    }
+
     public String full;
     public String prefix;
     public Integer prefixNum;
@@ -157,6 +157,11 @@ public class SystemControlNumberMatcher extends FieldMatcherService {
 
                 // for now don't consider 035$a if no prefix.
                 if (goods.prefix.equals("")) continue;
+
+                if (matchpointIndex != null) {
+                    addIndexedMatches(matchpointIndex.getInputIds(goods.getIndexKey()), id, results);
+                    continue;
+                }
                 
                 // look in memory first
                 if (scn2inputIds.get(goods) != null) {
@@ -214,6 +219,9 @@ public class SystemControlNumberMatcher extends FieldMatcherService {
         if (MarcAggregationService.hasIntermediatePersistence) {
             inputId2scn_unpersisted.remove(id);
         }
+        if (matchpointIndex != null) {
+            matchpointIndex.remove(id);
+        }
 
         // keep database in sync.  Don't worry about the one-off performance hit...yet.
         MarcAggregationService s = getMAS();
@@ -262,6 +270,12 @@ public class SystemControlNumberMatcher extends FieldMatcherService {
                     LOG.debug("we have already seen " + goods + " for recordId: " + r.recordId);
                 }
 
+                if (matchpointIndex != null) {
+                    // the index answers the lookups, so the matchpoint->ids map isn't needed
+                    matchpointIndex.add(goods.getIndexKey(), id);
+                    continue;
+                }
+
                 List<Long> idsList = scn2inputIds.get(goods);
                 if (idsList == null || idsList.size() == 0) {
                     idsList = new ArrayList<Long>();
@@ -351,6 +365,14 @@ public class SystemControlNumberMatcher extends FieldMatcherService {
             prefix2id.put(id2prefix.get(id), id);
         }
 
+        // the index covers everything the maps would, so they need only hold what is yet to be persisted
+        matchpointIndex = null;
+        if (isMatchpointIndexEnabled()) {
+            keepAllCached = false;
+            matchpointIndex = s.getMarcAggregationServiceDAO().getSCNMatchpointIndex();
+            LOG.info("035 matchpoint index loaded, records="+matchpointIndex.getNumRecordIds()+" matchpoints="+matchpointIndex.getNumMatchpoints());
+        }
+
     	if (! keepAllCached) return;
     	
         // Retrieve all match point integer data into memory,
@@ -67,6 +67,10 @@ public class x024aMatcher extends FieldMatcherService {
             for (String subfield : subfields) {
                 if (StringUtils.isNotEmpty(subfield)) {
                     String goods = getFieldDataIntoCorrectFormat(field, subfield);
+                    if (matchpointIndex != null) {
+                        addIndexedMatches(matchpointIndex.getInputIds(goods), id, results);
+                        continue;
+                    }
                     List<Long> m = x024a2inputIds.get(goods);
                     if (m != null && m.size() > 0) {
                         results.addAll(m);
@@ -117,6 +121,9 @@ public class x024aMatcher extends FieldMatcherService {
             }
         }
         inputId2x024a.remove(id);
+        if (matchpointIndex != null) {
+            matchpointIndex.remove(id);
+        }
 
         // keep database in sync.  Don't worry about the one-off performance hit...yet.
         getMAS().getMarcAggregationServiceDAO().deleteMergeRow(MarcAggregationServiceDAO.matchpoints_024a_table, id);
@@ -159,6 +166,12 @@ public class x024aMatcher extends FieldMatcherService {
                     LOG.debug("*** 2.adding to recordId2x024a, for id: " + id + " for x024$a: " + goods);
                 }
 
+                if (matchpointIndex != null) {
+                    // the index answers the lookups, so the matchpoint->ids map isn't needed
+                    matchpointIndex.add(goods, id);
+                    continue;
+                }
+
                 List<Long> ids = x024a2inputIds.get(goods);
                 if (ids == null) {
                     ids = new ArrayList<Long>();
@@ -225,8 +238,11 @@ public class x024aMatcher extends FieldMatcherService {
 
     @Override
     public void load(boolean firstTime) {
-        // TODO may not use this for string-based matchers.
-
+        matchpointIndex = null;
+        if (isMatchpointIndexEnabled()) {
+            matchpointIndex = getMAS().getMarcAggregationServiceDAO().get1StrMatchpointIndex(MarcAggregationServiceDAO.matchpoints_024a_table);
+            LOG.info("024 matchpoint index loaded, records="+matchpointIndex.getNumRecordIds()+" matchpoints="+matchpointIndex.getNumMatchpoints());
+        }
     }
 
     @Override
@@ -0,0 +1,142 @@
+/**
+  * Copyright (c) 2011 eXtensible Catalog Organization
+  *
+  * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+  * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+  * website http://www.extensiblecatalog.org/.
+  *
+  */
+package xc.mst.services.marcaggregation.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.testng.annotations.Test;
+
+import xc.mst.services.marcaggregation.LongMultiMap;
+import xc.mst.services.marcaggregation.LongUnionFind;
+import xc.mst.services.marcaggregation.matcher.MatchpointIndex;
+
+/**
+ * Measures the heap taken by the service's per-record match state, the old boxed collections against
+ * the primitive ones, for a repository shaped like a real one: most output records have a single input
+ * record, 1 in 10 is a merge of 3.  No database needed.
+ */
+public class MatchStateMemoryTest {
+
+    private static final Logger LOG = Logger.getLogger(MatchStateMemoryTest.class);
+
+    protected static final int NUM_OUTPUT_RECORDS = 500000;
+
+    // hold on to what was built so it can't be collected before it's measured
+    protected Object retained = null;
+
+    @Test
+    public void o2iMemoryTest() {
+        long before = usedMemory();
+        Map<Long, HashSet<Long>> boxed = new HashMap<Long, HashSet<Long>>();
+        long in = 0;
+        for (long out = 1; out <= NUM_OUTPUT_RECORDS; out++) {
+            HashSet<Long> set = new HashSet<Long>();
+            for (int i = 0; i < inputsFor(out); i++) {
+                set.add(++in);
+            }
+            boxed.put(out, set);
+        }
+        retained = boxed;
+        long boxedBytes = usedMemory() - before;
+        retained = null;
+        boxed = null;
+
+        before = usedMemory();
+        LongMultiMap compact = new LongMultiMap();
+        in = 0;
+        for (long out = 1; out <= NUM_OUTPUT_RECORDS; out++) {
+            for (int i = 0; i < inputsFor(out); i++) {
+                compact.put(out, ++in);
+            }
+        }
+        retained = compact;
+        long compactBytes = usedMemory() - before;
+        retained = null;
+
+        report("output->input records", boxedBytes, compactBytes);
+        assert compact.size() == NUM_OUTPUT_RECORDS;
+        assert compact.get(10).length == 3;
+        assert compactBytes * 3 < boxedBytes : "LongMultiMap should be at least 3 times smaller";
+    }
+
+    @Test
+    public void matchpointMemoryTest() {
+        // both directions, as the matchers keep them (isbn2inputIds and inputId2isbn)
+        long before = usedMemory();
+        Map<String, List<Long>> isbn2inputIds = new HashMap<String, List<Long>>();
+        Map<Long, List<String>> inputId2isbn = new HashMap<Long, List<String>>();
+        for (long id = 1; id <= NUM_OUTPUT_RECORDS; id++) {
+            String isbn = "978" + (1000000000L + id);
+            List<Long> ids = new ArrayList<Long>();
+            ids.add(id);
+            isbn2inputIds.put(isbn, ids);
+            List<String> isbns = new ArrayList<String>();
+            isbns.add(isbn);
+            inputId2isbn.put(id, isbns);
+        }
+        retained = new Object[] {isbn2inputIds, inputId2isbn};
+        long boxedBytes = usedMemory() - before;
+        retained = null;
+        isbn2inputIds = null;
+        inputId2isbn = null;
+
+        before = usedMemory();
+        MatchpointIndex index = new MatchpointIndex();
+        for (long id = 1; id <= NUM_OUTPUT_RECORDS; id++) {
+            index.add("978" + (1000000000L + id), id);
+        }
+        retained = index;
+        long compactBytes = usedMemory() - before;
+        retained = null;
+
+        report("isbn->records", boxedBytes, compactBytes);
+        assert index.getInputIds("9781000000010")[0] == 10;
+        assert compactBytes * 2 < boxedBytes : "MatchpointIndex should be at least 2 times smaller";
+    }
+
+    @Test
+    public void unionFindTest() {
+        LongUnionFind uf = new LongUnionFind();
+        uf.union(62, 160);
+        uf.union(160, 201);
+        uf.union(10, 29);
+        uf.add(5);
+        List<HashSet<Long>> sets = uf.getSets();
+        assert sets.size() == 3;
+        assert sets.get(0).size() == 3 && sets.get(0).contains(201L);
+        assert sets.get(1).size() == 2;
+        assert sets.get(2).size() == 1;
+    }
+
+    protected int inputsFor(long out) {
+        return out % 10 == 0 ? 3 : 1;
+    }
+
+    protected void report(String what, long boxedBytes, long compactBytes) {
+        LOG.info(what + ": boxed=" + (boxedBytes / NUM_OUTPUT_RECORDS) + " bytes/record, primitive=" +
+                (compactBytes / NUM_OUTPUT_RECORDS) + " bytes/record");
+    }
+
+    protected long usedMemory() {
+        Runtime r = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ie) {
+            }
+        }
+        return r.totalMemory() - r.freeMemory();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.services.marcaggregation.test;
+
+import org.testng.annotations.Test;
+
+import xc.mst.bo.record.SaxMarcXmlRecord;
+import xc.mst.services.marcaggregation.SMRCache;
+
+/**
+ * No database needed.
+ */
+public class SMRCacheTest {
+
+    protected static final String MARC_BIB =
+            "<record xmlns=\"http://www.loc.gov/MARC21/slim\">" +
+                "<leader>00714cam a2200205 a 4500</leader>" +
+                "<controlfield tag=\"001\">12883376</controlfield>" +
+                "<datafield tag=\"245\" ind1=\"1\" ind2=\"0\"><subfield code=\"a\">Sleepy Jack /</subfield></datafield>" +
+            "</record>";
+
+    @Test
+    public void scanTest() {
+        SaxMarcXmlRecord smr = new SaxMarcXmlRecord(MARC_BIB);
+        int size = smr.pack().length;
+        // room for 3 records
+        SMRCache cache = new SMRCache(size * 3 + size / 2);
+
+        // preProcess: the records that don't fit are turned away rather than evicting unread ones
+        for (long id = 1; id <= 5; id++) {
+            cache.put(id, smr);
+        }
+        assert cache.size() == 3;
+
+        // process: the first 3 are there, the rest evict those already read
+        for (long id = 1; id <= 5; id++) {
+            SaxMarcXmlRecord cached = cache.get(id);
+            if (id <= 3) {
+                assert cached != null : id;
+                assert "12883376".equals(cached.getControlField(1));
+            } else {
+                assert cached == null : id;
+                cache.putRead(id, smr);
+            }
+        }
+        assert cache.size() == 3;
+        assert cache.get(1) == null;
+        assert cache.get(5) != null;
+        assert cache.getBytes() <= size * 3;
+
+        cache.clear();
+        assert cache.size() == 0 && cache.getBytes() == 0;
+    }
+}
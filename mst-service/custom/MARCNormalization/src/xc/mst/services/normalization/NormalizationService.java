@@ -152,7 +152,6 @@ public class NormalizationService extends GenericMetadataService {
     // 035 processing
     private static Pattern variablePattern = Pattern.compile("\\$\\{([0-9]+)\\}");
     private static int MAX_035_REGEX_MATCHES = 5;
-    private static List<String> matches = new ArrayList<String>(MAX_035_REGEX_MATCHES);
     private List<HashMap<String, Object>> substitute035_a;
     private List<HashMap<String, Object>> substitute035_9;
     private List<HashMap<String, String>> substitute035_a_b;
@@ -2014,7 +2013,7 @@ public class NormalizationService extends GenericMetadataService {
             			Matcher matcher = matchPrefix.matcher(subfield9.getText());
             			
             			if (matcher.find()) {
-            				matches.clear();
+            				List<String> matches = new ArrayList<String>(MAX_035_REGEX_MATCHES);
                             int numMatches = matcher.groupCount();
                             for (int j=1; j <= MAX_035_REGEX_MATCHES && j <= numMatches; j++) {
                                     matches.add(j-1, matcher.group(j));
@@ -2079,7 +2078,7 @@ public class NormalizationService extends GenericMetadataService {
             			Matcher matcher = matchPrefix.matcher(aSubfield.getText());
             			
             			if (matcher.find()) {
-            				matches.clear();
+            				List<String> matches = new ArrayList<String>(MAX_035_REGEX_MATCHES);
                             int numMatches = matcher.groupCount();
                             for (int j=1; j <= MAX_035_REGEX_MATCHES && j <= numMatches; j++) {
                                     matches.add(j-1, matcher.group(j));
@@ -99,6 +99,8 @@ public class TransformationService extends SolrTransformationService {
         TimingLogger.reset();
         inputBibs = getRepository().getPersistentPropertyAsInt("inputBibs", 0);
         inputHoldings = getRepository().getPersistentPropertyAsInt("inputHoldings", 0);
+
+        getTransformationDAO().loadBibMaps(config.getPropertyAsInt("bib_maps_cache_mb", 0) * 1048576L);
     }
     
     protected Long getRecordId4BibProcessed(String orgCode, String s) {
@@ -191,6 +193,7 @@ public class TransformationService extends SolrTransformationService {
             
             TimingLogger.start("TransformationDAO.non-generic");
             super.commitIfNecessary(true, 0);
+            getTransformationDAO().flushBibMaps();
             TimingLogger.stop("TransformationDAO.non-generic");
                         
             TimingLogger.stop("TransformationDAO.endBatch");
@@ -0,0 +1,379 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.services.transformation.dao;
+
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntObjectHashMap;
+import gnu.trove.TLongObjectHashMap;
+import gnu.trove.TObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in-memory copy of the bibsProcessed* and bibs_to_holdings tables, so that TransformationService
+ * doesn't have to go to the database several times for every record it processes.
+ *
+ * Each (org_code, 001) seen is given an int id once, and the maps are kept between those ids and
+ * record ids, so the 001 strings are only stored once however many maps they're in.
+ *
+ * Changes are applied to the maps straight away and the (org_code, 001)s they touched are remembered
+ * as dirty; TransformationDAO writes the current rows of each dirty one back to the database when
+ * the service commits. The cache must hold the whole of both tables for its answers to be right,
+ * which is why it's loaded in full when the service starts and dropped (rather than trimmed) once
+ * it outgrows its memory budget.
+ *
+ * getEstimatedBytes() is a rough guess at the heap the cache takes, for comparing with that budget.
+ *
+ * Not thread safe; TransformationDAO only uses it while holding its own lock.
+ */
+public class BibMapsCache {
+
+    // a rough guess at the heap taken by an id (the string, its slot in the dictionary, the
+    // reverse lookup) and by a link between two ids (an array slot in each direction)
+    protected static final int BYTES_PER_KEY = 96;
+    protected static final int BYTES_PER_LINK = 48;
+
+    // "org_code\t001" -> id
+    protected TObjectIntHashMap<String> ids = new TObjectIntHashMap<String>();
+    // id -> "org_code\t001"
+    protected List<String> keys = new ArrayList<String>();
+
+    // bibsProcessed: bib -> record ids and record id -> bibs
+    protected TIntObjectHashMap<long[]> recordIdsByBib = new TIntObjectHashMap<long[]>();
+    protected TLongObjectHashMap<int[]> bibsByRecordId = new TLongObjectHashMap<int[]>();
+
+    // bibs_to_holdings: holding -> bibs and bib -> holdings
+    protected TIntObjectHashMap<int[]> bibsByHolding = new TIntObjectHashMap<int[]>();
+    protected TIntObjectHashMap<int[]> holdingsByBib = new TIntObjectHashMap<int[]>();
+
+    protected TIntHashSet dirtyBibs = new TIntHashSet();
+    protected TIntHashSet dirtyHoldings = new TIntHashSet();
+
+    protected long estimatedBytes = 0;
+
+    /**
+     * bibsProcessedLongId holds the 001s which parse as ints, as numbers, so "00123" and "123" are
+     * the same bib there. The bibsProcessed keys are normalized the same way so lookups agree
+     * with the database's.
+     */
+    public static boolean isLongId(String s) {
+        try {
+            Integer.parseInt(s);
+            return true;
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+    }
+
+    protected static String normalize(String s) {
+        try {
+            return String.valueOf(Integer.parseInt(s));
+        } catch (NumberFormatException nfe) {
+            return s;
+        }
+    }
+
+    /**
+     * @return the id of (orgCode, s), or -1 if it hasn't got one and create is false
+     */
+    protected int getId(String orgCode, String s, boolean create) {
+        String key = orgCode + '\t' + s;
+        if (ids.containsKey(key)) {
+            return ids.get(key);
+        }
+        if (!create) {
+            return -1;
+        }
+        int id = keys.size();
+        keys.add(key);
+        ids.put(key, id);
+        estimatedBytes += BYTES_PER_KEY + 2 * key.length();
+        return id;
+    }
+
+    public String getOrgCode(int id) {
+        String key = keys.get(id);
+        return key.substring(0, key.indexOf('\t'));
+    }
+
+    public String get001(int id) {
+        String key = keys.get(id);
+        return key.substring(key.indexOf('\t') + 1);
+    }
+
+    public List<Long> getRecordIds4Bib(String orgCode, String bib001) {
+        List<Long> results = new ArrayList<Long>();
+        int bib = getId(orgCode, normalize(bib001), false);
+        if (bib != -1) {
+            long[] recordIds = recordIdsByBib.get(bib);
+            if (recordIds != null) {
+                for (long recordId : recordIds) {
+                    results.add(recordId);
+                }
+            }
+        }
+        return results;
+    }
+
+    public void addRecordId4Bib(String orgCode, String bib001, long recordId) {
+        loadRecordId4Bib(orgCode, bib001, recordId);
+        dirtyBibs.add(getId(orgCode, normalize(bib001), false));
+    }
+
+    /**
+     * Same as addRecordId4Bib, but for a row that's already in the database.
+     */
+    public void loadRecordId4Bib(String orgCode, String bib001, long recordId) {
+        int bib = getId(orgCode, normalize(bib001), true);
+        long[] recordIds = recordIdsByBib.get(bib);
+        if (!contains(recordIds, recordId)) {
+            recordIdsByBib.put(bib, add(recordIds, recordId));
+            bibsByRecordId.put(recordId, add(bibsByRecordId.get(recordId), bib));
+            estimatedBytes += BYTES_PER_LINK;
+        }
+    }
+
+    public void removeRecordId4Bibs(long recordId) {
+        int[] bibs = bibsByRecordId.remove(recordId);
+        if (bibs == null) {
+            return;
+        }
+        for (int bib : bibs) {
+            long[] recordIds = remove(recordIdsByBib.get(bib), recordId);
+            if (recordIds == null) {
+                recordIdsByBib.remove(bib);
+            } else {
+                recordIdsByBib.put(bib, recordIds);
+            }
+            dirtyBibs.add(bib);
+            estimatedBytes -= BYTES_PER_LINK;
+        }
+    }
+
+    public List<String> getBibs4Holding(String orgCode, String holding001) {
+        return get001s(bibsByHolding, getId(orgCode, holding001, false));
+    }
+
+    public List<String> getHoldings4Bib(String orgCode, String bib001) {
+        return get001s(holdingsByBib, getId(orgCode, bib001, false));
+    }
+
+    public void addBib4Holding(String orgCode, String holding001, String bib001) {
+        int holding = loadBib4Holding(orgCode, holding001, bib001);
+        dirtyHoldings.add(holding);
+    }
+
+    /**
+     * Same as addBib4Holding, but for a row that's already in the database.
+     *
+     * @return the holding's id
+     */
+    public int loadBib4Holding(String orgCode, String holding001, String bib001) {
+        int holding = getId(orgCode, holding001, true);
+        int bib = getId(orgCode, bib001, true);
+        int[] bibs = bibsByHolding.get(holding);
+        if (!contains(bibs, bib)) {
+            bibsByHolding.put(holding, add(bibs, bib));
+            holdingsByBib.put(bib, add(holdingsByBib.get(bib), holding));
+            estimatedBytes += BYTES_PER_LINK;
+        }
+        return holding;
+    }
+
+    public void removeBibs4Holding(String orgCode, String holding001) {
+        int holding = getId(orgCode, holding001, false);
+        if (holding == -1) {
+            return;
+        }
+        int[] bibs = bibsByHolding.remove(holding);
+        if (bibs == null) {
+            return;
+        }
+        for (int bib : bibs) {
+            unlinkHolding(bib, holding);
+        }
+        dirtyHoldings.add(holding);
+    }
+
+    public void removeBib4Holding(String orgCode, String holding001, String bib001) {
+        int holding = getId(orgCode, holding001, false);
+        int bib = getId(orgCode, bib001, false);
+        if (holding == -1 || bib == -1) {
+            return;
+        }
+        int[] bibs = bibsByHolding.get(holding);
+        if (!contains(bibs, bib)) {
+            return;
+        }
+        bibs = remove(bibs, bib);
+        if (bibs == null) {
+            bibsByHolding.remove(holding);
+        } else {
+            bibsByHolding.put(holding, bibs);
+        }
+        unlinkHolding(bib, holding);
+        dirtyHoldings.add(holding);
+    }
+
+    protected void unlinkHolding(int bib, int holding) {
+        int[] holdings = remove(holdingsByBib.get(bib), holding);
+        if (holdings == null) {
+            holdingsByBib.remove(bib);
+        } else {
+            holdingsByBib.put(bib, holdings);
+        }
+        estimatedBytes -= BYTES_PER_LINK;
+    }
+
+    /**
+     * @return the bibs changed since the last call, which is now forgotten
+     */
+    public int[] takeDirtyBibs() {
+        int[] dirty = dirtyBibs.toArray();
+        dirtyBibs.clear();
+        return dirty;
+    }
+
+    /**
+     * @return the holdings whose bibs have changed since the last call, which is now forgotten
+     */
+    public int[] takeDirtyHoldings() {
+        int[] dirty = dirtyHoldings.toArray();
+        dirtyHoldings.clear();
+        return dirty;
+    }
+
+    /**
+     * @return the record ids of a bib by its id, or an empty array
+     */
+    public long[] getRecordIds4Bib(int bib) {
+        long[] recordIds = recordIdsByBib.get(bib);
+        return recordIds == null ? new long[0] : recordIds;
+    }
+
+    /**
+     * @return the 001s of the bibs of a holding by its id
+     */
+    public List<String> getBibs4Holding(int holding) {
+        return get001s(bibsByHolding, holding);
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    protected List<String> get001s(TIntObjectHashMap<int[]> map, int id) {
+        List<String> results = new ArrayList<String>();
+        if (id != -1) {
+            int[] linked = map.get(id);
+            if (linked != null) {
+                for (int l : linked) {
+                    results.add(get001(l));
+                }
+            }
+        }
+        return results;
+    }
+
+    // The arrays below almost always hold a single value, so they're copied on every change
+    // rather than kept with spare room.
+
+    protected static boolean contains(long[] a, long v) {
+        if (a != null) {
+            for (long x : a) {
+                if (x == v) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected static boolean contains(int[] a, int v) {
+        if (a != null) {
+            for (int x : a) {
+                if (x == v) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected static long[] add(long[] a, long v) {
+        if (a == null) {
+            return new long[] {v};
+        }
+        long[] b = new long[a.length + 1];
+        System.arraycopy(a, 0, b, 0, a.length);
+        b[a.length] = v;
+        return b;
+    }
+
+    protected static int[] add(int[] a, int v) {
+        if (a == null) {
+            return new int[] {v};
+        }
+        int[] b = new int[a.length + 1];
+        System.arraycopy(a, 0, b, 0, a.length);
+        b[a.length] = v;
+        return b;
+    }
+
+    /**
+     * @return a without v, or null if that leaves it empty
+     */
+    protected static long[] remove(long[] a, long v) {
+        if (a == null) {
+            return null;
+        }
+        int n = 0;
+        long[] b = new long[a.length];
+        for (long x : a) {
+            if (x != v) {
+                b[n++] = x;
+            }
+        }
+        if (n == 0) {
+            return null;
+        }
+        if (n == a.length) {
+            return a;
+        }
+        long[] c = new long[n];
+        System.arraycopy(b, 0, c, 0, n);
+        return c;
+    }
+
+    /**
+     * @return a without v, or null if that leaves it empty
+     */
+    protected static int[] remove(int[] a, int v) {
+        if (a == null) {
+            return null;
+        }
+        int n = 0;
+        int[] b = new int[a.length];
+        for (int x : a) {
+            if (x != v) {
+                b[n++] = x;
+            }
+        }
+        if (n == 0) {
+            return null;
+        }
+        if (n == a.length) {
+            return a;
+        }
+        int[] c = new int[n];
+        System.arraycopy(b, 0, c, 0, n);
+        return c;
+    }
+}
@@ -8,14 +8,21 @@
  */
 package xc.mst.services.transformation.dao;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import xc.mst.bo.record.Marc001_003Holder;
 import xc.mst.services.impl.dao.GenericMetadataServiceDAO;
+import xc.mst.utils.TimingLogger;
 
 /**
  *
@@ -35,8 +42,149 @@ public class TransformationDAO extends GenericMetadataServiceDAO {
     protected final static String bibRefs_table = "bibs_to_holdings";
     protected final static String held_holdings_table = "held_holdings";
 
+    // how many rows to write back in each insert statement
+    protected final static int ROWS_PER_INSERT = 500;
+
+    /**
+     * When not null, the bibsProcessed* and bibs_to_holdings tables are read from and written to
+     * this instead, and the changes written back by flushBibMaps(). Guarded by this.
+     */
+    protected BibMapsCache bibMaps = null;
+    protected long bibMapsBudget = 0;
+
+    /**
+     * Loads the bibsProcessed* and bibs_to_holdings tables into memory, if they fit in budgetBytes.
+     * If they don't, or budgetBytes is 0, the tables are used directly as before.
+     */
+    public synchronized void loadBibMaps(long budgetBytes) {
+        bibMaps = null;
+        bibMapsBudget = budgetBytes;
+        if (budgetBytes <= 0) {
+            return;
+        }
+        long rows = 0;
+        for (String table : new String[] {bibsProcessedLongId_table, bibsProcessedStringId_table, bibRefs_table}) {
+            rows += this.jdbcTemplate.queryForLong("select count(*) from " + table);
+        }
+        long guess = rows * (BibMapsCache.BYTES_PER_KEY + BibMapsCache.BYTES_PER_LINK);
+        if (guess > budgetBytes) {
+            LOG.info("not caching the bib maps: " + rows + " rows would take about " + guess / 1048576 + "MB");
+            return;
+        }
+
+        TimingLogger.start("TransformationDAO.loadBibMaps");
+        final BibMapsCache cache = new BibMapsCache();
+        for (String table : new String[] {bibsProcessedLongId_table, bibsProcessedStringId_table}) {
+            streamRows("select org_code, bib_001, record_id from " + table, new RowCallbackHandler() {
+                public void processRow(ResultSet rs) throws SQLException {
+                    cache.loadRecordId4Bib(rs.getString(1), rs.getString(2), rs.getLong(3));
+                }
+            });
+        }
+        streamRows("select org_code, holding_001, bib_001 from " + bibRefs_table, new RowCallbackHandler() {
+            public void processRow(ResultSet rs) throws SQLException {
+                cache.loadBib4Holding(rs.getString(1), rs.getString(2), rs.getString(3));
+            }
+        });
+        TimingLogger.stop("TransformationDAO.loadBibMaps");
+        LOG.info("cached the bib maps: " + rows + " rows in about " + cache.getEstimatedBytes() / 1048576 + "MB");
+        bibMaps = cache;
+    }
+
+    /**
+     * Writes the changes made to the cached bib maps since the last flush back to the database.
+     * If the cache has outgrown its budget it's then dropped, and the tables are used directly
+     * from then on.
+     */
+    public synchronized void flushBibMaps() {
+        if (bibMaps == null) {
+            return;
+        }
+        TimingLogger.start("TransformationDAO.flushBibMaps");
+
+        List<Object[]> longKeys = new ArrayList<Object[]>();
+        List<Object[]> stringKeys = new ArrayList<Object[]>();
+        List<Object[]> longRows = new ArrayList<Object[]>();
+        List<Object[]> stringRows = new ArrayList<Object[]>();
+        for (int bib : bibMaps.takeDirtyBibs()) {
+            String orgCode = bibMaps.getOrgCode(bib);
+            String bib001 = bibMaps.get001(bib);
+            boolean isLong = BibMapsCache.isLongId(bib001);
+            Object value = isLong ? (Object) Long.valueOf(bib001) : bib001;
+            (isLong ? longKeys : stringKeys).add(new Object[] {orgCode, value});
+            for (long recordId : bibMaps.getRecordIds4Bib(bib)) {
+                (isLong ? longRows : stringRows).add(new Object[] {orgCode, value, recordId});
+            }
+        }
+        rewriteRows(bibsProcessedLongId_table, "bib_001", longKeys, "(org_code, bib_001, record_id)", longRows);
+        rewriteRows(bibsProcessedStringId_table, "bib_001", stringKeys, "(org_code, bib_001, record_id)", stringRows);
+
+        List<Object[]> holdingKeys = new ArrayList<Object[]>();
+        List<Object[]> refRows = new ArrayList<Object[]>();
+        for (int holding : bibMaps.takeDirtyHoldings()) {
+            String orgCode = bibMaps.getOrgCode(holding);
+            String holding001 = bibMaps.get001(holding);
+            holdingKeys.add(new Object[] {orgCode, holding001});
+            for (String bib001 : bibMaps.getBibs4Holding(holding)) {
+                refRows.add(new Object[] {orgCode, holding001, bib001});
+            }
+        }
+        rewriteRows(bibRefs_table, "holding_001", holdingKeys, "(org_code, holding_001, bib_001)", refRows);
+
+        TimingLogger.stop("TransformationDAO.flushBibMaps");
+
+        if (bibMaps.getEstimatedBytes() > bibMapsBudget) {
+            LOG.warn("the bib maps have outgrown their cache (about " + bibMaps.getEstimatedBytes() / 1048576 +
+                    "MB), they'll be read from the database from now on");
+            bibMaps = null;
+        }
+    }
+
+    /**
+     * Deletes the rows of each (org_code, keyColumn) in keys and inserts rows in their place.
+     */
+    protected void rewriteRows(String table, String keyColumn, List<Object[]> keys, String columns, List<Object[]> rows) {
+        if (keys.size() > 0) {
+            this.simpleJdbcTemplate.batchUpdate(
+                    "delete from " + table + " where org_code=? and " + keyColumn + "=?", keys);
+        }
+        for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT) {
+            int to = Math.min(rows.size(), from + ROWS_PER_INSERT);
+            StringBuilder sql = new StringBuilder("replace into " + table + columns + " values ");
+            List<Object> args = new ArrayList<Object>();
+            for (int i = from; i < to; i++) {
+                sql.append(i == from ? "(?, ?, ?)" : ", (?, ?, ?)");
+                for (Object o : rows.get(i)) {
+                    args.add(o);
+                }
+            }
+            this.jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * Reads the rows one at a time, so a whole table never sits in memory as a result set.
+     * Connector/J only streams them for a forward-only, read-only statement with a fetch size of
+     * Integer.MIN_VALUE.
+     */
+    protected void streamRows(final String sql, RowCallbackHandler handler) {
+        this.jdbcTemplate.query(new PreparedStatementCreator() {
+            public PreparedStatement createPreparedStatement(Connection conn) throws SQLException {
+                PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }
+        }, handler);
+    }
+
     
     public void removeRecordId4BibProcessed(Long l) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                bibMaps.removeRecordId4Bibs(l);
+                return;
+            }
+        }
         String sql =
                 "delete from " + bibsProcessedLongId_table +
                         " where record_id=?";
@@ -81,6 +229,11 @@ public class TransformationDAO extends GenericMetadataServiceDAO {
     }
     
     public List<String> getBibsForHoldings(Marc001_003Holder holding) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                return bibMaps.getBibs4Holding(holding.get003(), holding.get001());
+            }
+        }
     	List<String> results = new ArrayList<String>();
     	
         List<Map<String, Object>> rowList = this.jdbcTemplate.queryForList(
@@ -97,6 +250,11 @@ public class TransformationDAO extends GenericMetadataServiceDAO {
     }
     
     public List<String> getHoldingsForBib(Marc001_003Holder bib) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                return bibMaps.getHoldings4Bib(bib.get003(), bib.get001());
+            }
+        }
     	List<String> results = new ArrayList<String>();
     	
         List<Map<String, Object>> rowList = this.jdbcTemplate.queryForList(
@@ -113,24 +271,47 @@ public class TransformationDAO extends GenericMetadataServiceDAO {
     }
     
     public void addBibforHolding(String org_code, String holding_id, String bib_id) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                bibMaps.addBib4Holding(org_code, holding_id, bib_id);
+                return;
+            }
+        }
         this.jdbcTemplate.update("replace into " + bibRefs_table +
                 "(org_code, holding_001, bib_001) values (?, ?, ?)",
                 org_code, holding_id, bib_id);
     }
     
     public void removeBibsForHoldings(String org_code, String holding_id) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                bibMaps.removeBibs4Holding(org_code, holding_id);
+                return;
+            }
+        }
         this.jdbcTemplate.update("delete from " + bibRefs_table +
                 " where org_code=? and holding_001=?",
                 org_code, holding_id);
     }
 
     public void removeBibForHolding(String org_code, String holding_id, String bib_id) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                bibMaps.removeBib4Holding(org_code, holding_id, bib_id);
+                return;
+            }
+        }
         this.jdbcTemplate.update("delete from " + bibRefs_table +
                 " where org_code=? and holding_001=? and bib_001=?",
                 org_code, holding_id, bib_id);
     }
 
     public List<Long> getRecordId4BibProcessed(Marc001_003Holder bib) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                return bibMaps.getRecordIds4Bib(bib.get003(), bib.get001());
+            }
+        }
     	List<Long> results = new ArrayList<Long>();
     	
     	try {
@@ -166,6 +347,12 @@ public class TransformationDAO extends GenericMetadataServiceDAO {
     }
     
     public void addRecordId4BibProcessed(Marc001_003Holder bib, long record_id) {
+        synchronized (this) {
+            if (bibMaps != null) {
+                bibMaps.addRecordId4Bib(bib.get003(), bib.get001(), record_id);
+                return;
+            }
+        }
     	try {
     		long longVal = Integer.parseInt(bib.get001());
             
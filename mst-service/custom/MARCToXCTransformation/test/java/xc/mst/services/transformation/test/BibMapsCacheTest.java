@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2011 eXtensible Catalog Organization
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the MIT/X11 license. The text of the
+ * license can be found at http://www.opensource.org/licenses/mit-license.php and copy of the license can be found on the project
+ * website http://www.extensiblecatalog.org/.
+ *
+ */
+package xc.mst.services.transformation.test;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import xc.mst.services.transformation.dao.BibMapsCache;
+
+/**
+ * No database needed.
+ */
+public class BibMapsCacheTest {
+
+    @Test
+    public void testRecordIds() {
+        BibMapsCache cache = new BibMapsCache();
+        cache.loadRecordId4Bib("NRU", "123", 1L);
+        assert cache.takeDirtyBibs().length == 0;
+
+        // the same bib as far as bibsProcessedLongId is concerned
+        assert cache.getRecordIds4Bib("NRU", "00123").equals(Arrays.asList(1L));
+        assert cache.getRecordIds4Bib("XYZ", "123").isEmpty();
+
+        // a merged bib: one manifestation for several 001s
+        cache.addRecordId4Bib("NRU", "ocm456", 2L);
+        cache.addRecordId4Bib("NRU", "789", 2L);
+        cache.addRecordId4Bib("NRU", "123", 3L);
+        assert cache.getRecordIds4Bib("NRU", "123").equals(Arrays.asList(1L, 3L));
+        int[] dirty = cache.takeDirtyBibs();
+        assert dirty.length == 3;
+        assert cache.takeDirtyBibs().length == 0;
+
+        cache.removeRecordId4Bibs(2L);
+        assert cache.getRecordIds4Bib("NRU", "ocm456").isEmpty();
+        assert cache.getRecordIds4Bib("NRU", "789").isEmpty();
+        dirty = cache.takeDirtyBibs();
+        assert dirty.length == 2;
+        for (int bib : dirty) {
+            assert cache.getRecordIds4Bib(bib).length == 0;
+            assert "NRU".equals(cache.getOrgCode(bib));
+        }
+    }
+
+    @Test
+    public void testBibsForHoldings() {
+        BibMapsCache cache = new BibMapsCache();
+        cache.loadBib4Holding("NRU", "h1", "b1");
+        cache.addBib4Holding("NRU", "h1", "b2");
+        cache.addBib4Holding("NRU", "h2", "b2");
+        assert cache.getBibs4Holding("NRU", "h1").equals(Arrays.asList("b1", "b2"));
+        assert cache.getHoldings4Bib("NRU", "b2").equals(Arrays.asList("h1", "h2"));
+        assert cache.takeDirtyHoldings().length == 2;
+
+        long bytes = cache.getEstimatedBytes();
+        cache.removeBib4Holding("NRU", "h1", "b1");
+        assert cache.getBibs4Holding("NRU", "h1").equals(Arrays.asList("b2"));
+        assert cache.getHoldings4Bib("NRU", "b1").isEmpty();
+        assert cache.getEstimatedBytes() < bytes;
+
+        cache.removeBibs4Holding("NRU", "h1");
+        assert cache.getBibs4Holding("NRU", "h1").isEmpty();
+        assert cache.getHoldings4Bib("NRU", "b2").equals(Arrays.asList("h2"));
+        int[] dirty = cache.takeDirtyHoldings();
+        assert dirty.length == 1;
+        assert "h1".equals(cache.get001(dirty[0]));
+        assert cache.getBibs4Holding(dirty[0]).isEmpty();
+    }
+}